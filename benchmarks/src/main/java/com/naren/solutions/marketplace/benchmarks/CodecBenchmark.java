@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Order;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class compares a round trip of an order through {@code EntityCodec},
+ * into a reused buffer and a reused order, with a round trip through Java
+ * serialization.
+ *
+ * @author Naren Chivukula
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class CodecBenchmark {
+
+    private final Order order = new Order("James", "Rob", "PlayStation", 3, new BigDecimal("400.50"));
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+
+    private final Order decoded = new Order();
+
+    @Benchmark
+    public Order codecRoundTrip() {
+        ((Buffer) buffer).clear();
+        EntityCodec.ORDER.encode(order, buffer);
+        ((Buffer) buffer).flip();
+        EntityCodec.ORDER.decode(buffer, decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    public Object serializationRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(order);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.Market;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.process.ShardedMarket;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * This class drives a market with bids and offers at a fixed target rate from
+ * several producer threads and reports the latency percentiles of the calls.
+ * The load is open-loop: every call has an intended start time on a fixed
+ * schedule, and its latency is measured from that time rather than from when
+ * it was actually sent, so a stalled call is charged for the calls queued
+ * behind it instead of hiding them (coordinated omission). The service time,
+ * from the actual send, is recorded alongside for comparison.
+ * <p>
+ * The items are drawn from a Zipf distribution and the side from the buy
+ * ratio; prices are drawn around a mid price so that part of the flow
+ * matches. It is configured through system properties:
+ * <ul>
+ * <li>{@code loadgen.rate} - calls per second across all producers (20000)</li>
+ * <li>{@code loadgen.producers} - producer threads (4)</li>
+ * <li>{@code loadgen.warmupSeconds} - seconds run before recording (5)</li>
+ * <li>{@code loadgen.durationSeconds} - seconds recorded (30)</li>
+ * <li>{@code loadgen.items} - number of items (1000)</li>
+ * <li>{@code loadgen.zipfExponent} - skew of the item popularity (1.0)</li>
+ * <li>{@code loadgen.buyRatio} - share of the calls which are bids (0.5)</li>
+ * <li>{@code loadgen.participants} - buyers and sellers of each side (1000)</li>
+ * <li>{@code loadgen.store} - store, as named by {@code marketplace.store}
+ * ({@code concurrent})</li>
+ * <li>{@code loadgen.shards} - shards of a {@code ShardedMarket}, or 0 for a
+ * single {@code OnlineMarket} the producers take turns on (0)</li>
+ * <li>{@code loadgen.output} - directory of the report files
+ * ({@code target/loadgen})</li>
+ * </ul>
+ * The percentile report is written to {@code latency-report.txt} and the raw
+ * histograms, in the HdrHistogram log format, to {@code latency.hlog}.
+ *
+ * @author Naren Chivukula
+ */
+public final class LoadGenerator {
+
+    private static final BigDecimal MID_PRICE = new BigDecimal("1000");
+
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final double MICROS = 1000.0;
+
+    private final long rate = Long.getLong("loadgen.rate", 20_000L);
+
+    private final int producers = Integer.getInteger("loadgen.producers", 4);
+
+    private final long warmupNanos = TimeUnit.SECONDS.toNanos(Long.getLong("loadgen.warmupSeconds", 5L));
+
+    private final long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("loadgen.durationSeconds", 30L));
+
+    private final int itemCount = Integer.getInteger("loadgen.items", 1000);
+
+    private final double zipfExponent = Double.parseDouble(System.getProperty("loadgen.zipfExponent", "1.0"));
+
+    private final double buyRatio = Double.parseDouble(System.getProperty("loadgen.buyRatio", "0.5"));
+
+    private final int participantCount = Integer.getInteger("loadgen.participants", 1000);
+
+    private final String store = System.getProperty("loadgen.store", "concurrent");
+
+    private final int shards = Integer.getInteger("loadgen.shards", 0);
+
+    private final Path output = Paths.get(System.getProperty("loadgen.output", "target/loadgen"));
+
+    private LoadGenerator() {
+        if (rate <= 0 || producers <= 0 || durationNanos <= 0) {
+            throw new IllegalArgumentException("Invalid load : " + rate + "/s from " + producers
+                    + " producer(s) for " + durationNanos + " ns");
+        }
+    }
+
+    /**
+     * Runs the load and writes the report.
+     *
+     * @param args not used; the load is configured through system properties
+     * @throws IOException if the report cannot be written
+     * @throws InterruptedException if interrupted while waiting for the
+     * producers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", "logback-benchmark.xml");
+        }
+        new LoadGenerator().run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        MarketPlaceStore marketStore = MarketFixture.store(store);
+        MarketFixture.clear(marketStore);
+        ShardedMarket shardedMarket = shards > 0 ? new ShardedMarket(marketStore, shards) : null;
+        Market market = shardedMarket != null ? shardedMarket : new OnlineMarket(marketStore);
+        Object lock = shardedMarket != null ? null : market;
+
+        String[] items = MarketFixture.ids("Item", itemCount);
+        ZipfDistribution popularity = new ZipfDistribution(itemCount, zipfExponent);
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureNanos = startNanos + warmupNanos;
+        long endNanos = measureNanos + durationNanos;
+        double intervalNanos = 1e9 * producers / rate;
+
+        List<Producer> running = new ArrayList<>();
+        for (int index = 0; index < producers; index++) {
+            Producer producer = new Producer(market, lock, items, popularity,
+                    startNanos + (long) (intervalNanos * index / producers), intervalNanos, measureNanos, endNanos);
+            Thread thread = new Thread(producer, "load-producer-" + index);
+            producer.thread = thread;
+            running.add(producer);
+            thread.start();
+        }
+        long startMillis = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(measureNanos - System.nanoTime());
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        histograms.put("addBid", new Histogram(3));
+        histograms.put("addOffer", new Histogram(3));
+        histograms.put("all", new Histogram(3));
+        histograms.put("service", new Histogram(3));
+        long errors = 0;
+        for (Producer producer : running) {
+            producer.thread.join();
+            histograms.get("addBid").add(producer.bidLatency);
+            histograms.get("addOffer").add(producer.offerLatency);
+            histograms.get("all").add(producer.bidLatency);
+            histograms.get("all").add(producer.offerLatency);
+            histograms.get("service").add(producer.serviceTime);
+            errors += producer.errors;
+        }
+        if (shardedMarket != null) {
+            shardedMarket.close();
+        }
+        MarketFixture.clear(marketStore);
+
+        Files.createDirectories(output);
+        writeReport(histograms, errors);
+        writeHistograms(histograms, startMillis);
+    }
+
+    private void writeReport(Map<String, Histogram> histograms, long errors) throws IOException {
+        Path file = output.resolve("latency-report.txt");
+        try (PrintStream report = new PrintStream(new FileOutputStream(file.toFile()), true, "UTF-8")) {
+            long recorded = histograms.get("all").getTotalCount();
+            String summary = String.format("Open-loop load of %d calls/s from %d producer(s), %s store, %s%n"
+                    + "%d items (Zipf %.2f), buy ratio %.2f, %d participants per side%n"
+                    + "%d calls recorded over %d s (%.0f calls/s), %d error(s)%n%n",
+                    rate, producers, store, shards > 0 ? shards + " shard(s)" : "single market", itemCount,
+                    zipfExponent, buyRatio, participantCount, recorded, TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                    recorded * 1e9 / durationNanos, errors);
+            StringBuilder table = new StringBuilder(String.format("%-10s %10s %10s %10s %10s %10s %10s %10s%n",
+                    "latency", "count", "p50", "p90", "p99", "p99.9", "p99.99", "max"));
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                table.append(String.format("%-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(),
+                        histogram.getTotalCount(), percentile(histogram, 50), percentile(histogram, 90),
+                        percentile(histogram, 99), percentile(histogram, 99.9), percentile(histogram, 99.99),
+                        histogram.getMaxValue() / MICROS));
+            }
+            table.append("(microseconds; service is measured from the actual send, the others from the schedule)")
+                    .append(System.lineSeparator());
+            report.print(summary);
+            report.print(table);
+            System.out.print(summary);
+            System.out.print(table);
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                report.printf("%nPercentile distribution of %s (microseconds)%n", entry.getKey());
+                entry.getValue().outputPercentileDistribution(report, MICROS);
+            }
+        }
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private void writeHistograms(Map<String, Histogram> histograms, long startMillis) throws IOException {
+        Path file = output.resolve("latency.hlog");
+        try (PrintStream log = new PrintStream(new FileOutputStream(file.toFile()), true, "UTF-8")) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputComment("Open-loop load of " + rate + " calls/s, latencies in nanoseconds");
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startMillis);
+            writer.setBaseTime(startMillis);
+            writer.outputLegend();
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                histogram.setTag(entry.getKey());
+                histogram.setStartTimeStamp(startMillis);
+                histogram.setEndTimeStamp(startMillis + TimeUnit.NANOSECONDS.toMillis(durationNanos));
+                writer.outputIntervalHistogram(histogram);
+            }
+        }
+        System.out.println("Histograms written to " + file.toAbsolutePath());
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS;
+    }
+
+    /*
+     * Waits until the given time, parking until shortly before it and
+     * spinning for the rest, so calls start on schedule.
+     */
+    private static void waitUntil(long nanos) {
+        long remaining;
+        while ((remaining = nanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            }
+        }
+    }
+
+    /*
+     * Sends the calls of one producer on its schedule, one every interval,
+     * and records their latencies once the warm-up is over. A producer which
+     * falls behind sends the late calls straight away, without skipping any.
+     */
+    private final class Producer implements Runnable {
+
+        private final Market market;
+
+        private final Object lock;
+
+        private final String[] items;
+
+        private final ZipfDistribution popularity;
+
+        private final long firstNanos;
+
+        private final double intervalNanos;
+
+        private final long measureNanos;
+
+        private final long endNanos;
+
+        private final Histogram bidLatency = new Histogram(3);
+
+        private final Histogram offerLatency = new Histogram(3);
+
+        private final Histogram serviceTime = new Histogram(3);
+
+        private long errors;
+
+        private Thread thread;
+
+        private Producer(Market market, Object lock, String[] items, ZipfDistribution popularity, long firstNanos,
+                double intervalNanos, long measureNanos, long endNanos) {
+            this.market = market;
+            this.lock = lock;
+            this.items = items;
+            this.popularity = popularity;
+            this.firstNanos = firstNanos;
+            this.intervalNanos = intervalNanos;
+            this.measureNanos = measureNanos;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void run() {
+            Random random = ThreadLocalRandom.current();
+            for (long call = 0;; call++) {
+                long intendedNanos = firstNanos + (long) (intervalNanos * call);
+                if (intendedNanos >= endNanos) {
+                    return;
+                }
+                waitUntil(intendedNanos);
+                boolean buy = random.nextDouble() < buyRatio;
+                String item = items[popularity.sample(random)];
+                int participant = random.nextInt(participantCount);
+                int quantity = 1 + random.nextInt(10);
+                long sentNanos = System.nanoTime();
+                try {
+                    if (buy) {
+                        submit(new Bid(item, "Buyer" + participant, quantity,
+                                MID_PRICE.add(BigDecimal.valueOf(random.nextInt(5) - 3))));
+                    } else {
+                        submit(new Offer(item, "Seller" + participant, quantity,
+                                MID_PRICE.add(BigDecimal.valueOf(random.nextInt(5) - 1))));
+                    }
+                } catch (RuntimeException ex) {
+                    errors++;
+                }
+                long doneNanos = System.nanoTime();
+                if (intendedNanos >= measureNanos) {
+                    (buy ? bidLatency : offerLatency).recordValue(doneNanos - intendedNanos);
+                    serviceTime.recordValue(doneNanos - sentNanos);
+                }
+            }
+        }
+
+        private void submit(Bid bid) {
+            if (lock == null) {
+                market.addBid(bid);
+                return;
+            }
+            synchronized (lock) {
+                market.addBid(bid);
+            }
+        }
+
+        private void submit(Offer offer) {
+            if (lock == null) {
+                market.addOffer(offer);
+                return;
+            }
+            synchronized (lock) {
+                market.addOffer(offer);
+            }
+        }
+
+    }
+
+}
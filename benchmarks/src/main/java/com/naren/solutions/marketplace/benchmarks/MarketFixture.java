@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import com.naren.solutions.marketplace.cache.ConcurrentMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.OffHeapMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.TieredMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class builds the books the benchmarks run against. Each item has the
+ * given number of price levels on each side, bids below and offers above a
+ * mid price of 1000, with {@link #ENTRIES_PER_LEVEL} entries of
+ * {@link #ENTRY_QUANTITY} at every level, spread round robin over the
+ * participants. The books are added to the store in bulk and then loaded by
+ * a new market, so building them does not depend on matching.
+ *
+ * @author Naren Chivukula
+ */
+final class MarketFixture {
+
+    /**
+     * The number of bids or offers resting at each price level.
+     */
+    static final int ENTRIES_PER_LEVEL = 4;
+
+    /**
+     * The quantity of every resting bid and offer.
+     */
+    static final int ENTRY_QUANTITY = 10;
+
+    private static final BigDecimal MID_PRICE = new BigDecimal("1000");
+
+    private MarketFixture() {
+    }
+
+    /*
+     * Returns the store of the given name, as named by the marketplace.store
+     * property.
+     */
+    static MarketPlaceStore store(String name) {
+        switch (name) {
+            case "copy-on-write":
+                return MarketPlaceStoreCache.createInstance();
+            case "concurrent":
+                return ConcurrentMarketPlaceStoreCache.createInstance();
+            case "off-heap":
+                return OffHeapMarketPlaceStoreCache.createInstance();
+            case "tiered":
+                return TieredMarketPlaceStoreCache.createInstance();
+            default:
+                throw new IllegalArgumentException("Unknown marketplace store : " + name);
+        }
+    }
+
+    static String[] ids(String prefix, int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = prefix + i;
+        }
+        return ids;
+    }
+
+    /*
+     * The price of the offer level at the given depth, 0 being the best.
+     */
+    static BigDecimal offerPrice(int depth) {
+        return MID_PRICE.add(BigDecimal.valueOf(1 + depth));
+    }
+
+    /*
+     * The price of the bid level at the given depth, 0 being the best.
+     */
+    static BigDecimal bidPrice(int depth) {
+        return MID_PRICE.subtract(BigDecimal.valueOf(1 + depth));
+    }
+
+    /*
+     * Empties the store, adds the books of the items to it and returns a
+     * market which has loaded them.
+     */
+    static OnlineMarket market(MarketPlaceStore store, String[] items, int depth, String[] buyers,
+            String[] sellers) {
+        clear(store);
+        List<Bid> bids = new ArrayList<>();
+        List<Offer> offers = new ArrayList<>();
+        int next = 0;
+        for (String item : items) {
+            for (int level = 0; level < depth; level++) {
+                for (int entry = 0; entry < ENTRIES_PER_LEVEL; entry++, next++) {
+                    bids.add(new Bid(item, buyers[next % buyers.length], ENTRY_QUANTITY, bidPrice(level)));
+                    offers.add(new Offer(item, sellers[next % sellers.length], ENTRY_QUANTITY, offerPrice(level)));
+                }
+            }
+        }
+        store.bids().addAll(bids);
+        store.offers().addAll(offers);
+        OnlineMarket market = new OnlineMarket(store);
+        market.getCurrentBidPricePerUnit(items[0]);
+        return market;
+    }
+
+    /*
+     * Adds the given number of orders of each item to the store, between the
+     * participants in turn.
+     */
+    static void addOrders(MarketPlaceStore store, String[] items, int ordersPerItem, String[] buyers,
+            String[] sellers) {
+        List<Order> orders = new ArrayList<>();
+        int next = 0;
+        for (String item : items) {
+            for (int i = 0; i < ordersPerItem; i++, next++) {
+                orders.add(new Order(buyers[next % buyers.length], sellers[next % sellers.length], item,
+                        ENTRY_QUANTITY, offerPrice(0)));
+            }
+        }
+        store.orders().addAll(orders);
+    }
+
+    static void clear(MarketPlaceStore store) {
+        store.bids().clear();
+        store.offers().clear();
+        store.orders().clear();
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import static com.naren.solutions.marketplace.benchmarks.MarketFixture.ENTRIES_PER_LEVEL;
+import static com.naren.solutions.marketplace.benchmarks.MarketFixture.ENTRY_QUANTITY;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks {@code addBid} and {@code addOffer} of
+ * {@code OnlineMarket} when they rest without matching, when they fill a
+ * single entry and when they sweep every level of the opposite side. The
+ * items and participants are taken in turn, and the books are rebuilt before
+ * every iteration.
+ * <p>
+ * The fill and sweep benchmarks restore the entries they filled in the same
+ * operation, so that the book stays at its depth; their score includes the
+ * no-match submission of the replacements. The orders they create are removed
+ * from the store after every invocation, outside of the timing, so that the
+ * order history does not grow over an iteration. Resting entries cannot be
+ * kept at a steady state, so the no-match benchmarks time a batch of
+ * {@link #NO_MATCH_BATCH} submissions from a freshly built book, and their
+ * score is per batch.
+ *
+ * @author Naren Chivukula
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class MatchingBenchmark {
+
+    /**
+     * The number of submissions timed together by the no-match benchmarks.
+     */
+    public static final int NO_MATCH_BATCH = 1000;
+
+    @Param({"copy-on-write", "concurrent", "off-heap", "tiered"})
+    public String store;
+
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    @Param({"1", "100"})
+    public int itemCount;
+
+    @Param({"10", "1000"})
+    public int participantCount;
+
+    private MarketPlaceStore marketStore;
+
+    private OnlineMarket market;
+
+    private String[] items;
+
+    private String[] buyers;
+
+    private String[] sellers;
+
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        marketStore = MarketFixture.store(store);
+        items = MarketFixture.ids("Item", itemCount);
+        buyers = MarketFixture.ids("Buyer", participantCount);
+        sellers = MarketFixture.ids("Seller", participantCount);
+        market = MarketFixture.market(marketStore, items, depth, buyers, sellers);
+    }
+
+    @TearDown(Level.Iteration)
+    public void teardown() {
+        MarketFixture.clear(marketStore);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10, batchSize = NO_MATCH_BATCH)
+    @Measurement(iterations = 20, batchSize = NO_MATCH_BATCH)
+    public void addBidNoMatch() {
+        next++;
+        market.addBid(new Bid(item(), buyer(), ENTRY_QUANTITY, MarketFixture.bidPrice(next % depth)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10, batchSize = NO_MATCH_BATCH)
+    @Measurement(iterations = 20, batchSize = NO_MATCH_BATCH)
+    public void addOfferNoMatch() {
+        next++;
+        market.addOffer(new Offer(item(), seller(), ENTRY_QUANTITY, MarketFixture.offerPrice(next % depth)));
+    }
+
+    @Benchmark
+    public void addBidSingleFill(FilledOrders filledOrders) {
+        next++;
+        String item = item();
+        market.addBid(new Bid(item, buyer(), ENTRY_QUANTITY, MarketFixture.offerPrice(0)));
+        market.addOffer(new Offer(item, seller(), ENTRY_QUANTITY, MarketFixture.offerPrice(0)));
+    }
+
+    @Benchmark
+    public void addOfferSingleFill(FilledOrders filledOrders) {
+        next++;
+        String item = item();
+        market.addOffer(new Offer(item, seller(), ENTRY_QUANTITY, MarketFixture.bidPrice(0)));
+        market.addBid(new Bid(item, buyer(), ENTRY_QUANTITY, MarketFixture.bidPrice(0)));
+    }
+
+    @Benchmark
+    public void addBidSweep(FilledOrders filledOrders) {
+        next++;
+        String item = item();
+        market.addBid(new Bid(item, buyer(), depth * ENTRIES_PER_LEVEL * ENTRY_QUANTITY,
+                MarketFixture.offerPrice(depth - 1)));
+        List<Offer> offers = new ArrayList<>(depth * ENTRIES_PER_LEVEL);
+        for (int level = 0; level < depth; level++) {
+            for (int entry = 0; entry < ENTRIES_PER_LEVEL; entry++) {
+                offers.add(new Offer(item, seller(), ENTRY_QUANTITY, MarketFixture.offerPrice(level)));
+            }
+        }
+        market.addOffers(offers);
+    }
+
+    @Benchmark
+    public void addOfferSweep(FilledOrders filledOrders) {
+        next++;
+        String item = item();
+        market.addOffer(new Offer(item, seller(), depth * ENTRIES_PER_LEVEL * ENTRY_QUANTITY,
+                MarketFixture.bidPrice(depth - 1)));
+        List<Bid> bids = new ArrayList<>(depth * ENTRIES_PER_LEVEL);
+        for (int level = 0; level < depth; level++) {
+            for (int entry = 0; entry < ENTRIES_PER_LEVEL; entry++) {
+                bids.add(new Bid(item, buyer(), ENTRY_QUANTITY, MarketFixture.bidPrice(level)));
+            }
+        }
+        market.addBids(bids);
+    }
+
+    /**
+     * This class removes the orders created by a fill or sweep benchmark from
+     * the store after every invocation. Otherwise the orders of a whole
+     * iteration build up in the store, and the copy-on-write store copies an
+     * ever longer list on every fill, so there is no steady state to measure.
+     */
+    @State(Scope.Thread)
+    public static class FilledOrders {
+
+        private MarketPlaceStore marketStore;
+
+        @Setup(Level.Iteration)
+        public void setup(MatchingBenchmark benchmark) {
+            marketStore = benchmark.marketStore;
+        }
+
+        @TearDown(Level.Invocation)
+        public void teardown() {
+            marketStore.orders().clear();
+        }
+
+    }
+
+    private String item() {
+        return items[next % items.length];
+    }
+
+    private String buyer() {
+        return buyers[next % buyers.length];
+    }
+
+    private String seller() {
+        return sellers[next % sellers.length];
+    }
+
+}
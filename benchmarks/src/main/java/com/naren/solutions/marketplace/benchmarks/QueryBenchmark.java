@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the price and listing queries of
+ * {@code OnlineMarket} over books built once per trial, with as many orders
+ * per item as there are entries on each side of its book. The items and
+ * participants queried are taken in turn.
+ *
+ * @author Naren Chivukula
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class QueryBenchmark {
+
+    @Param({"copy-on-write", "concurrent", "off-heap", "tiered"})
+    public String store;
+
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    @Param({"1", "100"})
+    public int itemCount;
+
+    @Param({"10", "1000"})
+    public int participantCount;
+
+    private MarketPlaceStore marketStore;
+
+    private OnlineMarket market;
+
+    private String[] items;
+
+    private String[] buyers;
+
+    private String[] sellers;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        marketStore = MarketFixture.store(store);
+        items = MarketFixture.ids("Item", itemCount);
+        buyers = MarketFixture.ids("Buyer", participantCount);
+        sellers = MarketFixture.ids("Seller", participantCount);
+        market = MarketFixture.market(marketStore, items, depth, buyers, sellers);
+        MarketFixture.addOrders(marketStore, items, depth * MarketFixture.ENTRIES_PER_LEVEL, buyers, sellers);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        MarketFixture.clear(marketStore);
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> getCurrentBidPricePerUnit() {
+        return market.getCurrentBidPricePerUnit(items[next++ % items.length]);
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> getCurrentOfferPricePerUnit() {
+        return market.getCurrentOfferPricePerUnit(items[next++ % items.length]);
+    }
+
+    @Benchmark
+    public List<Bid> listBids() {
+        return market.listBids(buyers[next++ % buyers.length]);
+    }
+
+    @Benchmark
+    public List<Offer> listOffers() {
+        return market.listOffers(sellers[next++ % sellers.length]);
+    }
+
+    @Benchmark
+    public List<Order> listOrdersByBuyerId() {
+        return market.listOrdersByBuyerId(buyers[next++ % buyers.length]);
+    }
+
+    @Benchmark
+    public List<Order> listOrdersBySellerId() {
+        return market.listOrdersBySellerId(sellers[next++ % sellers.length]);
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class draws ranks from a Zipf distribution, in which rank {@code k} is
+ * drawn with a probability proportional to {@code 1 / (k + 1)^s}, so a few
+ * low ranks take most of the draws. The cumulative probabilities are computed
+ * once, and each draw is a binary search over them.
+ *
+ * @author Naren Chivukula
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /*
+     * Creates the distribution of the given number of ranks; an exponent of 0
+     * draws every rank alike.
+     */
+    ZipfDistribution(int size, double exponent) {
+        if (size <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("Invalid Zipf distribution : " + size + ", " + exponent);
+        }
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /*
+     * Draws a rank, 0 being the most frequent.
+     */
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -(index + 1);
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+/**
+ * This interface declares the callbacks through which an {@link OrderBook}
+ * reports each change to one of its price levels and to its best prices. They
+ * are called on the thread matching the item, straight after the change, so
+ * they must be quick and must not hold on to the level, which is reused once
+ * it empties.
+ *
+ * @author Naren Chivukula
+ */
+public interface BookListener {
+
+    /**
+     * Called when an entity is added to, removed from or partly filled at a
+     * price level. A level which emptied is reported with a quantity of zero
+     * and no entities.
+     *
+     * @param book the book the level belongs to
+     * @param bidSide {@code true} if the level is on the bid side
+     * @param level the level which changed
+     */
+    void levelChanged(OrderBook book, boolean bidSide, PriceLevel<?> level);
+
+    /**
+     * Called when the best bid or best offer price of the book changed, after
+     * its {@link TopOfBook} was updated. By default this does nothing.
+     *
+     * @param book the book whose best prices changed
+     */
+    default void topChanged(OrderBook book) {
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class holds the price levels of one side of an {@link OrderBook}. The
+ * levels are keyed by their price in ticks and kept in a sorted primitive array
+ * with the best price at the end, so that reading or removing the best level,
+ * which is what matching does most, needs no shifting.
+ * <p>
+ * Levels which empty are kept and reused for the next new price, so a level
+ * must not be held on to once entities have been added or removed. Entities
+ * are added and removed by their handles in the {@link RestingEntries} of the
+ * side, which also give their prices.
+ *
+ * @param <E> the type of the entities resting on this side
+ * @author Naren Chivukula
+ */
+public class BookSide<E extends MarketplaceEntity> implements Iterable<PriceLevel<E>> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int MAX_SPARE_LEVELS = 64;
+
+    private final RestingEntries<E> entries;
+
+    private final boolean highestFirst;
+
+    private long[] prices = new long[INITIAL_CAPACITY];
+
+    private PriceLevel<E>[] levels = newLevels(INITIAL_CAPACITY);
+
+    private int size;
+
+    private final Deque<PriceLevel<E>> spareLevels = new ArrayDeque<>();
+
+    /**
+     * This is used to create an empty side of a book.
+     *
+     * @param entries the table of the entities resting on this side
+     * @param highestFirst {@code true} if the highest price is the best price,
+     * as for bids, {@code false} if the lowest price is, as for offers
+     */
+    public BookSide(RestingEntries<E> entries, boolean highestFirst) {
+        this.entries = entries;
+        this.highestFirst = highestFirst;
+    }
+
+    /**
+     * Returns the number of price levels on this side.
+     *
+     * @return the number of price levels
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if there are no price levels on this side.
+     *
+     * @return {@code true} if this side is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the level at the given depth, where depth 0 is the best price.
+     *
+     * @param depth the depth of the level
+     * @return the level at the given depth
+     * @throws IndexOutOfBoundsException if there is no level at the depth
+     */
+    public PriceLevel<E> level(int depth) {
+        if (depth < 0 || depth >= size) {
+            throw new IndexOutOfBoundsException("Depth " + depth + " of " + size);
+        }
+        return levels[size - 1 - depth];
+    }
+
+    /**
+     * Returns the best price level, or {@code null} if this side is empty.
+     *
+     * @return the best price level
+     */
+    public PriceLevel<E> best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    /**
+     * Returns the level for the given price, or {@code null} if nothing rests
+     * at that price.
+     *
+     * @param priceTicks the price in ticks
+     * @return the level for the price
+     */
+    public PriceLevel<E> get(long priceTicks) {
+        int index = indexOf(priceTicks);
+        return index >= 0 ? levels[index] : null;
+    }
+
+    /**
+     * Adds the entity with the given handle to the back of the level for its
+     * price, creating the level when it does not exist.
+     *
+     * @param handle the handle of the entity to add
+     * @return the level the entity was added to
+     */
+    public PriceLevel<E> add(int handle) {
+        long priceTicks = entries.getPriceTicks(handle);
+        int index = indexOf(priceTicks);
+        PriceLevel<E> level;
+        if (index >= 0) {
+            level = levels[index];
+        } else {
+            level = newLevel(priceTicks, entries.getPricePerUnit(handle));
+            insert(-(index + 1), priceTicks, level);
+        }
+        level.add(handle);
+        return level;
+    }
+
+    /**
+     * Removes the entity with the given handle from its level, dropping the
+     * level when it becomes empty.
+     *
+     * @param handle the handle of the entity to remove
+     * @return {@code true} if the entity was resting on this side
+     */
+    public boolean remove(int handle) {
+        int index = indexOf(entries.getPriceTicks(handle));
+        if (index < 0 || !levels[index].remove(handle)) {
+            return false;
+        }
+        if (levels[index].isEmpty()) {
+            delete(index);
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the best level of this side trades with an
+     * entity of the opposite side at the given price, i.e. the best bid is at
+     * or above the price of an offer, or the best offer is at or below the
+     * price of a bid.
+     *
+     * @param priceTicks the price of the opposite entity in ticks
+     * @return {@code true} if the best level crosses the price
+     */
+    public boolean isCrossedBy(long priceTicks) {
+        if (size == 0) {
+            return false;
+        }
+        long bestPrice = prices[size - 1];
+        return highestFirst ? bestPrice >= priceTicks : bestPrice <= priceTicks;
+    }
+
+    /**
+     * Returns an iterator over the price levels, best price first.
+     *
+     * @return an iterator over the price levels
+     */
+    @Override
+    public Iterator<PriceLevel<E>> iterator() {
+        return new Iterator<PriceLevel<E>>() {
+
+            private int depth;
+
+            @Override
+            public boolean hasNext() {
+                return depth < size;
+            }
+
+            @Override
+            public PriceLevel<E> next() {
+                if (depth >= size) {
+                    throw new NoSuchElementException();
+                }
+                return level(depth++);
+            }
+        };
+    }
+
+    /*
+     * Binary search over the prices, which are ascending for bids and
+     * descending for offers so that the best price is always last. Returns the
+     * index of the price, or (-(insertion point) - 1) when it is absent.
+     */
+    private int indexOf(long priceTicks) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midPrice = prices[mid];
+            if (midPrice == priceTicks) {
+                return mid;
+            }
+            if ((midPrice < priceTicks) == highestFirst) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insert(int index, long priceTicks, PriceLevel<E> level) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(prices, index, prices, index + 1, size - index);
+        System.arraycopy(levels, index, levels, index + 1, size - index);
+        prices[index] = priceTicks;
+        levels[index] = level;
+        size++;
+    }
+
+    private void delete(int index) {
+        PriceLevel<E> level = levels[index];
+        System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+        if (spareLevels.size() < MAX_SPARE_LEVELS) {
+            spareLevels.push(level);
+        }
+    }
+
+    /*
+     * Returns an empty level for the price, reusing a level which emptied
+     * earlier when there is one, so that prices coming and going do not
+     * allocate in the steady state.
+     */
+    private PriceLevel<E> newLevel(long priceTicks, BigDecimal pricePerUnit) {
+        PriceLevel<E> level = spareLevels.poll();
+        if (level == null) {
+            return new PriceLevel<>(entries, priceTicks, pricePerUnit);
+        }
+        level.reset(priceTicks, pricePerUnit);
+        return level;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends MarketplaceEntity> PriceLevel<E>[] newLevels(int capacity) {
+        return (PriceLevel<E>[]) new PriceLevel<?>[capacity];
+    }
+
+    /**
+     * Returns the string representation of this {@code BookSide}.
+     *
+     * @return string representation of this {@code BookSide}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int depth = 0; depth < size; depth++) {
+            builder.append(depth == 0 ? "" : ", ").append(level(depth));
+        }
+        return builder.append(']').toString();
+    }
+
+}
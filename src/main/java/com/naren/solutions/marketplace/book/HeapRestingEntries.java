@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class is a table of resting entities which holds the entities
+ * themselves on the heap. A handle is the position of the entity in an array,
+ * and the positions of removed entities are reused, so the table does not
+ * allocate in the steady state.
+ * <p>
+ * This class is not thread safe, it is meant to be used by the single thread
+ * which matches the items of its books.
+ *
+ * @param <E> the type of the resting entities
+ * @author Naren Chivukula
+ */
+public class HeapRestingEntries<E extends MarketplaceEntity> implements RestingEntries<E> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ToIntFunction<? super E> participantOf;
+
+    private MarketplaceEntity[] entities = new MarketplaceEntity[INITIAL_CAPACITY];
+
+    private int[] freeHandles = new int[INITIAL_CAPACITY];
+
+    private int freeCount;
+
+    private int size;
+
+    /**
+     * This is used to create an empty table.
+     *
+     * @param participantOf the function returning the symbol of the buyer ID
+     * of a bid or the seller ID of an offer
+     */
+    public HeapRestingEntries(ToIntFunction<? super E> participantOf) {
+        this.participantOf = participantOf;
+    }
+
+    @Override
+    public int add(E entity) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (size == entities.length) {
+                entities = Arrays.copyOf(entities, size * 2);
+                freeHandles = Arrays.copyOf(freeHandles, size * 2);
+            }
+            handle = size++;
+        }
+        entities[handle] = entity;
+        return handle;
+    }
+
+    @Override
+    public void remove(int handle) {
+        entities[handle] = null;
+        freeHandles[freeCount++] = handle;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int handle) {
+        return (E) entities[handle];
+    }
+
+    @Override
+    public int getItemSymbol(int handle) {
+        return entities[handle].getItemSymbol();
+    }
+
+    @Override
+    public int getParticipantSymbol(int handle) {
+        return participantOf.applyAsInt(get(handle));
+    }
+
+    @Override
+    public int getQuantity(int handle) {
+        return entities[handle].getQuantity();
+    }
+
+    @Override
+    public void setQuantity(int handle, int quantity) {
+        entities[handle].setQuantity(quantity);
+    }
+
+    @Override
+    public long getPriceTicks(int handle) {
+        return entities[handle].getPriceTicks();
+    }
+
+    @Override
+    public BigDecimal getPricePerUnit(int handle) {
+        return entities[handle].getPricePerUnit();
+    }
+
+    @Override
+    public int getPriceScale(int handle) {
+        return entities[handle].getPricePerUnit().scale();
+    }
+
+    @Override
+    public void forEachHandle(IntConsumer action) {
+        for (int handle = 0; handle < size; handle++) {
+            if (entities[handle] != null) {
+                action.accept(handle);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+
+/**
+ * This class holds the resting bids and offers of a single item, grouped into
+ * price levels keyed by their price in ticks. Levels are kept sorted best
+ * price first on each side, i.e. the highest bid and the lowest offer, and
+ * entities within a level keep their arrival order. This gives price-time
+ * priority when matching.
+ * <p>
+ * The book holds each entity as its handle in the {@link RestingEntries} of
+ * its side, which keep the entities themselves, so that a store can keep them
+ * outside the heap. The caller adds entities to the entries and removes them
+ * again once they left the book.
+ * <p>
+ * An order book is not thread safe, it is meant to be used by the single
+ * thread which matches the item. Every change to a price level is reported to
+ * the {@link BookListener} of the book, if it has one.
+ *
+ * @author Naren Chivukula
+ */
+public class OrderBook {
+
+    private final String itemId;
+
+    private final BookSide<Bid> bids;
+
+    private final BookSide<Offer> offers;
+
+    private final RestingEntries<Bid> bidEntries;
+
+    private final RestingEntries<Offer> offerEntries;
+
+    private final TopOfBook top;
+
+    private final BookListener listener;
+
+    /**
+     * This is used to create an empty order book for the given item, whose
+     * entities rest in the given tables, which reports the changes to its
+     * price levels to the given listener.
+     *
+     * @param itemId the item ID
+     * @param bidEntries the table of the resting bids
+     * @param offerEntries the table of the resting offers
+     * @param listener the listener to report to, or {@code null}
+     */
+    public OrderBook(String itemId, RestingEntries<Bid> bidEntries, RestingEntries<Offer> offerEntries,
+            BookListener listener) {
+        this.itemId = itemId;
+        this.bids = new BookSide<>(bidEntries, true);
+        this.offers = new BookSide<>(offerEntries, false);
+        this.bidEntries = bidEntries;
+        this.offerEntries = offerEntries;
+        this.top = new TopOfBook(itemId);
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public final String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the best prices of this book, which may be read from any thread.
+     *
+     * @return the top of this book
+     */
+    public final TopOfBook getTop() {
+        return top;
+    }
+
+    /**
+     * Adds a bid to the back of its price level.
+     *
+     * @param bid the handle of the bid to add
+     */
+    public void addBid(int bid) {
+        PriceLevel<Bid> level = bids.add(bid);
+        updateTop();
+        changed(true, level);
+    }
+
+    /**
+     * Adds an offer to the back of its price level.
+     *
+     * @param offer the handle of the offer to add
+     */
+    public void addOffer(int offer) {
+        PriceLevel<Offer> level = offers.add(offer);
+        updateTop();
+        changed(false, level);
+    }
+
+    /**
+     * Removes a bid from the book, dropping its price level when it becomes
+     * empty.
+     *
+     * @param bid the handle of the bid to remove
+     * @return {@code true} if the bid was resting in this book
+     */
+    public boolean removeBid(int bid) {
+        PriceLevel<Bid> level = bids.get(bidEntries.getPriceTicks(bid));
+        boolean removed = bids.remove(bid);
+        updateTop();
+        if (removed) {
+            changed(true, level);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes an offer from the book, dropping its price level when it becomes
+     * empty.
+     *
+     * @param offer the handle of the offer to remove
+     * @return {@code true} if the offer was resting in this book
+     */
+    public boolean removeOffer(int offer) {
+        PriceLevel<Offer> level = offers.get(offerEntries.getPriceTicks(offer));
+        boolean removed = offers.remove(offer);
+        updateTop();
+        if (removed) {
+            changed(false, level);
+        }
+        return removed;
+    }
+
+    /**
+     * Takes a partial fill off a resting bid, which stays at the front of its
+     * price level with the quantity left over.
+     *
+     * @param bid the handle of the resting bid
+     * @param filled the quantity filled, less than that of the bid
+     */
+    public void reduceBid(int bid, int filled) {
+        PriceLevel<Bid> level = bids.get(bidEntries.getPriceTicks(bid));
+        level.reduce(bid, filled);
+        changed(true, level);
+    }
+
+    /**
+     * Takes a partial fill off a resting offer, which stays at the front of
+     * its price level with the quantity left over.
+     *
+     * @param offer the handle of the resting offer
+     * @param filled the quantity filled, less than that of the offer
+     */
+    public void reduceOffer(int offer, int filled) {
+        PriceLevel<Offer> level = offers.get(offerEntries.getPriceTicks(offer));
+        level.reduce(offer, filled);
+        changed(false, level);
+    }
+
+    /**
+     * Returns the bid side of the book, whose levels run highest price first.
+     * The side must only be changed through this book, so that its top of
+     * book stays current.
+     *
+     * @return the bid side of the book
+     */
+    public BookSide<Bid> bids() {
+        return bids;
+    }
+
+    /**
+     * Returns the offer side of the book, whose levels run lowest price first.
+     * The side must only be changed through this book, so that its top of
+     * book stays current.
+     *
+     * @return the offer side of the book
+     */
+    public BookSide<Offer> offers() {
+        return offers;
+    }
+
+    /**
+     * Returns {@code true} if no bids and no offers rest in this book.
+     *
+     * @return {@code true} if this book is empty
+     */
+    public boolean isEmpty() {
+        return bids.isEmpty() && offers.isEmpty();
+    }
+
+    private void updateTop() {
+        if (top.update(bids, offers) && listener != null) {
+            listener.topChanged(this);
+        }
+    }
+
+    private void changed(boolean bidSide, PriceLevel<?> level) {
+        if (listener != null) {
+            listener.levelChanged(this, bidSide, level);
+        }
+    }
+
+    /**
+     * Returns the string representation of this {@code OrderBook}.
+     *
+     * @return string representation of this {@code OrderBook}.
+     */
+    @Override
+    public String toString() {
+        return "OrderBook [itemId=" + itemId + ", bids=" + bids
+                + ", offers=" + offers + "]";
+    }
+
+}
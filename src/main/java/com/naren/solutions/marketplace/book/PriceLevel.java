@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class holds all the entities resting at a single price of one side of
+ * an {@link OrderBook}, in the order in which they arrived (first in, first
+ * out), together with their aggregate quantity. The entities are held as
+ * their handles in the {@link RestingEntries} of the side, in a ring of ints,
+ * so a level holds no object per entity.
+ *
+ * @param <E> the type of the entities resting at this price level
+ * @author Naren Chivukula
+ */
+public class PriceLevel<E extends MarketplaceEntity> implements Iterable<E> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final RestingEntries<E> entries;
+
+    private long priceTicks;
+
+    private BigDecimal pricePerUnit;
+
+    private int[] handles = new int[INITIAL_CAPACITY];
+
+    private int head;
+
+    private int count;
+
+    private long quantity;
+
+    /**
+     * This is used to create an empty price level for the given price.
+     *
+     * @param entries the table of the entities resting on the side
+     * @param priceTicks the price of a single item at this level in ticks
+     * @param pricePerUnit the same price, as reported by the {@code Market} API
+     */
+    public PriceLevel(RestingEntries<E> entries, long priceTicks, BigDecimal pricePerUnit) {
+        this.entries = entries;
+        this.priceTicks = priceTicks;
+        this.pricePerUnit = pricePerUnit;
+    }
+
+    /**
+     * Returns the price of a single item at this level in ticks.
+     *
+     * @return the priceTicks
+     */
+    public final long getPriceTicks() {
+        return priceTicks;
+    }
+
+    /**
+     * Returns the price of a single item at this level, as given by the first
+     * entity which rested at this level.
+     *
+     * @return the pricePerUnit
+     */
+    public final BigDecimal getPricePerUnit() {
+        return pricePerUnit;
+    }
+
+    /**
+     * Returns the price of a single item of the entity with the given handle,
+     * which is the price of this level where the entity gave it with the same
+     * scale, so that the price need not be read from the entity.
+     *
+     * @param handle the handle of an entity resting at this level
+     * @return the pricePerUnit of the entity
+     */
+    public final BigDecimal getPricePerUnit(int handle) {
+        return entries.getPriceScale(handle) == pricePerUnit.scale() ? pricePerUnit : entries.getPricePerUnit(handle);
+    }
+
+    /*
+     * Moves an empty level to another price, so that its side can reuse it
+     * instead of allocating a new one.
+     */
+    void reset(long priceTicks, BigDecimal pricePerUnit) {
+        this.priceTicks = priceTicks;
+        this.pricePerUnit = pricePerUnit;
+        this.quantity = 0L;
+        this.head = 0;
+    }
+
+    /**
+     * Returns the handle of the entity which arrived first at this level, or
+     * {@link RestingEntries#NONE} if this level is empty.
+     *
+     * @return the handle of the first entity at this level
+     */
+    public int first() {
+        return count == 0 ? RestingEntries.NONE : handles[head];
+    }
+
+    /**
+     * Appends the entity with the given handle to the back of this level.
+     *
+     * @param handle the handle of the entity to add
+     */
+    public void add(int handle) {
+        if (count == handles.length) {
+            int[] grown = new int[count * 2];
+            int firstPart = Math.min(count, handles.length - head);
+            System.arraycopy(handles, head, grown, 0, firstPart);
+            System.arraycopy(handles, 0, grown, firstPart, count - firstPart);
+            handles = grown;
+            head = 0;
+        }
+        handles[slot(count++)] = handle;
+        quantity += entries.getQuantity(handle);
+    }
+
+    /**
+     * Removes the entity with the given handle from this level.
+     *
+     * @param handle the handle of the entity to remove
+     * @return {@code true} if the entity was resting at this level
+     */
+    public boolean remove(int handle) {
+        if (count > 0 && handles[head] == handle) {
+            head = slot(1);
+            count--;
+            quantity -= entries.getQuantity(handle);
+            return true;
+        }
+        for (int position = 1; position < count; position++) {
+            if (handles[slot(position)] == handle) {
+                for (; position < count - 1; position++) {
+                    handles[slot(position)] = handles[slot(position + 1)];
+                }
+                count--;
+                quantity -= entries.getQuantity(handle);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Takes a partial fill off an entity resting at this level, keeping the
+     * aggregate quantity in step with it.
+     */
+    void reduce(int handle, int filled) {
+        entries.setQuantity(handle, entries.getQuantity(handle) - filled);
+        quantity -= filled;
+    }
+
+    /**
+     * Returns the aggregate quantity of the entities resting at this level.
+     *
+     * @return the quantity at this level
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the number of entities resting at this level.
+     *
+     * @return the number of entities at this level
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if no entities rest at this level.
+     *
+     * @return {@code true} if this level is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns an iterator over the entities of this level in arrival order,
+     * as returned by {@link RestingEntries#get(int)}.
+     *
+     * @return an iterator over the entities of this level
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < count;
+            }
+
+            @Override
+            public E next() {
+                if (position >= count) {
+                    throw new NoSuchElementException();
+                }
+                return entries.get(handles[slot(position++)]);
+            }
+        };
+    }
+
+    private int slot(int position) {
+        return (head + position) % handles.length;
+    }
+
+    /**
+     * Returns the string representation of this {@code PriceLevel}.
+     *
+     * @return string representation of this {@code PriceLevel}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (E entity : this) {
+            builder.append(builder.length() == 1 ? "" : ", ").append(entity);
+        }
+        return "PriceLevel [pricePerUnit=" + pricePerUnit + ", quantity="
+                + quantity + ", entities=" + builder.append(']') + "]";
+    }
+
+}
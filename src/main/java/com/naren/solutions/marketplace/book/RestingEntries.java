@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import java.math.BigDecimal;
+import java.util.function.IntConsumer;
+
+/**
+ * This interface declares the table of the entities resting on one side of
+ * the order books. A book holds the entities of its price levels as int
+ * handles into the table and reads their fields through it, so the table
+ * decides whether an entity is kept as an object on the heap or as a record
+ * outside it.
+ * <p>
+ * The fields of a resting entity are only read and changed by the thread
+ * which matches its item.
+ *
+ * @param <E> the type of the resting entities
+ * @author Naren Chivukula
+ * @see HeapRestingEntries
+ */
+public interface RestingEntries<E extends MarketplaceEntity> {
+
+    /**
+     * The handle of no entity.
+     */
+    int NONE = -1;
+
+    /**
+     * Adds the entity to this table.
+     *
+     * @param entity the entity to add
+     * @return the handle of the entity
+     */
+    int add(E entity);
+
+    /**
+     * Removes the entity with the given handle from this table, after which
+     * the handle may be given to another entity.
+     *
+     * @param handle the handle of the entity
+     */
+    void remove(int handle);
+
+    /**
+     * Returns the entity with the given handle, which is a copy where the
+     * table does not hold the entity itself.
+     *
+     * @param handle the handle of the entity
+     * @return the entity
+     */
+    E get(int handle);
+
+    /**
+     * Returns the symbol of the item ID of the entity.
+     *
+     * @param handle the handle of the entity
+     * @return the symbol of the itemId
+     */
+    int getItemSymbol(int handle);
+
+    /**
+     * Returns the symbol of the buyer ID of a bid or the seller ID of an
+     * offer.
+     *
+     * @param handle the handle of the entity
+     * @return the symbol of the buyerId or sellerId
+     */
+    int getParticipantSymbol(int handle);
+
+    /**
+     * Returns the number of items or quantity of the entity.
+     *
+     * @param handle the handle of the entity
+     * @return the quantity
+     */
+    int getQuantity(int handle);
+
+    /**
+     * Sets the number of items or quantity of the entity.
+     *
+     * @param handle the handle of the entity
+     * @param quantity the quantity to set
+     */
+    void setQuantity(int handle, int quantity);
+
+    /**
+     * Returns the price of a single item of the entity in ticks.
+     *
+     * @param handle the handle of the entity
+     * @return the price of a single item in ticks
+     */
+    long getPriceTicks(int handle);
+
+    /**
+     * Returns the price of a single item of the entity.
+     *
+     * @param handle the handle of the entity
+     * @return the pricePerUnit
+     */
+    BigDecimal getPricePerUnit(int handle);
+
+    /**
+     * Returns the scale of the price of a single item of the entity, so that
+     * a price equal to it can be reused without reading the price.
+     *
+     * @param handle the handle of the entity
+     * @return the scale of the pricePerUnit
+     */
+    int getPriceScale(int handle);
+
+    /**
+     * Performs the given action for the handle of every entity in this table.
+     *
+     * @param action the action to perform
+     */
+    void forEachHandle(IntConsumer action);
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.book;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * This class holds the best bid and best offer prices of a single item. It is
+ * written only by the thread matching the item, through its
+ * {@link OrderBook}, and the prices are published through volatile fields so
+ * that any thread can read them at any time without locking.
+ * <p>
+ * Each price is held as the {@code Optional} returned by the {@code Market}
+ * API, created when the price changes rather than on every query.
+ *
+ * @author Naren Chivukula
+ */
+public class TopOfBook {
+
+    private final String itemId;
+
+    private volatile Optional<BigDecimal> bestBidPrice = Optional.empty();
+
+    private volatile Optional<BigDecimal> bestOfferPrice = Optional.empty();
+
+    /**
+     * This is used to create an empty top of book for the given item.
+     *
+     * @param itemId the item ID
+     */
+    public TopOfBook(String itemId) {
+        this.itemId = itemId;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public final String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the highest price of all bids for the item, or {@code null} if
+     * there are no bids.
+     *
+     * @return the best bid price
+     */
+    public final BigDecimal getBestBidPricePerUnit() {
+        return bestBidPrice.orElse(null);
+    }
+
+    /**
+     * Returns the highest price of all bids for the item, if there are any
+     * bids.
+     *
+     * @return the best bid price
+     */
+    public final Optional<BigDecimal> getBestBidPrice() {
+        return bestBidPrice;
+    }
+
+    /**
+     * Returns the lowest price of all offers for the item, or {@code null} if
+     * there are no offers.
+     *
+     * @return the best offer price
+     */
+    public final BigDecimal getBestOfferPricePerUnit() {
+        return bestOfferPrice.orElse(null);
+    }
+
+    /**
+     * Returns the lowest price of all offers for the item, if there are any
+     * offers.
+     *
+     * @return the best offer price
+     */
+    public final Optional<BigDecimal> getBestOfferPrice() {
+        return bestOfferPrice;
+    }
+
+    /*
+     * Publishes the best prices of the book sides, writing only the volatile
+     * fields which changed, and returns whether either changed.
+     */
+    boolean update(BookSide<?> bids, BookSide<?> offers) {
+        boolean changed = false;
+        BigDecimal bestBid = bids.isEmpty() ? null : bids.best().getPricePerUnit();
+        if (bestBid != bestBidPrice.orElse(null)) {
+            bestBidPrice = Optional.ofNullable(bestBid);
+            changed = true;
+        }
+        BigDecimal bestOffer = offers.isEmpty() ? null : offers.best().getPricePerUnit();
+        if (bestOffer != bestOfferPrice.orElse(null)) {
+            bestOfferPrice = Optional.ofNullable(bestOffer);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the string representation of this {@code TopOfBook}.
+     *
+     * @return string representation of this {@code TopOfBook}.
+     */
+    @Override
+    public String toString() {
+        return "TopOfBook [itemId=" + itemId + ", bestBidPricePerUnit="
+                + getBestBidPricePerUnit() + ", bestOfferPricePerUnit="
+                + getBestOfferPricePerUnit() + "]";
+    }
+
+}
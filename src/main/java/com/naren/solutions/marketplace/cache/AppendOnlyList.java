@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * This class is an append-only log of entries kept in fixed-size chunks.
+ * Appending never copies the entries already in the log, and reads do not
+ * lock, seeing every entry appended before the size they read.
+ * <p>
+ * Entries can not be removed one by one, only all at once by {@link #clear()},
+ * which must not run concurrently with reads. A {@link #snapshot()} stays
+ * readable however, as clearing starts new chunks rather than emptying them.
+ *
+ * @param <E> the type of the list entries
+ * @author Naren Chivukula
+ */
+public class AppendOnlyList<E> extends AbstractList<E> {
+
+    private static final int CHUNK_SHIFT = 10;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private volatile Object[][] chunks = new Object[1][CHUNK_SIZE];
+
+    private volatile int size;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        int published = size;
+        if (index < 0 || index >= published) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + published);
+        }
+        return (E) chunks[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean add(E entry) {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        Object[][] current = chunks;
+        if (chunk == current.length) {
+            Object[][] grown = new Object[current.length * 2][];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new Object[CHUNK_SIZE];
+        }
+        current[chunk][index & (CHUNK_SIZE - 1)] = entry;
+        chunks = current;
+        size = index + 1;
+        return true;
+    }
+
+    /**
+     * Returns an unmodifiable view of the entries appended so far, which
+     * neither grows as entries are appended nor is emptied by
+     * {@link #clear()}, so it may be read on any thread.
+     *
+     * @return the view of the entries appended so far
+     */
+    public List<E> snapshot() {
+        Object[][] published;
+        int count;
+        synchronized (this) {
+            published = chunks;
+            count = size;
+        }
+        return new AbstractList<E>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return (E) published[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void clear() {
+        chunks = new Object[1][CHUNK_SIZE];
+        size = 0;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+
+/**
+ * This class is a flyweight over a bid resting as a fixed-layout
+ * {@link RestingRecord} in off-heap memory, whose participant is the buyer.
+ *
+ * @author Naren Chivukula
+ */
+public final class BidRecord extends RestingRecord<Bid> {
+
+    /**
+     * Returns the buyer ID.
+     *
+     * @return the buyerId
+     */
+    public String getBuyerId() {
+        return SymbolTable.PARTICIPANTS.id(getBuyerSymbol());
+    }
+
+    /**
+     * Returns the symbol of the buyer ID.
+     *
+     * @return the symbol of the buyerId
+     */
+    public int getBuyerSymbol() {
+        return getParticipantSymbol();
+    }
+
+    /**
+     * Returns a new {@code Bid} with the fields of the record.
+     *
+     * @return the bid
+     */
+    public Bid toBid() {
+        return new Bid(getItemId(), getBuyerId(), getQuantity(), getPricePerUnit());
+    }
+
+    @Override
+    public Bid toEntity() {
+        return toBid();
+    }
+
+    @Override
+    public String toString() {
+        return "BidRecord [itemId=" + getItemId() + ", buyerId=" + getBuyerId()
+                + ", quantity=" + getQuantity() + ", pricePerUnit=" + getPricePerUnit() + "]";
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.List;
+
+/**
+ * This implementation of MarketPlaceStore provides an in-memory cache built
+ * for frequent writes. Bids and offers are kept in {@link ItemStripedList}s,
+ * so adding or filling one only touches the entries of its item, and orders
+ * are kept in an {@link AppendOnlyList}, so creating one never copies the
+ * orders before it.
+ * <p>
+ * Bids and offers of different items are not listed in the order in which
+ * they were added. They are indexed by buyer and seller ID, and orders by
+ * both, as in {@link MarketPlaceStoreCache}.
+ *
+ * @author Naren Chivukula
+ */
+public class ConcurrentMarketPlaceStoreCache implements MarketPlaceStore {
+
+    /**
+     * The singleton instance of this class.
+     */
+    private static final MarketPlaceStore INSTANCE = new ConcurrentMarketPlaceStoreCache();
+
+    /**
+     * The index of bids by buyer ID.
+     */
+    private final SecondaryIndex<Bid> BIDS_BY_BUYER = new SecondaryIndex<>(Bid::getBuyerSymbol);
+
+    /**
+     * The index of offers by seller ID.
+     */
+    private final SecondaryIndex<Offer> OFFERS_BY_SELLER = new SecondaryIndex<>(Offer::getSellerSymbol);
+
+    /**
+     * The index of orders by buyer ID.
+     */
+    private final SecondaryIndex<Order> ORDERS_BY_BUYER = new SecondaryIndex<>(Order::getBuyerSymbol);
+
+    /**
+     * The index of orders by seller ID.
+     */
+    private final SecondaryIndex<Order> ORDERS_BY_SELLER = new SecondaryIndex<>(Order::getSellerSymbol);
+
+    /**
+     * The in-memory cache for bids.
+     */
+    private final List<Bid> BIDS = new IndexedList<>(new ItemStripedList<>(), BIDS_BY_BUYER);
+
+    /**
+     * The in-memory cache for offers.
+     */
+    private final List<Offer> OFFERS = new IndexedList<>(new ItemStripedList<>(), OFFERS_BY_SELLER);
+
+    /**
+     * The append-only log backing the cache for orders.
+     */
+    private final AppendOnlyList<Order> ORDER_LOG = new AppendOnlyList<>();
+
+    /**
+     * The in-memory cache for orders.
+     */
+    private final List<Order> ORDERS = new IndexedList<>(ORDER_LOG, ORDERS_BY_BUYER, ORDERS_BY_SELLER);
+
+    /*
+     * Private constructor to avoid direct instantiation
+     */
+    private ConcurrentMarketPlaceStoreCache() {
+
+    }
+
+    /**
+     * Returns singleton instance of this class.
+     *
+     * @return singleton instance of this class
+     */
+    public static final MarketPlaceStore createInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public final List<Bid> bids() {
+        return BIDS;
+    }
+
+    @Override
+    public final List<Offer> offers() {
+        return OFFERS;
+    }
+
+    @Override
+    public final List<Order> orders() {
+        return ORDERS;
+    }
+
+    @Override
+    public final List<Order> orderSnapshot() {
+        return ORDER_LOG.snapshot();
+    }
+
+    @Override
+    public final List<Bid> bidsByBuyerId(String buyerId) {
+        return BIDS_BY_BUYER.get(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Offer> offersBySellerId(String sellerId) {
+        return OFFERS_BY_SELLER.get(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final List<Order> ordersByBuyerId(String buyerId) {
+        return ORDERS_BY_BUYER.get(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Order> ordersBySellerId(String sellerId) {
+        return ORDERS_BY_SELLER.get(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final EntryCursor<Bid> bidCursor(String buyerId, long after) {
+        return BIDS_BY_BUYER.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Offer> offerCursor(String sellerId, long after) {
+        return OFFERS_BY_SELLER.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return ORDERS_BY_BUYER.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return ORDERS_BY_SELLER.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This interface declares a lazy iterator over the entries of one buyer or
+ * seller, which reads them from the store one at a time rather than copying
+ * them into a list first.
+ * <p>
+ * Each entry is numbered by its sequence: its position among all the entries
+ * ever added for the buyer or seller, counting from {@code 1}. Removing an
+ * entry does not renumber the entries after it, so a cursor created after the
+ * sequence of the last entry read resumes just past it, however many entries
+ * were removed meanwhile.
+ *
+ * @param <E> the type of the entries
+ * @author Naren Chivukula
+ */
+public interface EntryCursor<E> extends Iterator<E> {
+
+    /**
+     * Returns the sequence of the entry last returned by {@link #next()}, or
+     * the sequence the cursor was created after if none was returned yet.
+     *
+     * @return the sequence of the last entry read
+     */
+    long sequence();
+
+    /**
+     * Returns a cursor over the entries of the given list after the given
+     * sequence, numbering each entry by its position in the list. This suits
+     * lists from which entries are never removed.
+     *
+     * @param <E> the type of the entries
+     * @param entries the entries to iterate
+     * @param after the sequence to resume after
+     * @return the cursor
+     */
+    static <E> EntryCursor<E> over(List<E> entries, long after) {
+        return new EntryCursor<E>() {
+
+            private long sequence = Math.max(0L, after);
+
+            @Override
+            public long sequence() {
+                return sequence;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return sequence < entries.size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return entries.get((int) sequence++);
+            }
+        };
+    }
+
+}
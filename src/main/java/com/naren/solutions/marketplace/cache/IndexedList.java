@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * This class decorates a store list so that every entry added to or removed
+ * from it is also added to or removed from its {@link SecondaryIndex secondary
+ * indexes}. Reads and iteration are served by the backing list, so the
+ * concurrency guarantees of the backing list are kept.
+ *
+ * @param <E> the type of the list entries
+ * @author Naren Chivukula
+ */
+public class IndexedList<E> extends AbstractList<E> {
+
+    private final List<E> entries;
+
+    private final List<SecondaryIndex<E>> indexes;
+
+    /**
+     * This is used to create an indexed view of the backing list. The backing
+     * list must be empty, or already reflected in the index.
+     *
+     * @param entries the backing list
+     * @param index the index to maintain
+     */
+    public IndexedList(List<E> entries, SecondaryIndex<E> index) {
+        this(entries, Collections.singletonList(index));
+    }
+
+    /**
+     * This is used to create an indexed view of the backing list. The backing
+     * list must be empty, or already reflected in the indexes.
+     *
+     * @param entries the backing list
+     * @param first the first index to maintain
+     * @param second the second index to maintain
+     */
+    public IndexedList(List<E> entries, SecondaryIndex<E> first, SecondaryIndex<E> second) {
+        this(entries, Arrays.asList(first, second));
+    }
+
+    /**
+     * This is used to create an indexed view of the backing list. The backing
+     * list must be empty, or already reflected in the indexes.
+     *
+     * @param entries the backing list
+     * @param indexes the indexes to maintain
+     */
+    public IndexedList(List<E> entries, List<SecondaryIndex<E>> indexes) {
+        this.entries = entries;
+        this.indexes = new ArrayList<>(indexes);
+    }
+
+    @Override
+    public E get(int index) {
+        return entries.get(index);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return entries.contains(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return entries.indexOf(o);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return entries.iterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return entries.spliterator();
+    }
+
+    @Override
+    public boolean add(E entry) {
+        entries.add(entry);
+        index(entry);
+        return true;
+    }
+
+    @Override
+    public void add(int position, E entry) {
+        entries.add(position, entry);
+        index(entry);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> added) {
+        boolean modified = entries.addAll(added);
+        added.forEach(this::index);
+        return modified;
+    }
+
+    @Override
+    public E set(int position, E entry) {
+        E previous = entries.set(position, entry);
+        unindex(previous);
+        index(entry);
+        return previous;
+    }
+
+    @Override
+    public E remove(int position) {
+        E removed = entries.remove(position);
+        unindex(removed);
+        return removed;
+    }
+
+    /**
+     * Removes the given entry, or an entry equal to it, from the backing list
+     * and unindexes the entry actually removed. An {@link ItemStripedList}
+     * removes the very same entry in preference to an equal one, other lists
+     * the first equal entry.
+     *
+     * @param o the entry to remove
+     * @return whether an entry was removed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        E removed;
+        if (entries instanceof ItemStripedList) {
+            removed = (E) ((ItemStripedList<?>) entries).removeEntity(o);
+            if (removed == null) {
+                return false;
+            }
+        } else {
+            int position = entries.indexOf(o);
+            if (position < 0) {
+                return false;
+            }
+            removed = entries.remove(position);
+        }
+        unindex(removed);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> removed) {
+        List<E> matching = new ArrayList<>();
+        for (E entry : entries) {
+            if (removed.contains(entry)) {
+                matching.add(entry);
+            }
+        }
+        boolean modified = entries.removeAll(removed);
+        matching.forEach(this::unindex);
+        return modified;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        List<E> removed = new ArrayList<>();
+        boolean modified = entries.removeIf(entry -> {
+            if (filter.test(entry)) {
+                removed.add(entry);
+                return true;
+            }
+            return false;
+        });
+        removed.forEach(this::unindex);
+        return modified;
+    }
+
+    /**
+     * Removes the very entries given, rather than entries equal to them, so
+     * an equal entry which was added separately stays. Lists with random
+     * access are scanned once for the whole batch, other lists, whose
+     * removals are local, remove the entries one by one.
+     *
+     * @param removed the entries to remove
+     * @return whether any entry was removed
+     */
+    public boolean removeIdentical(Collection<? extends E> removed) {
+        if (removed.isEmpty()) {
+            return false;
+        }
+        if (entries instanceof RandomAccess) {
+            Set<E> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+            identities.addAll(removed);
+            return removeIf(identities::contains);
+        }
+        boolean modified = false;
+        for (E entry : removed) {
+            if (removeEntry(entry)) {
+                unindex(entry);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /*
+     * Removes the very entry from the backing list, and never an entry equal
+     * to it.
+     */
+    private boolean removeEntry(E entry) {
+        if (entries instanceof ItemStripedList) {
+            return ((ItemStripedList<?>) entries).removeIdentical(entry);
+        }
+        for (Iterator<E> iterator = entries.iterator(); iterator.hasNext();) {
+            if (iterator.next() == entry) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        for (SecondaryIndex<E> index : indexes) {
+            index.clear();
+        }
+    }
+
+    private void index(E entry) {
+        for (SecondaryIndex<E> index : indexes) {
+            index.add(entry);
+        }
+    }
+
+    private void unindex(E entry) {
+        for (SecondaryIndex<E> index : indexes) {
+            index.remove(entry);
+        }
+    }
+
+}
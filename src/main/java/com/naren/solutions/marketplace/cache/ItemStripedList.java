@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * This class is a list of marketplace entities striped by item symbol. Each item
+ * keeps its entities in a lock-free queue in the order in which they were
+ * added, so adding or removing an entity only touches the entities of its own
+ * item and never copies the list.
+ * <p>
+ * Iteration visits the items one after another and is weakly consistent.
+ * Entities of different items are therefore not in the order in which they
+ * were added, and positional access costs the size of the list.
+ *
+ * @param <E> the type of the list entries
+ * @author Naren Chivukula
+ */
+public class ItemStripedList<E extends MarketplaceEntity> extends AbstractList<E> {
+
+    private final SymbolMap<Queue<E>> stripes = new SymbolMap<>();
+
+    /*
+     * The stripe of entities without an item ID, which have no symbol.
+     */
+    private final Queue<E> noItem = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Override
+    public E get(int index) {
+        if (index >= 0) {
+            int position = 0;
+            for (E entry : this) {
+                if (position++ == index) {
+                    return entry;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean add(E entry) {
+        int symbol = entry.getItemSymbol();
+        (symbol == SymbolTable.NULL ? noItem : stripes.computeIfAbsent(symbol, ConcurrentLinkedQueue::new)).add(entry);
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes the given entity from the entities of its item. The very same
+     * entity is removed in preference to an equal one, so an equal entity
+     * which was added separately stays.
+     *
+     * @param o the entity to remove
+     * @return whether an entity was removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        return removeEntity(o) != null;
+    }
+
+    /**
+     * Removes the given entity from the entities of its item, as
+     * {@link #remove(Object)} does, and returns the entity actually removed,
+     * which is the given one or an entity equal to it.
+     *
+     * @param o the entity to remove
+     * @return the entity removed, or {@code null} if there is none
+     */
+    public E removeEntity(Object o) {
+        if (!(o instanceof MarketplaceEntity)) {
+            return null;
+        }
+        Queue<E> stripe = stripeOf((MarketplaceEntity) o);
+        if (stripe == null) {
+            return null;
+        }
+        E removed = remove(stripe, o, true);
+        return removed != null ? removed : remove(stripe, o, false);
+    }
+
+    /**
+     * Removes the very same entity, and never an entity equal to it.
+     *
+     * @param o the entity to remove
+     * @return whether the entity was removed
+     */
+    public boolean removeIdentical(Object o) {
+        if (!(o instanceof MarketplaceEntity)) {
+            return false;
+        }
+        Queue<E> stripe = stripeOf((MarketplaceEntity) o);
+        return stripe != null && remove(stripe, o, true) != null;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        boolean modified = false;
+        for (Queue<E> stripe : stripes()) {
+            Iterator<E> entries = stripe.iterator();
+            while (entries.hasNext()) {
+                if (filter.test(entries.next())) {
+                    entries.remove();
+                    size.decrementAndGet();
+                    modified = true;
+                }
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public void clear() {
+        stripes.clear();
+        noItem.clear();
+        size.set(0);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new StripeIterator();
+    }
+
+    private Queue<E> stripeOf(MarketplaceEntity entry) {
+        int symbol = entry.getItemSymbol();
+        return symbol == SymbolTable.NULL ? noItem : stripes.get(symbol);
+    }
+
+    /*
+     * Removes from the stripe either the very same entity or the first entity
+     * equal to it, and returns the entity removed.
+     */
+    private E remove(Queue<E> stripe, Object o, boolean identical) {
+        for (Iterator<E> entries = stripe.iterator(); entries.hasNext();) {
+            E entry = entries.next();
+            if (identical ? entry == o : entry.equals(o)) {
+                entries.remove();
+                size.decrementAndGet();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Returns the stripes of the items, in the order of their symbols,
+     * followed by the stripe of entities without an item ID.
+     */
+    private List<Queue<E>> stripes() {
+        List<Queue<E>> all = new ArrayList<>();
+        stripes.forEach(all::add);
+        all.add(noItem);
+        return all;
+    }
+
+    /*
+     * Iterates over the stripes one after another, removing through the
+     * iterator of the current stripe.
+     */
+    private class StripeIterator implements Iterator<E> {
+
+        private final Iterator<Queue<E>> remainingStripes = stripes().iterator();
+
+        private Iterator<E> current = Collections.emptyIterator();
+
+        private Iterator<E> last;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && remainingStripes.hasNext()) {
+                current = remainingStripes.next().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current;
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            last.remove();
+            last = null;
+            size.decrementAndGet();
+        }
+
+    }
+
+}
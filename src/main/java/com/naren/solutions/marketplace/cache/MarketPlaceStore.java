@@ -5,9 +5,11 @@
  */
 package com.naren.solutions.marketplace.cache;
 
+import com.naren.solutions.marketplace.book.RestingEntries;
 import com.naren.solutions.marketplace.dom.Bid;
 import com.naren.solutions.marketplace.dom.Offer;
 import com.naren.solutions.marketplace.dom.Order;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,4 +43,182 @@ public interface MarketPlaceStore {
      */
     List<Order> orders();
 
+    /**
+     * Returns the available bids of the specified buyer, in the order in which
+     * they were added. Where no bids are available, this returns empty list
+     * object.
+     *
+     * @param buyerId the buyer ID
+     * @return available bids of the buyer
+     */
+    List<Bid> bidsByBuyerId(String buyerId);
+
+    /**
+     * Returns the available offers of the specified seller, in the order in
+     * which they were added. Where no offers are available, this returns empty
+     * list object.
+     *
+     * @param sellerId the seller ID
+     * @return available offers of the seller
+     */
+    List<Offer> offersBySellerId(String sellerId);
+
+    /**
+     * Returns the orders of the specified buyer, in the order in which they
+     * were created. Where no orders are available, this returns empty list
+     * object.
+     *
+     * @param buyerId the buyer ID
+     * @return orders of the buyer
+     */
+    List<Order> ordersByBuyerId(String buyerId);
+
+    /**
+     * Returns the orders of the specified seller, in the order in which they
+     * were created. Where no orders are available, this returns empty list
+     * object.
+     *
+     * @param sellerId the seller ID
+     * @return orders of the seller
+     */
+    List<Order> ordersBySellerId(String sellerId);
+
+    /**
+     * Returns a lazy cursor over the available bids of the specified buyer
+     * whose sequence is after the given one, in the order in which they were
+     * added. By default this iterates a copy of
+     * {@link #bidsByBuyerId(String)}, numbered by position.
+     *
+     * @param buyerId the buyer ID
+     * @param after the sequence to resume after, {@code 0} to start with the
+     * first bid
+     * @return the cursor over the bids of the buyer
+     * @see EntryCursor
+     */
+    default EntryCursor<Bid> bidCursor(String buyerId, long after) {
+        return EntryCursor.over(bidsByBuyerId(buyerId), after);
+    }
+
+    /**
+     * Returns a lazy cursor over the available offers of the specified seller
+     * whose sequence is after the given one, in the order in which they were
+     * added. By default this iterates a copy of
+     * {@link #offersBySellerId(String)}, numbered by position.
+     *
+     * @param sellerId the seller ID
+     * @param after the sequence to resume after, {@code 0} to start with the
+     * first offer
+     * @return the cursor over the offers of the seller
+     * @see EntryCursor
+     */
+    default EntryCursor<Offer> offerCursor(String sellerId, long after) {
+        return EntryCursor.over(offersBySellerId(sellerId), after);
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified buyer whose
+     * sequence is after the given one, in the order in which they were
+     * created. By default this iterates a copy of
+     * {@link #ordersByBuyerId(String)}, numbered by position.
+     *
+     * @param buyerId the buyer ID
+     * @param after the sequence to resume after, {@code 0} to start with the
+     * first order
+     * @return the cursor over the orders of the buyer
+     * @see EntryCursor
+     */
+    default EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return EntryCursor.over(ordersByBuyerId(buyerId), after);
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified seller whose
+     * sequence is after the given one, in the order in which they were
+     * created. By default this iterates a copy of
+     * {@link #ordersBySellerId(String)}, numbered by position.
+     *
+     * @param sellerId the seller ID
+     * @param after the sequence to resume after, {@code 0} to start with the
+     * first order
+     * @return the cursor over the orders of the seller
+     * @see EntryCursor
+     */
+    default EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return EntryCursor.over(ordersBySellerId(sellerId), after);
+    }
+
+    /**
+     * Returns the orders added so far as a list which neither grows as orders
+     * are added nor is emptied by clearing the store, so that it can be read
+     * on another thread while the store carries on. By default the references
+     * to the orders are copied into a new list.
+     *
+     * @return the orders added so far
+     */
+    default List<Order> orderSnapshot() {
+        return new ArrayList<>(orders());
+    }
+
+    /**
+     * Returns whether the orders added to {@link #orders()} are copied into the
+     * store, rather than held by reference, so that the caller may reuse the
+     * same {@code Order} for the next order.
+     *
+     * @return {@code true} if added orders are copied
+     */
+    default boolean copiesOrders() {
+        return false;
+    }
+
+    /**
+     * Returns the table in which this store keeps its resting bids, which the
+     * order books of a market then refer to by handle, or {@code null} where
+     * the store holds the {@code Bid} instances added to {@link #bids()} and
+     * the books keep those instances themselves. Bids added to the table are
+     * in {@link #bids()} and those removed from it are not.
+     *
+     * @return the table of resting bids, or {@code null}
+     */
+    default RestingEntries<Bid> restingBids() {
+        return null;
+    }
+
+    /**
+     * Returns the table in which this store keeps its resting offers, or
+     * {@code null} where the store holds the {@code Offer} instances added to
+     * {@link #offers()}, as for {@link #restingBids()}.
+     *
+     * @return the table of resting offers, or {@code null}
+     */
+    default RestingEntries<Offer> restingOffers() {
+        return null;
+    }
+
+    /**
+     * Returns the store selected by the {@code marketplace.store} system
+     * property, which is {@code copy-on-write}, the default, for
+     * {@link MarketPlaceStoreCache}, {@code concurrent} for
+     * {@link ConcurrentMarketPlaceStoreCache}, {@code off-heap} for
+     * {@link OffHeapMarketPlaceStoreCache} or {@code tiered} for
+     * {@link TieredMarketPlaceStoreCache}.
+     *
+     * @return the selected store
+     * @throws IllegalArgumentException if the property names an unknown store
+     */
+    static MarketPlaceStore configuredInstance() {
+        String store = System.getProperty("marketplace.store", "copy-on-write");
+        switch (store) {
+            case "copy-on-write":
+                return MarketPlaceStoreCache.createInstance();
+            case "concurrent":
+                return ConcurrentMarketPlaceStoreCache.createInstance();
+            case "off-heap":
+                return OffHeapMarketPlaceStoreCache.createInstance();
+            case "tiered":
+                return TieredMarketPlaceStoreCache.createInstance();
+            default:
+                throw new IllegalArgumentException("Unknown marketplace store : " + store);
+        }
+    }
+
 }
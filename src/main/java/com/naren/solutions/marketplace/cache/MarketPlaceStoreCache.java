@@ -8,12 +8,17 @@ package com.naren.solutions.marketplace.cache;
 import com.naren.solutions.marketplace.dom.Bid;
 import com.naren.solutions.marketplace.dom.Offer;
 import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This implementation of MarketPlaceStore provides an in-memory cache using
  * {@link java.util.concurrent.CopyOnWriteArrayList} data structure.
+ * <p>
+ * Bids and offers are indexed by buyer and seller ID, and orders by both, as
+ * they are added to and removed from the lists, so looking up the entries of
+ * one participant costs the size of the result rather than of the lists.
  *
  * @author Naren Chivukula
  */
@@ -24,20 +29,40 @@ public class MarketPlaceStoreCache implements MarketPlaceStore {
      */
     private static final MarketPlaceStore INSTANCE = new MarketPlaceStoreCache();
 
+    /**
+     * The index of bids by buyer ID.
+     */
+    private final SecondaryIndex<Bid> BIDS_BY_BUYER = new SecondaryIndex<>(Bid::getBuyerSymbol);
+
+    /**
+     * The index of offers by seller ID.
+     */
+    private final SecondaryIndex<Offer> OFFERS_BY_SELLER = new SecondaryIndex<>(Offer::getSellerSymbol);
+
+    /**
+     * The index of orders by buyer ID.
+     */
+    private final SecondaryIndex<Order> ORDERS_BY_BUYER = new SecondaryIndex<>(Order::getBuyerSymbol);
+
+    /**
+     * The index of orders by seller ID.
+     */
+    private final SecondaryIndex<Order> ORDERS_BY_SELLER = new SecondaryIndex<>(Order::getSellerSymbol);
+
     /**
      * The in-memory cache for bids.
      */
-    private final List<Bid> BIDS = new CopyOnWriteArrayList<>();
+    private final List<Bid> BIDS = new IndexedList<>(new CopyOnWriteArrayList<>(), BIDS_BY_BUYER);
 
     /**
      * The in-memory cache for offers.
      */
-    private final List<Offer> OFFERS = new CopyOnWriteArrayList<>();
+    private final List<Offer> OFFERS = new IndexedList<>(new CopyOnWriteArrayList<>(), OFFERS_BY_SELLER);
 
     /**
      * The in-memory cache for orders.
      */
-    private final List<Order> ORDERS = new CopyOnWriteArrayList<>();
+    private final List<Order> ORDERS = new IndexedList<>(new CopyOnWriteArrayList<>(), ORDERS_BY_BUYER, ORDERS_BY_SELLER);
 
     /*
      * Private constructor to avoid direct instantiation
@@ -69,4 +94,44 @@ public class MarketPlaceStoreCache implements MarketPlaceStore {
     public final List<Order> orders() {
         return ORDERS;
     }
+
+    @Override
+    public final List<Bid> bidsByBuyerId(String buyerId) {
+        return BIDS_BY_BUYER.get(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Offer> offersBySellerId(String sellerId) {
+        return OFFERS_BY_SELLER.get(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final List<Order> ordersByBuyerId(String buyerId) {
+        return ORDERS_BY_BUYER.get(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Order> ordersBySellerId(String sellerId) {
+        return ORDERS_BY_SELLER.get(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final EntryCursor<Bid> bidCursor(String buyerId, long after) {
+        return BIDS_BY_BUYER.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Offer> offerCursor(String sellerId, long after) {
+        return OFFERS_BY_SELLER.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return ORDERS_BY_BUYER.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return ORDERS_BY_SELLER.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
 }
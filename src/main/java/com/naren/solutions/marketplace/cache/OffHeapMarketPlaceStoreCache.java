@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.book.RestingEntries;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.List;
+
+/**
+ * This implementation of MarketPlaceStore keeps resting bids and offers and
+ * executed orders outside the Java heap, as fixed-layout records, so neither
+ * the depth of the books nor the ever-growing order history adds to the heap
+ * or to GC pauses.
+ * <p>
+ * Resting bids and offers are kept in {@link OffHeapRestingEntries}, which the
+ * order books of the market refer to by record handle and fill in place, and
+ * executed orders in an {@link OffHeapOrderLog}. The lists of this store read
+ * each entity from its record through a {@link BidRecord}, {@link OfferRecord}
+ * or {@link OrderRecord} flyweight as it is accessed.
+ *
+ * @author Naren Chivukula
+ */
+public class OffHeapMarketPlaceStoreCache implements MarketPlaceStore {
+
+    /**
+     * The singleton instance of this class.
+     */
+    private static final MarketPlaceStore INSTANCE = new OffHeapMarketPlaceStoreCache();
+
+    /**
+     * The off-heap table of bids, which indexes them by buyer ID.
+     */
+    private final OffHeapRestingEntries<Bid> BIDS = OffHeapRestingEntries.bids();
+
+    /**
+     * The off-heap table of offers, which indexes them by seller ID.
+     */
+    private final OffHeapRestingEntries<Offer> OFFERS = OffHeapRestingEntries.offers();
+
+    /**
+     * The off-heap log of orders, which indexes them by buyer and seller ID.
+     */
+    private final OffHeapOrderLog ORDERS = new OffHeapOrderLog();
+
+    /*
+     * Private constructor to avoid direct instantiation
+     */
+    private OffHeapMarketPlaceStoreCache() {
+
+    }
+
+    /**
+     * Returns singleton instance of this class.
+     *
+     * @return singleton instance of this class
+     */
+    public static final MarketPlaceStore createInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public final List<Bid> bids() {
+        return BIDS.list();
+    }
+
+    @Override
+    public final List<Offer> offers() {
+        return OFFERS.list();
+    }
+
+    @Override
+    public final List<Order> orders() {
+        return ORDERS;
+    }
+
+    @Override
+    public final List<Order> orderSnapshot() {
+        return ORDERS.snapshot();
+    }
+
+    /**
+     * Returns the off-heap table of bids.
+     *
+     * @return the table of resting bids
+     */
+    @Override
+    public final RestingEntries<Bid> restingBids() {
+        return BIDS;
+    }
+
+    /**
+     * Returns the off-heap table of offers.
+     *
+     * @return the table of resting offers
+     */
+    @Override
+    public final RestingEntries<Offer> restingOffers() {
+        return OFFERS;
+    }
+
+    /**
+     * Returns {@code true}, as orders are written to off-heap records.
+     *
+     * @return {@code true}
+     */
+    @Override
+    public final boolean copiesOrders() {
+        return true;
+    }
+
+    @Override
+    public final List<Bid> bidsByBuyerId(String buyerId) {
+        return BIDS.entitiesOf(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Offer> offersBySellerId(String sellerId) {
+        return OFFERS.entitiesOf(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final List<Order> ordersByBuyerId(String buyerId) {
+        return ORDERS.ordersByBuyerId(buyerId);
+    }
+
+    @Override
+    public final List<Order> ordersBySellerId(String sellerId) {
+        return ORDERS.ordersBySellerId(sellerId);
+    }
+
+    @Override
+    public final EntryCursor<Bid> bidCursor(String buyerId, long after) {
+        return BIDS.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Offer> offerCursor(String sellerId, long after) {
+        return OFFERS.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return ORDERS.orderCursorByBuyerId(buyerId, after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return ORDERS.orderCursorBySellerId(sellerId, after);
+    }
+}
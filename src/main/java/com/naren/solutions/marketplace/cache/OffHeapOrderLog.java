@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is an append-only log of orders kept as fixed-layout
+ * {@link OrderRecord}s in direct byte buffers, outside the Java heap. The heap
+ * only holds the buffers and, per buyer and seller symbol, the int numbers of
+ * their records, so the heap does not grow with
+ * the size of each order.
+ * <p>
+ * {@link #get(int)} creates an {@link Order} from its record, while
+ * {@link #record(int, OrderRecord)} reads a record through a reusable
+ * flyweight. Orders can not be removed one by one, only all at once by
+ * {@link #clear()}, which must not run concurrently with reads. It drops the
+ * buffers rather than reusing them, so a {@link #snapshot()} taken before
+ * stays readable.
+ *
+ * @author Naren Chivukula
+ */
+public class OffHeapOrderLog extends AbstractList<Order> {
+
+    private static final int CHUNK_SHIFT = 15;
+
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    private final SymbolMap<RecordNumbers> byBuyer = new SymbolMap<>();
+
+    private final SymbolMap<RecordNumbers> bySeller = new SymbolMap<>();
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    private volatile int size;
+
+    @Override
+    public Order get(int index) {
+        return record(index, new OrderRecord()).toOrder();
+    }
+
+    /**
+     * Moves the given flyweight to the record of the order at the given
+     * position.
+     *
+     * @param index the position of the order
+     * @param record the flyweight to move
+     * @return the flyweight
+     */
+    public OrderRecord record(int index, OrderRecord record) {
+        int published = size;
+        if (index < 0 || index >= published) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + published);
+        }
+        return record.wrap(chunks[index >>> CHUNK_SHIFT], (index & (CHUNK_RECORDS - 1)) * OrderRecord.SIZE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean add(Order order) {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        ByteBuffer[] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[chunk] = ByteBuffer.allocateDirect(CHUNK_RECORDS * OrderRecord.SIZE);
+        }
+        OrderRecord.write(current[chunk], (index & (CHUNK_RECORDS - 1)) * OrderRecord.SIZE, order);
+        chunks = current;
+        size = index + 1;
+        index(byBuyer, order.getBuyerSymbol(), index);
+        index(bySeller, order.getSellerSymbol(), index);
+        return true;
+    }
+
+    /**
+     * Returns the orders of the specified buyer, in the order in which they
+     * were added.
+     *
+     * @param buyerId the buyer ID
+     * @return orders of the buyer
+     */
+    public List<Order> ordersByBuyerId(String buyerId) {
+        return orders(byBuyer, buyerId);
+    }
+
+    /**
+     * Returns the orders of the specified seller, in the order in which they
+     * were added.
+     *
+     * @param sellerId the seller ID
+     * @return orders of the seller
+     */
+    public List<Order> ordersBySellerId(String sellerId) {
+        return orders(bySeller, sellerId);
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified buyer after the
+     * given sequence, which reads each order from its record as it is
+     * iterated.
+     *
+     * @param buyerId the buyer ID
+     * @param after the sequence to resume after
+     * @return the cursor over the orders of the buyer
+     */
+    public EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return cursor(byBuyer, buyerId, after);
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified seller after the
+     * given sequence, which reads each order from its record as it is
+     * iterated.
+     *
+     * @param sellerId the seller ID
+     * @param after the sequence to resume after
+     * @return the cursor over the orders of the seller
+     */
+    public EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return cursor(bySeller, sellerId, after);
+    }
+
+    /**
+     * Returns an unmodifiable view of the orders added so far, which neither
+     * grows as orders are added nor is emptied by {@link #clear()}, so it may
+     * be read on any thread. Each order is created from its record as it is
+     * read.
+     *
+     * @return the view of the orders added so far
+     */
+    public List<Order> snapshot() {
+        ByteBuffer[] published;
+        int count;
+        synchronized (this) {
+            published = chunks;
+            count = size;
+        }
+        return new AbstractList<Order>() {
+
+            @Override
+            public Order get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return new OrderRecord().wrap(published[index >>> CHUNK_SHIFT],
+                        (index & (CHUNK_RECORDS - 1)) * OrderRecord.SIZE).toOrder();
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void clear() {
+        byBuyer.clear();
+        bySeller.clear();
+        chunks = new ByteBuffer[0];
+        size = 0;
+    }
+
+    private List<Order> orders(SymbolMap<RecordNumbers> index, String id) {
+        RecordNumbers numbers = index.get(SymbolTable.PARTICIPANTS.find(id));
+        if (numbers == null) {
+            return new ArrayList<>();
+        }
+        int[] snapshot = numbers.toArray();
+        List<Order> orders = new ArrayList<>(snapshot.length);
+        OrderRecord record = new OrderRecord();
+        for (int number : snapshot) {
+            orders.add(record(number, record).toOrder());
+        }
+        return orders;
+    }
+
+    private EntryCursor<Order> cursor(SymbolMap<RecordNumbers> index, String id, long after) {
+        RecordNumbers numbers = index.get(SymbolTable.PARTICIPANTS.find(id));
+        return numbers == null ? EntryCursor.over(Collections.emptyList(), after) : numbers.cursor(this, after);
+    }
+
+    private static void index(SymbolMap<RecordNumbers> index, int symbol, int number) {
+        if (symbol != SymbolTable.NULL) {
+            index.computeIfAbsent(symbol, RecordNumbers::new).add(number);
+        }
+    }
+
+    /*
+     * The numbers of the records of one buyer or seller, in the order in which
+     * they were added. They are kept in fixed-size chunks, so adding a number
+     * never copies the numbers before it.
+     */
+    private static final class RecordNumbers {
+
+        private static final int CHUNK_SHIFT = 8;
+
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+        private int[][] chunks = new int[1][CHUNK_SIZE];
+
+        private int size;
+
+        synchronized void add(int number) {
+            int chunk = size >>> CHUNK_SHIFT;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new int[CHUNK_SIZE];
+            }
+            chunks[chunk][size & (CHUNK_SIZE - 1)] = number;
+            size++;
+        }
+
+        synchronized int[] toArray() {
+            int[] numbers = new int[size];
+            for (int chunk = 0; chunk << CHUNK_SHIFT < size; chunk++) {
+                int from = chunk << CHUNK_SHIFT;
+                System.arraycopy(chunks[chunk], 0, numbers, from, Math.min(CHUNK_SIZE, size - from));
+            }
+            return numbers;
+        }
+
+        /*
+         * Iterates the numbers added so far, whose chunks are all held by the
+         * chunk array of the moment, reading the record of each.
+         */
+        synchronized EntryCursor<Order> cursor(OffHeapOrderLog log, long after) {
+            int[][] published = chunks;
+            int count = size;
+            return new EntryCursor<Order>() {
+
+                private final OrderRecord record = new OrderRecord();
+
+                private long sequence = Math.max(0L, after);
+
+                @Override
+                public long sequence() {
+                    return sequence;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return sequence < count;
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = (int) sequence++;
+                    return log.record(published[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)], record).toOrder();
+                }
+            };
+        }
+
+    }
+
+}
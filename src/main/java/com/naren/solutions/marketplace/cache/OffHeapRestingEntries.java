@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.book.RestingEntries;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class is a table of resting bids or offers kept as fixed-layout
+ * {@link RestingRecord}s in direct byte buffers, outside the Java heap. The
+ * order books refer to the entities by their handles, the numbers of their
+ * records, and read and fill them in place, while {@link #list()} shows the
+ * same records as the bids or offers of a store. The records of removed
+ * entities are linked into a free list kept in the records themselves and
+ * reused, and the buyers or sellers are indexed by int handles, so the heap
+ * does not grow with the number of resting entities.
+ * <p>
+ * Entities are added, removed and changed under the lock of the table, and
+ * read under it by {@link #get(int)}, the list and the cursors, which
+ * therefore never see a record half written. The thread which matches the
+ * item of an entity is the only one to change it, so it reads the fields of
+ * its entities through the handles without locking. {@link #list()} and the
+ * cursors are weakly consistent.
+ *
+ * @param <E> the type of the resting entities
+ * @author Naren Chivukula
+ */
+public class OffHeapRestingEntries<E extends MarketplaceEntity> implements RestingEntries<E> {
+
+    private static final int CHUNK_SHIFT = 14;
+
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    /*
+     * The number of sequences held by a chunk of postings.
+     */
+    private static final int POSTINGS_PER_CHUNK = 64;
+
+    private final ToIntFunction<? super E> participantOf;
+
+    private final RestingRecord<E> reader;
+
+    private final SymbolMap<Postings> byParticipant = new SymbolMap<>();
+
+    private final List<E> list = new RecordList();
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    private int highWater;
+
+    private int freeHead = NONE;
+
+    private volatile int size;
+
+    /**
+     * This is used to create an empty table.
+     *
+     * @param participantOf the function returning the symbol of the buyer ID
+     * of a bid or the seller ID of an offer
+     * @param reader the flyweight through which the records are read under
+     * the lock of the table
+     */
+    public OffHeapRestingEntries(ToIntFunction<? super E> participantOf, RestingRecord<E> reader) {
+        this.participantOf = participantOf;
+        this.reader = reader;
+    }
+
+    /**
+     * Returns a new empty table of bids, indexed by buyer ID.
+     *
+     * @return the table of bids
+     */
+    public static OffHeapRestingEntries<Bid> bids() {
+        return new OffHeapRestingEntries<>(Bid::getBuyerSymbol, new BidRecord());
+    }
+
+    /**
+     * Returns a new empty table of offers, indexed by seller ID.
+     *
+     * @return the table of offers
+     */
+    public static OffHeapRestingEntries<Offer> offers() {
+        return new OffHeapRestingEntries<>(Offer::getSellerSymbol, new OfferRecord());
+    }
+
+    /**
+     * Returns the entities of this table as a list, whose elements are read
+     * from their records as they are accessed. Adding an entity to the list
+     * adds it to the table, and removing one removes it from the table.
+     * Positional access costs the size of the table.
+     *
+     * @return the list of the entities
+     */
+    public List<E> list() {
+        return list;
+    }
+
+    /**
+     * Adds the entity as a record, which is indexed by its buyer or seller.
+     *
+     * @throws IllegalArgumentException if the price of the entity is not a
+     * whole number of ticks
+     */
+    @Override
+    public synchronized int add(E entity) {
+        int participant = participantOf.applyAsInt(entity);
+        int handle = freeHead != NONE ? freeHead : highWater;
+        if (handle >>> CHUNK_SHIFT == chunks.length) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RestingRecord.SIZE);
+            chunks = grown;
+        }
+        ByteBuffer buffer = buffer(handle);
+        int offset = offset(handle);
+        int nextFree = handle == freeHead ? buffer.getInt(offset + RestingRecord.NEXT_FREE) : NONE;
+        Postings postings = participant == SymbolTable.NULL ? null
+                : byParticipant.computeIfAbsent(participant, Postings::new);
+        RestingRecord.write(buffer, offset, entity, participant, postings == null ? 0L : postings.lastSequence + 1);
+        if (handle == freeHead) {
+            freeHead = nextFree;
+        } else {
+            highWater++;
+        }
+        if (postings != null) {
+            postings.post(handle);
+        }
+        size++;
+        return handle;
+    }
+
+    @Override
+    public synchronized void remove(int handle) {
+        ByteBuffer buffer = buffer(handle);
+        int offset = offset(handle);
+        int participant = buffer.getInt(offset + RestingRecord.PARTICIPANT_ID);
+        if (participant != SymbolTable.NULL) {
+            byParticipant.get(participant).remove(buffer.getLong(offset + RestingRecord.SEQUENCE));
+        }
+        buffer.putInt(offset + RestingRecord.NEXT_FREE, freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    /**
+     * Returns a new entity with the fields of the record.
+     */
+    @Override
+    public synchronized E get(int handle) {
+        return reader.wrap(buffer(handle), offset(handle)).toEntity();
+    }
+
+    @Override
+    public int getItemSymbol(int handle) {
+        return buffer(handle).getInt(offset(handle) + RestingRecord.ITEM_ID);
+    }
+
+    @Override
+    public int getParticipantSymbol(int handle) {
+        return buffer(handle).getInt(offset(handle) + RestingRecord.PARTICIPANT_ID);
+    }
+
+    @Override
+    public int getQuantity(int handle) {
+        return buffer(handle).getInt(offset(handle) + RestingRecord.QUANTITY);
+    }
+
+    @Override
+    public synchronized void setQuantity(int handle, int quantity) {
+        buffer(handle).putInt(offset(handle) + RestingRecord.QUANTITY, quantity);
+    }
+
+    @Override
+    public long getPriceTicks(int handle) {
+        return buffer(handle).getLong(offset(handle) + RestingRecord.PRICE_TICKS);
+    }
+
+    @Override
+    public synchronized BigDecimal getPricePerUnit(int handle) {
+        return reader.wrap(buffer(handle), offset(handle)).getPricePerUnit();
+    }
+
+    @Override
+    public int getPriceScale(int handle) {
+        return buffer(handle).getInt(offset(handle) + RestingRecord.PRICE_SCALE);
+    }
+
+    @Override
+    public synchronized void forEachHandle(IntConsumer action) {
+        for (int handle = 0; handle < highWater; handle++) {
+            if (reader.wrap(buffer(handle), offset(handle)).isInUse()) {
+                action.accept(handle);
+            }
+        }
+    }
+
+    /**
+     * Returns a new list of the entities of the given buyer or seller, in the
+     * order in which they were added.
+     *
+     * @param symbol the symbol of the buyer or seller ID
+     * @return the entities of the buyer or seller
+     */
+    public List<E> entitiesOf(int symbol) {
+        List<E> found = new ArrayList<>();
+        cursor(symbol, 0L).forEachRemaining(found::add);
+        return found;
+    }
+
+    /**
+     * Returns a lazy cursor over the entities of the given buyer or seller
+     * whose sequence is after the given one, in the order in which they were
+     * added. The cursor starts at the chunk of postings holding the next
+     * sequence, without reading the entities before it.
+     *
+     * @param symbol the symbol of the buyer or seller ID
+     * @param after the sequence to resume after
+     * @return the cursor over the entities of the buyer or seller
+     */
+    public EntryCursor<E> cursor(int symbol, long after) {
+        Postings postings = byParticipant.get(symbol);
+        return new PostingCursor(postings == null ? null : postings.seek(after), symbol, after);
+    }
+
+    private ByteBuffer buffer(int handle) {
+        return chunks[handle >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int handle) {
+        return (handle & (CHUNK_RECORDS - 1)) * RestingRecord.SIZE;
+    }
+
+    /*
+     * Returns a new entity read from the record with the handle, or null where
+     * the record no longer holds the entity posted with the given sequence.
+     */
+    private synchronized E entityAt(int handle, int symbol, long sequence) {
+        RestingRecord<E> record = reader.wrap(buffer(handle), offset(handle));
+        if (!record.isInUse() || record.getParticipantSymbol() != symbol || record.getSequence() != sequence) {
+            return null;
+        }
+        return record.toEntity();
+    }
+
+    /*
+     * Returns the handle of the first record in use from the given handle on,
+     * or NONE.
+     */
+    private synchronized int nextInUse(int handle) {
+        for (; handle < highWater; handle++) {
+            if (reader.wrap(buffer(handle), offset(handle)).isInUse()) {
+                return handle;
+            }
+        }
+        return NONE;
+    }
+
+    private synchronized boolean removeEqual(Object o) {
+        for (int handle = nextInUse(0); handle != NONE; handle = nextInUse(handle + 1)) {
+            if (get(handle).equals(o)) {
+                remove(handle);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void clear() {
+        byParticipant.clear();
+        highWater = 0;
+        freeHead = NONE;
+        size = 0;
+    }
+
+    private static long chunkOf(long sequence) {
+        return (sequence - 1) / POSTINGS_PER_CHUNK;
+    }
+
+    /*
+     * The entities of the table as a list. Its iterator reads the records in
+     * the order of their handles.
+     */
+    private final class RecordList extends AbstractList<E> {
+
+        @Override
+        public E get(int index) {
+            if (index >= 0) {
+                int position = 0;
+                for (E entity : this) {
+                    if (position++ == index) {
+                        return entity;
+                    }
+                }
+            }
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(E entity) {
+            OffHeapRestingEntries.this.add(entity);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return removeEqual(o);
+        }
+
+        @Override
+        public void clear() {
+            OffHeapRestingEntries.this.clear();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+
+                private int next = nextInUse(0);
+
+                private int last = NONE;
+
+                @Override
+                public boolean hasNext() {
+                    return next != NONE;
+                }
+
+                @Override
+                public E next() {
+                    if (next == NONE) {
+                        throw new NoSuchElementException();
+                    }
+                    E entity = OffHeapRestingEntries.this.get(next);
+                    last = next;
+                    next = nextInUse(next + 1);
+                    return entity;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == NONE) {
+                        throw new IllegalStateException();
+                    }
+                    OffHeapRestingEntries.this.remove(last);
+                    last = NONE;
+                }
+            };
+        }
+
+    }
+
+    /*
+     * The handles of POSTINGS_PER_CHUNK consecutive sequences, the first of
+     * which is one after a multiple of POSTINGS_PER_CHUNK, each held plus one
+     * so that zero marks an empty slot. The chunks of a participant are linked
+     * in sequence order.
+     */
+    private static final class Chunk {
+
+        private final long number;
+
+        private final AtomicIntegerArray slots = new AtomicIntegerArray(POSTINGS_PER_CHUNK);
+
+        private volatile Chunk next;
+
+        private int live;
+
+        private Chunk(long number) {
+            this.number = number;
+        }
+
+        private long firstSequence() {
+            return number * POSTINGS_PER_CHUNK + 1;
+        }
+
+    }
+
+    /*
+     * The handles of the entities of one buyer or seller, in chunks linked
+     * from the head and keyed by chunk number for seeking. They are posted and
+     * removed under the lock of the table; a full chunk whose handles were all
+     * removed is unlinked. A handle is removed by the sequence kept in its
+     * record, walking from the head, which is where the oldest entities, the
+     * first to be filled, are.
+     */
+    private static final class Postings {
+
+        private final ConcurrentSkipListMap<Long, Chunk> chunks = new ConcurrentSkipListMap<>();
+
+        private volatile Chunk head;
+
+        private Chunk last;
+
+        private volatile long lastSequence;
+
+        Chunk seek(long after) {
+            Map.Entry<Long, Chunk> found = chunks.ceilingEntry(chunkOf(after + 1));
+            return found == null ? null : found.getValue();
+        }
+
+        void post(int handle) {
+            long sequence = lastSequence + 1;
+            if (last == null || last.number != chunkOf(sequence)) {
+                Chunk chunk = new Chunk(chunkOf(sequence));
+                chunks.put(chunk.number, chunk);
+                if (last == null) {
+                    head = chunk;
+                } else {
+                    last.next = chunk;
+                }
+                last = chunk;
+            }
+            last.slots.set((int) (sequence - last.firstSequence()), handle + 1);
+            last.live++;
+            lastSequence = sequence;
+        }
+
+        void remove(long sequence) {
+            long number = chunkOf(sequence);
+            Chunk previous = null;
+            for (Chunk chunk = head; chunk != null && chunk.number <= number; previous = chunk, chunk = chunk.next) {
+                if (chunk.number == number) {
+                    chunk.slots.set((int) (sequence - chunk.firstSequence()), 0);
+                    if (--chunk.live == 0 && chunk.firstSequence() + POSTINGS_PER_CHUNK - 1 <= lastSequence) {
+                        unlink(previous, chunk);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void unlink(Chunk previous, Chunk chunk) {
+            if (previous == null) {
+                head = chunk.next;
+            } else {
+                previous.next = chunk.next;
+            }
+            if (last == chunk) {
+                last = previous;
+            }
+            chunks.remove(chunk.number);
+        }
+
+    }
+
+    /*
+     * Iterates the postings of a buyer or seller from the chunk holding the
+     * sequence after the one to resume after, reading each entity from its
+     * record and skipping those removed since they were posted.
+     */
+    private final class PostingCursor implements EntryCursor<E> {
+
+        private final int symbol;
+
+        private Chunk chunk;
+
+        private int slot;
+
+        private long sequence;
+
+        private E next;
+
+        private long nextSequence;
+
+        private PostingCursor(Chunk chunk, int symbol, long after) {
+            this.chunk = chunk;
+            this.symbol = symbol;
+            this.sequence = after;
+            if (chunk != null) {
+                slot = (int) Math.max(0, after + 1 - chunk.firstSequence());
+            }
+        }
+
+        @Override
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && chunk != null) {
+                if (slot == POSTINGS_PER_CHUNK) {
+                    chunk = chunk.next;
+                    slot = 0;
+                    continue;
+                }
+                int posted = chunk.slots.get(slot);
+                if (posted != 0) {
+                    nextSequence = chunk.firstSequence() + slot;
+                    next = entityAt(posted - 1, symbol, nextSequence);
+                }
+                slot++;
+            }
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            sequence = nextSequence;
+            E entity = next;
+            next = null;
+            return entity;
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+
+/**
+ * This class is a flyweight over an offer resting as a fixed-layout
+ * {@link RestingRecord} in off-heap memory, whose participant is the seller.
+ *
+ * @author Naren Chivukula
+ */
+public final class OfferRecord extends RestingRecord<Offer> {
+
+    /**
+     * Returns the seller ID.
+     *
+     * @return the sellerId
+     */
+    public String getSellerId() {
+        return SymbolTable.PARTICIPANTS.id(getSellerSymbol());
+    }
+
+    /**
+     * Returns the symbol of the seller ID.
+     *
+     * @return the symbol of the sellerId
+     */
+    public int getSellerSymbol() {
+        return getParticipantSymbol();
+    }
+
+    /**
+     * Returns a new {@code Offer} with the fields of the record.
+     *
+     * @return the offer
+     */
+    public Offer toOffer() {
+        return new Offer(getItemId(), getSellerId(), getQuantity(), getPricePerUnit());
+    }
+
+    @Override
+    public Offer toEntity() {
+        return toOffer();
+    }
+
+    @Override
+    public String toString() {
+        return "OfferRecord [itemId=" + getItemId() + ", sellerId=" + getSellerId()
+                + ", quantity=" + getQuantity() + ", pricePerUnit=" + getPricePerUnit() + "]";
+    }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class maps one archived segment of a {@link TieredOrderHistory}: a file
+ * written once, in one go, from a sealed generation of orders and never
+ * changed after.
+ * <p>
+ * The file is a header of a magic number, the number of orders and the
+ * position of the offset table, followed by the orders as written by
+ * {@link EntityCodec#ORDER}, the offset of each order, and an index by buyer
+ * and then by seller ID. Each index is the number of its IDs followed, per ID,
+ * by the ID, the number of its orders and their numbers in the segment. The
+ * indexes are read into symbol maps when the segment is mapped, so the orders
+ * of a buyer or seller are found without scanning the segment.
+ * <p>
+ * The file is written through a writable mapping and then mapped read-only.
+ * {@link #close()} unmaps it, rather than leaving the mapping to the garbage
+ * collector, once no order is being read from it; orders are not read from a
+ * closed segment.
+ *
+ * @author Naren Chivukula
+ */
+final class OrderArchiveSegment {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderArchiveSegment.class);
+
+    private static final int MAGIC = 0x4F415331;
+
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    private static final int[] NO_NUMBERS = new int[0];
+
+    private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final int size;
+
+    private final int offsetTable;
+
+    private final SymbolMap<int[]> byBuyer = new SymbolMap<>();
+
+    private final SymbolMap<int[]> bySeller = new SymbolMap<>();
+
+    /*
+     * Held to read from the mapping, and exclusively to unmap it.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean closed;
+
+    private OrderArchiveSegment(Path file, MappedByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not an order archive segment : " + file);
+        }
+        this.file = file;
+        this.buffer = buffer;
+        this.size = buffer.getInt(Integer.BYTES);
+        this.offsetTable = buffer.getInt(2 * Integer.BYTES);
+        ByteBuffer indexes = buffer.duplicate();
+        ((Buffer) indexes).position(offsetTable + size * Integer.BYTES);
+        readIndex(indexes, byBuyer);
+        readIndex(indexes, bySeller);
+    }
+
+    /*
+     * Writes the given orders to a new segment file and maps it.
+     */
+    static OrderArchiveSegment write(Path file, List<Order> orders) throws IOException {
+        Map<String, List<Integer>> buyers = new LinkedHashMap<>();
+        Map<String, List<Integer>> sellers = new LinkedHashMap<>();
+        int recordsLength = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            recordsLength += EntityCodec.ORDER.encodedLength(order);
+            group(buyers, order.getBuyerId(), i);
+            group(sellers, order.getSellerId(), i);
+        }
+        int offsetTable = HEADER_SIZE + recordsLength;
+        int size = offsetTable + orders.size() * Integer.BYTES + indexLength(buyers) + indexLength(sellers);
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        try {
+            writeOrders(buffer, orders, offsetTable, buyers, sellers);
+        } finally {
+            UNMAPPER.accept(buffer);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OrderArchiveSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /*
+     * Writes the orders, their offsets, the indexes and then the header to the
+     * mapped file.
+     */
+    private static void writeOrders(MappedByteBuffer buffer, List<Order> orders, int offsetTable,
+            Map<String, List<Integer>> buyers, Map<String, List<Integer>> sellers) {
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < orders.size(); i++) {
+            buffer.putInt(offsetTable + i * Integer.BYTES, offset);
+            offset = EntityCodec.ORDER.encode(orders.get(i), buffer, offset);
+        }
+        ((Buffer) buffer).position(offsetTable + orders.size() * Integer.BYTES);
+        writeIndex(buffer, buyers);
+        writeIndex(buffer, sellers);
+        buffer.putInt(0, MAGIC).putInt(Integer.BYTES, orders.size()).putInt(2 * Integer.BYTES, offsetTable);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * Decodes the order with the given number in this segment.
+     */
+    Order get(int number) {
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Order archive segment is closed : " + file);
+            }
+            ByteBuffer record = buffer.duplicate();
+            ((Buffer) record).position(buffer.getInt(offsetTable + number * Integer.BYTES));
+            return EntityCodec.ORDER.decode(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Adds the orders of the buyer with the given symbol to the list.
+     */
+    void ordersOfBuyer(int symbol, List<Order> orders) {
+        ordersOf(byBuyer, symbol, orders);
+    }
+
+    /*
+     * Adds the orders of the seller with the given symbol to the list.
+     */
+    void ordersOfSeller(int symbol, List<Order> orders) {
+        ordersOf(bySeller, symbol, orders);
+    }
+
+    /*
+     * Returns the numbers of the orders of the buyer with the given symbol.
+     */
+    int[] numbersOfBuyer(int symbol) {
+        return numbersOf(byBuyer, symbol);
+    }
+
+    /*
+     * Returns the numbers of the orders of the seller with the given symbol.
+     */
+    int[] numbersOfSeller(int symbol) {
+        return numbersOf(bySeller, symbol);
+    }
+
+    /*
+     * Returns a cursor decoding the orders with the given numbers, numbered
+     * by their position among them.
+     */
+    EntryCursor<Order> cursor(int[] numbers, long after) {
+        return new EntryCursor<Order>() {
+
+            private long sequence = Math.max(0L, after);
+
+            @Override
+            public long sequence() {
+                return sequence;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return sequence < numbers.length;
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(numbers[(int) sequence++]);
+            }
+        };
+    }
+
+    /*
+     * Unmaps the segment, waiting for the orders being read from it.
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                UNMAPPER.accept(buffer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Closes the segment and deletes its file.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    private void ordersOf(SymbolMap<int[]> index, int symbol, List<Order> orders) {
+        for (int number : numbersOf(index, symbol)) {
+            orders.add(get(number));
+        }
+    }
+
+    private static int[] numbersOf(SymbolMap<int[]> index, int symbol) {
+        int[] numbers = index.get(symbol);
+        return numbers == null ? NO_NUMBERS : numbers;
+    }
+
+    private static void group(Map<String, List<Integer>> index, String id, int number) {
+        if (id != null) {
+            index.computeIfAbsent(id, key -> new ArrayList<>()).add(number);
+        }
+    }
+
+    private static int indexLength(Map<String, List<Integer>> index) {
+        int length = Integer.BYTES;
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            length += Short.BYTES + entry.getKey().getBytes(StandardCharsets.UTF_8).length
+                    + Integer.BYTES + entry.getValue().size() * Integer.BYTES;
+        }
+        return length;
+    }
+
+    private static void writeIndex(ByteBuffer buffer, Map<String, List<Integer>> index) {
+        buffer.putInt(index.size());
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) id.length).put(id).putInt(entry.getValue().size());
+            for (int number : entry.getValue()) {
+                buffer.putInt(number);
+            }
+        }
+    }
+
+    /*
+     * Returns the means of unmapping a buffer, which is the cleaner of the
+     * buffer where the runtime exposes it and otherwise leaves the buffer to
+     * be unmapped by the garbage collector.
+     */
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException ex) {
+                    LOG.warn("Failed to unmap an order archive segment", ex);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOG.info("Order archive segments are unmapped by the garbage collector", ex);
+            return buffer -> {
+            };
+        }
+    }
+
+    private static void readIndex(ByteBuffer buffer, SymbolMap<int[]> index) {
+        int ids = buffer.getInt();
+        for (int i = 0; i < ids; i++) {
+            byte[] id = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(id);
+            int[] numbers = new int[buffer.getInt()];
+            for (int j = 0; j < numbers.length; j++) {
+                numbers[j] = buffer.getInt();
+            }
+            index.computeIfAbsent(SymbolTable.PARTICIPANTS.intern(new String(id, StandardCharsets.UTF_8)),
+                    () -> numbers);
+        }
+    }
+
+}
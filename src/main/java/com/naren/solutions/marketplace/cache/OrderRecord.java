@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Price;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is a flyweight over an order held as a fixed-layout record in
+ * off-heap memory. It can be moved from record to record with
+ * {@link #wrap(ByteBuffer, int)}, so orders can be read without creating an
+ * {@link Order} per record.
+ * <p>
+ * A record is {@value #SIZE} bytes: the symbols of the buyer, seller and item
+ * IDs in the {@link SymbolTable}, the quantity, and the price in ticks with the
+ * scale it was given in.
+ *
+ * @author Naren Chivukula
+ */
+public final class OrderRecord {
+
+    /**
+     * The size of a record in bytes.
+     */
+    public static final int SIZE = 32;
+
+    private static final int BUYER_ID = 0;
+
+    private static final int SELLER_ID = 4;
+
+    private static final int ITEM_ID = 8;
+
+    private static final int QUANTITY = 12;
+
+    private static final int PRICE_TICKS = 16;
+
+    private static final int PRICE_SCALE = 24;
+
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    /**
+     * This is used to create a flyweight which is not on a record yet.
+     */
+    public OrderRecord() {
+
+    }
+
+    /**
+     * Moves this flyweight to the record at the given offset.
+     *
+     * @param buffer the buffer holding the record
+     * @param offset the offset of the record in the buffer
+     * @return this flyweight
+     */
+    public OrderRecord wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns the buyer ID.
+     *
+     * @return the buyerId
+     */
+    public String getBuyerId() {
+        return SymbolTable.PARTICIPANTS.id(getBuyerSymbol());
+    }
+
+    /**
+     * Returns the symbol of the buyer ID.
+     *
+     * @return the symbol of the buyerId
+     */
+    public int getBuyerSymbol() {
+        return buffer.getInt(offset + BUYER_ID);
+    }
+
+    /**
+     * Returns the seller ID.
+     *
+     * @return the sellerId
+     */
+    public String getSellerId() {
+        return SymbolTable.PARTICIPANTS.id(getSellerSymbol());
+    }
+
+    /**
+     * Returns the symbol of the seller ID.
+     *
+     * @return the symbol of the sellerId
+     */
+    public int getSellerSymbol() {
+        return buffer.getInt(offset + SELLER_ID);
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return SymbolTable.ITEMS.id(getItemSymbol());
+    }
+
+    /**
+     * Returns the symbol of the item ID.
+     *
+     * @return the symbol of the itemId
+     */
+    public int getItemSymbol() {
+        return buffer.getInt(offset + ITEM_ID);
+    }
+
+    /**
+     * Returns the number of items or quantity.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return buffer.getInt(offset + QUANTITY);
+    }
+
+    /**
+     * Returns the price of a single item.
+     *
+     * @return the pricePerUnit
+     */
+    public BigDecimal getPricePerUnit() {
+        return Price.toBigDecimal(getPriceTicks()).setScale(buffer.getInt(offset + PRICE_SCALE), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Returns the price of a single item in ticks.
+     *
+     * @return the price of a single item in ticks
+     * @see Price
+     */
+    public long getPriceTicks() {
+        return buffer.getLong(offset + PRICE_TICKS);
+    }
+
+    /**
+     * Returns a new {@code Order} with the fields of the record.
+     *
+     * @return the order
+     */
+    public Order toOrder() {
+        return new Order(getBuyerId(), getSellerId(), getItemId(), getQuantity(), getPricePerUnit());
+    }
+
+    /*
+     * Writes the order as a record at the given offset. The price must be a
+     * whole number of ticks. Taking the ticks, which the order already holds,
+     * rather than the unscaled value of the price keeps writing a record free
+     * of allocation.
+     */
+    static void write(ByteBuffer buffer, int offset, Order order) {
+        if (order.getPriceTicks() == Price.INVALID) {
+            throw new IllegalArgumentException("Price is not a whole number of ticks : " + order.getPricePerUnit());
+        }
+        buffer.putInt(offset + BUYER_ID, order.getBuyerSymbol());
+        buffer.putInt(offset + SELLER_ID, order.getSellerSymbol());
+        buffer.putInt(offset + ITEM_ID, order.getItemSymbol());
+        buffer.putInt(offset + QUANTITY, order.getQuantity());
+        buffer.putLong(offset + PRICE_TICKS, order.getPriceTicks());
+        buffer.putInt(offset + PRICE_SCALE, order.getPricePerUnit().scale());
+    }
+
+    @Override
+    public String toString() {
+        return "OrderRecord [buyerId=" + getBuyerId() + ", sellerId=" + getSellerId()
+                + ", itemId=" + getItemId() + ", quantity=" + getQuantity()
+                + ", pricePerUnit=" + getPricePerUnit() + "]";
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import com.naren.solutions.marketplace.dom.Price;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is a flyweight over a bid or offer resting as a fixed-layout
+ * record in off-heap memory. It can be moved from record to record with
+ * {@link #wrap(ByteBuffer, int)}, so resting entities can be read without
+ * creating an object per record.
+ * <p>
+ * A record is {@value #SIZE} bytes: the symbols of the item ID and of the
+ * buyer or seller ID in the {@link SymbolTable}, the quantity, the price in
+ * ticks with the scale it was given in, the sequence of the entity among those
+ * of its buyer or seller, and the link to the next free record, which marks
+ * whether the record is in use.
+ *
+ * @param <E> the type of the entity held by the record
+ * @author Naren Chivukula
+ * @see OffHeapRestingEntries
+ */
+public abstract class RestingRecord<E extends MarketplaceEntity> {
+
+    /**
+     * The size of a record in bytes.
+     */
+    public static final int SIZE = 40;
+
+    static final int ITEM_ID = 0;
+
+    static final int PARTICIPANT_ID = 4;
+
+    static final int QUANTITY = 8;
+
+    static final int PRICE_SCALE = 12;
+
+    static final int PRICE_TICKS = 16;
+
+    static final int SEQUENCE = 24;
+
+    static final int NEXT_FREE = 32;
+
+    /*
+     * The link held by a record which is in use.
+     */
+    static final int IN_USE = -2;
+
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    /**
+     * Moves this flyweight to the record at the given offset.
+     *
+     * @param buffer the buffer holding the record
+     * @param offset the offset of the record in the buffer
+     * @return this flyweight
+     */
+    public RestingRecord<E> wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return SymbolTable.ITEMS.id(getItemSymbol());
+    }
+
+    /**
+     * Returns the symbol of the item ID.
+     *
+     * @return the symbol of the itemId
+     */
+    public int getItemSymbol() {
+        return buffer.getInt(offset + ITEM_ID);
+    }
+
+    /**
+     * Returns the number of items or quantity.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return buffer.getInt(offset + QUANTITY);
+    }
+
+    /**
+     * Returns the price of a single item.
+     *
+     * @return the pricePerUnit
+     */
+    public BigDecimal getPricePerUnit() {
+        return Price.toBigDecimal(getPriceTicks()).setScale(buffer.getInt(offset + PRICE_SCALE), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Returns the price of a single item in ticks.
+     *
+     * @return the price of a single item in ticks
+     * @see Price
+     */
+    public long getPriceTicks() {
+        return buffer.getLong(offset + PRICE_TICKS);
+    }
+
+    /*
+     * Returns the symbol of the buyer ID of a bid or the seller ID of an
+     * offer.
+     */
+    int getParticipantSymbol() {
+        return buffer.getInt(offset + PARTICIPANT_ID);
+    }
+
+    /*
+     * Returns the sequence of the entity among those of its buyer or seller.
+     */
+    long getSequence() {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    /*
+     * Returns whether the record holds an entity, rather than being free.
+     */
+    boolean isInUse() {
+        return buffer.getInt(offset + NEXT_FREE) == IN_USE;
+    }
+
+    /**
+     * Returns a new entity with the fields of the record.
+     *
+     * @return the entity
+     */
+    public abstract E toEntity();
+
+    /*
+     * Writes the entity as a record in use at the given offset. The price must
+     * be a whole number of ticks.
+     */
+    static void write(ByteBuffer buffer, int offset, MarketplaceEntity entity, int participantSymbol,
+            long sequence) {
+        if (entity.getPriceTicks() == Price.INVALID) {
+            throw new IllegalArgumentException("Price is not a whole number of ticks : " + entity.getPricePerUnit());
+        }
+        buffer.putInt(offset + ITEM_ID, entity.getItemSymbol());
+        buffer.putInt(offset + PARTICIPANT_ID, participantSymbol);
+        buffer.putInt(offset + QUANTITY, entity.getQuantity());
+        buffer.putInt(offset + PRICE_SCALE, entity.getPricePerUnit().scale());
+        buffer.putLong(offset + PRICE_TICKS, entity.getPriceTicks());
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putInt(offset + NEXT_FREE, IN_USE);
+    }
+
+}
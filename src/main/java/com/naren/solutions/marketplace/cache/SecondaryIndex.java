@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class indexes the entries of a store list by a symbol such as that of
+ * the buyer or seller ID, so that the entries for one symbol can be read
+ * without scanning the whole list. Entries of a symbol are kept in the order in
+ * which they were added.
+ * <p>
+ * Each entry is numbered by its sequence among the entries ever added under
+ * its symbol, so that a {@link #cursor(int, long)} can resume after the last
+ * entry read. The entries of each symbol, found by array index, are held in
+ * linked chunks of consecutive sequences, keyed in a concurrent sorted map by
+ * chunk number, so a cursor seeks straight to the chunk of the sequence it
+ * resumes after and a page costs the same however many entries come before
+ * it. The index may be read and updated from several threads. Entries without
+ * a symbol are not indexed.
+ * <p>
+ * Entries are removed by identity: the sequence each entry was posted with is
+ * kept, so its removal goes straight to its slot and never to that of another
+ * entry equal to it.
+ *
+ * @param <E> the type of the indexed entries
+ * @author Naren Chivukula
+ * @see SymbolTable
+ */
+public class SecondaryIndex<E> {
+
+    /*
+     * The number of sequences held by a chunk of postings.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private final ToIntFunction<? super E> symbolOf;
+
+    private final SymbolMap<Postings<E>> entries = new SymbolMap<>();
+
+    /**
+     * This is used to create an empty index.
+     *
+     * @param symbolOf the function returning the symbol of an entry
+     */
+    public SecondaryIndex(ToIntFunction<? super E> symbolOf) {
+        this.symbolOf = symbolOf;
+    }
+
+    /**
+     * Returns a new list of the entries for the given symbol, in the order in
+     * which they were added. Where no entries match, this returns an empty
+     * list.
+     *
+     * @param symbol the symbol to look up
+     * @return the entries for the symbol
+     */
+    public List<E> get(int symbol) {
+        List<E> found = new ArrayList<>();
+        cursor(symbol, 0L).forEachRemaining(found::add);
+        return found;
+    }
+
+    /**
+     * Returns a lazy cursor over the entries for the given symbol whose
+     * sequence is after the given one, in the order in which they were added.
+     * The cursor starts at the chunk holding the next sequence, without
+     * reading the entries before it.
+     *
+     * @param symbol the symbol to look up
+     * @param after the sequence to resume after, {@code 0} to start with the
+     * first entry
+     * @return the cursor over the entries for the symbol
+     */
+    public EntryCursor<E> cursor(int symbol, long after) {
+        Postings<E> matching = entries.get(symbol);
+        return new PostingCursor<>(matching == null ? null : matching.seek(after), after);
+    }
+
+    /**
+     * Returns the sequence of the last entry added for the given symbol, which
+     * is the number of entries added for it, removed or not.
+     *
+     * @param symbol the symbol to look up
+     * @return the last sequence of the symbol, or {@code 0} if it has none
+     */
+    public long lastSequence(int symbol) {
+        Postings<E> matching = entries.get(symbol);
+        return matching == null ? 0L : matching.lastSequence;
+    }
+
+    /**
+     * Adds an entry under its symbol.
+     *
+     * @param entry the entry to add
+     */
+    public void add(E entry) {
+        int symbol = symbolOf.applyAsInt(entry);
+        if (symbol != SymbolTable.NULL) {
+            entries.computeIfAbsent(symbol, Postings::new).post(entry);
+        }
+    }
+
+    /**
+     * Adds all the entries under their symbols.
+     *
+     * @param added the entries to add
+     */
+    public void addAll(Collection<? extends E> added) {
+        added.forEach(this::add);
+    }
+
+    /**
+     * Removes the very entry given from under its symbol. Entries equal to it
+     * stay indexed.
+     *
+     * @param entry the entry to remove
+     */
+    public void remove(E entry) {
+        Postings<E> matching = entries.get(symbolOf.applyAsInt(entry));
+        if (matching != null) {
+            matching.remove(entry);
+        }
+    }
+
+    /**
+     * Removes all the entries from this index.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private static long chunkOf(long sequence) {
+        return (sequence - 1) / CHUNK_SIZE;
+    }
+
+    /*
+     * The postings of CHUNK_SIZE consecutive sequences, the first of which
+     * is one after a multiple of CHUNK_SIZE. A removed entry leaves its slot
+     * empty. The chunks of a symbol are linked in sequence order.
+     */
+    private static final class Chunk<E> {
+
+        private final long number;
+
+        private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+        private volatile Chunk<E> next;
+
+        private int live;
+
+        private Chunk(long number) {
+            this.number = number;
+        }
+
+        private long firstSequence() {
+            return number * CHUNK_SIZE + 1;
+        }
+
+    }
+
+    /*
+     * The chunks of one symbol, linked from the head and keyed by chunk number
+     * for seeking, and the sequences of the posted entries by identity, the
+     * earliest first where the same entry was posted more than once.
+     * Sequences are taken and entries posted or removed under the lock of the
+     * postings; a full chunk whose entries were all removed is unlinked and
+     * dropped, so it is not read again.
+     */
+    private static final class Postings<E> {
+
+        private final ConcurrentSkipListMap<Long, Chunk<E>> chunks = new ConcurrentSkipListMap<>();
+
+        private volatile Chunk<E> head;
+
+        private Chunk<E> last;
+
+        private volatile long lastSequence;
+
+        private final Map<E, long[]> sequences = new IdentityHashMap<>();
+
+        Chunk<E> seek(long after) {
+            Map.Entry<Long, Chunk<E>> found = chunks.ceilingEntry(chunkOf(after + 1));
+            return found == null ? null : found.getValue();
+        }
+
+        synchronized void post(E entry) {
+            long sequence = lastSequence + 1;
+            if (last == null || last.number != chunkOf(sequence)) {
+                Chunk<E> chunk = new Chunk<>(chunkOf(sequence));
+                chunks.put(chunk.number, chunk);
+                if (last == null) {
+                    head = chunk;
+                } else {
+                    last.next = chunk;
+                }
+                last = chunk;
+            }
+            last.slots.set((int) (sequence - last.firstSequence()), entry);
+            last.live++;
+            lastSequence = sequence;
+            long[] posted = sequences.get(entry);
+            if (posted == null) {
+                sequences.put(entry, new long[] {sequence});
+            } else {
+                posted = Arrays.copyOf(posted, posted.length + 1);
+                posted[posted.length - 1] = sequence;
+                sequences.put(entry, posted);
+            }
+        }
+
+        synchronized void remove(E entry) {
+            long[] posted = sequences.remove(entry);
+            if (posted == null) {
+                return;
+            }
+            if (posted.length > 1) {
+                sequences.put(entry, Arrays.copyOfRange(posted, 1, posted.length));
+            }
+            long sequence = posted[0];
+            Chunk<E> chunk = chunks.get(chunkOf(sequence));
+            chunk.slots.set((int) (sequence - chunk.firstSequence()), null);
+            if (--chunk.live == 0 && chunk.firstSequence() + CHUNK_SIZE - 1 <= lastSequence) {
+                Map.Entry<Long, Chunk<E>> previous = chunks.lowerEntry(chunk.number);
+                unlink(previous == null ? null : previous.getValue(), chunk);
+            }
+        }
+
+        private void unlink(Chunk<E> previous, Chunk<E> chunk) {
+            if (previous == null) {
+                head = chunk.next;
+            } else {
+                previous.next = chunk.next;
+            }
+            if (last == chunk) {
+                last = previous;
+            }
+            chunks.remove(chunk.number);
+        }
+
+    }
+
+    /*
+     * Iterates the postings of a symbol from the chunk holding the sequence
+     * after the one to resume after, skipping empty slots and the sequences
+     * up to it within that chunk. A chunk unlinked while the cursor is on it
+     * still leads to the chunks after it.
+     */
+    private static final class PostingCursor<E> implements EntryCursor<E> {
+
+        private Chunk<E> chunk;
+
+        private int slot;
+
+        private long sequence;
+
+        private E next;
+
+        private long nextSequence;
+
+        private PostingCursor(Chunk<E> chunk, long after) {
+            this.chunk = chunk;
+            this.sequence = after;
+            if (chunk != null) {
+                slot = (int) Math.max(0, after + 1 - chunk.firstSequence());
+            }
+        }
+
+        @Override
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && chunk != null) {
+                if (slot == CHUNK_SIZE) {
+                    chunk = chunk.next;
+                    slot = 0;
+                    continue;
+                }
+                E posted = chunk.slots.get(slot);
+                if (posted != null) {
+                    next = posted;
+                    nextSequence = chunk.firstSequence() + slot;
+                }
+                slot++;
+            }
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            sequence = nextSequence;
+            E entry = next;
+            next = null;
+            return entry;
+        }
+
+    }
+
+}
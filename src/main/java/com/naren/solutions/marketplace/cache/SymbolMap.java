@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class maps the symbols of a {@link SymbolTable} to values held in an
+ * array indexed by symbol, so a lookup is an array read rather than hashing
+ * and comparing an ID. Lookups are lock-free, while creating the value of a
+ * symbol, which happens once per symbol, locks the map.
+ *
+ * @param <V> the type of the values
+ * @author Naren Chivukula
+ */
+public final class SymbolMap<V> {
+
+    private volatile AtomicReferenceArray<V> values = new AtomicReferenceArray<>(16);
+
+    /**
+     * Returns the value of the given symbol.
+     *
+     * @param symbol the symbol
+     * @return the value, or {@code null} if the symbol has none
+     */
+    public V get(int symbol) {
+        AtomicReferenceArray<V> current = values;
+        return symbol >= 0 && symbol < current.length() ? current.get(symbol) : null;
+    }
+
+    /**
+     * Returns the value of the given symbol, creating it if the symbol has
+     * none yet.
+     *
+     * @param symbol the symbol, which must not be {@link SymbolTable#NULL}
+     * @param create the supplier of a new value
+     * @return the value of the symbol
+     */
+    public V computeIfAbsent(int symbol, Supplier<? extends V> create) {
+        V value = get(symbol);
+        if (value != null) {
+            return value;
+        }
+        if (symbol < 0) {
+            throw new IllegalArgumentException("Invalid symbol : " + symbol);
+        }
+        synchronized (this) {
+            AtomicReferenceArray<V> current = values;
+            if (symbol >= current.length()) {
+                int length = current.length();
+                while (length <= symbol) {
+                    length *= 2;
+                }
+                AtomicReferenceArray<V> grown = new AtomicReferenceArray<>(length);
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                values = grown;
+                current = grown;
+            }
+            value = current.get(symbol);
+            if (value == null) {
+                value = create.get();
+                current.set(symbol, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Passes each value to the given action, in the order of the symbols.
+     *
+     * @param action the action
+     */
+    public void forEach(Consumer<? super V> action) {
+        AtomicReferenceArray<V> current = values;
+        for (int i = 0; i < current.length(); i++) {
+            V value = current.get(i);
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public synchronized void clear() {
+        values = new AtomicReferenceArray<>(16);
+    }
+
+}
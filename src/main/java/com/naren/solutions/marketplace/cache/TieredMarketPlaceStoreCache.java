@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * This implementation of MarketPlaceStore keeps only the most recent orders in
+ * memory and ages the rest out to memory-mapped segment files, in a
+ * {@link TieredOrderHistory}, so the order history of a long trading day
+ * neither fills the heap nor slows down the listing of orders by buyer or
+ * seller ID.
+ * <p>
+ * The directory the archive subdirectory is created in is set by the
+ * {@code marketplace.orders.archive} system property, and is the temporary
+ * directory of the system by default. The archive is closed, and so unmapped
+ * and deleted, when the virtual machine shuts down. The number of
+ * orders kept in memory before they are archived is set by the
+ * {@code marketplace.orders.hotSize} system property, {@value #DEFAULT_HOT_SIZE}
+ * by default. Resting bids and offers stay on the heap in
+ * {@link ItemStripedList}s, as in {@link ConcurrentMarketPlaceStoreCache}.
+ *
+ * @author Naren Chivukula
+ */
+public class TieredMarketPlaceStoreCache implements MarketPlaceStore {
+
+    /**
+     * The default number of orders kept in memory before they are archived.
+     */
+    public static final int DEFAULT_HOT_SIZE = 1 << 16;
+
+    /**
+     * The singleton instance of this class.
+     */
+    private static final MarketPlaceStore INSTANCE = new TieredMarketPlaceStoreCache();
+
+    /**
+     * The index of bids by buyer ID.
+     */
+    private final SecondaryIndex<Bid> BIDS_BY_BUYER = new SecondaryIndex<>(Bid::getBuyerSymbol);
+
+    /**
+     * The index of offers by seller ID.
+     */
+    private final SecondaryIndex<Offer> OFFERS_BY_SELLER = new SecondaryIndex<>(Offer::getSellerSymbol);
+
+    /**
+     * The in-memory cache for bids.
+     */
+    private final List<Bid> BIDS = new IndexedList<>(new ItemStripedList<>(), BIDS_BY_BUYER);
+
+    /**
+     * The in-memory cache for offers.
+     */
+    private final List<Offer> OFFERS = new IndexedList<>(new ItemStripedList<>(), OFFERS_BY_SELLER);
+
+    /**
+     * The tiered history of orders, which indexes them by buyer and seller ID.
+     */
+    private final TieredOrderHistory ORDERS;
+
+    /*
+     * Private constructor to avoid direct instantiation
+     */
+    private TieredMarketPlaceStoreCache() {
+        try {
+            Path directory = Paths.get(System.getProperty("marketplace.orders.archive",
+                    System.getProperty("java.io.tmpdir")));
+            ORDERS = new TieredOrderHistory(directory, Integer.getInteger("marketplace.orders.hotSize",
+                    DEFAULT_HOT_SIZE));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(ORDERS::close, "order-archive-close"));
+    }
+
+    /**
+     * Returns singleton instance of this class.
+     *
+     * @return singleton instance of this class
+     */
+    public static final MarketPlaceStore createInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public final List<Bid> bids() {
+        return BIDS;
+    }
+
+    @Override
+    public final List<Offer> offers() {
+        return OFFERS;
+    }
+
+    @Override
+    public final List<Order> orders() {
+        return ORDERS;
+    }
+
+    @Override
+    public final List<Order> orderSnapshot() {
+        return ORDERS.snapshot();
+    }
+
+    @Override
+    public final List<Bid> bidsByBuyerId(String buyerId) {
+        return BIDS_BY_BUYER.get(SymbolTable.PARTICIPANTS.find(buyerId));
+    }
+
+    @Override
+    public final List<Offer> offersBySellerId(String sellerId) {
+        return OFFERS_BY_SELLER.get(SymbolTable.PARTICIPANTS.find(sellerId));
+    }
+
+    @Override
+    public final List<Order> ordersByBuyerId(String buyerId) {
+        return ORDERS.ordersByBuyerId(buyerId);
+    }
+
+    @Override
+    public final List<Order> ordersBySellerId(String sellerId) {
+        return ORDERS.ordersBySellerId(sellerId);
+    }
+
+    @Override
+    public final EntryCursor<Bid> bidCursor(String buyerId, long after) {
+        return BIDS_BY_BUYER.cursor(SymbolTable.PARTICIPANTS.find(buyerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Offer> offerCursor(String sellerId, long after) {
+        return OFFERS_BY_SELLER.cursor(SymbolTable.PARTICIPANTS.find(sellerId), after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return ORDERS.orderCursorByBuyerId(buyerId, after);
+    }
+
+    @Override
+    public final EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return ORDERS.orderCursorBySellerId(sellerId, after);
+    }
+}
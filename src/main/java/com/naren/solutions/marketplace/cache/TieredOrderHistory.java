@@ -0,0 +1,552 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache;
+
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is an append-only history of orders which keeps only its most
+ * recent orders in memory. Orders are added to a hot generation, indexed by
+ * buyer and seller ID, and once it holds the configured number of orders it
+ * is sealed and a new one started. Sealed generations are written to
+ * {@link OrderArchiveSegment}s on a thread of their own, so the matching
+ * thread never waits on the file system, and are dropped from memory once
+ * their segment is mapped. Generations are archived oldest first; one which
+ * fails to be written is retried after {@link #RETRY_DELAY_MILLIS}, and the
+ * generations sealed after it wait in memory until it is archived.
+ * <p>
+ * {@link #ordersByBuyerId(String)} and {@link #ordersBySellerId(String)}
+ * merge the orders found through the indexes of the archived segments, the
+ * sealed generations and the hot generation, oldest first, so the orders are
+ * listed in the order in which they were added wherever they are kept.
+ * <p>
+ * The archive is a tier of memory, not a means of persistence: the segments
+ * are written to a new subdirectory of the given directory, owned by this
+ * history and deleted by {@link #close()}, so files already in the directory,
+ * including the segments of an earlier run, are never touched. The history of
+ * a restarted market is rebuilt from its journal.
+ *
+ * @author Naren Chivukula
+ */
+public class TieredOrderHistory extends AbstractList<Order> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TieredOrderHistory.class);
+
+    private static final String SUFFIX = ".orders";
+
+    private static final String PREFIX = "orders-";
+
+    /**
+     * The time after which a generation which failed to be archived is
+     * written again.
+     */
+    public static final long RETRY_DELAY_MILLIS = 1000L;
+
+    private final Path directory;
+
+    private final int hotSize;
+
+    private final ScheduledExecutorService archiver;
+
+    private volatile Tiers tiers = new Tiers(new OrderArchiveSegment[0], new Generation[0], new Generation());
+
+    private int segmentsWritten;
+
+    private volatile boolean closed;
+
+    /*
+     * Whether a retry of a failed generation is scheduled, so that at most
+     * one is. Only used on the archiving thread.
+     */
+    private boolean retryScheduled;
+
+    /**
+     * This is used to create an empty history archiving to a new subdirectory
+     * of the given directory, which is created when it does not exist.
+     *
+     * @param directory the directory to create the archive subdirectory in
+     * @param hotSize the number of orders of a generation kept in memory
+     * before it is archived
+     * @throws IOException if the archive subdirectory cannot be created
+     */
+    public TieredOrderHistory(Path directory, int hotSize) throws IOException {
+        if (hotSize <= 0) {
+            throw new IllegalArgumentException("Hot size must be positive : " + hotSize);
+        }
+        Files.createDirectories(directory);
+        this.directory = Files.createTempDirectory(directory, PREFIX);
+        this.hotSize = hotSize;
+        this.archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Order get(int index) {
+        Order order = get(tiers, index);
+        if (order == null) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return order;
+    }
+
+    @Override
+    public int size() {
+        Tiers current = tiers;
+        return current.archivedSize() + current.sealedSize() + current.hot.orders.size();
+    }
+
+    /**
+     * Returns an unmodifiable view of the orders added so far, in the tiers
+     * they are in at the time, which does not grow as orders are added or
+     * archived. Clearing or closing the history unmaps its archived segments,
+     * after which the archived orders of the view can no longer be read.
+     *
+     * @return the view of the orders added so far
+     */
+    public List<Order> snapshot() {
+        Tiers current;
+        int count;
+        synchronized (this) {
+            current = tiers;
+            count = current.archivedSize() + current.sealedSize() + current.hot.orders.size();
+        }
+        return new AbstractList<Order>() {
+
+            @Override
+            public Order get(int index) {
+                Order order = index < count ? TieredOrderHistory.get(current, index) : null;
+                if (order == null) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return order;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /*
+     * Returns the order at the given position across the tiers, or null if
+     * there is none.
+     */
+    private static Order get(Tiers current, int index) {
+        if (index >= 0) {
+            int first = 0;
+            for (OrderArchiveSegment segment : current.segments) {
+                if (index < first + segment.size()) {
+                    return segment.get(index - first);
+                }
+                first += segment.size();
+            }
+            for (Generation generation : current.sealed) {
+                if (index < first + generation.orders.size()) {
+                    return generation.orders.get(index - first);
+                }
+                first += generation.orders.size();
+            }
+            if (index < first + current.hot.orders.size()) {
+                return current.hot.orders.get(index - first);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of orders archived to segment files and no longer
+     * held in memory.
+     *
+     * @return the number of archived orders
+     */
+    public int archivedSize() {
+        return tiers.archivedSize();
+    }
+
+    /**
+     * Returns the subdirectory the archived segments are written to.
+     *
+     * @return the archive subdirectory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Adds the order to the hot generation.
+     *
+     * @throws IllegalStateException if the history is closed
+     */
+    @Override
+    public synchronized boolean add(Order order) {
+        if (closed) {
+            throw new IllegalStateException("Order history is closed");
+        }
+        Tiers current = tiers;
+        current.hot.orders.add(order);
+        if (current.hot.orders.size() >= hotSize) {
+            Generation sealed = current.hot;
+            Generation[] pending = Arrays.copyOf(current.sealed, current.sealed.length + 1);
+            pending[current.sealed.length] = sealed;
+            tiers = new Tiers(current.segments, pending, new Generation());
+            archiver.execute(this::archivePending);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the orders of the specified buyer, in the order in which they
+     * were added.
+     *
+     * @param buyerId the buyer ID
+     * @return orders of the buyer
+     */
+    public List<Order> ordersByBuyerId(String buyerId) {
+        int symbol = SymbolTable.PARTICIPANTS.find(buyerId);
+        Tiers current = tiers;
+        List<Order> orders = new ArrayList<>();
+        for (OrderArchiveSegment segment : current.segments) {
+            segment.ordersOfBuyer(symbol, orders);
+        }
+        for (Generation generation : current.sealed) {
+            orders.addAll(generation.byBuyer.get(symbol));
+        }
+        orders.addAll(current.hot.byBuyer.get(symbol));
+        return orders;
+    }
+
+    /**
+     * Returns the orders of the specified seller, in the order in which they
+     * were added.
+     *
+     * @param sellerId the seller ID
+     * @return orders of the seller
+     */
+    public List<Order> ordersBySellerId(String sellerId) {
+        int symbol = SymbolTable.PARTICIPANTS.find(sellerId);
+        Tiers current = tiers;
+        List<Order> orders = new ArrayList<>();
+        for (OrderArchiveSegment segment : current.segments) {
+            segment.ordersOfSeller(symbol, orders);
+        }
+        for (Generation generation : current.sealed) {
+            orders.addAll(generation.bySeller.get(symbol));
+        }
+        orders.addAll(current.hot.bySeller.get(symbol));
+        return orders;
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified buyer after the
+     * given sequence. The orders are read tier by tier, decoding archived
+     * ones as they are iterated, and tiers wholly before the sequence are
+     * skipped without being read.
+     *
+     * @param buyerId the buyer ID
+     * @param after the sequence to resume after
+     * @return the cursor over the orders of the buyer
+     */
+    public EntryCursor<Order> orderCursorByBuyerId(String buyerId, long after) {
+        return new TierCursor(tiers, SymbolTable.PARTICIPANTS.find(buyerId), true, after);
+    }
+
+    /**
+     * Returns a lazy cursor over the orders of the specified seller after the
+     * given sequence. The orders are read tier by tier, decoding archived
+     * ones as they are iterated, and tiers wholly before the sequence are
+     * skipped without being read.
+     *
+     * @param sellerId the seller ID
+     * @param after the sequence to resume after
+     * @return the cursor over the orders of the seller
+     */
+    public EntryCursor<Order> orderCursorBySellerId(String sellerId, long after) {
+        return new TierCursor(tiers, SymbolTable.PARTICIPANTS.find(sellerId), false, after);
+    }
+
+    /**
+     * Removes all the orders, unmapping and deleting the archived segment
+     * files. A generation being archived when this is called is discarded
+     * once written. Archived orders can no longer be read through a cursor
+     * or list obtained before.
+     */
+    @Override
+    public synchronized void clear() {
+        OrderArchiveSegment[] archived = tiers.segments;
+        tiers = new Tiers(new OrderArchiveSegment[0], new Generation[0], new Generation());
+        for (OrderArchiveSegment segment : archived) {
+            delete(segment);
+        }
+    }
+
+    /**
+     * Removes all the orders and stops archiving, waiting for a generation
+     * being archived, then deletes the archive subdirectory. Orders cannot
+     * be added afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        archiver.shutdownNow();
+        try {
+            if (!archiver.awaitTermination(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Timed out waiting for the order archiver to stop");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        clear();
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException ex) {
+            LOG.warn("Failed to delete the order archive {}", directory, ex);
+        }
+    }
+
+    /*
+     * Archives the sealed generations, oldest first, on the archiving thread.
+     * The oldest is always archived first so the segments stay in the order
+     * of the orders; when it fails, it is retried later and the younger ones
+     * wait for it.
+     */
+    private void archivePending() {
+        Generation generation = oldestSealed();
+        while (generation != null && !closed) {
+            if (!archive(generation)) {
+                if (!retryScheduled) {
+                    retryScheduled = true;
+                    archiver.schedule(() -> {
+                        retryScheduled = false;
+                        archivePending();
+                    }, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            generation = oldestSealed();
+        }
+    }
+
+    private Generation oldestSealed() {
+        Generation[] sealed = tiers.sealed;
+        return sealed.length == 0 ? null : sealed[0];
+    }
+
+    /*
+     * Writes the sealed generation to a new segment and swaps the segment in
+     * for the generation, unless the history has been cleared meanwhile, in
+     * which case the segment is discarded. Returns false if the generation
+     * failed to be written and is still to be archived.
+     */
+    private boolean archive(Generation generation) {
+        Path file = directory.resolve(String.format("%010d%s", segmentsWritten++, SUFFIX));
+        OrderArchiveSegment segment;
+        try {
+            segment = OrderArchiveSegment.write(file, generation.orders);
+        } catch (IOException | RuntimeException ex) {
+            LOG.error("Failed to archive {} orders to {}, retrying in {} ms", generation.orders.size(), file,
+                    RETRY_DELAY_MILLIS, ex);
+            deleteQuietly(file);
+            return false;
+        }
+        synchronized (this) {
+            Tiers current = tiers;
+            if (closed || current.sealed.length == 0 || current.sealed[0] != generation) {
+                LOG.info("Discarding the archived segment {} as its orders were cleared", file);
+                delete(segment);
+                return true;
+            }
+            OrderArchiveSegment[] segments = Arrays.copyOf(current.segments, current.segments.length + 1);
+            segments[current.segments.length] = segment;
+            tiers = new Tiers(segments, Arrays.copyOfRange(current.sealed, 1, current.sealed.length), current.hot);
+        }
+        LOG.debug("Archived {} orders to {}", segment.size(), file);
+        return true;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            LOG.warn("Failed to delete the partly written segment {}", file, ex);
+        }
+    }
+
+    private static void delete(OrderArchiveSegment segment) {
+        try {
+            segment.delete();
+        } catch (IOException ex) {
+            LOG.warn("Failed to delete an archived order segment", ex);
+        }
+    }
+
+    /*
+     * The orders of one in-memory generation, indexed by buyer and seller ID.
+     */
+    private static final class Generation {
+
+        private final SecondaryIndex<Order> byBuyer = new SecondaryIndex<>(Order::getBuyerSymbol);
+
+        private final SecondaryIndex<Order> bySeller = new SecondaryIndex<>(Order::getSellerSymbol);
+
+        private final List<Order> orders = new IndexedList<>(new AppendOnlyList<>(), byBuyer, bySeller);
+
+    }
+
+    /*
+     * The archived segments, the sealed generations waiting to be archived
+     * and the hot generation, oldest first. It is replaced as a whole, so a
+     * reader sees every order in exactly one tier.
+     */
+    private static final class Tiers {
+
+        private final OrderArchiveSegment[] segments;
+
+        private final Generation[] sealed;
+
+        private final Generation hot;
+
+        private Tiers(OrderArchiveSegment[] segments, Generation[] sealed, Generation hot) {
+            this.segments = segments;
+            this.sealed = sealed;
+            this.hot = hot;
+        }
+
+        private int archivedSize() {
+            int size = 0;
+            for (OrderArchiveSegment segment : segments) {
+                size += segment.size();
+            }
+            return size;
+        }
+
+        private int sealedSize() {
+            int size = 0;
+            for (Generation generation : sealed) {
+                size += generation.orders.size();
+            }
+            return size;
+        }
+
+    }
+
+    /*
+     * Iterates the orders of one buyer or seller across the tiers, numbering
+     * them by their sequence across all the tiers. As orders are never
+     * removed, the tiers before the hot one hold a known number of orders of
+     * the buyer or seller, by which the sequence to resume after is offset.
+     */
+    private static final class TierCursor implements EntryCursor<Order> {
+
+        private final Tiers tiers;
+
+        private final int symbol;
+
+        private final boolean buyer;
+
+        private int tier;
+
+        private long base;
+
+        private EntryCursor<Order> current;
+
+        private long currentBase;
+
+        private long sequence;
+
+        private TierCursor(Tiers tiers, int symbol, boolean buyer, long after) {
+            this.tiers = tiers;
+            this.symbol = symbol;
+            this.buyer = buyer;
+            this.sequence = Math.max(0L, after);
+        }
+
+        @Override
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (tier > tiers.segments.length + tiers.sealed.length) {
+                    return false;
+                }
+                long count = count(tier);
+                if (sequence < base + count) {
+                    current = open(tier, sequence - base);
+                    currentBase = base;
+                }
+                base += count;
+                tier++;
+            }
+            return true;
+        }
+
+        @Override
+        public Order next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Order order = current.next();
+            sequence = currentBase + current.sequence();
+            return order;
+        }
+
+        private long count(int index) {
+            if (index < tiers.segments.length) {
+                return numbers(tiers.segments[index]).length;
+            }
+            index -= tiers.segments.length;
+            if (index < tiers.sealed.length) {
+                return index(tiers.sealed[index]).lastSequence(symbol);
+            }
+            return Long.MAX_VALUE - base;
+        }
+
+        private EntryCursor<Order> open(int index, long after) {
+            if (index < tiers.segments.length) {
+                OrderArchiveSegment segment = tiers.segments[index];
+                return segment.cursor(numbers(segment), after);
+            }
+            index -= tiers.segments.length;
+            Generation generation = index < tiers.sealed.length ? tiers.sealed[index] : tiers.hot;
+            return index(generation).cursor(symbol, after);
+        }
+
+        private int[] numbers(OrderArchiveSegment segment) {
+            return buyer ? segment.numbersOfBuyer(symbol) : segment.numbersOfSeller(symbol);
+        }
+
+        private SecondaryIndex<Order> index(Generation generation) {
+            return buyer ? generation.byBuyer : generation.bySeller;
+        }
+
+    }
+
+}
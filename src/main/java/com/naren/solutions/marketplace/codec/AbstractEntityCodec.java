@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec;
+
+import com.naren.solutions.marketplace.dom.Price;
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class writes and reads the fields shared by the codecs of bids, offers
+ * and orders.
+ *
+ * @param <E> the type of the entities the codec reads and writes
+ * @author Naren Chivukula
+ */
+abstract class AbstractEntityCodec<E> implements EntityCodec<E> {
+
+    private static final int MAX_ID_LENGTH = 0xFFFF;
+
+    /*
+     * The powers of ten which fit in a long, indexed by the exponent.
+     */
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    /*
+     * Returns the number of bytes taken by the quantity and the price,
+     * checking first that the price can be written.
+     */
+    static int quantityAndPriceLength(BigDecimal pricePerUnit, long priceTicks) {
+        int scale = pricePerUnit.scale();
+        if (scale != (byte) scale) {
+            throw new IllegalArgumentException("Price scale is out of range : " + pricePerUnit);
+        }
+        try {
+            unscaledValue(pricePerUnit, priceTicks);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Price is out of range : " + pricePerUnit, ex);
+        }
+        return Integer.BYTES + Long.BYTES + Byte.BYTES;
+    }
+
+    /*
+     * Writes the quantity, then the price as its unscaled value and its
+     * scale, so that the bytes do not depend on the ticks per unit of the
+     * JVM writing them.
+     */
+    static int putQuantityAndPrice(ByteBuffer buffer, int offset, int quantity, BigDecimal pricePerUnit,
+            long priceTicks) {
+        buffer.putInt(offset, quantity);
+        buffer.putLong(offset + Integer.BYTES, unscaledValue(pricePerUnit, priceTicks));
+        buffer.put(offset + Integer.BYTES + Long.BYTES, (byte) pricePerUnit.scale());
+        return offset + Integer.BYTES + Long.BYTES + Byte.BYTES;
+    }
+
+    /*
+     * Reads a price, returning the given price instead when it is the same
+     * unscaled value in the same scale.
+     */
+    static BigDecimal getPrice(ByteBuffer buffer, BigDecimal pricePerUnit, long priceTicks) {
+        long unscaled = buffer.getLong();
+        int scale = buffer.get();
+        if (pricePerUnit != null && scale == pricePerUnit.scale() && priceTicks != Price.INVALID
+                && unscaledValue(pricePerUnit, priceTicks) == unscaled) {
+            return pricePerUnit;
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /*
+     * Returns the unscaled value of the price. It is worked out from the
+     * ticks of the price where they are known and the result fits in a long,
+     * which is exact as the price has no more decimal places than its scale,
+     * so that the common case allocates nothing.
+     */
+    private static long unscaledValue(BigDecimal pricePerUnit, long priceTicks) {
+        int scale = pricePerUnit.scale();
+        if (priceTicks != Price.INVALID && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            if (Math.abs(priceTicks) <= Long.MAX_VALUE / POWERS_OF_TEN[scale]) {
+                return priceTicks * POWERS_OF_TEN[scale] / Price.TICKS_PER_UNIT;
+            }
+        }
+        return pricePerUnit.unscaledValue().longValueExact();
+    }
+
+    /*
+     * Returns the number of bytes a string takes. IDs are almost always
+     * ASCII, which is checked for first so that they can be copied a character
+     * at a time without encoding them into a new array.
+     */
+    static int stringLength(String value) {
+        return Short.BYTES + utf8Length(value);
+    }
+
+    static int putString(ByteBuffer buffer, int offset, String value) {
+        int length = utf8Length(value);
+        buffer.putShort(offset, (short) length);
+        offset += Short.BYTES;
+        if (length == value.length()) {
+            for (int i = 0; i < length; i++) {
+                buffer.put(offset + i, (byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < length; i++) {
+                buffer.put(offset + i, bytes[i]);
+            }
+        }
+        return offset + length;
+    }
+
+    /*
+     * Reads a string, returning the given string instead when the bytes are
+     * that string in ASCII, so that reading the same IDs over and over into
+     * one entity allocates nothing.
+     */
+    static String getString(ByteBuffer buffer, String value) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (value != null && isAscii(buffer, buffer.position(), length, value)) {
+            ((Buffer) buffer).position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int offset, int length, String value) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || buffer.get(offset + i) != (byte) c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                length = value.getBytes(StandardCharsets.UTF_8).length;
+                break;
+            }
+        }
+        if (length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("ID is too long : " + length + " bytes");
+        }
+        return length;
+    }
+
+}
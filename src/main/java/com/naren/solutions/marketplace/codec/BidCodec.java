@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is the {@link EntityCodec} of bids, whose participant is the
+ * buyer.
+ *
+ * @author Naren Chivukula
+ */
+final class BidCodec extends AbstractEntityCodec<Bid> {
+
+    @Override
+    public int encodedLength(Bid bid) {
+        return stringLength(bid.getItemId()) + stringLength(bid.getBuyerId())
+                + quantityAndPriceLength(bid.getPricePerUnit(), bid.getPriceTicks());
+    }
+
+    @Override
+    public int encode(Bid bid, ByteBuffer buffer, int offset) {
+        offset = putString(buffer, offset, bid.getItemId());
+        offset = putString(buffer, offset, bid.getBuyerId());
+        return putQuantityAndPrice(buffer, offset, bid.getQuantity(), bid.getPricePerUnit(), bid.getPriceTicks());
+    }
+
+    @Override
+    public Bid decode(ByteBuffer buffer) {
+        String itemId = getString(buffer, null);
+        String buyerId = getString(buffer, null);
+        int quantity = buffer.getInt();
+        return new Bid(itemId, buyerId, quantity, getPrice(buffer, null, 0L));
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, Bid bid) {
+        String itemId = getString(buffer, bid.getItemId());
+        if (itemId != bid.getItemId()) {
+            bid.setItemId(itemId);
+        }
+        String buyerId = getString(buffer, bid.getBuyerId());
+        if (buyerId != bid.getBuyerId()) {
+            bid.setBuyerId(buyerId);
+        }
+        bid.setQuantity(buffer.getInt());
+        BigDecimal pricePerUnit = getPrice(buffer, bid.getPricePerUnit(), bid.getPriceTicks());
+        if (pricePerUnit != bid.getPricePerUnit()) {
+            bid.setPricePerUnit(pricePerUnit);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface declares a compact binary form of a bid, offer or order,
+ * written to and read from a {@link ByteBuffer} directly, for anything that
+ * leaves the JVM: the journal, snapshots, replication and gateways.
+ * <p>
+ * An entity is laid out as its item ID, its participant ID, for orders the
+ * seller ID after the buyer ID, then its quantity as an {@code int}, the
+ * unscaled value of its price as a {@code long} and the scale of its price as
+ * a {@code byte}. The price is written as given rather than in ticks, so the
+ * bytes read the same whatever the ticks per unit of the JVM reading them.
+ * IDs are UTF-8 prefixed by their length in an unsigned {@code short}.
+ * Writing copies ASCII IDs a character at a time and so allocates nothing,
+ * and reading into an existing entity keeps the IDs and price it already
+ * holds where they are unchanged.
+ *
+ * @param <E> the type of the entities this codec reads and writes
+ * @author Naren Chivukula
+ */
+public interface EntityCodec<E> {
+
+    /**
+     * The codec for bids.
+     */
+    EntityCodec<Bid> BID = new BidCodec();
+
+    /**
+     * The codec for offers.
+     */
+    EntityCodec<Offer> OFFER = new OfferCodec();
+
+    /**
+     * The codec for orders.
+     */
+    EntityCodec<Order> ORDER = new OrderCodec();
+
+    /**
+     * Returns the number of bytes the entity takes when written.
+     *
+     * @param entity the entity to write
+     * @return the number of bytes
+     * @throws IllegalArgumentException if the unscaled value or the scale of
+     * the price of the entity is out of range, or an ID is longer than 65535
+     * bytes
+     */
+    int encodedLength(E entity);
+
+    /**
+     * Writes the entity at the given offset without moving the position of the
+     * buffer. The buffer must have room for {@link #encodedLength} bytes at the
+     * offset.
+     *
+     * @param entity the entity to write
+     * @param buffer the buffer to write to
+     * @param offset the offset to write at
+     * @return the offset just past the entity
+     */
+    int encode(E entity, ByteBuffer buffer, int offset);
+
+    /**
+     * Writes the entity at the position of the buffer and moves the position
+     * past it.
+     *
+     * @param entity the entity to write
+     * @param buffer the buffer to write to
+     * @throws BufferOverflowException if the entity does not fit in what
+     * remains of the buffer, in which case nothing is written
+     */
+    default void encode(E entity, ByteBuffer buffer) {
+        if (encodedLength(entity) > buffer.remaining()) {
+            throw new BufferOverflowException();
+        }
+        ((Buffer) buffer).position(encode(entity, buffer, buffer.position()));
+    }
+
+    /**
+     * Reads a new entity from the position of the buffer and moves the
+     * position past it.
+     *
+     * @param buffer the buffer to read from
+     * @return the entity read
+     */
+    E decode(ByteBuffer buffer);
+
+    /**
+     * Reads an entity from the position of the buffer into the given entity
+     * and moves the position past it. IDs and a price equal to the ones the
+     * entity already holds are kept rather than read into new objects.
+     *
+     * @param buffer the buffer to read from
+     * @param entity the entity to read into
+     */
+    void decode(ByteBuffer buffer, E entity);
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec;
+
+import com.naren.solutions.marketplace.dom.Offer;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is the {@link EntityCodec} of offers, whose participant is the
+ * seller.
+ *
+ * @author Naren Chivukula
+ */
+final class OfferCodec extends AbstractEntityCodec<Offer> {
+
+    @Override
+    public int encodedLength(Offer offer) {
+        return stringLength(offer.getItemId()) + stringLength(offer.getSellerId())
+                + quantityAndPriceLength(offer.getPricePerUnit(), offer.getPriceTicks());
+    }
+
+    @Override
+    public int encode(Offer offer, ByteBuffer buffer, int offset) {
+        offset = putString(buffer, offset, offer.getItemId());
+        offset = putString(buffer, offset, offer.getSellerId());
+        return putQuantityAndPrice(buffer, offset, offer.getQuantity(), offer.getPricePerUnit(), offer.getPriceTicks());
+    }
+
+    @Override
+    public Offer decode(ByteBuffer buffer) {
+        String itemId = getString(buffer, null);
+        String sellerId = getString(buffer, null);
+        int quantity = buffer.getInt();
+        return new Offer(itemId, sellerId, quantity, getPrice(buffer, null, 0L));
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, Offer offer) {
+        String itemId = getString(buffer, offer.getItemId());
+        if (itemId != offer.getItemId()) {
+            offer.setItemId(itemId);
+        }
+        String sellerId = getString(buffer, offer.getSellerId());
+        if (sellerId != offer.getSellerId()) {
+            offer.setSellerId(sellerId);
+        }
+        offer.setQuantity(buffer.getInt());
+        BigDecimal pricePerUnit = getPrice(buffer, offer.getPricePerUnit(), offer.getPriceTicks());
+        if (pricePerUnit != offer.getPricePerUnit()) {
+            offer.setPricePerUnit(pricePerUnit);
+        }
+    }
+
+}
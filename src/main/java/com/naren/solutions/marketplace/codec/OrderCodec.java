@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec;
+
+import com.naren.solutions.marketplace.dom.Order;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is the {@link EntityCodec} of orders, whose participant is the
+ * buyer, followed by the seller.
+ *
+ * @author Naren Chivukula
+ */
+final class OrderCodec extends AbstractEntityCodec<Order> {
+
+    @Override
+    public int encodedLength(Order order) {
+        return stringLength(order.getItemId()) + stringLength(order.getBuyerId()) + stringLength(order.getSellerId())
+                + quantityAndPriceLength(order.getPricePerUnit(), order.getPriceTicks());
+    }
+
+    @Override
+    public int encode(Order order, ByteBuffer buffer, int offset) {
+        offset = putString(buffer, offset, order.getItemId());
+        offset = putString(buffer, offset, order.getBuyerId());
+        offset = putString(buffer, offset, order.getSellerId());
+        return putQuantityAndPrice(buffer, offset, order.getQuantity(), order.getPricePerUnit(),
+                order.getPriceTicks());
+    }
+
+    @Override
+    public Order decode(ByteBuffer buffer) {
+        String itemId = getString(buffer, null);
+        String buyerId = getString(buffer, null);
+        String sellerId = getString(buffer, null);
+        int quantity = buffer.getInt();
+        return new Order(buyerId, sellerId, itemId, quantity, getPrice(buffer, null, 0L));
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, Order order) {
+        String itemId = getString(buffer, order.getItemId());
+        if (itemId != order.getItemId()) {
+            order.setItemId(itemId);
+        }
+        String buyerId = getString(buffer, order.getBuyerId());
+        if (buyerId != order.getBuyerId()) {
+            order.setBuyerId(buyerId);
+        }
+        String sellerId = getString(buffer, order.getSellerId());
+        if (sellerId != order.getSellerId()) {
+            order.setSellerId(sellerId);
+        }
+        order.setQuantity(buffer.getInt());
+        BigDecimal pricePerUnit = getPrice(buffer, order.getPricePerUnit(), order.getPriceTicks());
+        if (pricePerUnit != order.getPricePerUnit()) {
+            order.setPricePerUnit(pricePerUnit);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds one price level of a {@link MarketDepth}: the price, the
+ * aggregate quantity of the bids or offers resting at it and their number.
+ *
+ * @author Naren Chivukula
+ */
+public final class DepthLevel {
+
+    private final BigDecimal pricePerUnit;
+
+    private final long quantity;
+
+    private final int orderCount;
+
+    /**
+     * This is used to create a price level.
+     *
+     * @param pricePerUnit the price of the level
+     * @param quantity the aggregate quantity resting at the level
+     * @param orderCount the number of bids or offers resting at the level
+     */
+    public DepthLevel(BigDecimal pricePerUnit, long quantity, int orderCount) {
+        this.pricePerUnit = pricePerUnit;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * Returns the price of the level.
+     *
+     * @return the pricePerUnit
+     */
+    public BigDecimal getPricePerUnit() {
+        return pricePerUnit;
+    }
+
+    /**
+     * Returns the aggregate quantity resting at the level.
+     *
+     * @return the quantity
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the number of bids or offers resting at the level.
+     *
+     * @return the order count
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Returns the string representation of this {@code DepthLevel}.
+     *
+     * @return string representation of this {@code DepthLevel}.
+     */
+    @Override
+    public String toString() {
+        return "DepthLevel [pricePerUnit=" + pricePerUnit + ", quantity=" + quantity
+                + ", orderCount=" + orderCount + "]";
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reports the outcome of adding a single bid or offer to the
+ * market place: the orders its fills created and whether any of it was left
+ * resting, or why it was rejected.
+ *
+ * @author Naren Chivukula
+ */
+public class ExecutionReport {
+
+    /**
+     * The outcome of adding a bid or offer.
+     */
+    public enum Status {
+
+        /**
+         * The whole quantity was filled, so nothing rests.
+         */
+        FILLED,
+
+        /**
+         * Some of the quantity was filled and the remainder rests.
+         */
+        PARTIALLY_FILLED,
+
+        /**
+         * Nothing was filled and the whole quantity rests.
+         */
+        RESTED,
+
+        /**
+         * The bid or offer was invalid and was not added.
+         */
+        REJECTED
+    }
+
+    private final MarketplaceEntity entity;
+
+    private final Status status;
+
+    private final List<Order> orders;
+
+    private final int restingQuantity;
+
+    private final String rejectionReason;
+
+    /**
+     * This is used to create the report of a bid or offer which was accepted.
+     *
+     * @param entity the bid or offer added
+     * @param orders the orders created by its fills, in the order of the fills
+     * @param restingQuantity the quantity left resting
+     */
+    public ExecutionReport(MarketplaceEntity entity, List<Order> orders, int restingQuantity) {
+        this.entity = entity;
+        this.orders = Collections.unmodifiableList(orders);
+        this.restingQuantity = restingQuantity;
+        this.rejectionReason = null;
+        if (restingQuantity == 0) {
+            this.status = Status.FILLED;
+        } else if (orders.isEmpty()) {
+            this.status = Status.RESTED;
+        } else {
+            this.status = Status.PARTIALLY_FILLED;
+        }
+    }
+
+    /**
+     * This is used to create the report of a bid or offer which was rejected.
+     *
+     * @param entity the bid or offer rejected
+     * @param rejectionReason the reason it was rejected
+     */
+    public ExecutionReport(MarketplaceEntity entity, String rejectionReason) {
+        this.entity = entity;
+        this.orders = Collections.emptyList();
+        this.restingQuantity = 0;
+        this.rejectionReason = rejectionReason;
+        this.status = Status.REJECTED;
+    }
+
+    /**
+     * Returns the bid or offer which was added. Its quantity is that of the
+     * remainder which rested, and changes as the remainder fills later.
+     *
+     * @return the bid or offer
+     */
+    public final MarketplaceEntity getEntity() {
+        return entity;
+    }
+
+    /**
+     * Returns the outcome of adding the bid or offer.
+     *
+     * @return the status
+     */
+    public final Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the orders created by the fills, in the order of the fills. The
+     * list is empty when nothing was filled.
+     *
+     * @return the orders
+     */
+    public final List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Returns the quantity filled.
+     *
+     * @return the filled quantity
+     */
+    public final int getFilledQuantity() {
+        int filled = 0;
+        for (Order order : orders) {
+            filled += order.getQuantity();
+        }
+        return filled;
+    }
+
+    /**
+     * Returns the quantity left resting when the bid or offer was added.
+     *
+     * @return the resting quantity
+     */
+    public final int getRestingQuantity() {
+        return restingQuantity;
+    }
+
+    /**
+     * Returns why the bid or offer was rejected, or {@code null} if it was
+     * accepted.
+     *
+     * @return the rejection reason
+     */
+    public final String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    /**
+     * Returns the string representation of this {@code ExecutionReport}.
+     *
+     * @return string representation of this {@code ExecutionReport}.
+     */
+    @Override
+    public String toString() {
+        return "ExecutionReport [entity=" + entity + ", status=" + status
+                + ", orders=" + orders + ", restingQuantity=" + restingQuantity
+                + ", rejectionReason=" + rejectionReason + "]";
+    }
+
+}
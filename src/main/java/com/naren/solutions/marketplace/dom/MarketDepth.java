@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the best price levels of each side of the book of an item,
+ * as they stood at one moment, each side best price first.
+ *
+ * @author Naren Chivukula
+ */
+public class MarketDepth {
+
+    private final String itemId;
+
+    private final List<DepthLevel> bids;
+
+    private final List<DepthLevel> offers;
+
+    /**
+     * This is used to create the depth of an item.
+     *
+     * @param itemId the item ID
+     * @param bids the bid levels, highest price first
+     * @param offers the offer levels, lowest price first
+     */
+    public MarketDepth(String itemId, List<DepthLevel> bids, List<DepthLevel> offers) {
+        this.itemId = itemId;
+        this.bids = Collections.unmodifiableList(bids);
+        this.offers = Collections.unmodifiableList(offers);
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the bid levels, highest price first.
+     *
+     * @return the bid levels
+     */
+    public List<DepthLevel> getBids() {
+        return bids;
+    }
+
+    /**
+     * Returns the offer levels, lowest price first.
+     *
+     * @return the offer levels
+     */
+    public List<DepthLevel> getOffers() {
+        return offers;
+    }
+
+    /**
+     * Returns the string representation of this {@code MarketDepth}.
+     *
+     * @return string representation of this {@code MarketDepth}.
+     */
+    @Override
+    public String toString() {
+        return "MarketDepth [itemId=" + itemId + ", bids=" + bids + ", offers=" + offers + "]";
+    }
+
+}
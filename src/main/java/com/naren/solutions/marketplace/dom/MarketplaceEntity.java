@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.math.BigDecimal;
+
+/**
+ * This interface declares the fields shared by the entities which rest in the
+ * market place waiting to be matched, i.e. bids and offers.
+ *
+ * @author Naren Chivukula
+ */
+public interface MarketplaceEntity {
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    String getItemId();
+
+    /**
+     * Returns the symbol of the item ID.
+     *
+     * @return the symbol of the itemId
+     * @see SymbolTable
+     */
+    int getItemSymbol();
+
+    /**
+     * Returns the number of items or quantity.
+     *
+     * @return the quantity
+     */
+    int getQuantity();
+
+    /**
+     * Sets the number of items or quantity.
+     *
+     * @param quantity the quantity to set
+     */
+    void setQuantity(int quantity);
+
+    /**
+     * Returns the price of a single item.
+     *
+     * @return the pricePerUnit
+     */
+    BigDecimal getPricePerUnit();
+
+    /**
+     * Returns the price of a single item in ticks.
+     *
+     * @return the price of a single item in ticks
+     * @see Price
+     */
+    long getPriceTicks();
+
+}
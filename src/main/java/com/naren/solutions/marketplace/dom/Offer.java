@@ -5,6 +5,8 @@
  */
 package com.naren.solutions.marketplace.dom;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -15,7 +17,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  *
  * @author Naren Chivukula
  */
-public class Offer implements Serializable {
+public class Offer implements MarketplaceEntity, Serializable {
 
     private static final long serialVersionUID = -8893041511166681813L;
 
@@ -27,6 +29,12 @@ public class Offer implements Serializable {
 
     private BigDecimal pricePerUnit;
 
+    private transient long priceTicks = Price.INVALID;
+
+    private transient int itemSymbol = SymbolTable.UNRESOLVED;
+
+    private transient int sellerSymbol = SymbolTable.UNRESOLVED;
+
     /*
      * no-arg constructor
      */
@@ -48,6 +56,7 @@ public class Offer implements Serializable {
         this.sellerId = sellerId;
         this.quantity = quantity;
         this.pricePerUnit = pricePerUnit;
+        this.priceTicks = Price.toTicks(pricePerUnit);
     }
 
     /**
@@ -59,6 +68,21 @@ public class Offer implements Serializable {
         return itemId;
     }
 
+    /**
+     * Returns the symbol of the item ID, interning the ID the first time this
+     * is called. The market place only asks for it once it accepts the offer,
+     * so that the IDs of rejected entities are never interned.
+     *
+     * @return the symbol of the itemId
+     * @see SymbolTable
+     */
+    public final int getItemSymbol() {
+        if (itemSymbol == SymbolTable.UNRESOLVED) {
+            itemSymbol = SymbolTable.ITEMS.intern(itemId);
+        }
+        return itemSymbol;
+    }
+
     /**
      * Sets the item ID.
      *
@@ -66,6 +90,7 @@ public class Offer implements Serializable {
      */
     public final void setItemId(String itemId) {
         this.itemId = itemId;
+        this.itemSymbol = SymbolTable.UNRESOLVED;
     }
 
     /**
@@ -77,6 +102,21 @@ public class Offer implements Serializable {
         return sellerId;
     }
 
+    /**
+     * Returns the symbol of the seller ID, interning the ID the first time this
+     * is called. The market place only asks for it once it accepts the offer,
+     * so that the IDs of rejected entities are never interned.
+     *
+     * @return the symbol of the sellerId
+     * @see SymbolTable
+     */
+    public final int getSellerSymbol() {
+        if (sellerSymbol == SymbolTable.UNRESOLVED) {
+            sellerSymbol = SymbolTable.PARTICIPANTS.intern(sellerId);
+        }
+        return sellerSymbol;
+    }
+
     /**
      * Sets the seller ID.
      *
@@ -84,6 +124,7 @@ public class Offer implements Serializable {
      */
     public final void setSellerId(String sellerId) {
         this.sellerId = sellerId;
+        this.sellerSymbol = SymbolTable.UNRESOLVED;
     }
 
     /**
@@ -120,6 +161,30 @@ public class Offer implements Serializable {
      */
     public final void setPricePerUnit(BigDecimal pricePerUnit) {
         this.pricePerUnit = pricePerUnit;
+        this.priceTicks = Price.toTicks(pricePerUnit);
+    }
+
+    /**
+     * Returns the price of a single item in ticks, or {@link Price#INVALID} if
+     * the price is not set or is not a whole number of ticks.
+     *
+     * @return the price of a single item in ticks
+     */
+    public final long getPriceTicks() {
+        return priceTicks;
+    }
+
+    /*
+     * Recomputes the price in ticks, which is not serialized as the number of
+     * ticks per unit may differ between JVMs, and leaves the symbols of the
+     * IDs, which are only meaningful within one JVM, to be interned when they
+     * are first asked for.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.priceTicks = Price.toTicks(pricePerUnit);
+        this.itemSymbol = SymbolTable.UNRESOLVED;
+        this.sellerSymbol = SymbolTable.UNRESOLVED;
     }
 
     /**
@@ -5,6 +5,8 @@
  */
 package com.naren.solutions.marketplace.dom;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -29,6 +31,14 @@ public class Order implements Serializable {
 
     private BigDecimal pricePerUnit;
 
+    private transient long priceTicks = Price.INVALID;
+
+    private transient int buyerSymbol = SymbolTable.UNRESOLVED;
+
+    private transient int sellerSymbol = SymbolTable.UNRESOLVED;
+
+    private transient int itemSymbol = SymbolTable.UNRESOLVED;
+
     /*
      * no-arg constructor
      */
@@ -52,6 +62,7 @@ public class Order implements Serializable {
         this.itemId = itemId;
         this.quantity = quantity;
         this.pricePerUnit = pricePerUnit;
+        this.priceTicks = Price.toTicks(pricePerUnit);
     }
 
     /**
@@ -63,6 +74,20 @@ public class Order implements Serializable {
         return buyerId;
     }
 
+    /**
+     * Returns the symbol of the buyer ID, interning the ID the first time this
+     * is called unless the symbol was set together with the ID.
+     *
+     * @return the symbol of the buyerId
+     * @see SymbolTable
+     */
+    public final int getBuyerSymbol() {
+        if (buyerSymbol == SymbolTable.UNRESOLVED) {
+            buyerSymbol = SymbolTable.PARTICIPANTS.intern(buyerId);
+        }
+        return buyerSymbol;
+    }
+
     /**
      * Sets the buyer ID.
      *
@@ -70,6 +95,20 @@ public class Order implements Serializable {
      */
     public final void setBuyerId(String buyerId) {
         this.buyerId = buyerId;
+        this.buyerSymbol = SymbolTable.UNRESOLVED;
+    }
+
+    /**
+     * Sets the buyer ID together with its symbol. This is used when the ID
+     * is copied from a matched {@code Bid} or {@code Offer}, whose ID has
+     * already been interned.
+     *
+     * @param buyerId the buyerId to set
+     * @param buyerSymbol the symbol of the buyerId
+     */
+    public final void setBuyerId(String buyerId, int buyerSymbol) {
+        this.buyerId = buyerId;
+        this.buyerSymbol = buyerSymbol;
     }
 
     /**
@@ -81,6 +120,20 @@ public class Order implements Serializable {
         return sellerId;
     }
 
+    /**
+     * Returns the symbol of the seller ID, interning the ID the first time this
+     * is called unless the symbol was set together with the ID.
+     *
+     * @return the symbol of the sellerId
+     * @see SymbolTable
+     */
+    public final int getSellerSymbol() {
+        if (sellerSymbol == SymbolTable.UNRESOLVED) {
+            sellerSymbol = SymbolTable.PARTICIPANTS.intern(sellerId);
+        }
+        return sellerSymbol;
+    }
+
     /**
      * Sets the seller ID.
      *
@@ -88,6 +141,20 @@ public class Order implements Serializable {
      */
     public final void setSellerId(String sellerId) {
         this.sellerId = sellerId;
+        this.sellerSymbol = SymbolTable.UNRESOLVED;
+    }
+
+    /**
+     * Sets the seller ID together with its symbol. This is used when the ID
+     * is copied from a matched {@code Bid} or {@code Offer}, whose ID has
+     * already been interned.
+     *
+     * @param sellerId the sellerId to set
+     * @param sellerSymbol the symbol of the sellerId
+     */
+    public final void setSellerId(String sellerId, int sellerSymbol) {
+        this.sellerId = sellerId;
+        this.sellerSymbol = sellerSymbol;
     }
 
     /**
@@ -99,6 +166,20 @@ public class Order implements Serializable {
         return itemId;
     }
 
+    /**
+     * Returns the symbol of the item ID, interning the ID the first time this
+     * is called unless the symbol was set together with the ID.
+     *
+     * @return the symbol of the itemId
+     * @see SymbolTable
+     */
+    public final int getItemSymbol() {
+        if (itemSymbol == SymbolTable.UNRESOLVED) {
+            itemSymbol = SymbolTable.ITEMS.intern(itemId);
+        }
+        return itemSymbol;
+    }
+
     /**
      * Sets the item ID.
      *
@@ -106,6 +187,20 @@ public class Order implements Serializable {
      */
     public final void setItemId(String itemId) {
         this.itemId = itemId;
+        this.itemSymbol = SymbolTable.UNRESOLVED;
+    }
+
+    /**
+     * Sets the item ID together with its symbol. This is used when the ID
+     * is copied from a matched {@code Bid} or {@code Offer}, whose ID has
+     * already been interned.
+     *
+     * @param itemId the itemId to set
+     * @param itemSymbol the symbol of the itemId
+     */
+    public final void setItemId(String itemId, int itemSymbol) {
+        this.itemId = itemId;
+        this.itemSymbol = itemSymbol;
     }
 
     /**
@@ -142,6 +237,44 @@ public class Order implements Serializable {
      */
     public final void setPricePerUnit(BigDecimal pricePerUnit) {
         this.pricePerUnit = pricePerUnit;
+        this.priceTicks = Price.toTicks(pricePerUnit);
+    }
+
+    /**
+     * Returns the price of a single item in ticks, or {@link Price#INVALID} if
+     * the price is not set or is not a whole number of ticks.
+     *
+     * @return the price of a single item in ticks
+     */
+    public final long getPriceTicks() {
+        return priceTicks;
+    }
+
+    /**
+     * Sets the price of a single item together with the same price in ticks.
+     * This is used when the price is copied from a matched {@code Bid} or
+     * {@code Offer}, whose price has already been converted to ticks.
+     *
+     * @param pricePerUnit the pricePerUnit to set
+     * @param priceTicks the same price in ticks
+     */
+    public final void setPricePerUnit(BigDecimal pricePerUnit, long priceTicks) {
+        this.pricePerUnit = pricePerUnit;
+        this.priceTicks = priceTicks;
+    }
+
+    /*
+     * Recomputes the price in ticks, which is not serialized as the number of
+     * ticks per unit may differ between JVMs, and leaves the symbols of the
+     * IDs, which are only meaningful within one JVM, to be interned when they
+     * are first asked for.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.priceTicks = Price.toTicks(pricePerUnit);
+        this.buyerSymbol = SymbolTable.UNRESOLVED;
+        this.sellerSymbol = SymbolTable.UNRESOLVED;
+        this.itemSymbol = SymbolTable.UNRESOLVED;
     }
 
     /**
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds one page of a paginated listing of bids, offers or orders,
+ * together with the continuation token from which the next page is listed.
+ * The token is opaque: it is only to be passed back to the listing which
+ * returned it.
+ *
+ * @param <E> the type of the entries listed
+ * @author Naren Chivukula
+ */
+public class Page<E> {
+
+    private final List<E> entries;
+
+    private final String continuationToken;
+
+    /**
+     * This is used to create a page.
+     *
+     * @param entries the entries of the page
+     * @param continuationToken the token of the next page, or {@code null} if
+     * this is the last page
+     */
+    public Page(List<E> entries, String continuationToken) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Returns the entries of this page, in the order of the listing.
+     *
+     * @return the entries
+     */
+    public List<E> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the token from which the next page is listed.
+     *
+     * @return the continuation token, or {@code null} if this is the last page
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Returns whether there may be entries after this page.
+     *
+     * @return {@code true} if there is a continuation token
+     */
+    public boolean hasMore() {
+        return continuationToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page [entries=" + entries + ", continuationToken=" + continuationToken + "]";
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * This class converts prices between the {@link BigDecimal} form used by the
+ * {@code Market} API and a fixed-point {@code long} form, counted in ticks,
+ * which is used internally for comparing prices and keying price levels.
+ * <p>
+ * The number of ticks in a single unit of price is read from the
+ * {@code marketplace.price.ticksPerUnit} system property and defaults to
+ * {@value #DEFAULT_TICKS_PER_UNIT}, i.e. prices are held to four decimal
+ * places.
+ *
+ * @author Naren Chivukula
+ */
+public final class Price {
+
+    /**
+     * The default number of ticks in a single unit of price.
+     */
+    public static final long DEFAULT_TICKS_PER_UNIT = 10000L;
+
+    /**
+     * The number of ticks in a single unit of price.
+     */
+    public static final long TICKS_PER_UNIT = Long.getLong("marketplace.price.ticksPerUnit", DEFAULT_TICKS_PER_UNIT);
+
+    /**
+     * The tick value of a price which is missing or cannot be represented in
+     * whole ticks.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final BigDecimal TICKS_PER_UNIT_DECIMAL = BigDecimal.valueOf(TICKS_PER_UNIT);
+
+    /*
+     * The number of decimal places of a tick when TICKS_PER_UNIT is a power of
+     * ten, otherwise -1.
+     */
+    private static final int TICK_SCALE = decimalPlaces(TICKS_PER_UNIT);
+
+    static {
+        if (TICKS_PER_UNIT <= 0) {
+            throw new IllegalStateException("marketplace.price.ticksPerUnit must be positive : " + TICKS_PER_UNIT);
+        }
+    }
+
+    /*
+     * Private constructor to avoid instantiation
+     */
+    private Price() {
+
+    }
+
+    /**
+     * Returns the given price in ticks, or {@link #INVALID} if the price is
+     * {@code null} or is not a whole number of ticks.
+     *
+     * @param pricePerUnit the price of a single item
+     * @return the price in ticks
+     */
+    public static long toTicks(BigDecimal pricePerUnit) {
+        if (pricePerUnit == null) {
+            return INVALID;
+        }
+        try {
+            long ticks = pricePerUnit.multiply(TICKS_PER_UNIT_DECIMAL).longValueExact();
+            return ticks == INVALID ? INVALID : ticks;
+        } catch (ArithmeticException ex) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Returns the price represented by the given number of ticks.
+     *
+     * @param ticks the price in ticks
+     * @return the price of a single item
+     */
+    public static BigDecimal toBigDecimal(long ticks) {
+        if (TICK_SCALE >= 0) {
+            return BigDecimal.valueOf(ticks, TICK_SCALE);
+        }
+        return BigDecimal.valueOf(ticks).divide(TICKS_PER_UNIT_DECIMAL, MathContext.DECIMAL64);
+    }
+
+    private static int decimalPlaces(long ticksPerUnit) {
+        int places = 0;
+        long remaining = ticksPerUnit;
+        while (remaining > 1 && remaining % 10 == 0) {
+            remaining /= 10;
+            places++;
+        }
+        return remaining == 1 ? places : -1;
+    }
+
+}
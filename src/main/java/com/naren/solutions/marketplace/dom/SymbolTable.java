@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class maps IDs to dense int symbols, so that books, indexes and stored
+ * orders can be keyed by ints which compare with {@code ==} and index arrays
+ * directly. Entities intern their IDs the first time their symbols are asked
+ * for, which the market place does only once it accepts them, so neither
+ * creating an entity nor a rejected entity leaves a symbol behind.
+ * <p>
+ * Items and participants, i.e. buyers and sellers, each have a table of their
+ * own. Symbols are assigned from zero upwards and never reused, and both
+ * lookups are lock-free once an ID has a symbol.
+ *
+ * @author Naren Chivukula
+ */
+public final class SymbolTable {
+
+    /**
+     * The symbol of the {@code null} ID, and of IDs without a symbol.
+     */
+    public static final int NULL = -1;
+
+    /*
+     * The symbol an entity holds until its ID is interned.
+     */
+    static final int UNRESOLVED = -2;
+
+    /**
+     * The symbols of item IDs.
+     */
+    public static final SymbolTable ITEMS = new SymbolTable();
+
+    /**
+     * The symbols of buyer and seller IDs.
+     */
+    public static final SymbolTable PARTICIPANTS = new SymbolTable();
+
+    private final ConcurrentMap<String, Integer> symbols = new ConcurrentHashMap<>();
+
+    private volatile String[] ids = new String[64];
+
+    private volatile int size;
+
+    /**
+     * This is used to create an empty table. The shared tables are
+     * {@link #ITEMS} and {@link #PARTICIPANTS}.
+     */
+    public SymbolTable() {
+
+    }
+
+    /**
+     * Returns the symbol of the given ID, assigning the next symbol if the ID
+     * has none yet.
+     *
+     * @param id the ID
+     * @return the symbol of the ID, or {@link #NULL} for {@code null}
+     */
+    public int intern(String id) {
+        if (id == null) {
+            return NULL;
+        }
+        Integer symbol = symbols.get(id);
+        if (symbol != null) {
+            return symbol;
+        }
+        synchronized (this) {
+            symbol = symbols.get(id);
+            if (symbol == null) {
+                symbol = size;
+                String[] current = ids;
+                if (symbol == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[symbol] = id;
+                ids = current;
+                size = symbol + 1;
+                symbols.put(id, symbol);
+            }
+            return symbol;
+        }
+    }
+
+    /**
+     * Returns the symbol of the given ID without assigning one.
+     *
+     * @param id the ID
+     * @return the symbol of the ID, or {@link #NULL} if it has none
+     */
+    public int find(String id) {
+        Integer symbol = id == null ? null : symbols.get(id);
+        return symbol == null ? NULL : symbol;
+    }
+
+    /**
+     * Returns the ID of the given symbol.
+     *
+     * @param symbol the symbol
+     * @return the ID, or {@code null} for {@link #NULL}
+     * @throws IndexOutOfBoundsException if the symbol has not been assigned
+     */
+    public String id(int symbol) {
+        if (symbol == NULL) {
+            return null;
+        }
+        if (symbol < 0 || symbol >= size) {
+            throw new IndexOutOfBoundsException("Symbol: " + symbol + ", Size: " + size);
+        }
+        return ids[symbol];
+    }
+
+    /**
+     * Returns the number of symbols assigned.
+     *
+     * @return the number of symbols
+     */
+    public int size() {
+        return size;
+    }
+
+}
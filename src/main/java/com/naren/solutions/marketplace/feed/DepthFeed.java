@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import com.naren.solutions.marketplace.cache.SymbolMap;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class pushes incremental market depth (level 2) updates to the
+ * subscribers of each item, so that clients no longer poll the market for
+ * prices. A market the feed is set on publishes the price levels changed by
+ * each submission when the submission ends, and the feed merges the changes of
+ * one level into its latest state before delivering them as one batch.
+ * <p>
+ * The feed keeps the aggregated levels of every item it has seen, seeded by
+ * each market with the levels of its books when the feed is set on it, so
+ * that a subscriber may join with a snapshot of the item followed by the
+ * updates after it, without gap or overlap. Updates of an item are applied and
+ * delivered under the lock of the item, on the thread of the market
+ * publishing them.
+ *
+ * @author Naren Chivukula
+ */
+public class DepthFeed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DepthFeed.class);
+
+    private final SymbolMap<ItemDepth> items = new SymbolMap<>();
+
+    /**
+     * Subscribes to the price level updates of the given item.
+     *
+     * @param itemId the item ID
+     * @param subscriber the subscriber to deliver to
+     * @param withSnapshot {@code true} to deliver a snapshot of the item
+     * before the first updates
+     */
+    public void subscribe(String itemId, DepthSubscriber subscriber, boolean withSnapshot) {
+        ItemDepth depth = item(itemId);
+        synchronized (depth) {
+            if (withSnapshot) {
+                subscriber.onSnapshot(itemId, depth.snapshot());
+            }
+            depth.subscribers.add(subscriber);
+        }
+        LOG.debug("Subscribed {} to the depth of {}", subscriber, itemId);
+    }
+
+    /**
+     * Stops delivering the updates of the given item to the subscriber.
+     *
+     * @param itemId the item ID
+     * @param subscriber the subscriber to stop delivering to
+     */
+    public void unsubscribe(String itemId, DepthSubscriber subscriber) {
+        ItemDepth depth = items.get(SymbolTable.ITEMS.find(itemId));
+        if (depth != null) {
+            depth.subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Returns the price levels of the given item, bids then offers, each best
+     * price first.
+     *
+     * @param itemId the item ID
+     * @return the price levels of the item
+     */
+    public List<LevelUpdate> snapshot(String itemId) {
+        ItemDepth depth = items.get(SymbolTable.ITEMS.find(itemId));
+        if (depth == null) {
+            return new ArrayList<>();
+        }
+        synchronized (depth) {
+            return depth.snapshot();
+        }
+    }
+
+    /**
+     * Applies the price level updates of one submission and delivers them to
+     * the subscribers of their items. This is called by the market on its
+     * matching thread when a submission ends; the list is not kept.
+     *
+     * @param updates the updates of the submission, in the order in which
+     * the levels changed
+     */
+    public void publish(List<LevelUpdate> updates) {
+        int from = 0;
+        while (from < updates.size()) {
+            String itemId = updates.get(from).getItemId();
+            int to = from + 1;
+            while (to < updates.size() && updates.get(to).getItemId().equals(itemId)) {
+                to++;
+            }
+            item(itemId).apply(itemId, updates.subList(from, to));
+            from = to;
+        }
+    }
+
+    /**
+     * Replaces the price levels of the given item with those of its book, and
+     * delivers them as a new snapshot to the subscribers it already has. This
+     * is called by a market on its matching thread when the feed is set on it,
+     * so that items whose bids and offers were resting before are not missing
+     * from the snapshots.
+     *
+     * @param itemId the item ID
+     * @param levels the levels of the book of the item
+     */
+    public void seed(String itemId, List<LevelUpdate> levels) {
+        item(itemId).seed(itemId, levels);
+    }
+
+    private ItemDepth item(String itemId) {
+        return items.computeIfAbsent(SymbolTable.ITEMS.intern(itemId), ItemDepth::new);
+    }
+
+    /*
+     * The aggregated price levels of one item and its subscribers.
+     */
+    private static final class ItemDepth {
+
+        private final NavigableMap<Long, LevelUpdate> bids = new TreeMap<>(Comparator.reverseOrder());
+
+        private final NavigableMap<Long, LevelUpdate> offers = new TreeMap<>();
+
+        private final List<DepthSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        private List<LevelUpdate> snapshot() {
+            List<LevelUpdate> levels = new ArrayList<>(bids.size() + offers.size());
+            levels.addAll(bids.values());
+            levels.addAll(offers.values());
+            return levels;
+        }
+
+        /*
+         * Replaces the levels with the given ones and delivers them as a
+         * snapshot.
+         */
+        private synchronized void seed(String itemId, List<LevelUpdate> levels) {
+            bids.clear();
+            offers.clear();
+            for (LevelUpdate level : levels) {
+                (level.getSide() == LevelUpdate.Side.BID ? bids : offers).put(level.getPriceTicks(), level);
+            }
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            List<LevelUpdate> delivered = Collections.unmodifiableList(snapshot());
+            for (DepthSubscriber subscriber : subscribers) {
+                try {
+                    subscriber.onSnapshot(itemId, delivered);
+                } catch (RuntimeException ex) {
+                    LOG.error("Depth subscriber {} failed on the snapshot of {}", subscriber, itemId, ex);
+                }
+            }
+        }
+
+        /*
+         * Applies the updates in order, keeping only the last update of each
+         * level for delivery, so a sweep through many entries of one level
+         * is delivered as a single update of it.
+         */
+        private synchronized void apply(String itemId, List<LevelUpdate> updates) {
+            Map<Long, LevelUpdate> changedBids = new LinkedHashMap<>();
+            Map<Long, LevelUpdate> changedOffers = new LinkedHashMap<>();
+            for (LevelUpdate update : updates) {
+                boolean bid = update.getSide() == LevelUpdate.Side.BID;
+                NavigableMap<Long, LevelUpdate> levels = bid ? bids : offers;
+                if (update.isRemoved()) {
+                    levels.remove(update.getPriceTicks());
+                } else {
+                    levels.put(update.getPriceTicks(), update);
+                }
+                (bid ? changedBids : changedOffers).put(update.getPriceTicks(), update);
+            }
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            List<LevelUpdate> batch = new ArrayList<>(changedBids.size() + changedOffers.size());
+            batch.addAll(changedBids.values());
+            batch.addAll(changedOffers.values());
+            List<LevelUpdate> delivered = Collections.unmodifiableList(batch);
+            for (DepthSubscriber subscriber : subscribers) {
+                try {
+                    subscriber.onUpdates(itemId, delivered);
+                } catch (RuntimeException ex) {
+                    LOG.error("Depth subscriber {} failed on the updates of {}", subscriber, itemId, ex);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import java.util.List;
+
+/**
+ * This interface declares the callbacks through which a {@link DepthFeed}
+ * pushes the price levels of an item to a subscriber. Updates are delivered on
+ * the thread matching the item, once per submission, so a subscriber must
+ * handle them quickly or hand them off to a thread of its own.
+ *
+ * @author Naren Chivukula
+ */
+public interface DepthSubscriber {
+
+    /**
+     * Called once on subscribing, when a snapshot was asked for, with every
+     * price level of the item, bids then offers, each best price first. Every
+     * update after it is delivered to {@link #onUpdates(String, List)}.
+     *
+     * @param itemId the item ID
+     * @param levels the price levels of the item
+     */
+    void onSnapshot(String itemId, List<LevelUpdate> levels);
+
+    /**
+     * Called with the price levels of the item which changed in one
+     * submission, each with its state at the end of the submission.
+     *
+     * @param itemId the item ID
+     * @param updates the changed price levels
+     */
+    void onUpdates(String itemId, List<LevelUpdate> updates);
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the new state of one price level of an item after it
+ * changed: its aggregate quantity and the number of bids or offers resting at
+ * it. A quantity of zero means the level emptied and is gone from the book.
+ *
+ * @author Naren Chivukula
+ */
+public final class LevelUpdate {
+
+    /**
+     * The side of the book a price level is on.
+     */
+    public enum Side {
+
+        /**
+         * The bid side, whose best price is the highest.
+         */
+        BID,
+
+        /**
+         * The offer side, whose best price is the lowest.
+         */
+        OFFER
+    }
+
+    private final String itemId;
+
+    private final Side side;
+
+    private final long priceTicks;
+
+    private final BigDecimal pricePerUnit;
+
+    private final long quantity;
+
+    private final int orderCount;
+
+    /**
+     * This is used to create the update of a price level.
+     *
+     * @param itemId the item ID
+     * @param side the side of the book
+     * @param priceTicks the price of the level in ticks
+     * @param pricePerUnit the price of the level
+     * @param quantity the aggregate quantity now resting at the level
+     * @param orderCount the number of bids or offers now resting at the level
+     */
+    public LevelUpdate(String itemId, Side side, long priceTicks, BigDecimal pricePerUnit, long quantity,
+            int orderCount) {
+        this.itemId = itemId;
+        this.side = side;
+        this.priceTicks = priceTicks;
+        this.pricePerUnit = pricePerUnit;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the side of the book the level is on.
+     *
+     * @return the side
+     */
+    public Side getSide() {
+        return side;
+    }
+
+    /**
+     * Returns the price of the level in ticks.
+     *
+     * @return the priceTicks
+     */
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    /**
+     * Returns the price of the level.
+     *
+     * @return the pricePerUnit
+     */
+    public BigDecimal getPricePerUnit() {
+        return pricePerUnit;
+    }
+
+    /**
+     * Returns the aggregate quantity resting at the level.
+     *
+     * @return the quantity
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the number of bids or offers resting at the level.
+     *
+     * @return the order count
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Returns {@code true} if the level emptied and is gone from the book.
+     *
+     * @return {@code true} if nothing rests at the level
+     */
+    public boolean isRemoved() {
+        return quantity == 0;
+    }
+
+    /**
+     * Returns the string representation of this {@code LevelUpdate}.
+     *
+     * @return string representation of this {@code LevelUpdate}.
+     */
+    @Override
+    public String toString() {
+        return "LevelUpdate [itemId=" + itemId + ", side=" + side
+                + ", pricePerUnit=" + pricePerUnit + ", quantity=" + quantity
+                + ", orderCount=" + orderCount + "]";
+    }
+
+}
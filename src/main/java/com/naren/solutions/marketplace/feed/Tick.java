@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the best bid and best offer prices of an item as they stood
+ * at the end of one submission. The two prices are taken together, so a tick
+ * never pairs the best bid of one moment with the best offer of another.
+ *
+ * @author Naren Chivukula
+ */
+public final class Tick {
+
+    private final String itemId;
+
+    private final BigDecimal bestBidPricePerUnit;
+
+    private final BigDecimal bestOfferPricePerUnit;
+
+    private final long sequence;
+
+    /**
+     * This is used to create the tick of an item.
+     *
+     * @param itemId the item ID
+     * @param bestBidPricePerUnit the best bid price, or {@code null} if there
+     * are no bids
+     * @param bestOfferPricePerUnit the best offer price, or {@code null} if
+     * there are no offers
+     * @param sequence the number of the tick among the ticks of the item
+     */
+    public Tick(String itemId, BigDecimal bestBidPricePerUnit, BigDecimal bestOfferPricePerUnit, long sequence) {
+        this.itemId = itemId;
+        this.bestBidPricePerUnit = bestBidPricePerUnit;
+        this.bestOfferPricePerUnit = bestOfferPricePerUnit;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the highest price of all bids for the item, or {@code null} if
+     * there were no bids.
+     *
+     * @return the best bid price
+     */
+    public BigDecimal getBestBidPricePerUnit() {
+        return bestBidPricePerUnit;
+    }
+
+    /**
+     * Returns the lowest price of all offers for the item, or {@code null} if
+     * there were no offers.
+     *
+     * @return the best offer price
+     */
+    public BigDecimal getBestOfferPricePerUnit() {
+        return bestOfferPricePerUnit;
+    }
+
+    /**
+     * Returns the number of the tick among the ticks of the item, starting
+     * from 1. A reader seeing a gap knows that the ticks between were
+     * conflated.
+     *
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the string representation of this {@code Tick}.
+     *
+     * @return string representation of this {@code Tick}.
+     */
+    @Override
+    public String toString() {
+        return "Tick [itemId=" + itemId + ", bestBidPricePerUnit=" + bestBidPricePerUnit
+                + ", bestOfferPricePerUnit=" + bestOfferPricePerUnit + ", sequence=" + sequence + "]";
+    }
+
+}
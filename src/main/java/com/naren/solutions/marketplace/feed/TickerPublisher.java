@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import com.naren.solutions.marketplace.book.TopOfBook;
+import com.naren.solutions.marketplace.cache.SymbolMap;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class publishes the best bid and best offer prices of each item to
+ * consumers which need only the latest prices, not every change. A market the
+ * publisher is set on publishes the top of book of each item whose best
+ * prices changed when a submission ends.
+ * <p>
+ * Each item has a single slot holding its latest {@link Tick}, which every
+ * publication overwrites. A {@link TickerSubscription} only notes which of its
+ * items changed since it last read them, so publishing never waits for a
+ * consumer and a consumer never holds more than one pending tick per item,
+ * however slowly it reads. An item changing thousands of times between two
+ * reads is read once, at its latest prices.
+ *
+ * @author Naren Chivukula
+ */
+public class TickerPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TickerPublisher.class);
+
+    private final SymbolMap<Slot> slots = new SymbolMap<>();
+
+    private final List<TickerSubscription> allItemSubscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribes to the ticks of the given items, or of every item if none are
+     * given. The latest tick of each item which already has one is pending on
+     * the new subscription.
+     *
+     * @param itemIds the item IDs
+     * @return the subscription to read the ticks from
+     */
+    public TickerSubscription subscribe(String... itemIds) {
+        TickerSubscription subscription = new TickerSubscription(this);
+        if (itemIds.length == 0) {
+            allItemSubscriptions.add(subscription);
+            slots.forEach(slot -> {
+                if (slot.latest != null) {
+                    subscription.changed(slot);
+                }
+            });
+        } else {
+            for (String itemId : itemIds) {
+                Slot slot = slot(itemId);
+                slot.subscriptions.add(subscription);
+                if (slot.latest != null) {
+                    subscription.changed(slot);
+                }
+            }
+        }
+        LOG.debug("Subscribed {} to the ticks of {} item(s)", subscription, itemIds.length == 0 ? "all" : itemIds.length);
+        return subscription;
+    }
+
+    /**
+     * Returns the latest tick of the given item.
+     *
+     * @param itemId the item ID
+     * @return the latest tick, or {@code null} if none was published
+     */
+    public Tick latest(String itemId) {
+        Slot slot = slots.get(SymbolTable.ITEMS.find(itemId));
+        return slot == null ? null : slot.latest;
+    }
+
+    /**
+     * Publishes the current best prices of an item, replacing its previous
+     * tick, and notes the change on the subscriptions of the item. This is
+     * called by the market on the thread matching the item.
+     *
+     * @param top the top of book of the item
+     */
+    public void publish(TopOfBook top) {
+        Slot slot = slot(top.getItemId());
+        slot.latest = new Tick(top.getItemId(), top.getBestBidPricePerUnit(), top.getBestOfferPricePerUnit(),
+                ++slot.sequence);
+        for (TickerSubscription subscription : slot.subscriptions) {
+            subscription.changed(slot);
+        }
+        for (TickerSubscription subscription : allItemSubscriptions) {
+            subscription.changed(slot);
+        }
+    }
+
+    /*
+     * Stops noting changes on a closed subscription.
+     */
+    void unsubscribe(TickerSubscription subscription) {
+        allItemSubscriptions.remove(subscription);
+        slots.forEach(slot -> slot.subscriptions.remove(subscription));
+    }
+
+    private Slot slot(String itemId) {
+        int symbol = SymbolTable.ITEMS.intern(itemId);
+        return slots.computeIfAbsent(symbol, () -> new Slot(symbol));
+    }
+
+    /*
+     * The latest tick of one item and the subscriptions to it. The sequence
+     * is only written by the thread matching the item.
+     */
+    static final class Slot {
+
+        final int symbol;
+
+        volatile Tick latest;
+
+        long sequence;
+
+        final List<TickerSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        private Slot(int symbol) {
+            this.symbol = symbol;
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed;
+
+import com.naren.solutions.marketplace.cache.SymbolMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * This class is a consumer's view of a {@link TickerPublisher}: the items
+ * whose best prices changed since the consumer last read them. An item is
+ * queued once when it changes and stays queued however often it changes
+ * again, so the queue never holds more entries than there are items, and
+ * reading an item returns its latest tick at the time of the read.
+ * <p>
+ * The ticks are read at the consumer's own pace, through
+ * {@link #poll()}, {@link #drain(Consumer)} or the waiting
+ * {@link #take(long, TimeUnit)}, which is to be called by one thread at a
+ * time.
+ *
+ * @author Naren Chivukula
+ */
+public class TickerSubscription implements AutoCloseable {
+
+    private final TickerPublisher publisher;
+
+    /*
+     * Whether each item is queued, so that an item is queued once however
+     * often it changes before it is read.
+     */
+    private final SymbolMap<AtomicBoolean> queued = new SymbolMap<>();
+
+    private final Queue<TickerPublisher.Slot> changed = new ConcurrentLinkedQueue<>();
+
+    private volatile Thread waiter;
+
+    private volatile boolean closed;
+
+    /*
+     * Subscriptions are created by TickerPublisher#subscribe.
+     */
+    TickerSubscription(TickerPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Returns the latest tick of the next changed item, or {@code null} if no
+     * item changed since it was last read.
+     *
+     * @return the latest tick of a changed item, or {@code null}
+     */
+    public Tick poll() {
+        TickerPublisher.Slot slot = changed.poll();
+        if (slot == null) {
+            return null;
+        }
+        queued.get(slot.symbol).set(false);
+        return slot.latest;
+    }
+
+    /**
+     * Waits up to the given time for an item to change and returns its
+     * latest tick.
+     *
+     * @param timeout the time to wait
+     * @param unit the unit of the time to wait
+     * @return the latest tick of a changed item, or {@code null} if none
+     * changed in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Tick take(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Tick tick = poll();
+        while (tick == null && !closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            waiter = Thread.currentThread();
+            if (changed.isEmpty()) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            waiter = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            tick = poll();
+        }
+        return tick;
+    }
+
+    /**
+     * Passes the latest tick of every changed item to the given action.
+     *
+     * @param action the action
+     * @return the number of ticks passed
+     */
+    public int drain(Consumer<? super Tick> action) {
+        int count = 0;
+        for (Tick tick = poll(); tick != null; tick = poll()) {
+            action.accept(tick);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Stops the publisher noting changes on this subscription and wakes a
+     * thread waiting on it.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        publisher.unsubscribe(this);
+        changed.clear();
+        Thread current = waiter;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /*
+     * Queues a changed item unless it is queued already. This is called on
+     * the thread publishing the item and never blocks it.
+     */
+    void changed(TickerPublisher.Slot slot) {
+        if (closed) {
+            return;
+        }
+        AtomicBoolean flag = queued.computeIfAbsent(slot.symbol, AtomicBoolean::new);
+        if (flag.compareAndSet(false, true)) {
+            changed.add(slot);
+            Thread current = waiter;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This wait strategy spins on the available sequence. It gives the lowest
+ * latency but keeps a core busy, so it suits consumers pinned to their own
+ * core.
+ *
+ * @author Naren Chivukula
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(long sequence, LongSupplier availableSequence) throws InterruptedException {
+        long available;
+        while ((available = availableSequence.getAsLong()) < sequence) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return available;
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class runs one consumer of the {@link RingBuffer} on its own thread. It
+ * waits for the events its dependency has made available, hands them to its
+ * handler as one batch and then advances its own sequence past the batch.
+ *
+ * @author Naren Chivukula
+ */
+final class EventProcessor implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventProcessor.class);
+
+    private final Sequence sequence;
+
+    private final RingBuffer ringBuffer;
+
+    private final LongSupplier availableSequence;
+
+    private final WaitStrategy waitStrategy;
+
+    private final MarketEventHandler handler;
+
+    private volatile boolean running = true;
+
+    /*
+     * Creates a consumer of the events up to the sequence supplied by its
+     * dependency, i.e. the ring buffer or the consumer before it, recording
+     * its progress in the given sequence.
+     */
+    EventProcessor(Sequence sequence, RingBuffer ringBuffer, LongSupplier availableSequence, WaitStrategy waitStrategy, MarketEventHandler handler) {
+        this.sequence = sequence;
+        this.ringBuffer = ringBuffer;
+        this.availableSequence = availableSequence;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+    }
+
+    Sequence getSequence() {
+        return sequence;
+    }
+
+    void halt() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        while (running) {
+            long available;
+            try {
+                available = waitStrategy.waitFor(next, availableSequence);
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            for (; next <= available; next++) {
+                try {
+                    handler.onEvent(ringBuffer.get(next), next, next == available);
+                } catch (RuntimeException ex) {
+                    LOG.error("Failed to handle event {}", next, ex);
+                }
+            }
+            sequence.set(available);
+        }
+    }
+
+}
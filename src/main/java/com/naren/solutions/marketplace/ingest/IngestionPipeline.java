@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import com.naren.solutions.marketplace.process.Market;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is an ingestion stage in front of a {@link Market}. Gateway
+ * threads submit bids and offers into a pre-allocated {@link RingBuffer} and
+ * return straight away, without allocating a queue node per submission. A
+ * single matching consumer hands the submissions to the market in order, and
+ * any downstream consumers, e.g. for journaling and publishing, then see each
+ * event in parallel with one another once it has been matched, including the
+ * rejection of an invalid submission.
+ * <p>
+ * Consumers take all the events available to them as one batch, and the
+ * {@link WaitStrategy} decides how idle consumers wait for more.
+ *
+ * @author Naren Chivukula
+ */
+public class IngestionPipeline implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    private final Market market;
+
+    private final RingBuffer ringBuffer;
+
+    private final EventProcessor matching;
+
+    private final List<EventProcessor> downstream = new ArrayList<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * This is used to create a pipeline feeding the given market.
+     *
+     * @param market the market matching the submissions, which is only
+     * called from the matching consumer thread
+     * @param ringSize the number of slots of the ring buffer, a power of two
+     * @param waitStrategy the wait strategy of the consumers
+     * @param downstreamHandlers the handlers which see every event after it
+     * has been matched
+     */
+    public IngestionPipeline(Market market, int ringSize, WaitStrategy waitStrategy, MarketEventHandler... downstreamHandlers) {
+        this.market = market;
+        this.ringBuffer = new RingBuffer(ringSize);
+        Sequence matched = new Sequence(-1);
+        this.matching = new EventProcessor(matched, ringBuffer,
+                () -> ringBuffer.getHighestPublished(matched.get() + 1), waitStrategy, this::match);
+        for (MarketEventHandler handler : downstreamHandlers) {
+            downstream.add(new EventProcessor(new Sequence(-1), ringBuffer, matched::get, waitStrategy, handler));
+        }
+        if (downstream.isEmpty()) {
+            ringBuffer.setGatingSequences(matched);
+        } else {
+            ringBuffer.setGatingSequences(downstream.stream().map(EventProcessor::getSequence).toArray(Sequence[]::new));
+        }
+    }
+
+    /**
+     * Starts the consumer threads.
+     */
+    public void start() {
+        threads.add(startThread(matching, "ingest-matching"));
+        for (int i = 0; i < downstream.size(); i++) {
+            threads.add(startThread(downstream.get(i), "ingest-downstream-" + i));
+        }
+        LOG.debug("Started the ingestion pipeline with {} slots and {} downstream consumers", ringBuffer.size(), downstream.size());
+    }
+
+    /**
+     * Submits a bid for matching, waiting only while the ring is full.
+     *
+     * @param bid the bid to add
+     * @return the sequence of the submission
+     */
+    public long addBid(Bid bid) {
+        long sequence = ringBuffer.next();
+        ringBuffer.get(sequence).setBid(bid);
+        ringBuffer.publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Submits an offer for matching, waiting only while the ring is full.
+     *
+     * @param offer the offer to add
+     * @return the sequence of the submission
+     */
+    public long addOffer(Offer offer) {
+        long sequence = ringBuffer.next();
+        ringBuffer.get(sequence).setOffer(offer);
+        ringBuffer.publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Waits until every consumer has handled the submissions made so far and
+     * stops the consumer threads. No submissions may be made meanwhile.
+     */
+    @Override
+    public void close() {
+        long last = ringBuffer.getClaimed();
+        while (!handledUpTo(last)) {
+            LockSupport.parkNanos(1000);
+        }
+        matching.halt();
+        downstream.forEach(EventProcessor::halt);
+        for (Thread thread : threads) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOG.debug("Stopped the ingestion pipeline after sequence {}", last);
+    }
+
+    private void match(MarketEvent event, long sequence, boolean endOfBatch) {
+        try {
+            if (event.getType() == MarketEvent.Type.BID) {
+                market.addBid(event.getBid());
+            } else {
+                market.addOffer(event.getOffer());
+            }
+        } catch (InvalidMarketplaceEntityException ex) {
+            LOG.debug("Rejected event {} : {}", sequence, ex.getMessage());
+            event.setRejection(ex);
+        }
+    }
+
+    private boolean handledUpTo(long sequence) {
+        if (matching.getSequence().get() < sequence) {
+            return false;
+        }
+        for (EventProcessor processor : downstream) {
+            if (processor.getSequence().get() < sequence) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Thread startThread(Runnable processor, String name) {
+        Thread thread = new Thread(processor, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+}
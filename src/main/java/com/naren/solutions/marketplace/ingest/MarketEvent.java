@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+
+/**
+ * This class is a reusable slot of the {@link RingBuffer}, carrying one bid or
+ * offer submitted to the market through the ingestion pipeline. Slots are
+ * allocated once, when the ring buffer is created, and overwritten by every
+ * submission which claims them afterwards.
+ *
+ * @author Naren Chivukula
+ */
+public final class MarketEvent {
+
+    /**
+     * The kinds of submission a slot can carry.
+     */
+    public enum Type {
+        /**
+         * A bid submitted through {@code Market.addBid}.
+         */
+        BID,
+        /**
+         * An offer submitted through {@code Market.addOffer}.
+         */
+        OFFER
+    }
+
+    private Type type;
+
+    private Bid bid;
+
+    private Offer offer;
+
+    private RuntimeException rejection;
+
+    /**
+     * Returns the kind of submission carried by this slot.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the submitted bid, or {@code null} if this slot carries an
+     * offer.
+     *
+     * @return the bid
+     */
+    public Bid getBid() {
+        return bid;
+    }
+
+    /**
+     * Returns the submitted offer, or {@code null} if this slot carries a bid.
+     *
+     * @return the offer
+     */
+    public Offer getOffer() {
+        return offer;
+    }
+
+    /**
+     * Returns the exception thrown when the market rejected the submission, or
+     * {@code null} if it was accepted.
+     *
+     * @return the rejection
+     */
+    public RuntimeException getRejection() {
+        return rejection;
+    }
+
+    /**
+     * Records the exception thrown when the market rejected the submission.
+     *
+     * @param rejection the rejection
+     */
+    public void setRejection(RuntimeException rejection) {
+        this.rejection = rejection;
+    }
+
+    void setBid(Bid bid) {
+        this.type = Type.BID;
+        this.bid = bid;
+        this.offer = null;
+        this.rejection = null;
+    }
+
+    void setOffer(Offer offer) {
+        this.type = Type.OFFER;
+        this.bid = null;
+        this.offer = offer;
+        this.rejection = null;
+    }
+
+    /**
+     * Returns the string representation of this {@code MarketEvent}.
+     *
+     * @return string representation of this {@code MarketEvent}.
+     */
+    @Override
+    public String toString() {
+        return "MarketEvent [type=" + type + ", bid=" + bid + ", offer="
+                + offer + ", rejection=" + rejection + "]";
+    }
+
+}
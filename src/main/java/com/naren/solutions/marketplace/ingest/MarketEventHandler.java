@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+/**
+ * This interface declares a consumer of the events of the ingestion pipeline.
+ *
+ * @author Naren Chivukula
+ */
+public interface MarketEventHandler {
+
+    /**
+     * Handles an event. Events are handed over in sequence order, in batches
+     * of all the events available when the consumer caught up, so a handler
+     * may defer work such as flushing until the end of a batch.
+     *
+     * @param event the event
+     * @param sequence the sequence of the event
+     * @param endOfBatch {@code true} if this is the last event of the batch
+     */
+    void onEvent(MarketEvent event, long sequence, boolean endOfBatch);
+
+}
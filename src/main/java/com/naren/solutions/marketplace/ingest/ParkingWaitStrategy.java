@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * This wait strategy parks the consumer for a short time between checks of the
+ * available sequence. It uses the least CPU at the cost of up to one park
+ * interval of extra latency.
+ *
+ * @author Naren Chivukula
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+
+    private final long parkNanos;
+
+    /**
+     * This is used to create a wait strategy parking for 100 microseconds.
+     */
+    public ParkingWaitStrategy() {
+        this(100, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * This is used to create a wait strategy parking for the given time.
+     *
+     * @param parkTime the time to park between checks
+     * @param unit the unit of the park time
+     */
+    public ParkingWaitStrategy(long parkTime, TimeUnit unit) {
+        this.parkNanos = unit.toNanos(parkTime);
+    }
+
+    @Override
+    public long waitFor(long sequence, LongSupplier availableSequence) throws InterruptedException {
+        long available;
+        while ((available = availableSequence.getAsLong()) < sequence) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(parkNanos);
+        }
+        return available;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is a fixed-size ring of pre-allocated {@link MarketEvent} slots
+ * shared by many producers and a chain of consumers.
+ * <p>
+ * A producer claims the next sequence with {@link #next()}, fills the slot
+ * returned by {@link #get(long)} and makes it visible with
+ * {@link #publish(long)}. Claiming never overtakes the slowest of the gating
+ * consumers, so a slot is not reused until every consumer has handled it.
+ * Slots are published independently, and consumers only see a sequence once
+ * it and all the sequences before it are published.
+ *
+ * @author Naren Chivukula
+ */
+public class RingBuffer {
+
+    private final MarketEvent[] slots;
+
+    private final int mask;
+
+    private final int indexShift;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private final AtomicIntegerArray published;
+
+    private final Sequence gatingCache = new Sequence(-1);
+
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    /**
+     * This is used to create a ring buffer with the given number of slots.
+     *
+     * @param size the number of slots, which must be a power of two
+     */
+    public RingBuffer(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two : " + size);
+        }
+        this.slots = new MarketEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new MarketEvent();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * Sets the consumer sequences which producers must not overtake by more
+     * than the size of the ring.
+     *
+     * @param sequences the gating sequences
+     */
+    public void setGatingSequences(Sequence... sequences) {
+        this.gatingSequences = sequences.clone();
+    }
+
+    /**
+     * Claims the next sequence, waiting while the ring is full.
+     *
+     * @return the claimed sequence
+     */
+    public long next() {
+        long next = claimed.incrementAndGet();
+        long wrapPoint = next - slots.length;
+        while (wrapPoint > gatingCache.get()) {
+            long minimum = minimumGatingSequence(next - 1);
+            gatingCache.set(minimum);
+            if (wrapPoint > minimum) {
+                LockSupport.parkNanos(1);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the slot of the given sequence.
+     *
+     * @param sequence the sequence
+     * @return the slot
+     */
+    public MarketEvent get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Makes the slot of a claimed sequence visible to the consumers.
+     *
+     * @param sequence the claimed sequence
+     */
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * Returns the highest sequence claimed by the producers.
+     *
+     * @return the highest claimed sequence
+     */
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * Returns the highest sequence, starting from the given one, up to which
+     * every sequence has been published, or {@code sequence - 1} if the given
+     * sequence is not published yet.
+     *
+     * @param sequence the lowest sequence to check
+     * @return the highest contiguously published sequence
+     */
+    public long getHighestPublished(long sequence) {
+        long highest = claimed.get();
+        for (long s = sequence; s <= highest; s++) {
+            if (published.get((int) s & mask) != (int) (s >>> indexShift)) {
+                return s - 1;
+            }
+        }
+        return highest;
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+}
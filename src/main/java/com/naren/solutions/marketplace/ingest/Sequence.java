@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * This class holds the position of a producer or consumer in the
+ * {@link RingBuffer}. The value is padded on both sides so that sequences
+ * updated by different threads do not share a cache line.
+ *
+ * @author Naren Chivukula
+ */
+public class Sequence extends SequenceValue {
+
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    /**
+     * This is used to create a sequence with the given initial value.
+     *
+     * @param initialValue the initial value
+     */
+    public Sequence(long initialValue) {
+        set(initialValue);
+    }
+
+    /**
+     * Returns the current value.
+     *
+     * @return the current value
+     */
+    public long get() {
+        return value;
+    }
+
+    /**
+     * Sets the value, making it visible to other threads without a full
+     * fence.
+     *
+     * @param value the new value
+     */
+    public void set(long value) {
+        UPDATER.lazySet(this, value);
+    }
+
+    /**
+     * Returns the string representation of this {@code Sequence}.
+     *
+     * @return string representation of this {@code Sequence}.
+     */
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+
+}
+
+/*
+ * Holds the padded value of a Sequence.
+ */
+abstract class SequenceValue {
+
+    static final AtomicLongFieldUpdater<SequenceValue> UPDATER = AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    protected volatile long value;
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This interface declares how a consumer of the {@link RingBuffer} waits for
+ * events to become available, trading CPU usage against latency.
+ *
+ * @author Naren Chivukula
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the available sequence reaches the given sequence.
+     *
+     * @param sequence the sequence to wait for
+     * @param availableSequence supplies the highest available sequence
+     * @return the highest available sequence, at least {@code sequence}
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    long waitFor(long sequence, LongSupplier availableSequence) throws InterruptedException;
+
+    /**
+     * Returns the wait strategy with the given name, which is one of
+     * {@code busy-spin}, {@code yield} or {@code park}. This lets each
+     * deployment choose its strategy from configuration.
+     *
+     * @param name the name of the wait strategy
+     * @return the wait strategy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static WaitStrategy named(String name) {
+        switch (String.valueOf(name)) {
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            case "yield":
+                return new YieldingWaitStrategy();
+            case "park":
+                return new ParkingWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy : " + name);
+        }
+    }
+
+}
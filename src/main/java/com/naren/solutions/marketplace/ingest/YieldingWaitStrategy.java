@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This wait strategy spins for a while and then yields the processor between
+ * checks of the available sequence. It keeps latency low while letting other
+ * threads run when cores are shared.
+ *
+ * @author Naren Chivukula
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, LongSupplier availableSequence) throws InterruptedException {
+        int counter = SPIN_TRIES;
+        long available;
+        while ((available = availableSequence.getAsLong()) < sequence) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (counter > 0) {
+                counter--;
+            } else {
+                Thread.yield();
+            }
+        }
+        return available;
+    }
+
+}
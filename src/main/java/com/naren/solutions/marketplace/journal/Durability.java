@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal;
+
+/**
+ * This enum lists when a {@link MarketJournal} forces the records written to
+ * its memory mapped segments out to the storage device.
+ *
+ * @author Naren Chivukula
+ */
+public enum Durability {
+
+    /**
+     * Records are never forced while the journal is open and reach the device
+     * whenever the operating system writes the mapped pages back. They survive
+     * the process dying, but not the machine.
+     */
+    ASYNC,
+
+    /**
+     * Records are forced by a flusher thread, which forces the records of all
+     * the submissions committed meanwhile with one force, at most a bounded
+     * time after the first of them or as soon as enough bytes are committed.
+     * The matching thread does not wait for the force, so only the futures
+     * returned by {@code submitBid} and {@code submitOffer}, which complete
+     * once it is done, say a submission is durable; {@code addBid} and the
+     * other synchronous submissions return as soon as they are matched.
+     */
+    GROUP,
+
+    /**
+     * Every record is forced as soon as it is written.
+     */
+    SYNC
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class maps one fixed size file of a {@link MarketJournal}. Segments are
+ * numbered from zero and named after their number, so that listing the
+ * directory in name order lists the journal in the order it was written.
+ * <p>
+ * Each record is an {@code int} length followed by that many bytes. A length
+ * of zero marks the end of the written records, which is what a new segment,
+ * being filled with zeros, starts with.
+ *
+ * @author Naren Chivukula
+ */
+final class JournalSegment {
+
+    private static final String SUFFIX = ".journal";
+
+    private final int index;
+
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(int index, MappedByteBuffer buffer) {
+        this.index = index;
+        this.buffer = buffer;
+    }
+
+    /*
+     * Maps the segment with the given number for writing, creating the file
+     * when it does not exist.
+     */
+    static JournalSegment map(Path directory, int index, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName(index)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /*
+     * Maps an existing segment for reading.
+     */
+    static JournalSegment mapReadOnly(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return new JournalSegment(indexOf(segment), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*
+     * Lists the segments of the journal in the given directory, first segment
+     * first.
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+
+    static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static String fileName(int index) {
+        return String.format("%010d%s", index, SUFFIX);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    MappedByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /*
+     * Returns the offset just past the last record written, found by
+     * following the record lengths up to the first length of zero.
+     */
+    int end() {
+        int offset = 0;
+        while (offset + Integer.BYTES <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + Integer.BYTES + length > buffer.limit()) {
+                break;
+            }
+            offset += Integer.BYTES + length;
+        }
+        return offset;
+    }
+
+}
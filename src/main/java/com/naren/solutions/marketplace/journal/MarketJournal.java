@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.Market;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is an append only journal of everything a market accepts: the
+ * bids and offers submitted to it, the orders they fill, and the resting bids
+ * and offers removed once filled. Records are written straight into memory
+ * mapped segment files, so writing one is a handful of absolute puts with no
+ * system call, and are forced out to the device as its {@link Durability}
+ * says.
+ * <p>
+ * A record is an {@code int} length, a type byte and the entity as written by
+ * its {@link EntityCodec}. The length is written last, after a zero
+ * length marking the new end of the journal, so a reader never sees a record
+ * which was only partly written.
+ * <p>
+ * Matching is deterministic, so the bids and offers are all that
+ * {@link #replay(Path, Market)} needs to rebuild the store on startup; the
+ * fills and removals are there for anything reading the journal downstream.
+ * Where a {@link SnapshotWriter} snapshots the store as it goes, restart
+ * restores the latest snapshot and replays only the tail of the journal after
+ * it, into a market without a journal, then opens the journal to carry on
+ * appending to it:
+ * <pre>
+ * long position = MarketSnapshot.restore(snapshotDirectory, marketStore);
+ * MarketJournal.replay(directory, new OnlineMarket(marketStore), position);
+ * Market market = new OnlineMarket(marketStore, new MarketJournal(directory, Durability.GROUP));
+ * </pre>
+ * A journal has a single writer, the thread matching for the market which
+ * writes to it. With {@link Durability#GROUP} it also has a flusher thread,
+ * which forces the records of the submissions committed meanwhile with one
+ * force while the writer carries on matching.
+ *
+ * @author Naren Chivukula
+ */
+public class MarketJournal implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketJournal.class);
+
+    /**
+     * The default size of a segment file, 64 MB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * The default longest time a group commit waits for more submissions to
+     * share its force, 1 ms.
+     */
+    public static final long DEFAULT_GROUP_COMMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The default number of bytes committed since the last force at which a
+     * group commit forces without waiting any longer, 1 MB.
+     */
+    public static final int DEFAULT_GROUP_COMMIT_BYTES = 1 << 20;
+
+    /*
+     * What commit returns when there is nothing for the flusher to force.
+     */
+    private static final CompletableFuture<Void> FORCED = CompletableFuture.completedFuture(null);
+
+    static final byte BID = 1;
+
+    static final byte OFFER = 2;
+
+    static final byte FILL = 3;
+
+    static final byte BID_REMOVED = 4;
+
+    static final byte OFFER_REMOVED = 5;
+
+    private final Path directory;
+
+    private final Durability durability;
+
+    private final int segmentSize;
+
+    private final long groupCommitNanos;
+
+    private final int groupCommitBytes;
+
+    private final Thread flusher;
+
+    private JournalSegment segment;
+
+    private int position;
+
+    private int uncommittedBytes;
+
+    private SnapshotWriter snapshotWriter;
+
+    /*
+     * The commits waiting for the flusher, the segment the last of them was
+     * written to, when the first of them was made and the bytes they wrote,
+     * all guarded by this journal.
+     */
+    private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+
+    private MappedByteBuffer waitingBuffer;
+
+    private long firstWaitingNanos;
+
+    private int waitingBytes;
+
+    private boolean closed;
+
+    /**
+     * This is used to open the journal in the given directory with segments
+     * of {@link #DEFAULT_SEGMENT_SIZE}, creating the directory when it does not
+     * exist. New records are appended after the last record already written.
+     *
+     * @param directory the directory holding the segment files
+     * @param durability when records are forced out to the device
+     * @throws IOException if the last segment cannot be mapped
+     */
+    public MarketJournal(Path directory, Durability durability) throws IOException {
+        this(directory, durability, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * This is used to open the journal in the given directory, creating the
+     * directory when it does not exist. New records are appended after the
+     * last record already written.
+     *
+     * @param directory the directory holding the segment files
+     * @param durability when records are forced out to the device
+     * @param segmentSize the size of each segment file in bytes
+     * @throws IOException if the last segment cannot be mapped
+     */
+    public MarketJournal(Path directory, Durability durability, int segmentSize) throws IOException {
+        this(directory, durability, segmentSize, DEFAULT_GROUP_COMMIT_NANOS, DEFAULT_GROUP_COMMIT_BYTES);
+    }
+
+    /**
+     * This is used to open the journal in the given directory, creating the
+     * directory when it does not exist. New records are appended after the
+     * last record already written. With {@link Durability#GROUP} a commit is
+     * forced at most the given time after it is made, or as soon as the
+     * given number of bytes has been committed since the last force.
+     *
+     * @param directory the directory holding the segment files
+     * @param durability when records are forced out to the device
+     * @param segmentSize the size of each segment file in bytes
+     * @param groupCommitNanos the longest time a group commit waits for more
+     * submissions to share its force
+     * @param groupCommitBytes the number of bytes committed at which a group
+     * commit forces without waiting any longer
+     * @throws IOException if the last segment cannot be mapped
+     */
+    public MarketJournal(Path directory, Durability durability, int segmentSize, long groupCommitNanos,
+            int groupCommitBytes) throws IOException {
+        if (segmentSize < 64) {
+            throw new IllegalArgumentException("Segment size is too small : " + segmentSize);
+        }
+        if (groupCommitNanos < 0 || groupCommitBytes <= 0) {
+            throw new IllegalArgumentException("Invalid group commit of " + groupCommitNanos + " ns or "
+                    + groupCommitBytes + " bytes");
+        }
+        this.directory = directory;
+        this.durability = durability;
+        this.segmentSize = segmentSize;
+        this.groupCommitNanos = groupCommitNanos;
+        this.groupCommitBytes = groupCommitBytes;
+        Files.createDirectories(directory);
+        List<Path> segments = JournalSegment.list(directory);
+        if (segments.isEmpty()) {
+            segment = JournalSegment.map(directory, 0, segmentSize);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            int size = (int) Math.max(segmentSize, Files.size(last));
+            segment = JournalSegment.map(directory, JournalSegment.indexOf(last), size);
+        }
+        position = segment.end();
+        if (durability == Durability.GROUP) {
+            flusher = new Thread(this::flushGroups, "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+        LOG.debug("Opened the journal in {} at segment {} offset {}", directory, segment.getIndex(), position);
+    }
+
+    /**
+     * Appends a bid accepted by the market, before it is matched.
+     *
+     * @param bid the bid accepted
+     */
+    public void bidAccepted(Bid bid) {
+        append(BID, bid, EntityCodec.BID);
+    }
+
+    /**
+     * Appends an offer accepted by the market, before it is matched.
+     *
+     * @param offer the offer accepted
+     */
+    public void offerAccepted(Offer offer) {
+        append(OFFER, offer, EntityCodec.OFFER);
+    }
+
+    /**
+     * Appends an order filled by the market.
+     *
+     * @param order the order filled
+     */
+    public void filled(Order order) {
+        append(FILL, order, EntityCodec.ORDER);
+    }
+
+    /**
+     * Appends a resting bid removed from the market because it was filled.
+     *
+     * @param bid the bid removed
+     */
+    public void bidRemoved(Bid bid) {
+        append(BID_REMOVED, bid, EntityCodec.BID);
+    }
+
+    /**
+     * Appends a resting offer removed from the market because it was filled.
+     *
+     * @param offer the offer removed
+     */
+    public void offerRemoved(Offer offer) {
+        append(OFFER_REMOVED, offer, EntityCodec.OFFER);
+    }
+
+    /**
+     * Marks the end of a submission to the market. With
+     * {@link Durability#GROUP} this hands the records written since the last
+     * commit to the flusher without waiting for them to be forced, so that
+     * they are forced together with those of the submissions committed
+     * meanwhile.
+     *
+     * @return the future completed, on the flusher thread, once the records of
+     * the submission are forced, which is already complete unless the
+     * durability is {@link Durability#GROUP}
+     */
+    public CompletableFuture<Void> commit() {
+        CompletableFuture<Void> forced = FORCED;
+        if (durability == Durability.GROUP && uncommittedBytes > 0) {
+            forced = new CompletableFuture<>();
+            synchronized (this) {
+                if (waiting.isEmpty()) {
+                    firstWaitingNanos = System.nanoTime();
+                }
+                waiting.add(forced);
+                waitingBuffer = segment.getBuffer();
+                waitingBytes += uncommittedBytes;
+                notifyAll();
+            }
+            uncommittedBytes = 0;
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.committed(position());
+        }
+        return forced;
+    }
+
+    /**
+     * Returns the position just past the last record written, which is where
+     * replaying the tail of the journal after a snapshot taken now starts.
+     * The position is the number of the segment in the high 32 bits and the
+     * offset within the segment in the low 32 bits.
+     *
+     * @return the position of the end of the journal
+     */
+    public long position() {
+        return ((long) segment.getIndex() << 32) | position;
+    }
+
+    /**
+     * Sets the writer which is told of every commit, so that it can snapshot
+     * the store every so many submissions.
+     *
+     * @param snapshotWriter the snapshot writer, or {@code null} for none
+     */
+    public void setSnapshotWriter(SnapshotWriter snapshotWriter) {
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    /**
+     * Returns when this journal forces its records out to the device.
+     *
+     * @return the durability
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Forces whatever has been written out to the device, completing the
+     * commits still waiting for the flusher, and stops the flusher.
+     */
+    @Override
+    public void close() {
+        List<CompletableFuture<Void>> unforced;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        segment.getBuffer().force();
+        uncommittedBytes = 0;
+        synchronized (this) {
+            unforced = waiting;
+            waiting = new ArrayList<>();
+        }
+        unforced.forEach(commit -> commit.complete(null));
+        LOG.debug("Closed the journal in {} at segment {} offset {}", directory, segment.getIndex(), position);
+    }
+
+    /**
+     * Reads the journal in the given directory from the start and submits
+     * every bid and offer it holds to the market, in the order they were
+     * accepted. The market must not write to the same journal.
+     *
+     * @param directory the directory holding the segment files
+     * @param market the market to rebuild
+     * @return the number of bids and offers submitted
+     * @throws IOException if a segment cannot be mapped
+     */
+    public static int replay(Path directory, Market market) throws IOException {
+        return replay(directory, market, 0L);
+    }
+
+    /**
+     * Reads the journal in the given directory from the given position and
+     * submits every bid and offer it holds to the market, in the order they
+     * were accepted. This replays the tail of the journal after a snapshot
+     * restored by {@link MarketSnapshot#restore(Path, MarketPlaceStore)}. The
+     * market must not write to the same journal.
+     *
+     * @param directory the directory holding the segment files
+     * @param market the market to rebuild
+     * @param fromPosition the position to start from, as returned by
+     * {@link #position()}
+     * @return the number of bids and offers submitted
+     * @throws IOException if a segment cannot be mapped
+     */
+    public static int replay(Path directory, Market market, long fromPosition) throws IOException {
+        int fromSegment = (int) (fromPosition >>> 32);
+        int replayed = 0;
+        for (Path file : JournalSegment.list(directory)) {
+            if (JournalSegment.indexOf(file) < fromSegment) {
+                continue;
+            }
+            JournalSegment segment = JournalSegment.mapReadOnly(file);
+            ByteBuffer buffer = segment.getBuffer();
+            int end = segment.end();
+            int offset = segment.getIndex() == fromSegment ? (int) fromPosition : 0;
+            while (offset < end) {
+                int length = buffer.getInt(offset);
+                ByteBuffer record = buffer.duplicate();
+                ((Buffer) record).limit(offset + Integer.BYTES + length).position(offset + Integer.BYTES);
+                if (replay(record, market)) {
+                    replayed++;
+                }
+                offset += Integer.BYTES + length;
+            }
+        }
+        LOG.debug("Replayed {} bids and offers from the journal in {} from position {}", replayed, directory,
+                fromPosition);
+        return replayed;
+    }
+
+    /*
+     * Submits the record to the market when it is a bid or an offer,
+     * returning whether it was.
+     */
+    private static boolean replay(ByteBuffer record, Market market) {
+        byte type = record.get();
+        switch (type) {
+            case BID:
+                market.addBid(EntityCodec.BID.decode(record));
+                return true;
+            case OFFER:
+                market.addOffer(EntityCodec.OFFER.decode(record));
+                return true;
+            case FILL:
+            case BID_REMOVED:
+            case OFFER_REMOVED:
+                return false;
+            default:
+                throw new IllegalStateException("Unknown journal record type : " + type);
+        }
+    }
+
+    private <E> void append(byte type, E entity, EntityCodec<E> codec) {
+        int length = Byte.BYTES + codec.encodedLength(entity);
+        ensureCapacity(length);
+
+        MappedByteBuffer buffer = segment.getBuffer();
+        int offset = position + Integer.BYTES;
+        buffer.put(offset++, type);
+        offset = codec.encode(entity, buffer, offset);
+        buffer.putInt(offset, 0);
+        buffer.putInt(position, length);
+        position = offset;
+
+        if (durability == Durability.SYNC) {
+            buffer.force();
+        } else if (durability == Durability.GROUP) {
+            uncommittedBytes += Integer.BYTES + length;
+        }
+    }
+
+    /*
+     * Run by the flusher thread until the journal is closed. Each round waits
+     * for a commit, then for more commits to join it until the group commit
+     * time has passed since the first or enough bytes are committed, and
+     * forces them all with one force. The records of earlier segments were
+     * forced when the writer rolled over, so forcing the segment of the last
+     * commit forces them all.
+     */
+    private void flushGroups() {
+        while (true) {
+            List<CompletableFuture<Void>> group;
+            MappedByteBuffer buffer;
+            synchronized (this) {
+                try {
+                    while (waiting.isEmpty() && !closed) {
+                        wait();
+                    }
+                    long wait;
+                    while (!closed && waitingBytes < groupCommitBytes
+                            && (wait = firstWaitingNanos + groupCommitNanos - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, wait);
+                    }
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                group = waiting;
+                buffer = waitingBuffer;
+                waiting = new ArrayList<>();
+                waitingBytes = 0;
+            }
+            try {
+                buffer.force();
+                group.forEach(commit -> commit.complete(null));
+            } catch (RuntimeException ex) {
+                LOG.error("Failed to force {} commits to the journal in {}", group.size(), directory, ex);
+                group.forEach(commit -> commit.completeExceptionally(ex));
+            }
+        }
+    }
+
+    /*
+     * Moves on to a new segment when the record, and the zero length after
+     * it, do not fit in what is left of the current one. The segment left
+     * behind is forced first unless records are never forced.
+     */
+    private void ensureCapacity(int length) {
+        int needed = Integer.BYTES + length + Integer.BYTES;
+        if (position + needed <= segment.getBuffer().limit()) {
+            return;
+        }
+        if (needed > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a segment");
+        }
+        if (durability != Durability.ASYNC) {
+            segment.getBuffer().force();
+        }
+        try {
+            segment = JournalSegment.map(directory, segment.getIndex() + 1, segmentSize);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot map journal segment " + (segment.getIndex() + 1), ex);
+        }
+        position = 0;
+        LOG.debug("Rolled the journal in {} over to segment {}", directory, segment.getIndex());
+    }
+
+}
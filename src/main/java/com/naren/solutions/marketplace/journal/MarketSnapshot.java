@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a point in time copy of the bids, offers and orders of a
+ * {@link MarketPlaceStore}, together with the position of the
+ * {@link MarketJournal} it was taken at, and reads and writes the binary file
+ * holding it.
+ * <p>
+ * A snapshot is captured on the matching thread between two submissions, which
+ * pauses matching for a time proportional to the number of resting bids and
+ * offers, and to the number of orders only where the store copies them. Only
+ * the quantity of a resting bid or offer is changed in place by matching, so
+ * the capture copies just the reference and the quantity of each into arrays;
+ * where the store keeps them off the heap, each is read into a new entity
+ * instead. Orders are never changed once added, so they are taken through
+ * {@link MarketPlaceStore#orderSnapshot()}, a view of the orders added so far
+ * which later orders and clearing the store leave as it is; the stores which
+ * cannot give such a view cheaply copy the references to their orders.
+ * Everything is encoded and written out on another thread while matching
+ * carries on.
+ * <p>
+ * The file is a header of a magic number, the format version, the journal
+ * position and the number of bids, offers and orders, followed by each of them
+ * as written by its {@link EntityCodec}. A snapshot of another format version
+ * is refused on restore. The file is named after the journal position, so the
+ * latest snapshot sorts last.
+ *
+ * @author Naren Chivukula
+ */
+public final class MarketSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketSnapshot.class);
+
+    private static final int MAGIC = 0x4D4B5331;
+
+    /*
+     * The version of the layout of the file and of the encoded entities,
+     * raised whenever either changes.
+     */
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + 3 * Integer.BYTES;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private static final String SUFFIX = ".snapshot";
+
+    private final long journalPosition;
+
+    private final Bid[] bids;
+
+    private final int[] bidQuantities;
+
+    private final Offer[] offers;
+
+    private final int[] offerQuantities;
+
+    private final List<Order> orders;
+
+    private final int orderCount;
+
+    private MarketSnapshot(long journalPosition, Bid[] bids, Offer[] offers, List<Order> orders) {
+        this.journalPosition = journalPosition;
+        this.bids = bids;
+        this.bidQuantities = new int[bids.length];
+        for (int i = 0; i < bids.length; i++) {
+            bidQuantities[i] = bids[i].getQuantity();
+        }
+        this.offers = offers;
+        this.offerQuantities = new int[offers.length];
+        for (int i = 0; i < offers.length; i++) {
+            offerQuantities[i] = offers[i].getQuantity();
+        }
+        this.orders = orders;
+        this.orderCount = orders.size();
+    }
+
+    /*
+     * Copies the references and quantities of the resting bids and offers of
+     * the store and takes a view of its orders. This must run on the matching
+     * thread between submissions, which it pauses for a time proportional to
+     * the number of resting bids and offers.
+     */
+    static MarketSnapshot capture(MarketPlaceStore marketStore, long journalPosition) {
+        return new MarketSnapshot(journalPosition, marketStore.bids().toArray(new Bid[0]),
+                marketStore.offers().toArray(new Offer[0]), marketStore.orderSnapshot());
+    }
+
+    /**
+     * Returns the position of the journal this snapshot was taken at.
+     *
+     * @return the journal position
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /*
+     * Writes the snapshot into the directory, first to a temporary file which
+     * is then renamed, so that a snapshot file is always complete.
+     */
+    Path writeTo(Path directory) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", journalPosition, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(journalPosition).putInt(bids.length).putInt(offers.length)
+                    .putInt(orderCount);
+            ((Buffer) header).flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            int offset = 0;
+            for (int i = 0; i < bids.length; i++) {
+                Bid bid = new Bid(bids[i].getItemId(), bids[i].getBuyerId(), bidQuantities[i],
+                        bids[i].getPricePerUnit());
+                if (offset + EntityCodec.BID.encodedLength(bid) > buffer.capacity()) {
+                    offset = flush(channel, buffer, offset);
+                }
+                offset = EntityCodec.BID.encode(bid, buffer, offset);
+            }
+            for (int i = 0; i < offers.length; i++) {
+                Offer offer = new Offer(offers[i].getItemId(), offers[i].getSellerId(), offerQuantities[i],
+                        offers[i].getPricePerUnit());
+                if (offset + EntityCodec.OFFER.encodedLength(offer) > buffer.capacity()) {
+                    offset = flush(channel, buffer, offset);
+                }
+                offset = EntityCodec.OFFER.encode(offer, buffer, offset);
+            }
+            for (int i = 0; i < orderCount; i++) {
+                Order order = orders.get(i);
+                if (offset + EntityCodec.ORDER.encodedLength(order) > buffer.capacity()) {
+                    offset = flush(channel, buffer, offset);
+                }
+                offset = EntityCodec.ORDER.encode(order, buffer, offset);
+            }
+            flush(channel, buffer, offset);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        LOG.debug("Wrote a snapshot of {} bids, {} offers and {} orders to {}", bids.length, offers.length, orderCount,
+                file);
+        return file;
+    }
+
+    /**
+     * Returns the latest snapshot in the given directory, or {@code null} if
+     * there is none.
+     *
+     * @param directory the directory holding the snapshot files
+     * @return the latest snapshot file
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Path latest(Path directory) throws IOException {
+        List<Path> snapshots = list(directory);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    /**
+     * Loads the latest snapshot in the given directory into the store, which
+     * should be empty, and returns the position of the journal the snapshot
+     * was taken at, from which the tail of the journal is to be replayed. The
+     * file is memory mapped and read through in one sequential pass, and the
+     * entities are added to the store in one batch of each kind.
+     *
+     * @param directory the directory holding the snapshot files
+     * @param marketStore the store to load into
+     * @return the journal position of the snapshot, or {@code 0} if there is
+     * no snapshot and the whole journal is to be replayed
+     * @throws IOException if the snapshot cannot be read
+     * @throws IllegalStateException if the latest file is not a snapshot or
+     * is of another format version
+     */
+    public static long restore(Path directory, MarketPlaceStore marketStore) throws IOException {
+        Path file = latest(directory);
+        if (file == null) {
+            LOG.debug("No snapshot found in {}", directory);
+            return 0L;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a market snapshot : " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported market snapshot version " + version + " : " + file);
+        }
+        long journalPosition = buffer.getLong();
+        int bidCount = buffer.getInt();
+        int offerCount = buffer.getInt();
+        int orderCount = buffer.getInt();
+
+        List<Bid> bids = new ArrayList<>(bidCount);
+        for (int i = 0; i < bidCount; i++) {
+            bids.add(EntityCodec.BID.decode(buffer));
+        }
+        List<Offer> offers = new ArrayList<>(offerCount);
+        for (int i = 0; i < offerCount; i++) {
+            offers.add(EntityCodec.OFFER.decode(buffer));
+        }
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(EntityCodec.ORDER.decode(buffer));
+        }
+        marketStore.bids().addAll(bids);
+        marketStore.offers().addAll(offers);
+        marketStore.orders().addAll(orders);
+        LOG.debug("Restored {} bids, {} offers and {} orders from {}", bidCount, offerCount, orderCount, file);
+        return journalPosition;
+    }
+
+    /*
+     * Lists the snapshots in the given directory, oldest first.
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, int offset) throws IOException {
+        ByteBuffer written = buffer.duplicate();
+        ((Buffer) written).limit(offset);
+        writeFully(channel, written);
+        return 0;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class snapshots a {@link MarketPlaceStore} every so many submissions to
+ * the market journalled by the {@link MarketJournal} it is set on. Each
+ * snapshot is captured on the matching thread when the journal commits and
+ * written out on a thread of its own, and a periodic snapshot is skipped while
+ * the previous one is still being written. Only the latest
+ * {@value #SNAPSHOTS_KEPT} snapshots are kept.
+ *
+ * @author Naren Chivukula
+ */
+public class SnapshotWriter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotWriter.class);
+
+    /**
+     * The number of snapshots kept in the directory.
+     */
+    public static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+
+    private final MarketPlaceStore marketStore;
+
+    private final int submissionsPerSnapshot;
+
+    private final ExecutorService writer;
+
+    private final AtomicInteger writing = new AtomicInteger();
+
+    private int submissions;
+
+    /**
+     * This is used to create a snapshot writer for the given store, creating
+     * the directory when it does not exist.
+     *
+     * @param directory the directory to write the snapshot files to
+     * @param marketStore the store to snapshot
+     * @param submissionsPerSnapshot the number of submissions between
+     * periodic snapshots
+     * @throws IOException if the directory cannot be created
+     */
+    public SnapshotWriter(Path directory, MarketPlaceStore marketStore, int submissionsPerSnapshot)
+            throws IOException {
+        if (submissionsPerSnapshot <= 0) {
+            throw new IllegalArgumentException("Submissions per snapshot must be positive : " + submissionsPerSnapshot);
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.marketStore = marketStore;
+        this.submissionsPerSnapshot = submissionsPerSnapshot;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Snapshots the store now. This must be called on the matching thread
+     * between submissions, with the position the journal is at.
+     *
+     * @param journalPosition the position of the journal
+     * @return the future snapshot file, completed once it is written
+     */
+    public CompletableFuture<Path> take(long journalPosition) {
+        MarketSnapshot snapshot = MarketSnapshot.capture(marketStore, journalPosition);
+        writing.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> write(snapshot), writer);
+    }
+
+    /**
+     * Waits for the snapshots being written and stops the writing thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Called by the journal on the matching thread after each submission.
+     */
+    void committed(long journalPosition) {
+        if (++submissions < submissionsPerSnapshot) {
+            return;
+        }
+        submissions = 0;
+        if (writing.get() > 0) {
+            LOG.debug("Skipping the snapshot at journal position {} while the last one is written", journalPosition);
+            return;
+        }
+        take(journalPosition);
+    }
+
+    private Path write(MarketSnapshot snapshot) {
+        try {
+            Path file = snapshot.writeTo(directory);
+            List<Path> snapshots = MarketSnapshot.list(directory);
+            for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+                Files.deleteIfExists(snapshots.get(i));
+            }
+            return file;
+        } catch (IOException ex) {
+            LOG.error("Failed to write the snapshot at journal position {}", snapshot.getJournalPosition(), ex);
+            throw new UncheckedIOException(ex);
+        } finally {
+            writing.decrementAndGet();
+        }
+    }
+
+}
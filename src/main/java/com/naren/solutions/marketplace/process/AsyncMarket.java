@@ -0,0 +1,40 @@
+package com.naren.solutions.marketplace.process;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This interface declares a market place which accepts bids and offers
+ * without making the caller wait for them to be matched. Each submission
+ * returns a future of its {@link ExecutionReport}, which is completed by the
+ * thread which matched it, so a caller can keep submitting while earlier
+ * submissions are still being matched.
+ *
+ * @author Naren Chivukula
+ */
+public interface AsyncMarket extends Market {
+
+    /**
+     * Submits a new bid to the market place. The returned future completes
+     * exceptionally with an {@link InvalidMarketplaceEntityException} if an
+     * invalid bid is submitted.
+     *
+     * @param bid the bid to submit
+     * @return the future outcome of the bid, completed once it is matched
+     */
+    CompletableFuture<ExecutionReport> submitBid(Bid bid);
+
+    /**
+     * Submits a new offer to the market place. The returned future completes
+     * exceptionally with an {@link InvalidMarketplaceEntityException} if an
+     * invalid offer is submitted.
+     *
+     * @param offer the offer to submit
+     * @return the future outcome of the offer, completed once it is matched
+     */
+    CompletableFuture<ExecutionReport> submitOffer(Offer offer);
+
+}
@@ -0,0 +1,43 @@
+package com.naren.solutions.marketplace.process;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.Offer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface declares a market place which accepts bids and offers in
+ * batches, matching the entities of one item in a single pass over its book
+ * and reporting the outcome of each entity, rather than failing the batch on
+ * the first invalid one.
+ *
+ * @author Naren Chivukula
+ */
+public interface BatchMarket extends Market {
+
+    /**
+     * Adds a batch of bids to the market place. The bids are grouped by item
+     * and each group is matched in one pass over the book of its item, in the
+     * order in which the bids of the item were given. Invalid bids are
+     * rejected without failing the rest of the batch.
+     *
+     * @param bids the bids to add
+     * @return the outcome of each bid, in the order in which the bids were
+     * given
+     */
+    List<ExecutionReport> addBids(Collection<Bid> bids);
+
+    /**
+     * Adds a batch of offers to the market place. The offers are grouped by
+     * item and each group is matched in one pass over the book of its item, in
+     * the order in which the offers of the item were given. Invalid offers are
+     * rejected without failing the rest of the batch.
+     *
+     * @param offers the offers to add
+     * @return the outcome of each offer, in the order in which the offers were
+     * given
+     */
+    List<ExecutionReport> addOffers(Collection<Offer> offers);
+
+}
@@ -0,0 +1,29 @@
+package com.naren.solutions.marketplace.process;
+
+import com.naren.solutions.marketplace.dom.MarketDepth;
+
+/**
+ * This interface declares a market place which keeps the aggregate quantity
+ * of each price level of its books, so that it can report the depth of the
+ * market of an item.
+ *
+ * @author Naren Chivukula
+ */
+public interface DepthMarket extends Market {
+
+    /**
+     * Returns up to the given number of best price levels of each side of the
+     * book of the specified item ID, each with the aggregate quantity and the
+     * number of the bids or offers resting at it. The levels are read from
+     * the aggregates the book keeps up to date, so the cost depends on the
+     * number of levels asked for, not on the number of bids and offers.
+     *
+     * @param itemId the item ID
+     * @param levels the maximum number of levels of each side
+     * @return the best price levels of each side, best price first
+     * @throws IllegalArgumentException if the number of levels is not
+     * positive
+     */
+    MarketDepth getMarketDepth(String itemId, int levels);
+
+}
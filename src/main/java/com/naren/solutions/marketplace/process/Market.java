@@ -3,10 +3,13 @@ package com.naren.solutions.marketplace.process;
 import com.naren.solutions.marketplace.dom.Bid;
 import com.naren.solutions.marketplace.dom.Offer;
 import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Page;
+import com.naren.solutions.marketplace.dom.Price;
 import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * This interface declares methods to build a marketplace which brings together
@@ -17,7 +20,11 @@ import java.util.Optional;
 public interface Market {
 
     /**
-     * Adds a new bid to the market place.
+     * Adds a new bid to the market place. A bid is invalid if it is missing
+     * its item ID, buyer ID or price, if its quantity is not positive, or if
+     * its price is not a whole number of ticks of {@link Price}, which by
+     * default means a price with more than four decimal places or one too
+     * large to be held in ticks. Such prices are rejected rather than rounded.
      *
      * @param bid the bid to add
      * @throws InvalidMarketplaceEntityException if an invalid bid is attempted
@@ -26,7 +33,10 @@ public interface Market {
     void addBid(Bid bid);
 
     /**
-     * Adds a new offer to the market place.
+     * Adds a new offer to the market place. An offer is invalid if it is
+     * missing its item ID, seller ID or price, if its quantity is not
+     * positive, or if its price is not a whole number of ticks, as for
+     * {@link #addBid(Bid)}.
      *
      * @param offer the offer to add
      * @throws InvalidMarketplaceEntityException if an invalid offer is
@@ -66,6 +76,140 @@ public interface Market {
      */
     List<Order> listOrdersByBuyerId(String buyerId);
 
+    /**
+     * Returns a stream of the bids specified by the buyer ID. An
+     * implementation may read the bids from the store as the stream is
+     * consumed, so it may be cut short without reading the rest. By default
+     * this streams the list returned by {@link #listBids(String)}.
+     *
+     * @param buyerId the buyer ID
+     * @return the stream of the bids specified by the buyer ID
+     */
+    default Stream<Bid> streamBids(String buyerId) {
+        return listBids(buyerId).stream();
+    }
+
+    /**
+     * Returns a stream of the offers specified by the seller ID. An
+     * implementation may read the offers from the store as the stream is
+     * consumed, so it may be cut short without reading the rest. By default
+     * this streams the list returned by {@link #listOffers(String)}.
+     *
+     * @param sellerId the seller ID
+     * @return the stream of the offers specified by the seller ID
+     */
+    default Stream<Offer> streamOffers(String sellerId) {
+        return listOffers(sellerId).stream();
+    }
+
+    /**
+     * Returns a stream of the orders for the specified seller ID. An
+     * implementation may read the orders from the store as the stream is
+     * consumed, so it may be cut short without reading the rest. By default
+     * this streams the list returned by {@link #listOrdersBySellerId(String)}.
+     *
+     * @param sellerId the seller ID
+     * @return the stream of the orders for the specified seller ID
+     */
+    default Stream<Order> streamOrdersBySellerId(String sellerId) {
+        return listOrdersBySellerId(sellerId).stream();
+    }
+
+    /**
+     * Returns a stream of the orders for the specified buyer ID. An
+     * implementation may read the orders from the store as the stream is
+     * consumed, so it may be cut short without reading the rest. By default
+     * this streams the list returned by {@link #listOrdersByBuyerId(String)}.
+     *
+     * @param buyerId the buyer ID
+     * @return the stream of the orders for the specified buyer ID
+     */
+    default Stream<Order> streamOrdersByBuyerId(String buyerId) {
+        return listOrdersByBuyerId(buyerId).stream();
+    }
+
+    /**
+     * Returns a page of at most the given number of bids specified by the
+     * buyer ID, starting after the page the continuation token was returned
+     * with. Where it can, an implementation leaves out the bids filled in
+     * the meantime, without shifting the bids of the next page. By default
+     * the page is cut by position out of the list returned by
+     * {@link #listBids(String)}, so entries removed in the meantime shift the
+     * later pages.
+     *
+     * @param buyerId the buyer ID
+     * @param pageSize the maximum number of bids in the page
+     * @param continuationToken the token of the previous page, or
+     * {@code null} for the first page
+     * @return the page of bids
+     * @throws IllegalArgumentException if the page size is not positive or
+     * the token is not one returned by this listing
+     */
+    default Page<Bid> listBids(String buyerId, int pageSize, String continuationToken) {
+        return Pages.of(listBids(buyerId), pageSize, continuationToken);
+    }
+
+    /**
+     * Returns a page of at most the given number of offers specified by the
+     * seller ID, starting after the page the continuation token was returned
+     * with. Where it can, an implementation leaves out the offers filled in
+     * the meantime, without shifting the offers of the next page. By default
+     * the page is cut by position out of the list returned by
+     * {@link #listOffers(String)}, so entries removed in the meantime shift the
+     * later pages.
+     *
+     * @param sellerId the seller ID
+     * @param pageSize the maximum number of offers in the page
+     * @param continuationToken the token of the previous page, or
+     * {@code null} for the first page
+     * @return the page of offers
+     * @throws IllegalArgumentException if the page size is not positive or
+     * the token is not one returned by this listing
+     */
+    default Page<Offer> listOffers(String sellerId, int pageSize, String continuationToken) {
+        return Pages.of(listOffers(sellerId), pageSize, continuationToken);
+    }
+
+    /**
+     * Returns a page of at most the given number of orders for the specified
+     * seller ID, starting after the page the continuation token was returned
+     * with.
+     * By default the page is cut by position out of the list returned by
+     * {@link #listOrdersBySellerId(String)}, so entries removed in the meantime
+     * shift the later pages.
+     *
+     * @param sellerId the seller ID
+     * @param pageSize the maximum number of orders in the page
+     * @param continuationToken the token of the previous page, or
+     * {@code null} for the first page
+     * @return the page of orders
+     * @throws IllegalArgumentException if the page size is not positive or
+     * the token is not one returned by this listing
+     */
+    default Page<Order> listOrdersBySellerId(String sellerId, int pageSize, String continuationToken) {
+        return Pages.of(listOrdersBySellerId(sellerId), pageSize, continuationToken);
+    }
+
+    /**
+     * Returns a page of at most the given number of orders for the specified
+     * buyer ID, starting after the page the continuation token was returned
+     * with.
+     * By default the page is cut by position out of the list returned by
+     * {@link #listOrdersByBuyerId(String)}, so entries removed in the meantime
+     * shift the later pages.
+     *
+     * @param buyerId the buyer ID
+     * @param pageSize the maximum number of orders in the page
+     * @param continuationToken the token of the previous page, or
+     * {@code null} for the first page
+     * @return the page of orders
+     * @throws IllegalArgumentException if the page size is not positive or
+     * the token is not one returned by this listing
+     */
+    default Page<Order> listOrdersByBuyerId(String buyerId, int pageSize, String continuationToken) {
+        return Pages.of(listOrdersByBuyerId(buyerId), pageSize, continuationToken);
+    }
+
     /**
      * Returns the highest pricePerUnit of all bids for the specified item ID.
      *
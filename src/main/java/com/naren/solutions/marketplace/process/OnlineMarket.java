@@ -1,152 +1,949 @@
 package com.naren.solutions.marketplace.process;
 
+import com.naren.solutions.marketplace.book.BookListener;
+import com.naren.solutions.marketplace.book.BookSide;
+import com.naren.solutions.marketplace.book.HeapRestingEntries;
+import com.naren.solutions.marketplace.book.OrderBook;
+import com.naren.solutions.marketplace.book.PriceLevel;
+import com.naren.solutions.marketplace.book.RestingEntries;
+import com.naren.solutions.marketplace.book.TopOfBook;
+import com.naren.solutions.marketplace.cache.EntryCursor;
+import com.naren.solutions.marketplace.cache.IndexedList;
 import com.naren.solutions.marketplace.cache.MarketPlaceStore;
-import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.SymbolMap;
 import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.DepthLevel;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.MarketDepth;
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
 import com.naren.solutions.marketplace.dom.Offer;
 import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Page;
+import com.naren.solutions.marketplace.dom.Price;
+import com.naren.solutions.marketplace.dom.SymbolTable;
 import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import com.naren.solutions.marketplace.feed.DepthFeed;
+import com.naren.solutions.marketplace.feed.LevelUpdate;
+import com.naren.solutions.marketplace.feed.TickerPublisher;
+import com.naren.solutions.marketplace.journal.MarketJournal;
+import com.naren.solutions.marketplace.stats.TradeStatistics;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This implementation provides online market where buyers and sellers place
  * bids and offers electronically in the real time.
+ * <p>
+ * Resting bids and offers are indexed by an {@link OrderBook} per item, held
+ * in an array indexed by the item's symbol, so matching an incoming bid or
+ * offer finds its book without comparing item IDs and only visits the best
+ * price levels of the opposite side of that item. The books are built from the
+ * {@link MarketPlaceStore} on first use and kept in step with it afterwards, so
+ * a store should be matched through a single {@code OnlineMarket}. The books
+ * hold the entities as handles into {@link RestingEntries}: those of the store
+ * where it keeps its resting bids and offers itself, possibly off the heap,
+ * or tables of this market holding the instances also added to the store.
+ * <p>
+ * The best bid and offer prices of each item are kept up to date by its book
+ * and published through a {@link TopOfBook}, so the current price queries are
+ * constant-time reads which may run on any thread while matching continues.
+ * <p>
+ * Where a {@link DepthFeed} is set, the price levels changed by each
+ * submission are collected as the books change and published to it when the
+ * submission ends. Likewise, where a {@link TickerPublisher} is set, the top of
+ * book of each item whose best prices changed is published to it when the
+ * submission ends. Where {@link TradeStatistics} are set, every order is
+ * recorded in them as it is created.
  *
  * @author Naren Chivukula
  */
-public class OnlineMarket implements Market {
+public class OnlineMarket implements AsyncMarket, BatchMarket, DepthMarket {
 
     private static final Logger LOG = LoggerFactory.getLogger(OnlineMarket.class);
 
-    private MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+    private MarketPlaceStore marketStore;
+
+    private final SymbolMap<OrderBook> books = new SymbolMap<>();
+
+    private volatile boolean booksLoaded;
+
+    private final IntPredicate ownsItem;
+
+    private final MarketJournal journal;
+
+    /*
+     * The last commit to the journal, completed once the journal has forced
+     * the records of the submission.
+     */
+    private CompletableFuture<Void> committed;
+
+    /*
+     * The tables of the entities resting in the books, and whether they are
+     * those of the store, which then need not be told of resting or filled
+     * entities.
+     */
+    private final RestingEntries<Bid> bidEntries;
+
+    private final RestingEntries<Offer> offerEntries;
+
+    private final boolean storeKeepsEntries;
+
+    private volatile DepthFeed depthFeed;
+
+    /*
+     * The price levels changed by the submission being matched, published to
+     * the depth feed when it ends.
+     */
+    private final List<LevelUpdate> depthUpdates = new ArrayList<>();
+
+    private volatile TickerPublisher ticker;
+
+    /*
+     * The books whose best prices changed in the submission being matched,
+     * published to the ticker when it ends.
+     */
+    private final Set<OrderBook> changedTops = new LinkedHashSet<>();
+
+    private volatile TradeStatistics statistics;
+
+    private final BookListener bookListener = new BookListener() {
+
+        @Override
+        public void levelChanged(OrderBook book, boolean bidSide, PriceLevel<?> level) {
+            if (depthFeed != null) {
+                depthUpdates.add(new LevelUpdate(book.getItemId(),
+                        bidSide ? LevelUpdate.Side.BID : LevelUpdate.Side.OFFER, level.getPriceTicks(),
+                        level.getPricePerUnit(), level.getQuantity(), level.size()));
+            }
+        }
+
+        @Override
+        public void topChanged(OrderBook book) {
+            if (ticker != null) {
+                changedTops.add(book);
+            }
+        }
+
+    };
+
+    /*
+     * The entities filled by the call being matched, kept from call to call so
+     * that matching does not allocate them.
+     */
+    private final List<Offer> filledOffers = new ArrayList<>();
+
+    private final List<Bid> filledBids = new ArrayList<>();
+
+    /*
+     * The order reused for every fill when the store copies the orders added
+     * to it.
+     */
+    private final Order reusableOrder = new Order();
+
+    /**
+     * This is used to create an online market over the shared store selected
+     * by {@link MarketPlaceStore#configuredInstance()}.
+     */
+    public OnlineMarket() {
+        this(MarketPlaceStore.configuredInstance());
+    }
+
+    /**
+     * This is used to create an online market over the given store.
+     *
+     * @param marketStore the store holding the bids, offers and orders
+     */
+    public OnlineMarket(MarketPlaceStore marketStore) {
+        this(marketStore, itemId -> true, null);
+    }
+
+    /**
+     * This is used to create an online market over the given store which
+     * writes every bid and offer it accepts, and every fill and removal they
+     * cause, to the given journal.
+     *
+     * @param marketStore the store holding the bids, offers and orders
+     * @param journal the journal to write to
+     */
+    public OnlineMarket(MarketPlaceStore marketStore, MarketJournal journal) {
+        this(marketStore, itemId -> true, journal);
+    }
+
+    /*
+     * This is used by ShardedMarket to create a market which matches only the
+     * items of one shard, so only those books are loaded from the shared
+     * store.
+     */
+    OnlineMarket(MarketPlaceStore marketStore, IntPredicate ownsItem) {
+        this(marketStore, ownsItem, null);
+    }
+
+    private OnlineMarket(MarketPlaceStore marketStore, IntPredicate ownsItem, MarketJournal journal) {
+        this.marketStore = marketStore;
+        this.ownsItem = ownsItem;
+        this.journal = journal;
+        this.storeKeepsEntries = marketStore.restingBids() != null && marketStore.restingOffers() != null;
+        this.bidEntries = storeKeepsEntries ? marketStore.restingBids() : new HeapRestingEntries<>(Bid::getBuyerSymbol);
+        this.offerEntries = storeKeepsEntries ? marketStore.restingOffers()
+                : new HeapRestingEntries<>(Offer::getSellerSymbol);
+    }
+
+    /**
+     * Sets the feed to publish the price level updates of every submission
+     * to. The feed is first seeded with the levels of every book, including
+     * those loaded from the store or rebuilt by replaying a journal, so its
+     * snapshots are complete from the start. Like the submissions, this is to
+     * be called on the thread matching the items.
+     *
+     * @param depthFeed the feed to publish to, or {@code null} for none
+     */
+    public void setDepthFeed(DepthFeed depthFeed) {
+        if (depthFeed != null) {
+            loadBooks();
+            books.forEach(book -> depthFeed.seed(book.getItemId(), levelsOf(book)));
+        }
+        this.depthFeed = depthFeed;
+    }
+
+    /**
+     * Sets the publisher to publish the best prices of every item whose best
+     * bid or best offer changed in a submission to.
+     *
+     * @param ticker the publisher to publish to, or {@code null} for none
+     */
+    public void setTicker(TickerPublisher ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * Sets the statistics to record every order created by matching in.
+     *
+     * @param statistics the statistics to record in, or {@code null} for none
+     */
+    public void setTradeStatistics(TradeStatistics statistics) {
+        this.statistics = statistics;
+    }
 
     @Override
     public void addBid(Bid bid) {
         LOG.debug("In addBid()");
         if (isInvalidBid(bid)) {
-            throw new InvalidMarketplaceEntityException("Invalid Bid entered : " + bid.toString());
-        }
-        Optional<Offer> matchingOffer = matchFirstOffer(bid);
-        if (matchingOffer.isPresent()) {
-            Offer matchedOffer = matchingOffer.get();
-            LOG.debug("The Bid matches an Offer with sellerId {}", matchedOffer.getSellerId());
-            Order order = new Order();
-            order.setBuyerId(bid.getBuyerId());
-            order.setSellerId(matchedOffer.getSellerId());
-            order.setItemId(bid.getItemId());
-            order.setPricePerUnit(bid.getPricePerUnit().min(matchedOffer.getPricePerUnit()));
-            order.setQuantity(bid.getQuantity());
-
-            marketStore.orders().add(order);
-            LOG.debug("A new Order is created " + order.toString());
-
-            if (matchedOffer.getQuantity() == bid.getQuantity()) {
-                LOG.debug("Offer quantity matched the Bid quantity, so removing Offer from the market");
-                marketStore.offers().remove(matchedOffer);
-            } else {
-                LOG.debug("Offer quantity exceeds the Bid quantity, so keeping the Offer by reducing the created order quantity");
-                matchedOffer.setQuantity(matchedOffer.getQuantity() - bid.getQuantity());
-            }
-        } else {
-            LOG.debug("No matching offers found, adding a new bid to the marketplace");
+            throw new InvalidMarketplaceEntityException("Invalid Bid entered : " + bid);
+        }
+        if (journal != null) {
+            journal.bidAccepted(bid);
+        }
+        OrderBook book = book(bid.getItemSymbol());
+        int remaining = sweepOffers(book, bid, null);
+        removeFilled(marketStore.offers(), filledOffers);
+        filledOffers.clear();
+        if (restBid(book, bid, remaining)) {
             marketStore.bids().add(bid);
         }
+        endSubmission();
     }
 
     @Override
     public void addOffer(Offer offer) {
         LOG.debug("In addOffer()");
         if (isInvalidOffer(offer)) {
-            throw new InvalidMarketplaceEntityException("Invalid Offer entered : " + offer.toString());
-        }
-        Optional<Bid> matchingBid = matchFirstBid(offer);
-        if (matchingBid.isPresent()) {
-            Bid matchedBid = matchingBid.get();
-            LOG.debug("The Offer matches a Bid with buyerId {}", matchedBid.getBuyerId());
-
-            Order order = new Order();
-            order.setBuyerId(matchedBid.getBuyerId());
-            order.setSellerId(offer.getSellerId());
-            order.setItemId(offer.getItemId());
-            order.setPricePerUnit(offer.getPricePerUnit().min(matchedBid.getPricePerUnit()));
-            order.setQuantity(matchedBid.getQuantity());
-
-            marketStore.orders().add(order);
-            LOG.debug("A new Order is created " + order.toString());
-            marketStore.bids().remove(matchedBid);
-            if (offer.getQuantity() > matchedBid.getQuantity()) {
-                /*
-                 *The offer quantity exceeds the first matched bid quantity. So, an offer is placed after deducting the first matched bid quantity.
-                 * And this continues to match until no further bids match.
-                 */
-                offer.setQuantity(offer.getQuantity() - matchedBid.getQuantity());
-                addOffer(offer);
+            throw new InvalidMarketplaceEntityException("Invalid Offer entered : " + offer);
+        }
+        if (journal != null) {
+            journal.offerAccepted(offer);
+        }
+        OrderBook book = book(offer.getItemSymbol());
+        int remaining = sweepBids(book, offer, null);
+        removeFilled(marketStore.bids(), filledBids);
+        filledBids.clear();
+        if (restOffer(book, offer, remaining)) {
+            marketStore.offers().add(offer);
+        }
+        endSubmission();
+    }
+
+    /**
+     * Matches the bid on the caller's thread. The returned future is already
+     * complete unless the journal forces its records with
+     * {@link com.naren.solutions.marketplace.journal.Durability#GROUP}, when
+     * it completes on the flusher thread once they are forced.
+     */
+    @Override
+    public CompletableFuture<ExecutionReport> submitBid(Bid bid) {
+        CompletableFuture<ExecutionReport> report = new CompletableFuture<>();
+        complete(report, () -> executeBid(bid));
+        return acknowledged(report);
+    }
+
+    /**
+     * Matches the offer on the caller's thread. The returned future is already
+     * complete unless the journal forces its records with
+     * {@link com.naren.solutions.marketplace.journal.Durability#GROUP}, when
+     * it completes on the flusher thread once they are forced.
+     */
+    @Override
+    public CompletableFuture<ExecutionReport> submitOffer(Offer offer) {
+        CompletableFuture<ExecutionReport> report = new CompletableFuture<>();
+        complete(report, () -> executeOffer(offer));
+        return acknowledged(report);
+    }
+
+    @Override
+    public List<ExecutionReport> addBids(Collection<Bid> bids) {
+        LOG.debug("In addBids() for {} bids", bids.size());
+        List<Bid> submitted = new ArrayList<>(bids);
+        ExecutionReport[] reports = new ExecutionReport[submitted.size()];
+        List<Order> orders = new ArrayList<>();
+        List<Bid> rested = new ArrayList<>();
+        for (List<Integer> group : groupByItem(submitted, OnlineMarket::isInvalidBid, "Bid", reports)) {
+            OrderBook book = book(submitted.get(group.get(0)).getItemSymbol());
+            for (int index : group) {
+                Bid bid = submitted.get(index);
+                if (journal != null) {
+                    journal.bidAccepted(bid);
+                }
+                List<Order> fills = new ArrayList<>();
+                int remaining = sweepOffers(book, bid, fills);
+                if (restBid(book, bid, remaining)) {
+                    rested.add(bid);
+                }
+                orders.addAll(fills);
+                reports[index] = new ExecutionReport(bid, fills, remaining);
             }
-        } else {
-            LOG.debug("No matching bids found, adding a new offer to the marketplace");
+        }
+        marketStore.orders().addAll(orders);
+        removeFilled(marketStore.offers(), filledOffers);
+        filledOffers.clear();
+        marketStore.bids().addAll(rested);
+        endSubmission();
+        return Arrays.asList(reports);
+    }
+
+    @Override
+    public List<ExecutionReport> addOffers(Collection<Offer> offers) {
+        LOG.debug("In addOffers() for {} offers", offers.size());
+        List<Offer> submitted = new ArrayList<>(offers);
+        ExecutionReport[] reports = new ExecutionReport[submitted.size()];
+        List<Order> orders = new ArrayList<>();
+        List<Offer> rested = new ArrayList<>();
+        for (List<Integer> group : groupByItem(submitted, OnlineMarket::isInvalidOffer, "Offer", reports)) {
+            OrderBook book = book(submitted.get(group.get(0)).getItemSymbol());
+            for (int index : group) {
+                Offer offer = submitted.get(index);
+                if (journal != null) {
+                    journal.offerAccepted(offer);
+                }
+                List<Order> fills = new ArrayList<>();
+                int remaining = sweepBids(book, offer, fills);
+                if (restOffer(book, offer, remaining)) {
+                    rested.add(offer);
+                }
+                orders.addAll(fills);
+                reports[index] = new ExecutionReport(offer, fills, remaining);
+            }
+        }
+        marketStore.orders().addAll(orders);
+        removeFilled(marketStore.bids(), filledBids);
+        filledBids.clear();
+        marketStore.offers().addAll(rested);
+        endSubmission();
+        return Arrays.asList(reports);
+    }
+
+    /*
+     * Adds a bid as addBid does, but collects the orders it fills so that
+     * they can be reported.
+     */
+    ExecutionReport executeBid(Bid bid) {
+        LOG.debug("In executeBid()");
+        if (isInvalidBid(bid)) {
+            throw new InvalidMarketplaceEntityException("Invalid Bid entered : " + bid);
+        }
+        if (journal != null) {
+            journal.bidAccepted(bid);
+        }
+        OrderBook book = book(bid.getItemSymbol());
+        List<Order> fills = new ArrayList<>();
+        int remaining = sweepOffers(book, bid, fills);
+        marketStore.orders().addAll(fills);
+        removeFilled(marketStore.offers(), filledOffers);
+        filledOffers.clear();
+        if (restBid(book, bid, remaining)) {
+            marketStore.bids().add(bid);
+        }
+        endSubmission();
+        return new ExecutionReport(bid, fills, remaining);
+    }
+
+    /*
+     * Adds an offer as addOffer does, but collects the orders it fills so that
+     * they can be reported.
+     */
+    ExecutionReport executeOffer(Offer offer) {
+        LOG.debug("In executeOffer()");
+        if (isInvalidOffer(offer)) {
+            throw new InvalidMarketplaceEntityException("Invalid Offer entered : " + offer);
+        }
+        if (journal != null) {
+            journal.offerAccepted(offer);
+        }
+        OrderBook book = book(offer.getItemSymbol());
+        List<Order> fills = new ArrayList<>();
+        int remaining = sweepBids(book, offer, fills);
+        marketStore.orders().addAll(fills);
+        removeFilled(marketStore.bids(), filledBids);
+        filledBids.clear();
+        if (restOffer(book, offer, remaining)) {
             marketStore.offers().add(offer);
         }
+        endSubmission();
+        return new ExecutionReport(offer, fills, remaining);
+    }
+
+    /*
+     * Returns the future of a submission just matched, completed once the
+     * journal has forced its records. A rejected submission wrote nothing to
+     * the journal, so it is not held back by the last commit.
+     */
+    private CompletableFuture<ExecutionReport> acknowledged(CompletableFuture<ExecutionReport> report) {
+        if (journal == null || report.isCompletedExceptionally()
+                || committed.isDone() && !committed.isCompletedExceptionally()) {
+            return report;
+        }
+        return committed.thenCompose(forced -> report);
+    }
+
+    /*
+     * Completes the future with the outcome of the matching, or exceptionally
+     * with whatever the matching threw, on the thread which did the matching.
+     */
+    static void complete(CompletableFuture<ExecutionReport> report, Supplier<ExecutionReport> matching) {
+        try {
+            report.complete(matching.get());
+        } catch (RuntimeException | Error ex) {
+            report.completeExceptionally(ex);
+        }
     }
 
     @Override
     public List<Bid> listBids(String buyerId) {
-        LOG.debug("In listBids() for the buyerId " + buyerId);
-        return marketStore.bids().stream().filter(bid -> bid.getBuyerId().equals(buyerId)).collect(Collectors.toList());
+        LOG.debug("In listBids() for the buyerId {}", buyerId);
+        return marketStore.bidsByBuyerId(buyerId);
     }
 
     @Override
     public List<Offer> listOffers(String sellerId) {
-        LOG.debug("In listOffers() for the sellerId " + sellerId);
-        return marketStore.offers().stream().filter(bid -> bid.getSellerId().equals(sellerId)).collect(Collectors.toList());
+        LOG.debug("In listOffers() for the sellerId {}", sellerId);
+        return marketStore.offersBySellerId(sellerId);
     }
 
     @Override
     public List<Order> listOrdersBySellerId(String sellerId) {
-        LOG.debug("In listOrdersBySellerId() for the sellerId " + sellerId);
-        return marketStore.orders().stream().filter(bid -> bid.getSellerId().equals(sellerId)).collect(Collectors.toList());
+        LOG.debug("In listOrdersBySellerId() for the sellerId {}", sellerId);
+        return marketStore.ordersBySellerId(sellerId);
     }
 
     @Override
     public List<Order> listOrdersByBuyerId(String buyerId) {
-        LOG.debug("In listOrdersByBuyerId() for the buyerId " + buyerId);
-        return marketStore.orders().stream().filter(bid -> bid.getBuyerId().equals(buyerId)).collect(Collectors.toList());
+        LOG.debug("In listOrdersByBuyerId() for the buyerId {}", buyerId);
+        return marketStore.ordersByBuyerId(buyerId);
+    }
+
+    @Override
+    public Stream<Bid> streamBids(String buyerId) {
+        LOG.debug("In streamBids() for the buyerId {}", buyerId);
+        return stream(marketStore.bidCursor(buyerId, 0L));
+    }
+
+    @Override
+    public Stream<Offer> streamOffers(String sellerId) {
+        LOG.debug("In streamOffers() for the sellerId {}", sellerId);
+        return stream(marketStore.offerCursor(sellerId, 0L));
+    }
+
+    @Override
+    public Stream<Order> streamOrdersBySellerId(String sellerId) {
+        LOG.debug("In streamOrdersBySellerId() for the sellerId {}", sellerId);
+        return stream(marketStore.orderCursorBySellerId(sellerId, 0L));
+    }
+
+    @Override
+    public Stream<Order> streamOrdersByBuyerId(String buyerId) {
+        LOG.debug("In streamOrdersByBuyerId() for the buyerId {}", buyerId);
+        return stream(marketStore.orderCursorByBuyerId(buyerId, 0L));
+    }
+
+    @Override
+    public Page<Bid> listBids(String buyerId, int pageSize, String continuationToken) {
+        LOG.debug("In listBids() for the buyerId {} from {}", buyerId, continuationToken);
+        return page(pageSize, continuationToken, after -> marketStore.bidCursor(buyerId, after));
+    }
+
+    @Override
+    public Page<Offer> listOffers(String sellerId, int pageSize, String continuationToken) {
+        LOG.debug("In listOffers() for the sellerId {} from {}", sellerId, continuationToken);
+        return page(pageSize, continuationToken, after -> marketStore.offerCursor(sellerId, after));
+    }
+
+    @Override
+    public Page<Order> listOrdersBySellerId(String sellerId, int pageSize, String continuationToken) {
+        LOG.debug("In listOrdersBySellerId() for the sellerId {} from {}", sellerId, continuationToken);
+        return page(pageSize, continuationToken, after -> marketStore.orderCursorBySellerId(sellerId, after));
+    }
+
+    @Override
+    public Page<Order> listOrdersByBuyerId(String buyerId, int pageSize, String continuationToken) {
+        LOG.debug("In listOrdersByBuyerId() for the buyerId {} from {}", buyerId, continuationToken);
+        return page(pageSize, continuationToken, after -> marketStore.orderCursorByBuyerId(buyerId, after));
     }
 
     @Override
     public Optional<BigDecimal> getCurrentBidPricePerUnit(String itemId) {
-        LOG.debug("In getCurrentBidPricePerUnit() for the itemId " + itemId);
-        return marketStore.bids().stream().filter(bid -> bid.getItemId().equals(itemId)).map(bid -> bid.getPricePerUnit()).max((p1, p2) -> p1.compareTo(p2));
+        LOG.debug("In getCurrentBidPricePerUnit() for the itemId {}", itemId);
+        TopOfBook top = top(itemId);
+        return top == null ? Optional.empty() : top.getBestBidPrice();
     }
 
     @Override
     public Optional<BigDecimal> getCurrentOfferPricePerUnit(String itemId) {
-        LOG.debug("In getCurrentOfferPricePerUnit() for the itemId " + itemId);
-        return marketStore.offers().stream().filter(bid -> bid.getItemId().equals(itemId)).map(bid -> bid.getPricePerUnit()).max((p1, p2) -> p2.compareTo(p1));
+        LOG.debug("In getCurrentOfferPricePerUnit() for the itemId {}", itemId);
+        TopOfBook top = top(itemId);
+        return top == null ? Optional.empty() : top.getBestOfferPrice();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The levels are read from the book on the calling thread, so like the
+     * submissions this is to be called on the thread matching the item.
+     */
+    @Override
+    public MarketDepth getMarketDepth(String itemId, int levels) {
+        LOG.debug("In getMarketDepth() for the itemId {}", itemId);
+        if (levels <= 0) {
+            throw new IllegalArgumentException("Invalid number of levels : " + levels);
+        }
+        loadBooks();
+        OrderBook book = books.get(SymbolTable.ITEMS.find(itemId));
+        if (book == null) {
+            return new MarketDepth(itemId, new ArrayList<>(), new ArrayList<>());
+        }
+        return new MarketDepth(itemId, depthOf(book.bids(), levels), depthOf(book.offers(), levels));
     }
 
-    private Optional<Offer> matchFirstOffer(Bid bid) {
-        return marketStore.offers().stream().filter(offer -> bid.getItemId().equals(offer.getItemId())
-                && bid.getPricePerUnit().compareTo(offer.getPricePerUnit()) >= 0
-                && offer.getQuantity() >= bid.getQuantity()).findFirst();
+    /*
+     * Copies the aggregates of the best levels of a book side.
+     */
+    private static List<DepthLevel> depthOf(BookSide<?> side, int levels) {
+        int count = Math.min(levels, side.size());
+        List<DepthLevel> depth = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PriceLevel<?> level = side.level(i);
+            depth.add(new DepthLevel(level.getPricePerUnit(), level.getQuantity(), level.size()));
+        }
+        return depth;
+    }
+
+    /*
+     * Returns the aggregates of every level of a book as the updates which
+     * would have built them, bids then offers, each best price first.
+     */
+    private static List<LevelUpdate> levelsOf(OrderBook book) {
+        List<LevelUpdate> levels = new ArrayList<>(book.bids().size() + book.offers().size());
+        for (PriceLevel<Bid> level : book.bids()) {
+            levels.add(new LevelUpdate(book.getItemId(), LevelUpdate.Side.BID, level.getPriceTicks(),
+                    level.getPricePerUnit(), level.getQuantity(), level.size()));
+        }
+        for (PriceLevel<Offer> level : book.offers()) {
+            levels.add(new LevelUpdate(book.getItemId(), LevelUpdate.Side.OFFER, level.getPriceTicks(),
+                    level.getPricePerUnit(), level.getQuantity(), level.size()));
+        }
+        return levels;
     }
 
-    private Optional<Bid> matchFirstBid(Offer offer) {
-        return marketStore.bids().stream().filter(bid -> bid.getItemId().equals(offer.getItemId())
-                && bid.getPricePerUnit().compareTo(offer.getPricePerUnit()) >= 0
-                && offer.getQuantity() >= bid.getQuantity()).findFirst();
+    /*
+     * Sweeps the offers level by level, lowest price first, creating an order
+     * for every offer filled until the bid is filled or the best offer is
+     * priced above the bid, and returns the quantity of the bid left over.
+     * Filled offers leave the book as they are consumed and are collected for
+     * removal from the store in one batch. The orders are added to the given
+     * fills, or straight to the store where there are no fills to report.
+     */
+    private int sweepOffers(OrderBook book, Bid bid, List<Order> fills) {
+        int remaining = bid.getQuantity();
+        while (remaining > 0 && book.offers().isCrossedBy(bid.getPriceTicks())) {
+            PriceLevel<Offer> level = book.offers().best();
+            int matchedOffer = level.first();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("The Bid matches an Offer with sellerId {}",
+                        SymbolTable.PARTICIPANTS.id(offerEntries.getParticipantSymbol(matchedOffer)));
+            }
+            int quantity = Math.min(remaining, offerEntries.getQuantity(matchedOffer));
+
+            Order order;
+            if (fills == null) {
+                order = newOrder(bid, level, matchedOffer, quantity, marketStore.copiesOrders());
+                marketStore.orders().add(order);
+                LOG.debug("A new Order is created {}", order);
+            } else {
+                order = newOrder(bid, level, matchedOffer, quantity, false);
+                fills.add(order);
+            }
+            if (journal != null) {
+                journal.filled(order);
+            }
+            TradeStatistics stats = statistics;
+            if (stats != null) {
+                stats.record(order);
+            }
+
+            if (offerEntries.getQuantity(matchedOffer) == quantity) {
+                LOG.debug("Offer quantity is filled by the Bid, so removing Offer from the market");
+                book.removeOffer(matchedOffer);
+                if (!storeKeepsEntries) {
+                    filledOffers.add(offerEntries.get(matchedOffer));
+                }
+                if (journal != null) {
+                    journal.offerRemoved(offerEntries.get(matchedOffer));
+                }
+                offerEntries.remove(matchedOffer);
+            } else {
+                LOG.debug("Offer quantity exceeds the Bid quantity, so keeping the Offer by reducing the created order quantity");
+                book.reduceOffer(matchedOffer, quantity);
+            }
+            remaining -= quantity;
+        }
+        return remaining;
+    }
+
+    /*
+     * Sweeps the bids level by level, highest price first, creating an order
+     * for every bid filled until the offer is filled or the best bid is priced
+     * below the offer, and returns the quantity of the offer left over. Filled
+     * bids are handled as in sweepOffers.
+     */
+    private int sweepBids(OrderBook book, Offer offer, List<Order> fills) {
+        int remaining = offer.getQuantity();
+        while (remaining > 0 && book.bids().isCrossedBy(offer.getPriceTicks())) {
+            PriceLevel<Bid> level = book.bids().best();
+            int matchedBid = level.first();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("The Offer matches a Bid with buyerId {}",
+                        SymbolTable.PARTICIPANTS.id(bidEntries.getParticipantSymbol(matchedBid)));
+            }
+            int quantity = Math.min(remaining, bidEntries.getQuantity(matchedBid));
+
+            Order order;
+            if (fills == null) {
+                order = newOrder(level, matchedBid, offer, quantity, marketStore.copiesOrders());
+                marketStore.orders().add(order);
+                LOG.debug("A new Order is created {}", order);
+            } else {
+                order = newOrder(level, matchedBid, offer, quantity, false);
+                fills.add(order);
+            }
+            if (journal != null) {
+                journal.filled(order);
+            }
+            TradeStatistics stats = statistics;
+            if (stats != null) {
+                stats.record(order);
+            }
+
+            if (bidEntries.getQuantity(matchedBid) == quantity) {
+                LOG.debug("Bid quantity is filled by the Offer, so removing Bid from the market");
+                book.removeBid(matchedBid);
+                if (!storeKeepsEntries) {
+                    filledBids.add(bidEntries.get(matchedBid));
+                }
+                if (journal != null) {
+                    journal.bidRemoved(bidEntries.get(matchedBid));
+                }
+                bidEntries.remove(matchedBid);
+            } else {
+                LOG.debug("Bid quantity exceeds the Offer quantity, so keeping the Bid by reducing the created order quantity");
+                book.reduceBid(matchedBid, quantity);
+            }
+            remaining -= quantity;
+        }
+        return remaining;
+    }
+
+    /*
+     * Rests the remaining quantity of the bid on its book, returning whether
+     * the caller is to add the bid to the store, which is when anything was
+     * left to rest and the store does not keep the resting bids itself.
+     */
+    private boolean restBid(OrderBook book, Bid bid, int remaining) {
+        if (remaining == 0) {
+            return false;
+        }
+        if (remaining < bid.getQuantity()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Bid is partly filled, adding the remaining quantity {} as a new bid to the marketplace", remaining);
+            }
+            bid.setQuantity(remaining);
+        } else {
+            LOG.debug("No matching offers found, adding a new bid to the marketplace");
+        }
+        book.addBid(bidEntries.add(bid));
+        return !storeKeepsEntries;
+    }
+
+    /*
+     * Rests the remaining quantity of the offer on its book, returning whether
+     * the caller is to add the offer to the store, as for restBid.
+     */
+    private boolean restOffer(OrderBook book, Offer offer, int remaining) {
+        if (remaining == 0) {
+            return false;
+        }
+        if (remaining < offer.getQuantity()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Offer is partly filled, adding the remaining quantity {} as a new offer to the marketplace", remaining);
+            }
+            offer.setQuantity(remaining);
+        } else {
+            LOG.debug("No matching bids found, adding a new offer to the marketplace");
+        }
+        book.addOffer(offerEntries.add(offer));
+        return !storeKeepsEntries;
+    }
+
+    /*
+     * Ends a submission in the journal, if there is one, so that it can force
+     * everything the submission wrote as one group, and publishes the price
+     * levels it changed to the depth feed and the best prices it changed to
+     * the ticker, where they are set.
+     */
+    private void endSubmission() {
+        if (journal != null) {
+            committed = journal.commit();
+        }
+        DepthFeed feed = depthFeed;
+        if (feed != null && !depthUpdates.isEmpty()) {
+            feed.publish(depthUpdates);
+        }
+        depthUpdates.clear();
+        TickerPublisher publisher = ticker;
+        if (publisher != null) {
+            for (OrderBook book : changedTops) {
+                publisher.publish(book.getTop());
+            }
+        }
+        changedTops.clear();
+    }
+
+    /*
+     * Groups the positions of the valid entities by item, keeping the
+     * submission order within each item, and reports the invalid ones as
+     * rejected.
+     */
+    private <E extends MarketplaceEntity> Collection<List<Integer>> groupByItem(List<E> submitted,
+            Predicate<? super E> isInvalid, String entityName, ExecutionReport[] reports) {
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index = 0; index < submitted.size(); index++) {
+            E entity = submitted.get(index);
+            if (isInvalid.test(entity)) {
+                reports[index] = new ExecutionReport(entity, "Invalid " + entityName + " entered : " + entity);
+            } else {
+                groups.computeIfAbsent(entity.getItemSymbol(), k -> new ArrayList<>()).add(index);
+            }
+        }
+        return groups.values();
+    }
+
+    /*
+     * Returns the order book of the item, creating an empty one for an item
+     * which has not been seen before.
+     */
+    private OrderBook book(int itemSymbol) {
+        loadBooks();
+        return loadedBook(itemSymbol);
+    }
+
+    /*
+     * Returns the top of book of the item, or null for an item which has never
+     * had a bid or offer.
+     */
+    private TopOfBook top(String itemId) {
+        loadBooks();
+        OrderBook book = books.get(SymbolTable.ITEMS.find(itemId));
+        return book == null ? null : book.getTop();
+    }
+
+    /*
+     * Indexes the bids and offers which are already resting in the store the
+     * first time a book is needed. Where the store keeps them, the books take
+     * the handles of its entities, otherwise the entities are added to the
+     * tables of this market.
+     */
+    private void loadBooks() {
+        if (booksLoaded) {
+            return;
+        }
+        synchronized (books) {
+            if (booksLoaded) {
+                return;
+            }
+            LOG.debug("Loading order books from the market place store");
+            if (storeKeepsEntries) {
+                bidEntries.forEachHandle(bid -> {
+                    if (isLoadable(bidEntries.getItemSymbol(bid))) {
+                        loadedBook(bidEntries.getItemSymbol(bid)).addBid(bid);
+                    }
+                });
+                offerEntries.forEachHandle(offer -> {
+                    if (isLoadable(offerEntries.getItemSymbol(offer))) {
+                        loadedBook(offerEntries.getItemSymbol(offer)).addOffer(offer);
+                    }
+                });
+            } else {
+                marketStore.bids().stream().filter(bid -> isLoadable(bid.getItemSymbol()))
+                        .forEach(bid -> loadedBook(bid.getItemSymbol()).addBid(bidEntries.add(bid)));
+                marketStore.offers().stream().filter(offer -> isLoadable(offer.getItemSymbol()))
+                        .forEach(offer -> loadedBook(offer.getItemSymbol()).addOffer(offerEntries.add(offer)));
+            }
+            booksLoaded = true;
+        }
+    }
+
+    private boolean isLoadable(int itemSymbol) {
+        return itemSymbol != SymbolTable.NULL && ownsItem.test(itemSymbol);
+    }
+
+    /*
+     * Returns the order book of the item once the books are loaded, publishing
+     * a new book, and so its top of book, for the price queries.
+     */
+    private OrderBook loadedBook(int itemSymbol) {
+        OrderBook book = books.get(itemSymbol);
+        if (book == null) {
+            book = books.computeIfAbsent(itemSymbol, () -> new OrderBook(SymbolTable.ITEMS.id(itemSymbol),
+                    bidEntries, offerEntries, bookListener));
+        }
+        return book;
+    }
+
+    /*
+     * Creates the order for a fill between a bid and an offer resting at the
+     * given level. The order is priced at the lower of the two prices, reusing
+     * the price of the bid or of the level rather than allocating a new one.
+     * Where the store copies the orders added to it and the order is not
+     * reported, the same order is filled in for every fill.
+     */
+    private Order newOrder(Bid bid, PriceLevel<Offer> level, int offer, int quantity, boolean reusable) {
+        Order order = reusable ? reusableOrder : new Order();
+        int seller = offerEntries.getParticipantSymbol(offer);
+        order.setBuyerId(bid.getBuyerId(), bid.getBuyerSymbol());
+        order.setSellerId(SymbolTable.PARTICIPANTS.id(seller), seller);
+        order.setItemId(bid.getItemId(), bid.getItemSymbol());
+        if (bid.getPriceTicks() <= level.getPriceTicks()) {
+            order.setPricePerUnit(bid.getPricePerUnit(), bid.getPriceTicks());
+        } else {
+            order.setPricePerUnit(level.getPricePerUnit(offer), level.getPriceTicks());
+        }
+        order.setQuantity(quantity);
+        return order;
+    }
+
+    /*
+     * Creates the order for a fill between a bid resting at the given level
+     * and an offer, as above.
+     */
+    private Order newOrder(PriceLevel<Bid> level, int bid, Offer offer, int quantity, boolean reusable) {
+        Order order = reusable ? reusableOrder : new Order();
+        int buyer = bidEntries.getParticipantSymbol(bid);
+        order.setBuyerId(SymbolTable.PARTICIPANTS.id(buyer), buyer);
+        order.setSellerId(offer.getSellerId(), offer.getSellerSymbol());
+        order.setItemId(offer.getItemId(), offer.getItemSymbol());
+        if (level.getPriceTicks() <= offer.getPriceTicks()) {
+            order.setPricePerUnit(level.getPricePerUnit(bid), level.getPriceTicks());
+        } else {
+            order.setPricePerUnit(offer.getPricePerUnit(), offer.getPriceTicks());
+        }
+        order.setQuantity(quantity);
+        return order;
+    }
+
+    /*
+     * Removes the filled entities from a store list in one batch. They are
+     * matched by identity, so an equal entity which is still resting stays.
+     * Indexed store lists choose how to remove the batch from their backing
+     * list, other lists are scanned once.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> void removeFilled(List<E> entries, List<E> filled) {
+        if (filled.isEmpty()) {
+            return;
+        }
+        if (entries instanceof IndexedList) {
+            ((IndexedList<E>) entries).removeIdentical(filled);
+            return;
+        }
+        Set<E> filledEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        filledEntities.addAll(filled);
+        entries.removeIf(filledEntities::contains);
+    }
+
+    private static <E> Stream<E> stream(EntryCursor<E> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /*
+     * Reads one page from a cursor resuming after the sequence held by the
+     * continuation token, and one entry more to find whether another page
+     * follows. The token of the next page holds the sequence of the last
+     * entry of this one.
+     */
+    private static <E> Page<E> page(int pageSize, String continuationToken,
+            LongFunction<EntryCursor<E>> cursorAfter) {
+        Pages.checkPageSize(pageSize);
+        EntryCursor<E> cursor = cursorAfter.apply(Pages.positionOf(continuationToken));
+        List<E> entries = new ArrayList<>(Math.min(pageSize, 64));
+        while (entries.size() < pageSize && cursor.hasNext()) {
+            entries.add(cursor.next());
+        }
+        return new Page<>(entries, cursor.hasNext() ? Pages.tokenOf(cursor.sequence()) : null);
     }
 
-    private boolean isInvalidBid(Bid bid) {
-        return (bid == null || bid.getItemId() == null || bid.getBuyerId() == null || bid.getPricePerUnit() == null || bid.getQuantity() <= 0);
+    /*
+     * Whether the bid is to be rejected. Its symbols are not read, so that a
+     * rejected bid does not intern its IDs.
+     */
+    static boolean isInvalidBid(Bid bid) {
+        return (bid == null || bid.getItemId() == null || bid.getBuyerId() == null || bid.getPricePerUnit() == null
+                || bid.getPriceTicks() == Price.INVALID || bid.getQuantity() <= 0);
     }
 
-    private boolean isInvalidOffer(Offer offer) {
-        return (offer == null || offer.getItemId() == null || offer.getSellerId() == null || offer.getPricePerUnit() == null || offer.getQuantity() <= 0);
+    /*
+     * Whether the offer is to be rejected, as for isInvalidBid.
+     */
+    static boolean isInvalidOffer(Offer offer) {
+        return (offer == null || offer.getItemId() == null || offer.getSellerId() == null || offer.getPricePerUnit() == null
+                || offer.getPriceTicks() == Price.INVALID || offer.getQuantity() <= 0);
     }
 
 }
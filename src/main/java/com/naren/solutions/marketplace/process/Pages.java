@@ -0,0 +1,77 @@
+package com.naren.solutions.marketplace.process;
+
+import com.naren.solutions.marketplace.dom.Page;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class reads and writes the continuation tokens of the paginated
+ * listings, each of which holds the position to resume after, and cuts the
+ * pages of the default listings of {@link Market} out of a list.
+ *
+ * @author Naren Chivukula
+ */
+final class Pages {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Pages.class);
+
+    /*
+     * Private constructor to avoid instantiation
+     */
+    private Pages() {
+
+    }
+
+    /*
+     * Returns the page of at most the given number of entries of the list
+     * following the position held by the continuation token.
+     */
+    static <E> Page<E> of(List<E> entries, int pageSize, String continuationToken) {
+        checkPageSize(pageSize);
+        long from = positionOf(continuationToken);
+        if (from > entries.size()) {
+            from = entries.size();
+        }
+        int to = (int) Math.min(entries.size(), from + pageSize);
+        List<E> page = new ArrayList<>(entries.subList((int) from, to));
+        return new Page<>(page, to < entries.size() ? tokenOf(to) : null);
+    }
+
+    static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive : " + pageSize);
+        }
+    }
+
+    static String tokenOf(long position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(ByteBuffer.allocate(Long.BYTES)
+                .putLong(position).array());
+    }
+
+    /*
+     * Returns the position held by the continuation token, or 0 for the first
+     * page.
+     */
+    static long positionOf(String continuationToken) {
+        if (continuationToken == null) {
+            return 0L;
+        }
+        try {
+            byte[] position = Base64.getUrlDecoder().decode(continuationToken);
+            if (position.length == Long.BYTES) {
+                long value = ByteBuffer.wrap(position).getLong();
+                if (value >= 0) {
+                    return value;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            LOG.debug("Malformed continuation token {}", continuationToken, ex);
+        }
+        throw new IllegalArgumentException("Invalid continuation token : " + continuationToken);
+    }
+
+}
@@ -0,0 +1,424 @@
+package com.naren.solutions.marketplace.process;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.MarketDepth;
+import com.naren.solutions.marketplace.dom.MarketplaceEntity;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Page;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import com.naren.solutions.marketplace.feed.DepthFeed;
+import com.naren.solutions.marketplace.feed.TickerPublisher;
+import com.naren.solutions.marketplace.stats.TradeStatistics;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This implementation spreads matching across several threads without any
+ * locking. Every item is owned by exactly one shard, chosen by the symbol of
+ * its item ID, and each shard matches its items on a single thread of its own, fed
+ * through the shard's queue. Books are therefore only ever touched by one
+ * thread, while items of different shards match in parallel.
+ * <p>
+ * Bids and offers are handed to the owning shard and the caller waits for the
+ * shard to match them, so the {@link Market} contract is unchanged. Bids and
+ * offers submitted through {@link AsyncMarket} are queued in the same way, but
+ * their futures are completed by the shard thread once matched, so the caller
+ * never waits. The current price queries are answered directly from the
+ * owning shard's top of book, and the listing queries from the shared store,
+ * without queueing.
+ * <p>
+ * Once the market is closed, whatever would be queued to a shard is refused
+ * with an {@code IllegalStateException}, through the returned future for
+ * {@link AsyncMarket} submissions and thrown for the other calls.
+ *
+ * @author Naren Chivukula
+ */
+public class ShardedMarket implements AsyncMarket, BatchMarket, DepthMarket, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedMarket.class);
+
+    private final MarketPlaceStore marketStore;
+
+    private final Shard[] shards;
+
+    /**
+     * This is used to create a sharded market over the shared store selected
+     * by {@link MarketPlaceStore#configuredInstance()} with one shard per
+     * available processor.
+     */
+    public ShardedMarket() {
+        this(MarketPlaceStore.configuredInstance(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * This is used to create a sharded market over the given store.
+     *
+     * @param marketStore the store holding the bids, offers and orders
+     * @param numberOfShards the number of matching threads
+     */
+    public ShardedMarket(MarketPlaceStore marketStore, int numberOfShards) {
+        if (numberOfShards <= 0) {
+            throw new IllegalArgumentException("Number of shards must be positive : " + numberOfShards);
+        }
+        this.marketStore = marketStore;
+        this.shards = new Shard[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++) {
+            shards[i] = new Shard(i);
+        }
+        LOG.debug("Created a sharded market with {} shards", numberOfShards);
+    }
+
+    /**
+     * Sets the feed the shards publish the price level updates of their
+     * submissions to. Each shard seeds the feed with the levels of its books
+     * on its own thread before publishing to it.
+     *
+     * @param depthFeed the feed to publish to, or {@code null} for none
+     * @throws IllegalStateException if the market is closed
+     */
+    public void setDepthFeed(DepthFeed depthFeed) {
+        for (Shard shard : shards) {
+            shard.run(() -> shard.market.setDepthFeed(depthFeed));
+        }
+    }
+
+    /**
+     * Sets the publisher which every shard publishes the best prices changed
+     * by its submissions to.
+     *
+     * @param ticker the publisher to publish to, or {@code null} for none
+     */
+    public void setTicker(TickerPublisher ticker) {
+        for (Shard shard : shards) {
+            shard.market.setTicker(ticker);
+        }
+    }
+
+    /**
+     * Sets the statistics which every shard records the orders it creates in.
+     *
+     * @param statistics the statistics to record in, or {@code null} for none
+     */
+    public void setTradeStatistics(TradeStatistics statistics) {
+        for (Shard shard : shards) {
+            shard.market.setTradeStatistics(statistics);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the market is closed
+     */
+    @Override
+    public void addBid(Bid bid) {
+        Shard shard = shardOf(OnlineMarket.isInvalidBid(bid) ? SymbolTable.NULL : bid.getItemSymbol());
+        shard.run(() -> shard.market.addBid(bid));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the market is closed
+     */
+    @Override
+    public void addOffer(Offer offer) {
+        Shard shard = shardOf(OnlineMarket.isInvalidOffer(offer) ? SymbolTable.NULL : offer.getItemSymbol());
+        shard.run(() -> shard.market.addOffer(offer));
+    }
+
+    @Override
+    public CompletableFuture<ExecutionReport> submitBid(Bid bid) {
+        Shard shard = shardOf(OnlineMarket.isInvalidBid(bid) ? SymbolTable.NULL : bid.getItemSymbol());
+        return shard.submit(() -> shard.market.executeBid(bid));
+    }
+
+    @Override
+    public CompletableFuture<ExecutionReport> submitOffer(Offer offer) {
+        Shard shard = shardOf(OnlineMarket.isInvalidOffer(offer) ? SymbolTable.NULL : offer.getItemSymbol());
+        return shard.submit(() -> shard.market.executeOffer(offer));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the market is closed
+     */
+    @Override
+    public List<ExecutionReport> addBids(Collection<Bid> bids) {
+        return addBatch(bids, OnlineMarket::isInvalidBid, OnlineMarket::addBids);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the market is closed
+     */
+    @Override
+    public List<ExecutionReport> addOffers(Collection<Offer> offers) {
+        return addBatch(offers, OnlineMarket::isInvalidOffer, OnlineMarket::addOffers);
+    }
+
+    /*
+     * The listings read the store, which every shard matches into, so any
+     * shard answers them for all the items.
+     */
+    @Override
+    public List<Bid> listBids(String buyerId) {
+        return shards[0].market.listBids(buyerId);
+    }
+
+    @Override
+    public List<Offer> listOffers(String sellerId) {
+        return shards[0].market.listOffers(sellerId);
+    }
+
+    @Override
+    public List<Order> listOrdersBySellerId(String sellerId) {
+        return shards[0].market.listOrdersBySellerId(sellerId);
+    }
+
+    @Override
+    public List<Order> listOrdersByBuyerId(String buyerId) {
+        return shards[0].market.listOrdersByBuyerId(buyerId);
+    }
+
+    @Override
+    public Stream<Bid> streamBids(String buyerId) {
+        return shards[0].market.streamBids(buyerId);
+    }
+
+    @Override
+    public Stream<Offer> streamOffers(String sellerId) {
+        return shards[0].market.streamOffers(sellerId);
+    }
+
+    @Override
+    public Stream<Order> streamOrdersBySellerId(String sellerId) {
+        return shards[0].market.streamOrdersBySellerId(sellerId);
+    }
+
+    @Override
+    public Stream<Order> streamOrdersByBuyerId(String buyerId) {
+        return shards[0].market.streamOrdersByBuyerId(buyerId);
+    }
+
+    @Override
+    public Page<Bid> listBids(String buyerId, int pageSize, String continuationToken) {
+        return shards[0].market.listBids(buyerId, pageSize, continuationToken);
+    }
+
+    @Override
+    public Page<Offer> listOffers(String sellerId, int pageSize, String continuationToken) {
+        return shards[0].market.listOffers(sellerId, pageSize, continuationToken);
+    }
+
+    @Override
+    public Page<Order> listOrdersBySellerId(String sellerId, int pageSize, String continuationToken) {
+        return shards[0].market.listOrdersBySellerId(sellerId, pageSize, continuationToken);
+    }
+
+    @Override
+    public Page<Order> listOrdersByBuyerId(String buyerId, int pageSize, String continuationToken) {
+        return shards[0].market.listOrdersByBuyerId(buyerId, pageSize, continuationToken);
+    }
+
+    @Override
+    public Optional<BigDecimal> getCurrentBidPricePerUnit(String itemId) {
+        return shardOf(SymbolTable.ITEMS.find(itemId)).market.getCurrentBidPricePerUnit(itemId);
+    }
+
+    @Override
+    public Optional<BigDecimal> getCurrentOfferPricePerUnit(String itemId) {
+        return shardOf(SymbolTable.ITEMS.find(itemId)).market.getCurrentOfferPricePerUnit(itemId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The levels are read on the thread of the shard matching the item, in
+     * turn with its submissions, so they are never read mid-match.
+     *
+     * @throws IllegalStateException if the market is closed
+     */
+    @Override
+    public MarketDepth getMarketDepth(String itemId, int levels) {
+        Shard shard = shardOf(SymbolTable.ITEMS.find(itemId));
+        return shard.call(() -> shard.market.getMarketDepth(itemId, levels));
+    }
+
+    /**
+     * Stops the shard threads once the bids and offers already handed to them
+     * have been matched.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        try {
+            for (Shard shard : shards) {
+                shard.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Returns the shard owning the item. Invalid entities are sent to the
+     * first shard, which rejects them, without interning their item IDs.
+     */
+    private Shard shardOf(int itemSymbol) {
+        return shards[shardIndex(itemSymbol, shards.length)];
+    }
+
+    /*
+     * Symbols are dense, so consecutive items are dealt out to the shards in
+     * turn.
+     */
+    private static int shardIndex(int itemSymbol, int numberOfShards) {
+        return itemSymbol == SymbolTable.NULL ? 0 : itemSymbol % numberOfShards;
+    }
+
+    /*
+     * Splits a batch into one batch per shard, which the shards match in
+     * parallel, and puts the reports back in the order of the submission.
+     */
+    private <E extends MarketplaceEntity> List<ExecutionReport> addBatch(Collection<E> entities,
+            Predicate<? super E> isInvalid, BiFunction<OnlineMarket, List<E>, List<ExecutionReport>> add) {
+        List<List<E>> batches = new ArrayList<>();
+        List<List<Integer>> positions = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            batches.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        int position = 0;
+        for (E entity : entities) {
+            int index = shardIndex(isInvalid.test(entity) ? SymbolTable.NULL : entity.getItemSymbol(), shards.length);
+            batches.get(index).add(entity);
+            positions.get(index).add(position++);
+        }
+        List<Future<List<ExecutionReport>>> matching = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            List<E> batch = batches.get(i);
+            matching.add(batch.isEmpty() ? null : shard.queue(() -> add.apply(shard.market, batch)));
+        }
+        ExecutionReport[] reports = new ExecutionReport[position];
+        for (int i = 0; i < shards.length; i++) {
+            if (matching.get(i) != null) {
+                List<ExecutionReport> shardReports = await(matching.get(i));
+                for (int j = 0; j < shardReports.size(); j++) {
+                    reports[positions.get(i).get(j)] = shardReports.get(j);
+                }
+            }
+        }
+        return Arrays.asList(reports);
+    }
+
+    private static IllegalStateException closed(RejectedExecutionException ex) {
+        return new IllegalStateException("The market is closed", ex);
+    }
+
+    /*
+     * Waits for the shard to finish matching, rethrowing whatever the matching
+     * threw on the caller's thread.
+     */
+    private static <T> T await(Future<T> matching) {
+        try {
+            return matching.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Matching failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for matching", ex);
+        }
+    }
+
+    /*
+     * A matching thread together with the market matching the items it owns.
+     * Every shard's market is created over the one store of this market.
+     */
+    private final class Shard {
+
+        private final OnlineMarket market;
+
+        private final ExecutorService executor;
+
+        private Shard(int index) {
+            this.market = new OnlineMarket(marketStore, itemSymbol -> shardIndex(itemSymbol, shards.length) == index);
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "market-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /*
+         * Queues the matching to the shard thread, which completes the report
+         * itself, so nothing is handed back to another thread on the way.
+         */
+        private CompletableFuture<ExecutionReport> submit(Supplier<ExecutionReport> matching) {
+            CompletableFuture<ExecutionReport> report = new CompletableFuture<>();
+            try {
+                executor.execute(() -> OnlineMarket.complete(report, matching));
+            } catch (RejectedExecutionException ex) {
+                report.completeExceptionally(closed(ex));
+            }
+            return report;
+        }
+
+        /*
+         * Queues the task to the shard thread, refusing it once the market is
+         * closed.
+         */
+        private <T> Future<T> queue(Callable<T> task) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException ex) {
+                throw closed(ex);
+            }
+        }
+
+        /*
+         * Runs the task on the shard thread and waits for it.
+         */
+        private <T> T call(Callable<T> task) {
+            return await(queue(task));
+        }
+
+        private void run(Runnable task) {
+            call(Executors.callable(task));
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.stats;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the trading of an item over one time bucket: the open,
+ * high, low and close prices of its orders, the quantity traded, the volume
+ * weighted average price and the number of orders.
+ *
+ * @author Naren Chivukula
+ */
+public final class Candle {
+
+    private final String itemId;
+
+    private final long startMillis;
+
+    private final long bucketMillis;
+
+    private final BigDecimal open;
+
+    private final BigDecimal high;
+
+    private final BigDecimal low;
+
+    private final BigDecimal close;
+
+    private final BigDecimal vwap;
+
+    private final long volume;
+
+    private final int tradeCount;
+
+    /**
+     * This is used to create the candle of a time bucket.
+     *
+     * @param itemId the item ID
+     * @param startMillis the start of the bucket, in milliseconds since the
+     * epoch
+     * @param bucketMillis the length of the bucket in milliseconds
+     * @param open the price of the first order in the bucket
+     * @param high the highest price of the orders in the bucket
+     * @param low the lowest price of the orders in the bucket
+     * @param close the price of the last order in the bucket
+     * @param vwap the volume weighted average price of the orders in the
+     * bucket
+     * @param volume the quantity traded in the bucket
+     * @param tradeCount the number of orders in the bucket
+     */
+    public Candle(String itemId, long startMillis, long bucketMillis, BigDecimal open, BigDecimal high,
+            BigDecimal low, BigDecimal close, BigDecimal vwap, long volume, int tradeCount) {
+        this.itemId = itemId;
+        this.startMillis = startMillis;
+        this.bucketMillis = bucketMillis;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.vwap = vwap;
+        this.volume = volume;
+        this.tradeCount = tradeCount;
+    }
+
+    /**
+     * Returns the item ID.
+     *
+     * @return the itemId
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Returns the start of the bucket, in milliseconds since the epoch.
+     *
+     * @return the start of the bucket
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the length of the bucket in milliseconds.
+     *
+     * @return the length of the bucket
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Returns the price of the first order in the bucket.
+     *
+     * @return the open price
+     */
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    /**
+     * Returns the highest price of the orders in the bucket.
+     *
+     * @return the high price
+     */
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the lowest price of the orders in the bucket.
+     *
+     * @return the low price
+     */
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    /**
+     * Returns the price of the last order in the bucket.
+     *
+     * @return the close price
+     */
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    /**
+     * Returns the volume weighted average price of the orders in the bucket,
+     * to {@link TradeStatistics#VWAP_SCALE} decimal places, rounded half even.
+     *
+     * @return the vwap
+     */
+    public BigDecimal getVwap() {
+        return vwap;
+    }
+
+    /**
+     * Returns the quantity traded in the bucket.
+     *
+     * @return the volume
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Returns the number of orders in the bucket.
+     *
+     * @return the trade count
+     */
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * Returns the string representation of this {@code Candle}.
+     *
+     * @return string representation of this {@code Candle}.
+     */
+    @Override
+    public String toString() {
+        return "Candle [itemId=" + itemId + ", startMillis=" + startMillis + ", bucketMillis=" + bucketMillis
+                + ", open=" + open + ", high=" + high + ", low=" + low + ", close=" + close
+                + ", vwap=" + vwap + ", volume=" + volume + ", tradeCount=" + tradeCount + "]";
+    }
+
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.stats;
+
+import com.naren.solutions.marketplace.cache.SymbolMap;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Price;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * This class keeps the trading statistics of each item up to date as its
+ * orders are created, so that the last price, the traded volume and the
+ * candles of an item are read without scanning the order history. A market
+ * the statistics are set on records every order it creates.
+ * <p>
+ * Each item has a ring of time buckets for each configured bucket length, one
+ * ring slot per bucket. An order is added to the current bucket of each ring,
+ * taking over its slot from the bucket a ring length earlier, so the rings
+ * hold the most recent buckets in a fixed amount of memory. Recording and the
+ * queries of a single bucket cost the same whatever the number of orders.
+ * <p>
+ * The notional of a bucket is summed exactly in ticks, carried over into a
+ * {@link BigDecimal} only in the rare bucket where it no longer fits in a
+ * {@code long}, and the volume weighted average price is divided out to
+ * {@value #VWAP_SCALE} decimal places, rounding half even.
+ * <p>
+ * Orders of an item are recorded by the thread matching it, while the queries
+ * may run on any thread; each item is locked for the short time it takes to
+ * update or copy a bucket.
+ *
+ * @author Naren Chivukula
+ */
+public class TradeStatistics {
+
+    /**
+     * The default number of buckets of each ring.
+     */
+    public static final int DEFAULT_BUCKET_COUNT = 60;
+
+    /**
+     * The number of decimal places of the volume weighted average prices.
+     */
+    public static final int VWAP_SCALE = 8;
+
+    private static final BigDecimal TICKS_PER_UNIT = BigDecimal.valueOf(Price.TICKS_PER_UNIT);
+
+    private final LongSupplier clock;
+
+    private final int bucketCount;
+
+    private final long[] bucketMillis;
+
+    private final SymbolMap<ItemStatistics> items = new SymbolMap<>();
+
+    /**
+     * This is used to create the statistics with one second, one minute and
+     * one hour buckets, keeping {@link #DEFAULT_BUCKET_COUNT} of each.
+     */
+    public TradeStatistics() {
+        this(System::currentTimeMillis, DEFAULT_BUCKET_COUNT, 1000L, 60_000L, 3_600_000L);
+    }
+
+    /**
+     * This is used to create the statistics with buckets of the given lengths,
+     * keeping the given number of each.
+     *
+     * @param bucketCount the number of buckets of each length kept
+     * @param bucketMillis the lengths of the buckets in milliseconds
+     */
+    public TradeStatistics(int bucketCount, long... bucketMillis) {
+        this(System::currentTimeMillis, bucketCount, bucketMillis);
+    }
+
+    /**
+     * This is used to create the statistics with buckets of the given lengths,
+     * keeping the given number of each, timed by the given clock.
+     *
+     * @param clock the clock returning the current time in milliseconds
+     * @param bucketCount the number of buckets of each length kept
+     * @param bucketMillis the lengths of the buckets in milliseconds
+     * @throws IllegalArgumentException if there are no buckets or a length is
+     * not positive
+     */
+    public TradeStatistics(LongSupplier clock, int bucketCount, long... bucketMillis) {
+        if (bucketCount <= 0 || bucketMillis.length == 0) {
+            throw new IllegalArgumentException("Invalid buckets : " + bucketCount + " x " + bucketMillis.length);
+        }
+        for (long millis : bucketMillis) {
+            if (millis <= 0) {
+                throw new IllegalArgumentException("Invalid bucket length : " + millis);
+            }
+        }
+        this.clock = clock;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = bucketMillis.clone();
+    }
+
+    /**
+     * Records an order in the current bucket of each ring of its item. This
+     * is called by the market on the thread matching the item, as the order is
+     * created; the order is not kept. An order without a price is ignored.
+     *
+     * @param order the order created
+     */
+    public void record(Order order) {
+        if (order.getPriceTicks() == Price.INVALID) {
+            return;
+        }
+        int itemSymbol = order.getItemSymbol();
+        if (itemSymbol == SymbolTable.NULL) {
+            itemSymbol = SymbolTable.ITEMS.intern(order.getItemId());
+        }
+        String itemId = order.getItemId();
+        ItemStatistics item = items.computeIfAbsent(itemSymbol, () -> new ItemStatistics(itemId));
+        item.record(clock.getAsLong(), order.getPriceTicks(), order.getQuantity());
+    }
+
+    /**
+     * Returns the price of the last order of the given item.
+     *
+     * @param itemId the item ID
+     * @return the last price, if the item traded
+     */
+    public Optional<BigDecimal> getLastPrice(String itemId) {
+        ItemStatistics item = item(itemId);
+        if (item == null) {
+            return Optional.empty();
+        }
+        synchronized (item) {
+            return item.tradeCount == 0 ? Optional.empty() : Optional.of(Price.toBigDecimal(item.lastPriceTicks));
+        }
+    }
+
+    /**
+     * Returns the quantity of the given item traded since the statistics were
+     * created.
+     *
+     * @param itemId the item ID
+     * @return the traded volume
+     */
+    public long getVolume(String itemId) {
+        ItemStatistics item = item(itemId);
+        if (item == null) {
+            return 0;
+        }
+        synchronized (item) {
+            return item.volume;
+        }
+    }
+
+    /**
+     * Returns the candle of the current bucket of the given length.
+     *
+     * @param itemId the item ID
+     * @param bucketMillis the length of the bucket in milliseconds
+     * @return the candle of the current bucket, if the item traded in it
+     * @throws IllegalArgumentException if there are no buckets of the length
+     */
+    public Optional<Candle> getCandle(String itemId, long bucketMillis) {
+        int ring = ringOf(bucketMillis);
+        ItemStatistics item = item(itemId);
+        if (item == null) {
+            return Optional.empty();
+        }
+        long bucket = clock.getAsLong() / bucketMillis;
+        synchronized (item) {
+            return Optional.ofNullable(item.rings[ring].candle(item.itemId, bucket));
+        }
+    }
+
+    /**
+     * Returns the candles of the buckets of the given length which are still
+     * kept, oldest first, leaving out the buckets in which the item did not
+     * trade.
+     *
+     * @param itemId the item ID
+     * @param bucketMillis the length of the buckets in milliseconds
+     * @return the candles of the item
+     * @throws IllegalArgumentException if there are no buckets of the length
+     */
+    public List<Candle> getCandles(String itemId, long bucketMillis) {
+        int ring = ringOf(bucketMillis);
+        List<Candle> candles = new ArrayList<>();
+        ItemStatistics item = item(itemId);
+        if (item == null) {
+            return candles;
+        }
+        long current = clock.getAsLong() / bucketMillis;
+        synchronized (item) {
+            for (long bucket = current - bucketCount + 1; bucket <= current; bucket++) {
+                Candle candle = item.rings[ring].candle(item.itemId, bucket);
+                if (candle != null) {
+                    candles.add(candle);
+                }
+            }
+        }
+        return candles;
+    }
+
+    /**
+     * Forgets the statistics of every item.
+     */
+    public void clear() {
+        items.clear();
+    }
+
+    private ItemStatistics item(String itemId) {
+        return items.get(SymbolTable.ITEMS.find(itemId));
+    }
+
+    private int ringOf(long millis) {
+        for (int ring = 0; ring < bucketMillis.length; ring++) {
+            if (bucketMillis[ring] == millis) {
+                return ring;
+            }
+        }
+        throw new IllegalArgumentException("No buckets of " + millis + " ms");
+    }
+
+    /*
+     * The running totals and the rings of one item.
+     */
+    private final class ItemStatistics {
+
+        private final String itemId;
+
+        private final Ring[] rings = new Ring[bucketMillis.length];
+
+        private long lastPriceTicks;
+
+        private long volume;
+
+        private long tradeCount;
+
+        private ItemStatistics(String itemId) {
+            this.itemId = itemId;
+            for (int ring = 0; ring < rings.length; ring++) {
+                rings[ring] = new Ring(bucketMillis[ring], bucketCount);
+            }
+        }
+
+        private synchronized void record(long timeMillis, long priceTicks, int quantity) {
+            lastPriceTicks = priceTicks;
+            volume += quantity;
+            tradeCount++;
+            for (Ring ring : rings) {
+                ring.record(timeMillis / ring.bucketMillis, priceTicks, quantity);
+            }
+        }
+
+    }
+
+    /*
+     * The buckets of one length, held in parallel primitive arrays indexed by
+     * the bucket number modulo the ring length. Each slot remembers the bucket
+     * it holds, so a slot left over from an older bucket reads as empty.
+     */
+    private static final class Ring {
+
+        private final long bucketMillis;
+
+        private final long[] buckets;
+
+        private final long[] open;
+
+        private final long[] high;
+
+        private final long[] low;
+
+        private final long[] close;
+
+        private final long[] volume;
+
+        private final long[] notional;
+
+        /*
+         * The part of the notional of each slot which overflowed a long, or
+         * null where it did not.
+         */
+        private final BigDecimal[] notionalCarry;
+
+        private final int[] tradeCount;
+
+        private Ring(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = new long[bucketCount];
+            this.open = new long[bucketCount];
+            this.high = new long[bucketCount];
+            this.low = new long[bucketCount];
+            this.close = new long[bucketCount];
+            this.volume = new long[bucketCount];
+            this.notional = new long[bucketCount];
+            this.notionalCarry = new BigDecimal[bucketCount];
+            this.tradeCount = new int[bucketCount];
+            Arrays.fill(buckets, -1L);
+        }
+
+        private void record(long bucket, long priceTicks, int quantity) {
+            int slot = slotOf(bucket);
+            if (buckets[slot] != bucket) {
+                buckets[slot] = bucket;
+                open[slot] = priceTicks;
+                high[slot] = priceTicks;
+                low[slot] = priceTicks;
+                volume[slot] = 0;
+                notional[slot] = 0;
+                notionalCarry[slot] = null;
+                tradeCount[slot] = 0;
+            }
+            high[slot] = Math.max(high[slot], priceTicks);
+            low[slot] = Math.min(low[slot], priceTicks);
+            close[slot] = priceTicks;
+            volume[slot] += quantity;
+            addNotional(slot, priceTicks, quantity);
+            tradeCount[slot]++;
+        }
+
+        private Candle candle(String itemId, long bucket) {
+            int slot = slotOf(bucket);
+            if (bucket < 0 || buckets[slot] != bucket) {
+                return null;
+            }
+            return new Candle(itemId, bucket * bucketMillis, bucketMillis, Price.toBigDecimal(open[slot]),
+                    Price.toBigDecimal(high[slot]), Price.toBigDecimal(low[slot]), Price.toBigDecimal(close[slot]),
+                    vwapOf(slot), volume[slot], tradeCount[slot]);
+        }
+
+        /*
+         * Adds the notional of an order to the slot, carrying the running
+         * notional over into a BigDecimal when the sum overflows a long.
+         */
+        private void addNotional(int slot, long priceTicks, int quantity) {
+            try {
+                notional[slot] = Math.addExact(notional[slot], Math.multiplyExact(priceTicks, (long) quantity));
+            } catch (ArithmeticException ex) {
+                BigDecimal carry = notionalCarry[slot] == null ? BigDecimal.ZERO : notionalCarry[slot];
+                notionalCarry[slot] = carry.add(BigDecimal.valueOf(notional[slot]))
+                        .add(BigDecimal.valueOf(priceTicks).multiply(BigDecimal.valueOf(quantity)));
+                notional[slot] = 0;
+            }
+        }
+
+        private BigDecimal vwapOf(int slot) {
+            BigDecimal total = BigDecimal.valueOf(notional[slot]);
+            if (notionalCarry[slot] != null) {
+                total = total.add(notionalCarry[slot]);
+            }
+            return total.divide(BigDecimal.valueOf(volume[slot]).multiply(TICKS_PER_UNIT), VWAP_SCALE,
+                    RoundingMode.HALF_EVEN);
+        }
+
+        private int slotOf(long bucket) {
+            return (int) Math.floorMod(bucket, (long) buckets.length);
+        }
+
+    }
+
+}
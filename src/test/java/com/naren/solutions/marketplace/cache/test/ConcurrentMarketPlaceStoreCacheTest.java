@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.ConcurrentMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code ConcurrentMarketPlaceStoreCache} keeps its
+ * striped lists, order log and indexes in step, and that a market runs over
+ * it.
+ *
+ * @author Naren Chivukula
+ */
+public class ConcurrentMarketPlaceStoreCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentMarketPlaceStoreCacheTest.class);
+
+    private final MarketPlaceStore marketStore = ConcurrentMarketPlaceStoreCache.createInstance();
+
+    @Test
+    public void bidsAreStripedByItemAndIndexedByBuyer() {
+        LOG.debug("In bidsAreStripedByItemAndIndexedByBuyer()");
+
+        Bid first = new Bid("LegoDisney", "Claire", 5, new BigDecimal("15.0"));
+        Bid second = new Bid("LegoClassic", "Claire", 2, new BigDecimal("7.5"));
+        Bid third = new Bid("LegoDisney", "Rob", 2, new BigDecimal("16.0"));
+        marketStore.bids().addAll(Arrays.asList(first, second, third));
+
+        assertEquals(3, marketStore.bids().size());
+        assertEquals(new HashSet<>(Arrays.asList(first, second, third)), new HashSet<>(marketStore.bids()));
+        assertEquals(Arrays.asList(first, second), marketStore.bidsByBuyerId("Claire"));
+
+        assertTrue(marketStore.bids().remove(first));
+        assertFalse(marketStore.bids().remove(first));
+        assertEquals(2, marketStore.bids().size());
+        assertEquals(Arrays.asList(second), marketStore.bidsByBuyerId("Claire"));
+    }
+
+    @Test
+    public void removingAnOfferRemovesTheVeryOffer() {
+        LOG.debug("In removingAnOfferRemovesTheVeryOffer()");
+
+        Offer first = new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99"));
+        Offer equal = new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99"));
+        marketStore.offers().add(first);
+        marketStore.offers().add(equal);
+
+        marketStore.offers().remove(equal);
+
+        assertEquals(1, marketStore.offers().size());
+        assertSame(first, marketStore.offers().get(0));
+        assertSame(first, marketStore.offersBySellerId("Rob").get(0));
+    }
+
+    @Test
+    public void ordersAreAppendedAcrossChunks() {
+        LOG.debug("In ordersAreAppendedAcrossChunks()");
+
+        int numberOfOrders = 5000;
+        for (int i = 0; i < numberOfOrders; i++) {
+            marketStore.orders().add(new Order("James", "Mark", "Java", 1 + i, new BigDecimal("25.5")));
+        }
+
+        assertEquals(numberOfOrders, marketStore.orders().size());
+        for (int i = 0; i < numberOfOrders; i++) {
+            assertEquals(1 + i, marketStore.orders().get(i).getQuantity());
+        }
+        assertEquals(numberOfOrders, marketStore.ordersBySellerId("Mark").size());
+    }
+
+    @Test
+    public void orderSnapshotIsNotChangedByTheStore() {
+        LOG.debug("In orderSnapshotIsNotChangedByTheStore()");
+
+        Order order = new Order("James", "Mark", "Java", 2, new BigDecimal("25.5"));
+        marketStore.orders().add(order);
+        List<Order> snapshot = marketStore.orderSnapshot();
+        marketStore.orders().add(new Order("Mary", "Mark", "C++", 1, new BigDecimal("8.5")));
+        marketStore.orders().clear();
+
+        assertEquals(Arrays.asList(order), snapshot);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void ordersCanNotBeRemoved() {
+        LOG.debug("In ordersCanNotBeRemoved()");
+
+        Order order = new Order("James", "Mark", "Java", 2, new BigDecimal("25.5"));
+        marketStore.orders().add(order);
+
+        marketStore.orders().remove(0);
+    }
+
+    @Test
+    public void marketMatchesOverTheStore() {
+        LOG.debug("In marketMatchesOverTheStore()");
+
+        OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.addOffer(new Offer("PlayStation", "Rob", 3, new BigDecimal("400.0")));
+        onlineMarket.addOffer(new Offer("PlayStation", "Mark", 2, new BigDecimal("410.0")));
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal("300.0")));
+        onlineMarket.addBid(new Bid("PlayStation", "James", 4, new BigDecimal("410.0")));
+
+        assertEquals(2, marketStore.orders().size());
+        assertEquals(2, marketStore.offers().size());
+        assertEquals(1, marketStore.offersBySellerId("Mark").get(0).getQuantity());
+        assertTrue(marketStore.offersBySellerId("Rob").isEmpty());
+        assertEquals(new BigDecimal("410.0"), onlineMarket.getCurrentOfferPricePerUnit("PlayStation").get());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
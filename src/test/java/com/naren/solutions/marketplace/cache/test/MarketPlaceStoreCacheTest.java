@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code MarketPlaceStoreCache} keeps its buyer and
+ * seller indexes in step with its lists.
+ *
+ * @author Naren Chivukula
+ */
+public class MarketPlaceStoreCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketPlaceStoreCacheTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    @Test
+    public void addedBidsAreIndexedByBuyer() {
+        LOG.debug("In addedBidsAreIndexedByBuyer()");
+
+        Bid first = new Bid("LegoDisney", "Claire", 5, new BigDecimal("15.0"));
+        Bid second = new Bid("LegoClassic", "Claire", 2, new BigDecimal("7.5"));
+        marketStore.bids().add(first);
+        marketStore.bids().add(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+        marketStore.bids().add(second);
+
+        assertEquals(Arrays.asList(first, second), marketStore.bidsByBuyerId("Claire"));
+        assertEquals(1, marketStore.bidsByBuyerId("Rob").size());
+        assertTrue(marketStore.bidsByBuyerId("Mark").isEmpty());
+        assertTrue(marketStore.bidsByBuyerId(null).isEmpty());
+    }
+
+    @Test
+    public void removedOffersLeaveTheIndex() {
+        LOG.debug("In removedOffersLeaveTheIndex()");
+
+        Offer first = new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99"));
+        Offer second = new Offer("PlayStation", "Rob", 3, new BigDecimal("400.0"));
+        marketStore.offers().addAll(Arrays.asList(first, second));
+
+        marketStore.offers().remove(first);
+        assertEquals(Arrays.asList(second), marketStore.offersBySellerId("Rob"));
+
+        marketStore.offers().removeAll(Arrays.asList(second));
+        assertTrue(marketStore.offersBySellerId("Rob").isEmpty());
+        assertTrue(marketStore.offers().isEmpty());
+    }
+
+    @Test
+    public void removingAnEqualOfferUnindexesTheOfferRemoved() {
+        LOG.debug("In removingAnEqualOfferUnindexesTheOfferRemoved()");
+
+        Offer first = new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99"));
+        Offer equal = new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99"));
+        marketStore.offers().add(first);
+        marketStore.offers().add(equal);
+
+        assertTrue(marketStore.offers().remove(equal));
+
+        assertSame(equal, marketStore.offers().get(0));
+        assertEquals(1, marketStore.offersBySellerId("Rob").size());
+        assertSame(equal, marketStore.offersBySellerId("Rob").get(0));
+    }
+
+    @Test
+    public void ordersAreIndexedByBuyerAndSeller() {
+        LOG.debug("In ordersAreIndexedByBuyerAndSeller()");
+
+        Order first = new Order("James", "Mark", "Java", 2, new BigDecimal("25.5"));
+        Order second = new Order("Mary", "Mark", "C++", 2, new BigDecimal("8.50"));
+        marketStore.orders().add(first);
+        marketStore.orders().add(second);
+
+        assertEquals(Arrays.asList(first), marketStore.ordersByBuyerId("James"));
+        assertEquals(Arrays.asList(second), marketStore.ordersByBuyerId("Mary"));
+        assertEquals(Arrays.asList(first, second), marketStore.ordersBySellerId("Mark"));
+    }
+
+    @Test
+    public void clearedListsClearTheIndexes() {
+        LOG.debug("In clearedListsClearTheIndexes()");
+
+        marketStore.bids().add(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+        marketStore.orders().add(new Order("James", "Mark", "Java", 2, new BigDecimal("25.5")));
+
+        marketStore.bids().clear();
+        marketStore.orders().clear();
+
+        assertTrue(marketStore.bidsByBuyerId("Rob").isEmpty());
+        assertTrue(marketStore.ordersByBuyerId("James").isEmpty());
+        assertTrue(marketStore.ordersBySellerId("Mark").isEmpty());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
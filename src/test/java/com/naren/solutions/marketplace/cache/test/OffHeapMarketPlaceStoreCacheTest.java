@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.book.RestingEntries;
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.OffHeapMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.OffHeapOrderLog;
+import com.naren.solutions.marketplace.cache.OrderRecord;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Page;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code OffHeapMarketPlaceStoreCache} keeps bids,
+ * offers and orders as off-heap records which read back as the entities
+ * added.
+ *
+ * @author Naren Chivukula
+ */
+public class OffHeapMarketPlaceStoreCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapMarketPlaceStoreCacheTest.class);
+
+    private final MarketPlaceStore marketStore = OffHeapMarketPlaceStoreCache.createInstance();
+
+    @Test
+    public void ordersReadBackFromTheirRecords() {
+        LOG.debug("In ordersReadBackFromTheirRecords()");
+
+        Order first = new Order("James", "Mark", "Java", 2, new BigDecimal("25.50"));
+        Order second = new Order("Mary", "Mark", "C++", 1, new BigDecimal("8.5"));
+        marketStore.orders().add(first);
+        marketStore.orders().add(second);
+
+        assertEquals(Arrays.asList(first, second), marketStore.orders());
+        assertEquals(Arrays.asList(first), marketStore.ordersByBuyerId("James"));
+        assertEquals(Arrays.asList(first, second), marketStore.ordersBySellerId("Mark"));
+        assertTrue(marketStore.ordersByBuyerId("Rob").isEmpty());
+        assertTrue(marketStore.ordersBySellerId(null).isEmpty());
+    }
+
+    @Test
+    public void flyweightReadsEveryRecordAcrossChunks() {
+        LOG.debug("In flyweightReadsEveryRecordAcrossChunks()");
+
+        int numberOfOrders = 40000;
+        for (int i = 0; i < numberOfOrders; i++) {
+            marketStore.orders().add(new Order("Buyer" + i % 7, "Seller" + i % 3, "Xbox", 1 + i, new BigDecimal("300.0")));
+        }
+
+        OffHeapOrderLog orderLog = (OffHeapOrderLog) marketStore.orders();
+        OrderRecord record = new OrderRecord();
+        for (int i = 0; i < numberOfOrders; i++) {
+            orderLog.record(i, record);
+            assertEquals(1 + i, record.getQuantity());
+            assertEquals("Buyer" + i % 7, record.getBuyerId());
+        }
+        assertEquals(numberOfOrders / 3 + 1, marketStore.ordersBySellerId("Seller0").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooPrecisePriceIsRejected() {
+        LOG.debug("In tooPrecisePriceIsRejected()");
+
+        marketStore.orders().add(new Order("James", "Mark", "Java", 2, new BigDecimal("25.500001")));
+    }
+
+    @Test
+    public void priceKeepsItsScale() {
+        LOG.debug("In priceKeepsItsScale()");
+
+        Order order = new Order("James", "Mark", "Java", 2, new BigDecimal("25.50000000000000000000"));
+        marketStore.orders().add(order);
+
+        assertEquals(order, marketStore.orders().get(0));
+    }
+
+    @Test
+    public void orderSnapshotIsNotChangedByTheStore() {
+        LOG.debug("In orderSnapshotIsNotChangedByTheStore()");
+
+        Order order = new Order("James", "Mark", "Java", 2, new BigDecimal("25.5"));
+        marketStore.orders().add(order);
+        List<Order> snapshot = marketStore.orderSnapshot();
+        marketStore.orders().clear();
+        marketStore.orders().add(new Order("Mary", "Rob", "C++", 1, new BigDecimal("8.5")));
+
+        assertEquals(Arrays.asList(order), snapshot);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void ordersCanNotBeRemoved() {
+        LOG.debug("In ordersCanNotBeRemoved()");
+
+        marketStore.orders().add(new Order("James", "Mark", "Java", 2, new BigDecimal("25.5")));
+
+        marketStore.orders().remove(0);
+    }
+
+    @Test
+    public void restingEntitiesReadBackFromTheirRecords() {
+        LOG.debug("In restingEntitiesReadBackFromTheirRecords()");
+
+        Bid first = new Bid("Java", "James", 2, new BigDecimal("25.50"));
+        Bid second = new Bid("C++", "James", 1, new BigDecimal("8.5"));
+        Offer offer = new Offer("Java", "Mark", 3, new BigDecimal("26"));
+        marketStore.bids().add(first);
+        marketStore.bids().add(second);
+        marketStore.offers().add(offer);
+
+        assertEquals(Arrays.asList(first, second), marketStore.bidsByBuyerId("James"));
+        assertEquals(Arrays.asList(offer), marketStore.offersBySellerId("Mark"));
+        assertTrue(marketStore.bids().remove(new Bid("Java", "James", 2, new BigDecimal("25.50"))));
+        assertEquals(Arrays.asList(second), marketStore.bids());
+        assertEquals(Arrays.asList(second), marketStore.bidsByBuyerId("James"));
+        assertTrue(marketStore.offersBySellerId("James").isEmpty());
+    }
+
+    @Test
+    public void recordsAreReadAndFilledThroughTheirHandles() {
+        LOG.debug("In recordsAreReadAndFilledThroughTheirHandles()");
+
+        RestingEntries<Offer> offers = marketStore.restingOffers();
+        int first = offers.add(new Offer("Xbox", "Mark", 5, new BigDecimal("300.00")));
+        int second = offers.add(new Offer("Xbox", "Rob", 1, new BigDecimal("301")));
+        offers.setQuantity(first, 2);
+
+        assertEquals(2, offers.getQuantity(first));
+        assertEquals(2, offers.getPriceScale(first));
+        assertEquals(new BigDecimal("301"), offers.getPricePerUnit(second));
+        assertEquals(new Offer("Xbox", "Mark", 2, new BigDecimal("300.00")), offers.get(first));
+        assertEquals(Arrays.asList(offers.get(first), offers.get(second)), marketStore.offers());
+
+        offers.remove(first);
+        int reused = offers.add(new Offer("Xbox", "Mark", 4, new BigDecimal("299")));
+        assertEquals(first, reused);
+        assertEquals(Arrays.asList(new Offer("Xbox", "Mark", 4, new BigDecimal("299"))),
+                marketStore.offersBySellerId("Mark"));
+    }
+
+    @Test
+    public void restingRecordsAreReadAcrossChunks() {
+        LOG.debug("In restingRecordsAreReadAcrossChunks()");
+
+        int numberOfBids = 40000;
+        for (int i = 0; i < numberOfBids; i++) {
+            marketStore.bids().add(new Bid("Xbox", "Buyer" + i % 7, 1 + i, new BigDecimal("300.0")));
+        }
+
+        int quantity = 1;
+        for (Bid bid : marketStore.bids()) {
+            assertEquals(quantity++, bid.getQuantity());
+        }
+        assertEquals(numberOfBids + 1, quantity);
+        assertEquals(numberOfBids / 7 + 1, marketStore.bidsByBuyerId("Buyer0").size());
+    }
+
+    @Test
+    public void filledOffersLeaveTheSellerPages() {
+        LOG.debug("In filledOffersLeaveTheSellerPages()");
+
+        OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+        for (int i = 0; i < 200; i++) {
+            onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal(300 + i)));
+        }
+        onlineMarket.addBid(new Bid("Xbox", "James", 150, new BigDecimal("500")));
+
+        Page<Offer> page = onlineMarket.listOffers("Mark", 10, null);
+        assertEquals(new BigDecimal(450), page.getEntries().get(0).getPricePerUnit());
+        assertEquals(50, marketStore.offers().size());
+        assertEquals(new BigDecimal(450), onlineMarket.getMarketDepth("Xbox", 1).getOffers().get(0).getPricePerUnit());
+    }
+
+    @Test
+    public void marketMatchesOverTheStore() {
+        LOG.debug("In marketMatchesOverTheStore()");
+
+        OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.addBid(new Bid("PlayStation", "James", 4, new BigDecimal("410.0")));
+        onlineMarket.addOffer(new Offer("PlayStation", "Rob", 3, new BigDecimal("400.0")));
+
+        assertEquals(Arrays.asList(new Order("James", "Rob", "PlayStation", 3, new BigDecimal("400.0"))),
+                onlineMarket.listOrdersByBuyerId("James"));
+        assertEquals(1, marketStore.bids().get(0).getQuantity());
+        assertTrue(marketStore.offers().isEmpty());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.cache.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.EntryCursor;
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.TieredMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.cache.TieredOrderHistory;
+import com.naren.solutions.marketplace.dom.Order;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code TieredMarketPlaceStoreCache} archives its older
+ * orders to segment files and lists them merged with the orders still in
+ * memory, in the order in which they were added.
+ *
+ * @author Naren Chivukula
+ */
+public class TieredMarketPlaceStoreCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TieredMarketPlaceStoreCacheTest.class);
+
+    private static final int HOT_SIZE = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketPlaceStore marketStore = TieredMarketPlaceStoreCache.createInstance();
+
+    private Path directory;
+
+    private TieredOrderHistory history;
+
+    @Before
+    public void setup() throws IOException {
+        LOG.debug("In setup()...");
+        directory = folder.newFolder("orders").toPath();
+        history = new TieredOrderHistory(directory, HOT_SIZE);
+    }
+
+    @Test
+    public void archivedOrdersAreMergedWithTheHotOnes() throws Exception {
+        LOG.debug("In archivedOrdersAreMergedWithTheHotOnes()");
+
+        int numberOfOrders = 4 * HOT_SIZE + 30;
+        List<Order> added = new ArrayList<>();
+        for (int i = 0; i < numberOfOrders; i++) {
+            Order order = new Order("Buyer" + i % 7, "Seller" + i % 3, "Xbox", 1 + i,
+                    new BigDecimal(300 + i % 11).setScale(i % 3));
+            added.add(order);
+            history.add(order);
+        }
+        awaitArchived(4 * HOT_SIZE);
+
+        assertEquals(4, countSegments());
+        assertEquals(numberOfOrders, history.size());
+        assertEquals(added, new ArrayList<>(history));
+        assertEquals(added.get(HOT_SIZE + 1), history.get(HOT_SIZE + 1));
+        assertEquals(select(added, "Buyer3", true), history.ordersByBuyerId("Buyer3"));
+        assertEquals(select(added, "Seller1", false), history.ordersBySellerId("Seller1"));
+        assertTrue(history.ordersByBuyerId("Rob").isEmpty());
+        assertTrue(history.ordersBySellerId(null).isEmpty());
+    }
+
+    @Test
+    public void cursorsResumeAcrossTiers() throws Exception {
+        LOG.debug("In cursorsResumeAcrossTiers()");
+
+        List<Order> added = new ArrayList<>();
+        for (int i = 0; i < 2 * HOT_SIZE + 50; i++) {
+            Order order = new Order("Buyer" + i % 4, "Seller" + i % 5, "Xbox", 1 + i, new BigDecimal("300.0"));
+            added.add(order);
+            history.add(order);
+        }
+        awaitArchived(2 * HOT_SIZE);
+
+        List<Order> expected = select(added, "Seller2", false);
+        List<Order> read = new ArrayList<>();
+        long sequence = 0L;
+        while (true) {
+            EntryCursor<Order> cursor = history.orderCursorBySellerId("Seller2", sequence);
+            for (int i = 0; i < 7 && cursor.hasNext(); i++) {
+                read.add(cursor.next());
+            }
+            if (!cursor.hasNext()) {
+                break;
+            }
+            sequence = cursor.sequence();
+        }
+        assertEquals(expected, read);
+    }
+
+    @Test
+    public void failedGenerationIsArchivedOnRetry() throws Exception {
+        LOG.debug("In failedGenerationIsArchivedOnRetry()");
+
+        Path archive = history.getDirectory();
+        Files.delete(archive);
+        Files.createFile(archive);
+        List<Order> added = new ArrayList<>();
+        for (int i = 0; i < 2 * HOT_SIZE + 10; i++) {
+            Order order = new Order("Buyer" + i % 3, "Mark", "Xbox", 1 + i, new BigDecimal("300"));
+            added.add(order);
+            history.add(order);
+        }
+        Thread.sleep(100);
+        assertEquals(0, history.archivedSize());
+
+        Files.delete(archive);
+        Files.createDirectory(archive);
+        awaitArchived(2 * HOT_SIZE);
+
+        assertEquals(2, countSegments());
+        assertEquals(added, new ArrayList<>(history));
+        assertEquals(select(added, "Buyer1", true), history.ordersByBuyerId("Buyer1"));
+    }
+
+    @Test
+    public void clearDeletesTheArchive() throws Exception {
+        LOG.debug("In clearDeletesTheArchive()");
+
+        for (int i = 0; i < 2 * HOT_SIZE; i++) {
+            history.add(new Order("James", "Mark", "Java", 1, new BigDecimal("25.50")));
+        }
+        awaitArchived(2 * HOT_SIZE);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertEquals(0, countSegments());
+        assertTrue(history.ordersByBuyerId("James").isEmpty());
+    }
+
+    @Test
+    public void filesAlreadyInTheDirectoryAreLeftAlone() throws Exception {
+        LOG.debug("In filesAlreadyInTheDirectoryAreLeftAlone()");
+
+        Path earlier = Files.createFile(directory.resolve("0000000000.orders"));
+        try (TieredOrderHistory other = new TieredOrderHistory(directory, HOT_SIZE)) {
+            assertTrue(Files.exists(earlier));
+            assertEquals(directory, other.getDirectory().getParent());
+        }
+        assertTrue(Files.exists(earlier));
+    }
+
+    @Test
+    public void closeDeletesTheArchiveDirectory() throws Exception {
+        LOG.debug("In closeDeletesTheArchiveDirectory()");
+
+        for (int i = 0; i < 2 * HOT_SIZE; i++) {
+            history.add(new Order("James", "Mark", "Java", 1, new BigDecimal("25.50")));
+        }
+        awaitArchived(2 * HOT_SIZE);
+        history.close();
+
+        assertEquals(0, history.size());
+        assertFalse(Files.exists(history.getDirectory()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedSegmentIsNotRead() throws Exception {
+        LOG.debug("In closedSegmentIsNotRead()");
+
+        for (int i = 0; i < HOT_SIZE; i++) {
+            history.add(new Order("James", "Mark", "Java", 1, new BigDecimal("25.50")));
+        }
+        awaitArchived(HOT_SIZE);
+        EntryCursor<Order> cursor = history.orderCursorByBuyerId("James", 0L);
+        history.clear();
+
+        cursor.next();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedHistoryRejectsOrders() {
+        LOG.debug("In closedHistoryRejectsOrders()");
+
+        history.close();
+        history.add(new Order("James", "Mark", "Java", 1, new BigDecimal("25.50")));
+    }
+
+    @Test
+    public void storeListsOrdersByBuyerAndSeller() {
+        LOG.debug("In storeListsOrdersByBuyerAndSeller()");
+
+        Order first = new Order("James", "Mark", "Java", 2, new BigDecimal("25.50"));
+        Order second = new Order("Mary", "Mark", "C++", 1, new BigDecimal("8.5"));
+        marketStore.orders().add(first);
+        marketStore.orders().add(second);
+
+        assertEquals(Arrays.asList(first, second), marketStore.orders());
+        assertEquals(Arrays.asList(first), marketStore.ordersByBuyerId("James"));
+        assertEquals(Arrays.asList(first, second), marketStore.ordersBySellerId("Mark"));
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        history.close();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+    private void awaitArchived(int archived) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (history.archivedSize() < archived && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(archived, history.archivedSize());
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(history.getDirectory())) {
+            return files.count();
+        }
+    }
+
+    private static List<Order> select(List<Order> orders, String id, boolean buyer) {
+        return orders.stream().filter(order -> id.equals(buyer ? order.getBuyerId() : order.getSellerId()))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Order;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class compares orders written by {@code EntityCodec} with orders
+ * written by Java serialization, by size and by what reads back. Their
+ * throughput is compared by the {@code CodecBenchmark} of the benchmarks
+ * module.
+ *
+ * @author Naren Chivukula
+ */
+public class CodecSizeTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CodecSizeTest.class);
+
+    private final Order order = new Order("James", "Rob", "PlayStation", 3, new BigDecimal("400.50"));
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+    }
+
+    @Test
+    public void codecIsSmallerThanSerialization() throws Exception {
+        LOG.debug("In codecIsSmallerThanSerialization()");
+
+        int codecSize = EntityCodec.ORDER.encodedLength(order);
+        int serializedSize = serialize(order).length;
+        LOG.debug("An order takes {} bytes encoded and {} bytes serialized", codecSize, serializedSize);
+        assertTrue(codecSize < serializedSize);
+    }
+
+    @Test
+    public void codecAndSerializationReadBackTheSameOrder() throws Exception {
+        LOG.debug("In codecAndSerializationReadBackTheSameOrder()");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        Order decoded = new Order();
+        for (int i = 0; i < 2; i++) {
+            buffer.clear();
+            EntityCodec.ORDER.encode(order, buffer);
+            buffer.flip();
+            EntityCodec.ORDER.decode(buffer, decoded);
+            assertEquals(order, decoded);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(order)))) {
+            assertEquals(order, in.readObject());
+        }
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        LOG.debug("-----------------------------------");
+    }
+
+    private static byte[] serialize(Order order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(order);
+        }
+        return bytes.toByteArray();
+    }
+
+}
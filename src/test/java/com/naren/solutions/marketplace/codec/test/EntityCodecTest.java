@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.codec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.naren.solutions.marketplace.codec.EntityCodec;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that bids, offers and orders survive a round trip through
+ * their {@code EntityCodec}.
+ *
+ * @author Naren Chivukula
+ */
+public class EntityCodecTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCodecTest.class);
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        buffer = ByteBuffer.allocate(256);
+    }
+
+    @Test
+    public void bidRoundTrip() {
+        LOG.debug("In bidRoundTrip()");
+
+        Bid bid = new Bid("PlayStation", "James", 3, new BigDecimal("400.50"));
+        EntityCodec.BID.encode(bid, buffer);
+        buffer.flip();
+
+        assertEquals(EntityCodec.BID.encodedLength(bid), buffer.remaining());
+        Bid decoded = EntityCodec.BID.decode(buffer);
+        assertEquals(bid, decoded);
+        assertEquals(2, decoded.getPricePerUnit().scale());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void offerRoundTrip() {
+        LOG.debug("In offerRoundTrip()");
+
+        Offer offer = new Offer("Café crème", "Zoë", 7, new BigDecimal("2.5"));
+        EntityCodec.OFFER.encode(offer, buffer);
+        buffer.flip();
+
+        assertEquals(offer, EntityCodec.OFFER.decode(buffer));
+    }
+
+    @Test
+    public void orderRoundTripAtAnOffset() {
+        LOG.debug("In orderRoundTripAtAnOffset()");
+
+        Order order = new Order("James", "Rob", "Xbox", 2, new BigDecimal("300"));
+        int end = EntityCodec.ORDER.encode(order, buffer, 10);
+        buffer.position(10).limit(end);
+
+        assertEquals(order, EntityCodec.ORDER.decode(buffer));
+    }
+
+    @Test
+    public void decodingIntoAnEntityKeepsUnchangedFields() {
+        LOG.debug("In decodingIntoAnEntityKeepsUnchangedFields()");
+
+        Bid bid = new Bid("PlayStation", "James", 3, new BigDecimal("400.50"));
+        EntityCodec.BID.encode(new Bid("PlayStation", "James", 5, new BigDecimal("400.50")), buffer);
+        EntityCodec.BID.encode(new Bid("PlayStation", "Alice", 5, new BigDecimal("401")), buffer);
+        buffer.flip();
+        String itemId = bid.getItemId();
+        String buyerId = bid.getBuyerId();
+        BigDecimal pricePerUnit = bid.getPricePerUnit();
+
+        EntityCodec.BID.decode(buffer, bid);
+        assertSame(itemId, bid.getItemId());
+        assertSame(buyerId, bid.getBuyerId());
+        assertSame(pricePerUnit, bid.getPricePerUnit());
+        assertEquals(5, bid.getQuantity());
+
+        EntityCodec.BID.decode(buffer, bid);
+        assertSame(itemId, bid.getItemId());
+        assertEquals(new Bid("PlayStation", "Alice", 5, new BigDecimal("401")), bid);
+        assertEquals(new BigDecimal("401").movePointRight(4).longValueExact(), bid.getPriceTicks());
+    }
+
+    @Test
+    public void priceIsWrittenAsItsUnscaledValueAndScale() {
+        LOG.debug("In priceIsWrittenAsItsUnscaledValueAndScale()");
+
+        int end = EntityCodec.BID.encode(new Bid("Xbox", "James", 1, new BigDecimal("400.50")), buffer, 0);
+
+        assertEquals(40050L, buffer.getLong(end - Byte.BYTES - Long.BYTES));
+        assertEquals(2, buffer.get(end - Byte.BYTES));
+    }
+
+    @Test
+    public void priceFinerThanATickRoundTrips() {
+        LOG.debug("In priceFinerThanATickRoundTrips()");
+
+        Bid bid = new Bid("Xbox", "James", 1, new BigDecimal("1.000001"));
+        EntityCodec.BID.encode(bid, buffer);
+        buffer.flip();
+
+        assertEquals(bid, EntityCodec.BID.decode(buffer));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void priceOutOfRangeIsRejected() {
+        LOG.debug("In priceOutOfRangeIsRejected()");
+
+        EntityCodec.BID.encode(new Bid("Xbox", "James", 1, new BigDecimal("1.00000000000000000000001")), buffer);
+    }
+
+    @Test
+    public void overflowWritesNothing() {
+        LOG.debug("In overflowWritesNothing()");
+
+        buffer.position(buffer.capacity() - 8);
+        try {
+            EntityCodec.BID.encode(new Bid("Xbox", "James", 1, BigDecimal.ONE), buffer);
+        } catch (BufferOverflowException ex) {
+            assertEquals(buffer.capacity() - 8, buffer.position());
+            return;
+        }
+        throw new AssertionError("Bid was written past the end of the buffer");
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom.test;
+
+import static org.junit.Assert.assertEquals;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Price;
+import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests the conversion of prices to and from ticks by
+ * {@code Price}.
+ *
+ * @author Naren Chivukula
+ */
+public class PriceTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceTest.class);
+
+    @Test
+    public void pricesConvertToWholeTicks() {
+        LOG.debug("In pricesConvertToWholeTicks()");
+
+        assertEquals(125000L, Price.toTicks(new BigDecimal("12.5")));
+        assertEquals(125000L, Price.toTicks(new BigDecimal("12.50000")));
+        assertEquals(-10000L, Price.toTicks(new BigDecimal("-1")));
+        assertEquals(0L, Price.toTicks(BigDecimal.ZERO));
+    }
+
+    @Test
+    public void ticksConvertBackToPrices() {
+        LOG.debug("In ticksConvertBackToPrices()");
+
+        assertEquals(0, new BigDecimal("12.5").compareTo(Price.toBigDecimal(125000L)));
+        assertEquals(0, new BigDecimal("0.0001").compareTo(Price.toBigDecimal(1L)));
+    }
+
+    @Test
+    public void missingOrFractionalTicksAreInvalid() {
+        LOG.debug("In missingOrFractionalTicksAreInvalid()");
+
+        assertEquals(Price.INVALID, Price.toTicks(null));
+        assertEquals(Price.INVALID, Price.toTicks(new BigDecimal("0.00001")));
+        assertEquals(Price.INVALID, Price.toTicks(new BigDecimal("1E+20")));
+    }
+
+    @Test
+    public void entitiesKeepTicksInStepWithPrice() {
+        LOG.debug("In entitiesKeepTicksInStepWithPrice()");
+
+        Bid bid = new Bid("Xbox", "Rob", 2, new BigDecimal("300.0"));
+        assertEquals(3000000L, bid.getPriceTicks());
+
+        bid.setPricePerUnit(new BigDecimal("250"));
+        assertEquals(2500000L, bid.getPriceTicks());
+
+        bid.setPricePerUnit(null);
+        assertEquals(Price.INVALID, bid.getPriceTicks());
+    }
+
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addBidWithFractionalTicks() {
+        LOG.debug("In addBidWithFractionalTicks()");
+
+        new OnlineMarket().addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.00001")));
+    }
+
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addOfferWithFractionalTicks() {
+        LOG.debug("In addOfferWithFractionalTicks()");
+
+        new OnlineMarket().addOffer(new Offer("Xbox", "Rob", 2, new BigDecimal("300.00001")));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.dom.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code SymbolTable} assigns dense symbols which map
+ * back to their IDs, and that entities carry the symbols of their IDs.
+ *
+ * @author Naren Chivukula
+ */
+public class SymbolTableTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SymbolTableTest.class);
+
+    private SymbolTable symbols;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        symbols = new SymbolTable();
+    }
+
+    @Test
+    public void symbolsAreDenseAndMapBackToTheirIds() {
+        LOG.debug("In symbolsAreDenseAndMapBackToTheirIds()");
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, symbols.intern("Item" + i));
+        }
+
+        assertEquals(200, symbols.size());
+        assertEquals(150, symbols.intern("Item150"));
+        assertEquals(150, symbols.find("Item150"));
+        assertEquals("Item150", symbols.id(150));
+    }
+
+    @Test
+    public void nullAndUnknownIdsHaveNoSymbol() {
+        LOG.debug("In nullAndUnknownIdsHaveNoSymbol()");
+
+        assertEquals(SymbolTable.NULL, symbols.intern(null));
+        assertEquals(SymbolTable.NULL, symbols.find("Xbox"));
+        assertNull(symbols.id(SymbolTable.NULL));
+        assertEquals(0, symbols.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void unassignedSymbolIsRejected() {
+        LOG.debug("In unassignedSymbolIsRejected()");
+
+        symbols.id(0);
+    }
+
+    @Test
+    public void concurrentInterningAssignsOneSymbolPerId() throws Exception {
+        LOG.debug("In concurrentInterningAssignsOneSymbolPerId()");
+
+        int numberOfIds = 1000;
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> interned = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                interned.add(threads.submit(() -> {
+                    int[] assigned = new int[numberOfIds];
+                    for (int i = 0; i < numberOfIds; i++) {
+                        assigned[i] = symbols.intern("Participant" + i);
+                    }
+                    return assigned;
+                }));
+            }
+            int[] first = interned.get(0).get();
+            for (Future<int[]> other : interned) {
+                int[] assigned = other.get();
+                for (int i = 0; i < numberOfIds; i++) {
+                    assertEquals(first[i], assigned[i]);
+                }
+            }
+            Set<Integer> distinct = new HashSet<>();
+            for (int symbol : first) {
+                distinct.add(symbol);
+            }
+            assertEquals(numberOfIds, distinct.size());
+            assertEquals(numberOfIds, symbols.size());
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void entitiesCarryTheSymbolsOfTheirIds() throws Exception {
+        LOG.debug("In entitiesCarryTheSymbolsOfTheirIds()");
+
+        Bid bid = new Bid("Xbox", "James", 2, new BigDecimal("300.0"));
+        Order order = new Order();
+        order.setBuyerId("James");
+        order.setItemId("Xbox");
+
+        assertEquals(bid.getItemSymbol(), SymbolTable.ITEMS.find("Xbox"));
+        assertEquals(bid.getBuyerSymbol(), SymbolTable.PARTICIPANTS.find("James"));
+        assertEquals(bid.getBuyerSymbol(), order.getBuyerSymbol());
+        assertEquals(bid.getItemSymbol(), order.getItemSymbol());
+        assertEquals(SymbolTable.NULL, order.getSellerSymbol());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(bid);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(bid.getItemSymbol(), ((Bid) in.readObject()).getItemSymbol());
+        }
+    }
+
+    @Test
+    public void creatingEntitiesInternsNoIds() {
+        LOG.debug("In creatingEntitiesInternsNoIds()");
+
+        Bid bid = new Bid("Unlisted Console", "Unknown Buyer", 2, new BigDecimal("300.0"));
+        bid.setItemId("Unlisted Camera");
+        Order order = new Order();
+        order.setSellerId("Unknown Seller");
+
+        assertEquals(SymbolTable.NULL, SymbolTable.ITEMS.find("Unlisted Console"));
+        assertEquals(SymbolTable.NULL, SymbolTable.ITEMS.find("Unlisted Camera"));
+        assertEquals(SymbolTable.NULL, SymbolTable.PARTICIPANTS.find("Unknown Buyer"));
+        assertEquals(SymbolTable.NULL, SymbolTable.PARTICIPANTS.find("Unknown Seller"));
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.feed.DepthFeed;
+import com.naren.solutions.marketplace.feed.DepthSubscriber;
+import com.naren.solutions.marketplace.feed.LevelUpdate;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that a {@code DepthFeed} set on an {@code OnlineMarket}
+ * pushes the price levels changed by each submission to the subscribers of
+ * the item.
+ *
+ * @author Naren Chivukula
+ */
+public class DepthFeedTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DepthFeedTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final DepthFeed depthFeed = new DepthFeed();
+
+    private OnlineMarket onlineMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.setDepthFeed(depthFeed);
+    }
+
+    @Test
+    public void sweepIsDeliveredAsOneUpdatePerLevel() {
+        LOG.debug("In sweepIsDeliveredAsOneUpdatePerLevel()");
+
+        for (int i = 0; i < 10; i++) {
+            onlineMarket.addOffer(new Offer("Xbox", "Seller" + i, 1, new BigDecimal(300 + i % 2)));
+        }
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        depthFeed.subscribe("Xbox", subscriber, true);
+        assertEquals(2, subscriber.snapshot.size());
+        assertEquals(5, subscriber.snapshot.get(0).getQuantity());
+        assertEquals(5, subscriber.snapshot.get(0).getOrderCount());
+
+        onlineMarket.addBid(new Bid("Xbox", "James", 7, new BigDecimal("301")));
+
+        assertEquals(1, subscriber.batches.size());
+        List<LevelUpdate> batch = subscriber.batches.get(0);
+        assertEquals(2, batch.size());
+        assertTrue(batch.get(0).isRemoved());
+        assertEquals(LevelUpdate.Side.OFFER, batch.get(0).getSide());
+        assertEquals(3, batch.get(1).getQuantity());
+        assertEquals(3, batch.get(1).getOrderCount());
+    }
+
+    @Test
+    public void snapshotAndUpdatesRebuildTheDepth() {
+        LOG.debug("In snapshotAndUpdatesRebuildTheDepth()");
+
+        trade(0, 100);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        depthFeed.subscribe("Xbox", subscriber, true);
+        trade(100, 400);
+
+        Map<String, Long> levels = new TreeMap<>();
+        subscriber.snapshot.forEach(level -> apply(levels, level));
+        subscriber.batches.forEach(batch -> batch.forEach(level -> apply(levels, level)));
+
+        Map<String, Long> expected = new TreeMap<>();
+        marketStore.bids().forEach(bid -> expected.merge("BID " + bid.getPriceTicks(), (long) bid.getQuantity(),
+                Long::sum));
+        marketStore.offers().forEach(offer -> expected.merge("OFFER " + offer.getPriceTicks(),
+                (long) offer.getQuantity(), Long::sum));
+        assertEquals(expected, levels);
+        assertEquals(depthFeed.snapshot("Xbox").size(), levels.size());
+    }
+
+    @Test
+    public void feedIsSeededWithTheRestingLevels() {
+        LOG.debug("In feedIsSeededWithTheRestingLevels()");
+
+        marketStore.bids().add(new Bid("Xbox", "James", 3, new BigDecimal("250")));
+        marketStore.offers().add(new Offer("Xbox", "Mark", 2, new BigDecimal("300")));
+        marketStore.offers().add(new Offer("Xbox", "Claire", 4, new BigDecimal("300")));
+        DepthFeed seededFeed = new DepthFeed();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        seededFeed.subscribe("Xbox", subscriber, true);
+        assertTrue(subscriber.snapshot.isEmpty());
+
+        new OnlineMarket(marketStore).setDepthFeed(seededFeed);
+
+        assertEquals(2, subscriber.snapshot.size());
+        assertEquals(LevelUpdate.Side.BID, subscriber.snapshot.get(0).getSide());
+        assertEquals(3, subscriber.snapshot.get(0).getQuantity());
+        assertEquals(6, subscriber.snapshot.get(1).getQuantity());
+        assertEquals(2, subscriber.snapshot.get(1).getOrderCount());
+        assertEquals(subscriber.snapshot, seededFeed.snapshot("Xbox"));
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+    private void trade(int from, int to) {
+        for (int i = from; i < to; i++) {
+            BigDecimal price = new BigDecimal(100 + i % 9);
+            if (i % 2 == 0) {
+                onlineMarket.addBid(new Bid("Xbox", "Buyer" + i % 5, 1 + i % 4, price));
+            } else {
+                onlineMarket.addOffer(new Offer("Xbox", "Seller" + i % 5, 1 + i % 3, price));
+            }
+        }
+    }
+
+    private static void apply(Map<String, Long> levels, LevelUpdate level) {
+        String key = level.getSide() + " " + level.getPriceTicks();
+        if (level.isRemoved()) {
+            levels.remove(key);
+        } else {
+            levels.put(key, level.getQuantity());
+        }
+    }
+
+    private static class RecordingSubscriber implements DepthSubscriber {
+
+        private final List<LevelUpdate> snapshot = new ArrayList<>();
+
+        private final List<List<LevelUpdate>> batches = new ArrayList<>();
+
+        @Override
+        public void onSnapshot(String itemId, List<LevelUpdate> levels) {
+            snapshot.clear();
+            snapshot.addAll(levels);
+        }
+
+        @Override
+        public void onUpdates(String itemId, List<LevelUpdate> updates) {
+            batches.add(updates);
+        }
+
+    }
+
+}
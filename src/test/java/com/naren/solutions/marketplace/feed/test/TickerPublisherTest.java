@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.feed.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.feed.Tick;
+import com.naren.solutions.marketplace.feed.TickerPublisher;
+import com.naren.solutions.marketplace.feed.TickerSubscription;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that a {@code TickerPublisher} set on an
+ * {@code OnlineMarket} conflates the best price changes of each item for its
+ * subscriptions.
+ *
+ * @author Naren Chivukula
+ */
+public class TickerPublisherTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TickerPublisherTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final TickerPublisher ticker = new TickerPublisher();
+
+    private OnlineMarket onlineMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.setTicker(ticker);
+    }
+
+    @Test
+    public void changesAreConflatedToTheLatestTick() {
+        LOG.debug("In changesAreConflatedToTheLatestTick()");
+
+        TickerSubscription subscription = ticker.subscribe("Xbox");
+        for (int i = 1; i <= 1000; i++) {
+            onlineMarket.addBid(new Bid("Xbox", "James", 1, new BigDecimal(i)));
+        }
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal("2000")));
+        onlineMarket.addBid(new Bid("Playstation", "James", 1, new BigDecimal("5")));
+
+        Tick tick = subscription.poll();
+        assertEquals(new BigDecimal(1000), tick.getBestBidPricePerUnit());
+        assertEquals(new BigDecimal("2000"), tick.getBestOfferPricePerUnit());
+        assertEquals(1001, tick.getSequence());
+        assertNull(subscription.poll());
+        assertEquals(tick, ticker.latest("Xbox"));
+    }
+
+    @Test
+    public void everyItemSubscriptionReadsEachChangedItemOnce() throws InterruptedException {
+        LOG.debug("In everyItemSubscriptionReadsEachChangedItemOnce()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 5, new BigDecimal("300")));
+        TickerSubscription subscription = ticker.subscribe();
+        onlineMarket.addBid(new Bid("Playstation", "James", 1, new BigDecimal("200")));
+        onlineMarket.addBid(new Bid("Xbox", "James", 5, new BigDecimal("300")));
+        onlineMarket.addBid(new Bid("Playstation", "James", 1, new BigDecimal("250")));
+
+        List<Tick> ticks = new ArrayList<>();
+        assertEquals(2, subscription.drain(ticks::add));
+        assertEquals("Xbox", ticks.get(0).getItemId());
+        assertNull(ticks.get(0).getBestOfferPricePerUnit());
+        assertEquals(new BigDecimal("250"), ticks.get(1).getBestBidPricePerUnit());
+
+        assertNull(subscription.take(10, TimeUnit.MILLISECONDS));
+        subscription.close();
+        onlineMarket.addBid(new Bid("Playstation", "James", 1, new BigDecimal("260")));
+        assertNull(subscription.poll());
+        assertTrue(ticker.latest("Playstation").getSequence() > ticks.get(1).getSequence());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
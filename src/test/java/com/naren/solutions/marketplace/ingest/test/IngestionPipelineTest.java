@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.ingest.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.ingest.IngestionPipeline;
+import com.naren.solutions.marketplace.ingest.MarketEvent;
+import com.naren.solutions.marketplace.ingest.MarketEventHandler;
+import com.naren.solutions.marketplace.ingest.WaitStrategy;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.process.test.OnlineMarketBaseTest;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code IngestionPipeline} hands every submission to
+ * the market and then to the downstream consumers in sequence order.
+ *
+ * @author Naren Chivukula
+ */
+public class IngestionPipelineTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionPipelineTest.class);
+
+    private static final String[] ITEMS = {"Xbox", "Nintendo", "PlayStation"};
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+
+    @Test
+    public void downstreamSeesRejection() {
+        LOG.debug("In downstreamSeesRejection()");
+
+        RecordingHandler journal = new RecordingHandler();
+        try (IngestionPipeline pipeline = new IngestionPipeline(onlineMarket, 4, WaitStrategy.named("park"), journal)) {
+            pipeline.start();
+            pipeline.addBid(getInvalidBid());
+            pipeline.addOffer(getDummyOffer());
+        }
+
+        assertEquals(2, journal.sequences.size());
+        assertNotNull(journal.rejections.get(0));
+        assertNull(journal.rejections.get(1));
+        assertEquals(1, marketStore.offers().size());
+    }
+
+    @Test
+    public void busySpinConsumersSeeEverySubmissionInOrder() throws Exception {
+        LOG.debug("In busySpinConsumersSeeEverySubmissionInOrder()");
+
+        submitConcurrently(WaitStrategy.named("busy-spin"));
+    }
+
+    @Test
+    public void yieldingConsumersSeeEverySubmissionInOrder() throws Exception {
+        LOG.debug("In yieldingConsumersSeeEverySubmissionInOrder()");
+
+        submitConcurrently(WaitStrategy.named("yield"));
+    }
+
+    @Test
+    public void parkingConsumersSeeEverySubmissionInOrder() throws Exception {
+        LOG.debug("In parkingConsumersSeeEverySubmissionInOrder()");
+
+        submitConcurrently(WaitStrategy.named("park"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownWaitStrategy() {
+        LOG.debug("In unknownWaitStrategy()");
+
+        WaitStrategy.named("sleep");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringSizeMustBePowerOfTwo() {
+        LOG.debug("In ringSizeMustBePowerOfTwo()");
+
+        new IngestionPipeline(onlineMarket, 12, WaitStrategy.named("yield"));
+    }
+
+    /*
+     * Submits from several producers through a small ring, so that the
+     * producers wrap around it many times, and checks that both downstream
+     * consumers saw every sequence once and in order and that no quantity was
+     * lost or double filled.
+     */
+    private void submitConcurrently(WaitStrategy waitStrategy) throws Exception {
+        int numberOfThreads = 4;
+        int submissionsPerThread = 250;
+        RecordingHandler journal = new RecordingHandler();
+        RecordingHandler publisher = new RecordingHandler();
+        ExecutorService gateways = Executors.newFixedThreadPool(numberOfThreads);
+        try (IngestionPipeline pipeline = new IngestionPipeline(onlineMarket, 16, waitStrategy, journal, publisher)) {
+            pipeline.start();
+            List<Future<?>> submitted = new ArrayList<>();
+            for (int t = 0; t < numberOfThreads; t++) {
+                String trader = "Trader" + t;
+                submitted.add(gateways.submit(() -> {
+                    for (int i = 0; i < submissionsPerThread; i++) {
+                        String itemId = ITEMS[i % ITEMS.length];
+                        BigDecimal price = new BigDecimal(100 + i % 5);
+                        pipeline.addBid(new Bid(itemId, trader, 1 + i % 3, price));
+                        pipeline.addOffer(new Offer(itemId, trader, 1 + i % 4, price));
+                    }
+                }));
+            }
+            for (Future<?> future : submitted) {
+                future.get();
+            }
+        } finally {
+            gateways.shutdown();
+        }
+
+        int submissions = 2 * numberOfThreads * submissionsPerThread;
+        for (RecordingHandler handler : new RecordingHandler[]{journal, publisher}) {
+            assertEquals(submissions, handler.sequences.size());
+            for (int i = 0; i < submissions; i++) {
+                assertEquals(i, handler.sequences.get(i).longValue());
+            }
+        }
+
+        int totalBidQuantity = 0;
+        int totalOfferQuantity = 0;
+        for (int i = 0; i < submissionsPerThread; i++) {
+            totalBidQuantity += numberOfThreads * (1 + i % 3);
+            totalOfferQuantity += numberOfThreads * (1 + i % 4);
+        }
+        int filledQuantity = marketStore.orders().stream().mapToInt(Order::getQuantity).sum();
+        int restingBidQuantity = marketStore.bids().stream().mapToInt(Bid::getQuantity).sum();
+        int restingOfferQuantity = marketStore.offers().stream().mapToInt(Offer::getQuantity).sum();
+
+        assertEquals(totalBidQuantity, filledQuantity + restingBidQuantity);
+        assertEquals(totalOfferQuantity, filledQuantity + restingOfferQuantity);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+    /*
+     * Records the sequences and rejections it sees, as a journal would.
+     */
+    private static class RecordingHandler implements MarketEventHandler {
+
+        private final List<Long> sequences = new ArrayList<>();
+
+        private final List<Exception> rejections = new ArrayList<>();
+
+        @Override
+        public void onEvent(MarketEvent event, long sequence, boolean endOfBatch) {
+            sequences.add(sequence);
+            rejections.add(event.getRejection());
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.journal.Durability;
+import com.naren.solutions.marketplace.journal.MarketJournal;
+import com.naren.solutions.marketplace.process.Market;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that replaying a {@code MarketJournal} rebuilds the store
+ * the journalled market left behind.
+ *
+ * @author Naren Chivukula
+ */
+public class MarketJournalTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketJournalTest.class);
+
+    private static final String[] ITEMS = {"Xbox", "Nintendo", "Café"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        LOG.debug("In setup()...");
+        directory = folder.newFolder("journal").toPath();
+    }
+
+    @Test
+    public void replayRebuildsTheStore() throws IOException {
+        LOG.debug("In replayRebuildsTheStore()");
+
+        try (MarketJournal journal = new MarketJournal(directory, Durability.GROUP)) {
+            trade(new OnlineMarket(marketStore, journal), 0, 300);
+        }
+
+        assertReplayRebuildsTheStore(300);
+    }
+
+    @Test
+    public void batchesAreJournalled() throws IOException {
+        LOG.debug("In batchesAreJournalled()");
+
+        try (MarketJournal journal = new MarketJournal(directory, Durability.GROUP)) {
+            OnlineMarket market = new OnlineMarket(marketStore, journal);
+            market.addOffers(Arrays.asList(new Offer("Xbox", "Rob", 5, new BigDecimal("300")),
+                    new Offer("Xbox", "Jane", 5, new BigDecimal("310.50"))));
+            market.addBids(Arrays.asList(new Bid("Xbox", "James", 7, new BigDecimal("310.50")), null));
+        }
+
+        assertReplayRebuildsTheStore(3);
+    }
+
+    @Test
+    public void reopenedJournalAppendsAfterItsRecords() throws IOException {
+        LOG.debug("In reopenedJournalAppendsAfterItsRecords()");
+
+        try (MarketJournal journal = new MarketJournal(directory, Durability.ASYNC)) {
+            trade(new OnlineMarket(marketStore, journal), 0, 100);
+        }
+        try (MarketJournal journal = new MarketJournal(directory, Durability.ASYNC)) {
+            trade(new OnlineMarket(marketStore, journal), 100, 200);
+        }
+
+        assertReplayRebuildsTheStore(200);
+    }
+
+    @Test
+    public void recordsRollOverToNewSegments() throws IOException {
+        LOG.debug("In recordsRollOverToNewSegments()");
+
+        try (MarketJournal journal = new MarketJournal(directory, Durability.SYNC, 1024)) {
+            trade(new OnlineMarket(marketStore, journal), 0, 100);
+        }
+
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertTrue(segments.count() > 1);
+        }
+        assertReplayRebuildsTheStore(100);
+    }
+
+    @Test
+    public void groupCommitWaitsForMoreSubmissions() throws IOException {
+        LOG.debug("In groupCommitWaitsForMoreSubmissions()");
+
+        CompletableFuture<ExecutionReport> first;
+        CompletableFuture<ExecutionReport> second;
+        try (MarketJournal journal = new MarketJournal(directory, Durability.GROUP,
+                MarketJournal.DEFAULT_SEGMENT_SIZE, TimeUnit.MINUTES.toNanos(1), MarketJournal.DEFAULT_GROUP_COMMIT_BYTES)) {
+            OnlineMarket market = new OnlineMarket(marketStore, journal);
+            first = market.submitOffer(new Offer("Xbox", "Rob", 5, new BigDecimal("300")));
+            second = market.submitBid(new Bid("Xbox", "James", 2, new BigDecimal("300")));
+
+            assertFalse(first.isDone());
+            assertFalse(second.isDone());
+        }
+
+        assertTrue(first.isDone());
+        assertEquals(2, second.join().getFilledQuantity());
+    }
+
+    @Test
+    public void groupCommitForcesOnceEnoughIsCommitted() throws Exception {
+        LOG.debug("In groupCommitForcesOnceEnoughIsCommitted()");
+
+        try (MarketJournal journal = new MarketJournal(directory, Durability.GROUP,
+                MarketJournal.DEFAULT_SEGMENT_SIZE, TimeUnit.MINUTES.toNanos(1), 1)) {
+            OnlineMarket market = new OnlineMarket(marketStore, journal);
+            ExecutionReport report = market.submitBid(new Bid("Xbox", "James", 2, new BigDecimal("300")))
+                    .get(10, TimeUnit.SECONDS);
+
+            assertEquals(2, report.getRestingQuantity());
+        }
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        clearStore();
+        LOG.debug("-----------------------------------");
+    }
+
+    /*
+     * Submits alternating bids and offers spread over a few items and prices,
+     * so that some rest, some fill in part and some fill in full.
+     */
+    private void trade(Market market, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String itemId = ITEMS[i % ITEMS.length];
+            BigDecimal price = new BigDecimal(100 + i % 7).setScale(i % 3);
+            if (i % 2 == 0) {
+                market.addBid(new Bid(itemId, "Buyer" + i % 5, 1 + i % 4, price));
+            } else {
+                market.addOffer(new Offer(itemId, "Seller" + i % 5, 1 + i % 3, price));
+            }
+        }
+    }
+
+    private void assertReplayRebuildsTheStore(int submissions) throws IOException {
+        List<Bid> bids = new ArrayList<>(marketStore.bids());
+        List<Offer> offers = new ArrayList<>(marketStore.offers());
+        List<Order> orders = new ArrayList<>(marketStore.orders());
+        clearStore();
+
+        assertEquals(submissions, MarketJournal.replay(directory, new OnlineMarket(marketStore)));
+
+        assertEquals(bids, new ArrayList<>(marketStore.bids()));
+        assertEquals(offers, new ArrayList<>(marketStore.offers()));
+        assertEquals(orders, new ArrayList<>(marketStore.orders()));
+    }
+
+    private void clearStore() {
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+    }
+
+}
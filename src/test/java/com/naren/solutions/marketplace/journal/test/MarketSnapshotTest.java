@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.journal.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.journal.Durability;
+import com.naren.solutions.marketplace.journal.MarketJournal;
+import com.naren.solutions.marketplace.journal.MarketSnapshot;
+import com.naren.solutions.marketplace.journal.SnapshotWriter;
+import com.naren.solutions.marketplace.process.Market;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that restoring the latest {@code MarketSnapshot} and
+ * replaying the tail of the journal after it rebuilds the store.
+ *
+ * @author Naren Chivukula
+ */
+public class MarketSnapshotTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MarketSnapshotTest.class);
+
+    private static final String[] ITEMS = {"Xbox", "Nintendo", "PlayStation"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private Path journalDirectory;
+
+    private Path snapshotDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        LOG.debug("In setup()...");
+        journalDirectory = folder.newFolder("journal").toPath();
+        snapshotDirectory = folder.newFolder("snapshots").toPath();
+    }
+
+    @Test
+    public void restoreReplaysOnlyTheTail() throws Exception {
+        LOG.debug("In restoreReplaysOnlyTheTail()");
+
+        try (MarketJournal journal = new MarketJournal(journalDirectory, Durability.ASYNC);
+                SnapshotWriter snapshots = new SnapshotWriter(snapshotDirectory, marketStore, Integer.MAX_VALUE)) {
+            OnlineMarket market = new OnlineMarket(marketStore, journal);
+            trade(market, 0, 200);
+            CompletableFuture<Path> snapshot = snapshots.take(journal.position());
+            trade(market, 200, 230);
+            assertNotNull(snapshot.get());
+        }
+
+        assertRestoreRebuildsTheStore(30);
+    }
+
+    @Test
+    public void snapshotsAreTakenPeriodically() throws Exception {
+        LOG.debug("In snapshotsAreTakenPeriodically()");
+
+        try (MarketJournal journal = new MarketJournal(journalDirectory, Durability.ASYNC);
+                SnapshotWriter snapshots = new SnapshotWriter(snapshotDirectory, marketStore, 40)) {
+            journal.setSnapshotWriter(snapshots);
+            trade(new OnlineMarket(marketStore, journal), 0, 250);
+        }
+
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            long count = files.count();
+            assertTrue(count >= 1 && count <= SnapshotWriter.SNAPSHOTS_KEPT);
+        }
+        assertRestoreRebuildsTheStore(-1);
+    }
+
+    @Test
+    public void withoutSnapshotTheWholeJournalIsReplayed() throws Exception {
+        LOG.debug("In withoutSnapshotTheWholeJournalIsReplayed()");
+
+        try (MarketJournal journal = new MarketJournal(journalDirectory, Durability.ASYNC)) {
+            trade(new OnlineMarket(marketStore, journal), 0, 50);
+        }
+
+        assertRestoreRebuildsTheStore(50);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotOfAnotherVersionIsRefused() throws Exception {
+        LOG.debug("In snapshotOfAnotherVersionIsRefused()");
+
+        try (MarketJournal journal = new MarketJournal(journalDirectory, Durability.ASYNC);
+                SnapshotWriter snapshots = new SnapshotWriter(snapshotDirectory, marketStore, Integer.MAX_VALUE)) {
+            trade(new OnlineMarket(marketStore, journal), 0, 20);
+            Path snapshot = snapshots.take(journal.position()).get();
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), Integer.BYTES);
+            }
+        }
+        clearStore();
+
+        MarketSnapshot.restore(snapshotDirectory, marketStore);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        clearStore();
+        LOG.debug("-----------------------------------");
+    }
+
+    private void trade(Market market, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String itemId = ITEMS[i % ITEMS.length];
+            BigDecimal price = new BigDecimal(100 + i % 7).setScale(i % 3);
+            if (i % 2 == 0) {
+                market.addBid(new Bid(itemId, "Buyer" + i % 5, 1 + i % 4, price));
+            } else {
+                market.addOffer(new Offer(itemId, "Seller" + i % 5, 1 + i % 3, price));
+            }
+        }
+    }
+
+    /*
+     * Restores the store and checks that it matches the store before, and
+     * that the expected number of submissions was replayed, unless that is
+     * negative.
+     */
+    private void assertRestoreRebuildsTheStore(int tail) throws IOException {
+        List<Bid> bids = new ArrayList<>(marketStore.bids());
+        List<Offer> offers = new ArrayList<>(marketStore.offers());
+        List<Order> orders = new ArrayList<>(marketStore.orders());
+        clearStore();
+
+        long position = MarketSnapshot.restore(snapshotDirectory, marketStore);
+        int replayed = MarketJournal.replay(journalDirectory, new OnlineMarket(marketStore), position);
+
+        if (tail >= 0) {
+            assertEquals(tail, replayed);
+        }
+        assertEquals(bids, new ArrayList<>(marketStore.bids()));
+        assertEquals(offers, new ArrayList<>(marketStore.offers()));
+        assertEquals(orders, new ArrayList<>(marketStore.orders()));
+    }
+
+    private void clearStore() {
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+    }
+
+}
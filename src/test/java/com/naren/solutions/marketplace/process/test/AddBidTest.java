@@ -56,6 +56,13 @@ public class AddBidTest extends OnlineMarketBaseTest {
         onlineMarket.addBid(getInvalidBid());
     }
 
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addBidPricedFinerThanATick() {
+        LOG.debug("In addBidPricedFinerThanATick()");
+
+        onlineMarket.addBid(new Bid("Xbox", "James", 1, new BigDecimal("300.00001")));
+    }
+
     @Test
     public void addBidWhenNoOffersNoBidsNoOrders() {
         LOG.debug("In addBidWhenNoOffersNoBidsNoOrders()");
@@ -56,6 +56,13 @@ public class AddOfferTest extends OnlineMarketBaseTest {
         onlineMarket.addOffer(getInvalidOffer());
     }
 
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addOfferPricedFinerThanATick() {
+        LOG.debug("In addOfferPricedFinerThanATick()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal("300.00001")));
+    }
+
     @Test
     public void addOfferWhenNoOffersNoBidsNoOrders() {
         LOG.debug("In addOfferWhenNoOffersNoBidsNoOrders()");
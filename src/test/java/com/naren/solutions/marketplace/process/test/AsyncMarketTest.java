@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.ExecutionReport.Status;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.process.ShardedMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that submissions through {@code AsyncMarket} are reported
+ * through their futures, completed by the thread which matched them.
+ *
+ * @author Naren Chivukula
+ */
+public class AsyncMarketTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncMarketTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private ShardedMarket shardedMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        shardedMarket = new ShardedMarket(marketStore, 2);
+    }
+
+    @Test
+    public void onlineMarketCompletesOnTheCallersThread() throws Exception {
+        LOG.debug("In onlineMarketCompletesOnTheCallersThread()");
+
+        OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.addOffer(new Offer("PlayStation", "Rob", 2, new BigDecimal("400.0")));
+        CompletableFuture<ExecutionReport> report = onlineMarket.submitBid(getOfferMatchingBid());
+
+        assertTrue(report.isDone());
+        assertEquals(Status.PARTIALLY_FILLED, report.get().getStatus());
+        assertEquals(2, report.get().getFilledQuantity());
+        assertEquals(report.get().getOrders(), marketStore.orders());
+    }
+
+    @Test
+    public void shardCompletesTheReportOnItsThread() throws Exception {
+        LOG.debug("In shardCompletesTheReportOnItsThread()");
+
+        CountDownLatch attached = new CountDownLatch(1);
+        try (ShardedMarket holdingMarket = new ShardedMarket(holdingStore(attached), 2)) {
+            holdingMarket.submitOffer(new Offer("Xbox", "Rob", 5, new BigDecimal("300")));
+            CompletableFuture<String> completion = holdingMarket.submitBid(new Bid("Xbox", "James", 5,
+                    new BigDecimal("300"))).thenApply(report -> {
+                        assertEquals(Status.FILLED, report.getStatus());
+                        return Thread.currentThread().getName();
+                    });
+            attached.countDown();
+            String completingThread = completion.get(5, TimeUnit.SECONDS);
+
+            assertTrue(completingThread.startsWith("market-shard-"));
+            assertEquals(1, holdingMarket.listOrdersByBuyerId("James").size());
+        }
+    }
+
+    @Test
+    public void pipelinedSubmissionsAreMatchedInOrder() throws Exception {
+        LOG.debug("In pipelinedSubmissionsAreMatchedInOrder()");
+
+        List<CompletableFuture<ExecutionReport>> reports = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            reports.add(shardedMarket.submitOffer(new Offer("Nintendo", "Rob", 1, new BigDecimal(100 + i))));
+        }
+        CompletableFuture<ExecutionReport> sweep = shardedMarket.submitBid(
+                new Bid("Nintendo", "James", 10, new BigDecimal("200")));
+
+        for (CompletableFuture<ExecutionReport> report : reports) {
+            assertEquals(Status.RESTED, report.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        List<Order> orders = sweep.get(5, TimeUnit.SECONDS).getOrders();
+        assertEquals(10, orders.size());
+        assertEquals(new BigDecimal(100), orders.get(0).getPricePerUnit());
+        assertEquals(new BigDecimal(109), orders.get(9).getPricePerUnit());
+    }
+
+    @Test
+    public void invalidSubmissionCompletesExceptionally() throws Exception {
+        LOG.debug("In invalidSubmissionCompletesExceptionally()");
+
+        try {
+            shardedMarket.submitBid(getInvalidBid()).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof InvalidMarketplaceEntityException);
+            return;
+        }
+        throw new AssertionError("Invalid bid was accepted");
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        shardedMarket.close();
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+    /*
+     * Returns a view of the test store which holds a shard thread reading the
+     * offers until the latch is released, so the submissions queued behind it
+     * are completed only after their callbacks were attached.
+     */
+    private MarketPlaceStore holdingStore(CountDownLatch released) {
+        return new MarketPlaceStore() {
+
+            @Override
+            public List<Bid> bids() {
+                return marketStore.bids();
+            }
+
+            @Override
+            public List<Offer> offers() {
+                if (Thread.currentThread().getName().startsWith("market-shard-")) {
+                    try {
+                        released.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return marketStore.offers();
+            }
+
+            @Override
+            public List<Order> orders() {
+                return marketStore.orders();
+            }
+
+            @Override
+            public List<Bid> bidsByBuyerId(String buyerId) {
+                return marketStore.bidsByBuyerId(buyerId);
+            }
+
+            @Override
+            public List<Offer> offersBySellerId(String sellerId) {
+                return marketStore.offersBySellerId(sellerId);
+            }
+
+            @Override
+            public List<Order> ordersByBuyerId(String buyerId) {
+                return marketStore.ordersByBuyerId(buyerId);
+            }
+
+            @Override
+            public List<Order> ordersBySellerId(String sellerId) {
+                return marketStore.ordersBySellerId(sellerId);
+            }
+
+            @Override
+            public boolean copiesOrders() {
+                return marketStore.copiesOrders();
+            }
+        };
+    }
+
+}
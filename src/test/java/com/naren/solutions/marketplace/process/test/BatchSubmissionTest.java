@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport;
+import com.naren.solutions.marketplace.dom.ExecutionReport.Status;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.process.ShardedMarket;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that batches submitted through {@code addBids} and
+ * {@code addOffers} match exactly as the same entities submitted one by one,
+ * and that every entry gets its own report in the order it was submitted.
+ *
+ * @author Naren Chivukula
+ */
+public class BatchSubmissionTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchSubmissionTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private OnlineMarket onlineMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        onlineMarket = new OnlineMarket(marketStore);
+    }
+
+    @Test
+    public void eachBidIsReportedInSubmissionOrder() {
+        LOG.debug("In eachBidIsReportedInSubmissionOrder()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Rob", 5, new BigDecimal("300")));
+        onlineMarket.addOffer(new Offer("Nintendo", "Rob", 2, new BigDecimal("150")));
+
+        Bid partiallyFilled = new Bid("Nintendo", "James", 3, new BigDecimal("150"));
+        Bid invalid = getInvalidBid();
+        Bid filled = new Bid("Xbox", "Alice", 4, new BigDecimal("310"));
+        Bid rested = new Bid("Xbox", "Alice", 2, new BigDecimal("250"));
+        List<ExecutionReport> reports = onlineMarket.addBids(Arrays.asList(partiallyFilled, invalid, filled, rested));
+
+        assertEquals(4, reports.size());
+        assertSame(partiallyFilled, reports.get(0).getEntity());
+        assertEquals(Status.PARTIALLY_FILLED, reports.get(0).getStatus());
+        assertEquals(2, reports.get(0).getFilledQuantity());
+        assertEquals(1, reports.get(0).getRestingQuantity());
+        assertEquals(Status.REJECTED, reports.get(1).getStatus());
+        assertTrue(reports.get(1).getRejectionReason().startsWith("Invalid Bid entered"));
+        assertEquals(Status.FILLED, reports.get(2).getStatus());
+        assertEquals(new BigDecimal("300"), reports.get(2).getOrders().get(0).getPricePerUnit());
+        assertEquals(Status.RESTED, reports.get(3).getStatus());
+
+        assertEquals(2, marketStore.orders().size());
+        assertEquals(2, marketStore.bids().size());
+        assertEquals(1, marketStore.offers().size());
+        assertEquals(new BigDecimal("150"), onlineMarket.getCurrentBidPricePerUnit("Nintendo").get());
+        assertEquals(new BigDecimal("250"), onlineMarket.getCurrentBidPricePerUnit("Xbox").get());
+    }
+
+    @Test
+    public void laterOffersInABatchMatchEarlierOnes() {
+        LOG.debug("In laterOffersInABatchMatchEarlierOnes()");
+
+        onlineMarket.addBid(new Bid("PlayStation", "James", 3, new BigDecimal("400")));
+
+        List<ExecutionReport> reports = onlineMarket.addOffers(Arrays.asList(
+                new Offer("PlayStation", "Rob", 1, new BigDecimal("390")),
+                new Offer("PlayStation", "Rob", 4, new BigDecimal("400")),
+                new Offer("PlayStation", "Jane", 1, new BigDecimal("420"))));
+
+        assertEquals(Status.FILLED, reports.get(0).getStatus());
+        assertEquals(Status.PARTIALLY_FILLED, reports.get(1).getStatus());
+        assertEquals(2, reports.get(1).getFilledQuantity());
+        assertEquals(Status.RESTED, reports.get(2).getStatus());
+        assertEquals(3, onlineMarket.listOrdersByBuyerId("James").stream().mapToInt(o -> o.getQuantity()).sum());
+        assertEquals(0, marketStore.bids().size());
+        assertEquals(2, marketStore.offers().size());
+        assertEquals(new BigDecimal("400"), onlineMarket.getCurrentOfferPricePerUnit("PlayStation").get());
+    }
+
+    @Test
+    public void shardedBatchKeepsSubmissionOrder() {
+        LOG.debug("In shardedBatchKeepsSubmissionOrder()");
+
+        try (ShardedMarket shardedMarket = new ShardedMarket(marketStore, 3)) {
+            String[] items = {"Xbox", "Nintendo", "PlayStation", "Cardigan", "Trousers"};
+            Offer[] offers = new Offer[items.length];
+            for (int i = 0; i < items.length; i++) {
+                offers[i] = new Offer(items[i], "Rob", 1, new BigDecimal("100"));
+            }
+            List<ExecutionReport> rested = shardedMarket.addOffers(Arrays.asList(offers));
+            Bid[] bids = new Bid[items.length];
+            for (int i = 0; i < items.length; i++) {
+                bids[i] = new Bid(items[items.length - 1 - i], "James", 2, new BigDecimal("100"));
+            }
+            List<ExecutionReport> matched = shardedMarket.addBids(Arrays.asList(bids));
+
+            for (int i = 0; i < items.length; i++) {
+                assertSame(offers[i], rested.get(i).getEntity());
+                assertEquals(Status.RESTED, rested.get(i).getStatus());
+                assertSame(bids[i], matched.get(i).getEntity());
+                assertEquals(Status.PARTIALLY_FILLED, matched.get(i).getStatus());
+            }
+            assertEquals(items.length, marketStore.orders().size());
+            assertEquals(items.length, marketStore.bids().size());
+        }
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
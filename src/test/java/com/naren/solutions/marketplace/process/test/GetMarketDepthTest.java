@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.DepthLevel;
+import com.naren.solutions.marketplace.dom.MarketDepth;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.process.ShardedMarket;
+import java.math.BigDecimal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests possible test cases for getMarketDepth() of
+ * {@code OnlineMarket} and {@code ShardedMarket}.
+ *
+ * @author Naren Chivukula
+ */
+public class GetMarketDepthTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GetMarketDepthTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private OnlineMarket onlineMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        onlineMarket = new OnlineMarket(marketStore);
+    }
+
+    @Test
+    public void levelsAreAggregatedBestPriceFirst() {
+        LOG.debug("In levelsAreAggregatedBestPriceFirst()");
+
+        for (int i = 0; i < 12; i++) {
+            onlineMarket.addBid(new Bid("Xbox", "Buyer" + i, 1 + i, new BigDecimal(200 + i % 4)));
+            onlineMarket.addOffer(new Offer("Xbox", "Seller" + i, 2, new BigDecimal(300 + i % 3)));
+        }
+
+        MarketDepth depth = onlineMarket.getMarketDepth("Xbox", 2);
+
+        assertEquals(2, depth.getBids().size());
+        DepthLevel bestBid = depth.getBids().get(0);
+        assertEquals(new BigDecimal(203), bestBid.getPricePerUnit());
+        assertEquals(4 + 8 + 12, bestBid.getQuantity());
+        assertEquals(3, bestBid.getOrderCount());
+        assertEquals(new BigDecimal(202), depth.getBids().get(1).getPricePerUnit());
+        assertEquals(2, depth.getOffers().size());
+        assertEquals(new BigDecimal(300), depth.getOffers().get(0).getPricePerUnit());
+        assertEquals(8, depth.getOffers().get(0).getQuantity());
+        assertEquals(3, onlineMarket.getMarketDepth("Xbox", 10).getOffers().size());
+    }
+
+    @Test
+    public void fillsAreReflectedInTheLevels() {
+        LOG.debug("In fillsAreReflectedInTheLevels()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 5, new BigDecimal("300")));
+        onlineMarket.addOffer(new Offer("Xbox", "Claire", 5, new BigDecimal("300")));
+        onlineMarket.addBid(new Bid("Xbox", "James", 7, new BigDecimal("300")));
+
+        MarketDepth depth = onlineMarket.getMarketDepth("Xbox", 5);
+
+        assertTrue(depth.getBids().isEmpty());
+        assertEquals(3, depth.getOffers().get(0).getQuantity());
+        assertEquals(1, depth.getOffers().get(0).getOrderCount());
+        assertTrue(onlineMarket.getMarketDepth("Nintendo", 5).getOffers().isEmpty());
+    }
+
+    @Test
+    public void shardReadsTheDepthOfItsItems() {
+        LOG.debug("In shardReadsTheDepthOfItsItems()");
+
+        try (ShardedMarket shardedMarket = new ShardedMarket(marketStore, 3)) {
+            shardedMarket.addBid(new Bid("Xbox", "James", 2, new BigDecimal("250")));
+            shardedMarket.addBid(new Bid("Playstation", "James", 4, new BigDecimal("150")));
+
+            assertEquals(2, shardedMarket.getMarketDepth("Xbox", 1).getBids().get(0).getQuantity());
+            assertEquals(4, shardedMarket.getMarketDepth("Playstation", 1).getBids().get(0).getQuantity());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noLevelsAreRejected() {
+        LOG.debug("In noLevelsAreRejected()");
+
+        onlineMarket.getMarketDepth("Xbox", 0);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
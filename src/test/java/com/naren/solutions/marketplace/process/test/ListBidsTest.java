@@ -7,42 +7,35 @@ package com.naren.solutions.marketplace.process.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.mockito.Mockito.when;
 
 import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
 import com.naren.solutions.marketplace.dom.Bid;
 import com.naren.solutions.marketplace.process.OnlineMarket;
 import java.util.List;
 import org.junit.After;
 import org.junit.Before;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.runners.MockitoJUnitRunner;
 
 /**
  * This class tests possible test cases for listBids() of {@code OnlineMarket}.
  *
  * @author Naren Chivukula
  */
-@RunWith(MockitoJUnitRunner.class)
 public class ListBidsTest extends OnlineMarketBaseTest {
 
     private static final Logger LOG = LoggerFactory.getLogger(ListBidsTest.class);
 
-    @Mock
-    private MarketPlaceStore marketStore;
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
 
-    @InjectMocks
     private final OnlineMarket onlineMarket = new OnlineMarket();
 
     @Before
     public void setup() {
         LOG.debug("In setup()...");
-        when(marketStore.bids()).thenReturn(getDummyBids());
+        marketStore.bids().addAll(getDummyBids());
     }
 
     @Test
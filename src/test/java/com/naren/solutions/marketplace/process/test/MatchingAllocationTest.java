@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ch.qos.logback.classic.Level;
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.OffHeapMarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that matching over a store which copies its orders does
+ * not allocate per matched order once it has warmed up. The only heap kept
+ * per order is its entries in the buyer and seller indexes, four bytes each,
+ * well below the size of an {@code Order}.
+ *
+ * @author Naren Chivukula
+ */
+public class MatchingAllocationTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MatchingAllocationTest.class);
+
+    private static final int FILLS_PER_SWEEP = 1000;
+
+    private final MarketPlaceStore marketStore = OffHeapMarketPlaceStoreCache.createInstance();
+
+    private final OnlineMarket onlineMarket = new OnlineMarket(marketStore);
+
+    private ch.qos.logback.classic.Logger marketLogger;
+
+    private Level marketLogLevel;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        marketLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(OnlineMarket.class);
+        marketLogLevel = marketLogger.getLevel();
+        marketLogger.setLevel(Level.INFO);
+    }
+
+    @Test
+    public void sweepDoesNotAllocatePerMatchedOrder() {
+        LOG.debug("In sweepDoesNotAllocatePerMatchedOrder()");
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        for (int warmUp = 0; warmUp < 200; warmUp++) {
+            sweep(restOffers());
+        }
+        long allocated = 0;
+        int sweeps = 50;
+        for (int i = 0; i < sweeps; i++) {
+            Bid bid = restOffers();
+            long before = allocations.getThreadAllocatedBytes(thread);
+            sweep(bid);
+            allocated += allocations.getThreadAllocatedBytes(thread) - before;
+        }
+
+        long bytesPerOrder = allocated / (sweeps * FILLS_PER_SWEEP);
+        LOG.debug("Allocated {} bytes per matched order", bytesPerOrder);
+        assertEquals((200 + sweeps) * FILLS_PER_SWEEP, marketStore.orders().size());
+        assertTrue("Allocated " + bytesPerOrder + " bytes per matched order", bytesPerOrder < 24);
+    }
+
+    /*
+     * Rests offers of one unit each on a few price levels, returning the bid
+     * which fills them all.
+     */
+    private Bid restOffers() {
+        List<Offer> offers = new ArrayList<>(FILLS_PER_SWEEP);
+        for (int i = 0; i < FILLS_PER_SWEEP; i++) {
+            offers.add(new Offer("Xbox", "Seller" + i % 10, 1, new BigDecimal(300 + i % 5)));
+        }
+        offers.forEach(onlineMarket::addOffer);
+        return new Bid("Xbox", "James", FILLS_PER_SWEEP, new BigDecimal("305"));
+    }
+
+    private void sweep(Bid bid) {
+        onlineMarket.addBid(bid);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketLogger.setLevel(marketLogLevel);
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
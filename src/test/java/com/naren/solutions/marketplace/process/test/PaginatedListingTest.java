@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.Page;
+import com.naren.solutions.marketplace.process.Market;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests the streaming and paginated listings of
+ * {@code OnlineMarket}.
+ *
+ * @author Naren Chivukula
+ */
+public class PaginatedListingTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PaginatedListingTest.class);
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final OnlineMarket onlineMarket = new OnlineMarket();
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        marketStore.bids().addAll(getDummyBids());
+        marketStore.orders().addAll(getDummyOrders());
+    }
+
+    @Test
+    public void pagesListEveryOrderOnce() {
+        LOG.debug("In pagesListEveryOrderOnce()");
+
+        List<Order> listed = new ArrayList<>();
+        Page<Order> page = onlineMarket.listOrdersByBuyerId("James", 1, null);
+        listed.addAll(page.getEntries());
+        assertTrue(page.hasMore());
+        page = onlineMarket.listOrdersByBuyerId("James", 1, page.getContinuationToken());
+        listed.addAll(page.getEntries());
+
+        assertFalse(page.hasMore());
+        assertNull(page.getContinuationToken());
+        assertEquals(onlineMarket.listOrdersByBuyerId("James"), listed);
+    }
+
+    @Test
+    public void pagesDoNotShiftWhenBidsAreFilled() {
+        LOG.debug("In pagesDoNotShiftWhenBidsAreFilled()");
+
+        List<Bid> bids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bids.add(new Bid("Item" + i, "Stuart", 1 + i, new BigDecimal("10.0")));
+        }
+        marketStore.bids().addAll(bids);
+
+        Page<Bid> first = onlineMarket.listBids("Stuart", 4, null);
+        assertEquals(bids.subList(0, 4), first.getEntries());
+        marketStore.bids().remove(bids.get(1));
+        marketStore.bids().remove(bids.get(4));
+        Page<Bid> second = onlineMarket.listBids("Stuart", 4, first.getContinuationToken());
+
+        assertEquals(bids.subList(5, 9), second.getEntries());
+        Page<Bid> last = onlineMarket.listBids("Stuart", 4, second.getContinuationToken());
+        assertEquals(bids.subList(9, 10), last.getEntries());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    public void pagesResumeAcrossRemovedChunks() {
+        LOG.debug("In pagesResumeAcrossRemovedChunks()");
+
+        List<Bid> bids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bids.add(new Bid("Item" + i, "Stuart", 1, new BigDecimal("10.0")));
+        }
+        marketStore.bids().addAll(bids);
+
+        Page<Bid> first = onlineMarket.listBids("Stuart", 10, null);
+        bids.subList(10, 900).forEach(marketStore.bids()::remove);
+        Page<Bid> second = onlineMarket.listBids("Stuart", 10, first.getContinuationToken());
+        assertEquals(bids.subList(900, 910), second.getEntries());
+
+        List<Bid> rest = new ArrayList<>();
+        Page<Bid> page = second;
+        while (page.hasMore()) {
+            page = onlineMarket.listBids("Stuart", 10, page.getContinuationToken());
+            rest.addAll(page.getEntries());
+        }
+        assertEquals(bids.subList(910, 1000), rest);
+    }
+
+    @Test
+    public void streamsAreReadLazily() {
+        LOG.debug("In streamsAreReadLazily()");
+
+        assertEquals(2, onlineMarket.streamBids("Claire").count());
+        assertEquals("Mark", onlineMarket.streamOrdersByBuyerId("James").findFirst().get().getSellerId());
+        assertEquals(onlineMarket.listOrdersBySellerId("Mark"),
+                onlineMarket.streamOrdersBySellerId("Mark").collect(Collectors.toList()));
+        assertEquals(0, onlineMarket.streamOffers(null).count());
+    }
+
+    @Test
+    public void defaultPagesAreCutOutOfTheList() {
+        LOG.debug("In defaultPagesAreCutOutOfTheList()");
+
+        Market market = new ListingMarket(onlineMarket);
+        List<Order> listed = new ArrayList<>();
+        Page<Order> page = market.listOrdersBySellerId("Mark", 1, null);
+        while (page.hasMore()) {
+            listed.addAll(page.getEntries());
+            page = market.listOrdersBySellerId("Mark", 1, page.getContinuationToken());
+        }
+        listed.addAll(page.getEntries());
+
+        assertEquals(onlineMarket.listOrdersBySellerId("Mark"), listed);
+        assertEquals(onlineMarket.listBids("Claire"), market.listBids("Claire", 10, null).getEntries());
+        assertEquals(2, market.streamBids("Claire").count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedTokenIsRejected() {
+        LOG.debug("In malformedTokenIsRejected()");
+
+        onlineMarket.listBids("Claire", 10, "not a token");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPageIsRejected() {
+        LOG.debug("In emptyPageIsRejected()");
+
+        onlineMarket.listOrdersBySellerId("Mark", 0, null);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+    /*
+     * A market implementing only the primitive listings, so that its streams
+     * and pages are the default ones of Market.
+     */
+    private static class ListingMarket implements Market {
+
+        private final Market market;
+
+        ListingMarket(Market market) {
+            this.market = market;
+        }
+
+        @Override
+        public void addBid(Bid bid) {
+            market.addBid(bid);
+        }
+
+        @Override
+        public void addOffer(Offer offer) {
+            market.addOffer(offer);
+        }
+
+        @Override
+        public List<Bid> listBids(String buyerId) {
+            return market.listBids(buyerId);
+        }
+
+        @Override
+        public List<Offer> listOffers(String sellerId) {
+            return market.listOffers(sellerId);
+        }
+
+        @Override
+        public List<Order> listOrdersBySellerId(String sellerId) {
+            return market.listOrdersBySellerId(sellerId);
+        }
+
+        @Override
+        public List<Order> listOrdersByBuyerId(String buyerId) {
+            return market.listOrdersByBuyerId(buyerId);
+        }
+
+        @Override
+        public Optional<BigDecimal> getCurrentBidPricePerUnit(String itemId) {
+            return market.getCurrentBidPricePerUnit(itemId);
+        }
+
+        @Override
+        public Optional<BigDecimal> getCurrentOfferPricePerUnit(String itemId) {
+            return market.getCurrentOfferPricePerUnit(itemId);
+        }
+
+    }
+
+}
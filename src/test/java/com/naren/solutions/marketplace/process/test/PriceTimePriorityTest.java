@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code OnlineMarket} matches resting bids and offers
+ * in price-time priority.
+ *
+ * @author Naren Chivukula
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PriceTimePriorityTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceTimePriorityTest.class);
+
+    @Mock
+    private MarketPlaceStore marketStore;
+
+    @InjectMocks
+    private final OnlineMarket onlineMarket = new OnlineMarket();
+
+    private List<Bid> bids;
+
+    private List<Offer> offers;
+
+    private List<Order> orders;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        bids = getEmptyBids();
+        offers = getEmptyOffers();
+        orders = getEmptyOrders();
+        when(marketStore.bids()).thenReturn(bids);
+        when(marketStore.offers()).thenReturn(offers);
+        when(marketStore.orders()).thenReturn(orders);
+    }
+
+    @Test
+    public void bidMatchesLowestOfferFirst() {
+        LOG.debug("In bidMatchesLowestOfferFirst()");
+
+        onlineMarket.addOffer(new Offer("Nintendo", "James", 5, new BigDecimal("105.0")));
+        onlineMarket.addOffer(new Offer("Nintendo", "Rob", 5, new BigDecimal("100.0")));
+
+        onlineMarket.addBid(new Bid("Nintendo", "Mary", 5, new BigDecimal("110.0")));
+
+        assertEquals(1, orders.size());
+        assertEquals("Rob", orders.get(0).getSellerId());
+        assertEquals(new BigDecimal("100.0"), orders.get(0).getPricePerUnit());
+        assertEquals(1, offers.size());
+        assertEquals("James", offers.get(0).getSellerId());
+    }
+
+    @Test
+    public void offerMatchesHighestBidFirst() {
+        LOG.debug("In offerMatchesHighestBidFirst()");
+
+        onlineMarket.addBid(new Bid("Xbox", "James", 2, new BigDecimal("250.0")));
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 2, new BigDecimal("200.0")));
+
+        assertEquals(1, orders.size());
+        assertEquals("Rob", orders.get(0).getBuyerId());
+        assertEquals(1, bids.size());
+        assertEquals("James", bids.get(0).getBuyerId());
+    }
+
+    @Test
+    public void earlierOfferMatchesFirstAtSamePrice() {
+        LOG.debug("In earlierOfferMatchesFirstAtSamePrice()");
+
+        onlineMarket.addOffer(new Offer("Cardigan", "Mary", 2, new BigDecimal("49.99")));
+        onlineMarket.addOffer(new Offer("Cardigan", "Claire", 2, new BigDecimal("49.99")));
+
+        onlineMarket.addBid(new Bid("Cardigan", "Rob", 2, new BigDecimal("49.99")));
+
+        assertEquals(1, orders.size());
+        assertEquals("Mary", orders.get(0).getSellerId());
+        assertEquals("Claire", offers.get(0).getSellerId());
+    }
+
+    @Test
+    public void restingEntriesInTheStoreAreMatched() {
+        LOG.debug("In restingEntriesInTheStoreAreMatched()");
+
+        offers.addAll(getDummyOffers());
+
+        onlineMarket.addBid(new Bid("Nintendo", "Mary", 10, new BigDecimal("105.0")));
+
+        assertEquals(1, orders.size());
+        assertEquals("Rob", orders.get(0).getSellerId());
+        assertEquals(10, offers.get(1).getQuantity());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
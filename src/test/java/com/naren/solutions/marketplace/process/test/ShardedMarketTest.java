@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.ExecutionReport.Status;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.dom.SymbolTable;
+import com.naren.solutions.marketplace.exception.InvalidMarketplaceEntityException;
+import com.naren.solutions.marketplace.process.ShardedMarket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code ShardedMarket} matches items on their shards
+ * without losing or double filling any quantity.
+ *
+ * @author Naren Chivukula
+ */
+public class ShardedMarketTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedMarketTest.class);
+
+    private static final String[] ITEMS = {"Xbox", "Nintendo", "PlayStation", "Cardigan", "Trousers"};
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final ShardedMarket shardedMarket = new ShardedMarket(marketStore, 3);
+
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addAnInvalidBid() {
+        LOG.debug("In addAnInvalidBid()");
+
+        shardedMarket.addBid(getInvalidBid());
+    }
+
+    @Test(expected = InvalidMarketplaceEntityException.class)
+    public void addANullOffer() {
+        LOG.debug("In addANullOffer()");
+
+        shardedMarket.addOffer(null);
+    }
+
+    @Test
+    public void bidMatchesOfferOnItsShard() {
+        LOG.debug("In bidMatchesOfferOnItsShard()");
+
+        shardedMarket.addOffer(new Offer("PlayStation", "Rob", 3, new BigDecimal("400.0")));
+        shardedMarket.addBid(getOfferMatchingBid());
+
+        assertEquals(1, shardedMarket.listOrdersByBuyerId("James").size());
+        assertEquals(1, shardedMarket.listOrdersBySellerId("Rob").size());
+        assertFalse(shardedMarket.getCurrentOfferPricePerUnit("PlayStation").isPresent());
+    }
+
+    @Test
+    public void concurrentSubmissionsConserveQuantity() throws Exception {
+        LOG.debug("In concurrentSubmissionsConserveQuantity()");
+
+        int numberOfThreads = 4;
+        int submissionsPerThread = 200;
+        ExecutorService gateways = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<?>> submitted = new ArrayList<>();
+            for (int t = 0; t < numberOfThreads; t++) {
+                String trader = "Trader" + t;
+                submitted.add(gateways.submit(() -> {
+                    for (int i = 0; i < submissionsPerThread; i++) {
+                        String itemId = ITEMS[i % ITEMS.length];
+                        BigDecimal price = new BigDecimal(100 + i % 7);
+                        shardedMarket.addBid(new Bid(itemId, trader, 1 + i % 3, price));
+                        shardedMarket.addOffer(new Offer(itemId, trader, 1 + i % 4, price));
+                    }
+                }));
+            }
+            for (Future<?> future : submitted) {
+                future.get();
+            }
+        } finally {
+            gateways.shutdown();
+        }
+
+        int totalBidQuantity = 0;
+        int totalOfferQuantity = 0;
+        for (int i = 0; i < submissionsPerThread; i++) {
+            totalBidQuantity += numberOfThreads * (1 + i % 3);
+            totalOfferQuantity += numberOfThreads * (1 + i % 4);
+        }
+        int filledQuantity = marketStore.orders().stream().mapToInt(Order::getQuantity).sum();
+        int restingBidQuantity = marketStore.bids().stream().mapToInt(Bid::getQuantity).sum();
+        int restingOfferQuantity = marketStore.offers().stream().mapToInt(Offer::getQuantity).sum();
+
+        assertEquals(totalBidQuantity, filledQuantity + restingBidQuantity);
+        assertEquals(totalOfferQuantity, filledQuantity + restingOfferQuantity);
+        for (String itemId : ITEMS) {
+            if (shardedMarket.getCurrentBidPricePerUnit(itemId).isPresent()
+                    && shardedMarket.getCurrentOfferPricePerUnit(itemId).isPresent()) {
+                assertEquals(-1, shardedMarket.getCurrentBidPricePerUnit(itemId).get()
+                        .compareTo(shardedMarket.getCurrentOfferPricePerUnit(itemId).get()));
+            }
+        }
+    }
+
+    @Test
+    public void rejectedBidLeavesNoSymbolBehind() {
+        LOG.debug("In rejectedBidLeavesNoSymbolBehind()");
+
+        Bid bid = new Bid("Unlisted Console", "James", 0, new BigDecimal("300.0"));
+
+        assertEquals(Status.REJECTED, shardedMarket.addBids(Collections.singletonList(bid)).get(0).getStatus());
+        assertEquals(SymbolTable.NULL, SymbolTable.ITEMS.find("Unlisted Console"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedMarketRefusesBids() {
+        LOG.debug("In closedMarketRefusesBids()");
+
+        shardedMarket.close();
+        shardedMarket.addBid(new Bid("Xbox", "James", 1, new BigDecimal("300.0")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedMarketRefusesDepthQueries() {
+        LOG.debug("In closedMarketRefusesDepthQueries()");
+
+        shardedMarket.close();
+        shardedMarket.getMarketDepth("Xbox", 1);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        shardedMarket.close();
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that a bid or offer of {@code OnlineMarket} sweeps the
+ * opposite side, level by level, until it is filled or no longer crosses.
+ *
+ * @author Naren Chivukula
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SweepMatchingTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SweepMatchingTest.class);
+
+    @Mock
+    private MarketPlaceStore marketStore;
+
+    @InjectMocks
+    private final OnlineMarket onlineMarket = new OnlineMarket();
+
+    private List<Bid> bids;
+
+    private List<Offer> offers;
+
+    private List<Order> orders;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        bids = getEmptyBids();
+        offers = getEmptyOffers();
+        orders = getEmptyOrders();
+        when(marketStore.bids()).thenReturn(bids);
+        when(marketStore.offers()).thenReturn(offers);
+        when(marketStore.orders()).thenReturn(orders);
+    }
+
+    @Test
+    public void bidFillsAcrossSeveralPartialOffers() {
+        LOG.debug("In bidFillsAcrossSeveralPartialOffers()");
+
+        for (int i = 0; i < 10; i++) {
+            onlineMarket.addOffer(new Offer("Nintendo", "Seller" + i, 10, new BigDecimal(100 + i)));
+        }
+
+        Bid bid = new Bid("Nintendo", "Mary", 100, new BigDecimal("110"));
+        onlineMarket.addBid(bid);
+
+        assertEquals(10, orders.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Seller" + i, orders.get(i).getSellerId());
+            assertEquals(10, orders.get(i).getQuantity());
+            assertEquals(new BigDecimal(100 + i), orders.get(i).getPricePerUnit());
+        }
+        assertEquals(0, offers.size());
+        assertEquals(0, bids.size());
+        assertEquals(100, bid.getQuantity());
+    }
+
+    @Test
+    public void bidStopsSweepingAtItsPrice() {
+        LOG.debug("In bidStopsSweepingAtItsPrice()");
+
+        onlineMarket.addOffer(new Offer("Nintendo", "Rob", 10, new BigDecimal("99.99")));
+        onlineMarket.addOffer(new Offer("Nintendo", "Stuart", 15, new BigDecimal("102.99")));
+        onlineMarket.addOffer(new Offer("Nintendo", "James", 10, new BigDecimal("109.99")));
+
+        Bid bid = new Bid("Nintendo", "Mary", 30, new BigDecimal("105"));
+        onlineMarket.addBid(bid);
+
+        assertEquals(2, orders.size());
+        assertEquals(25, orders.get(0).getQuantity() + orders.get(1).getQuantity());
+        assertEquals(1, offers.size());
+        assertEquals(1, bids.size());
+        assertEquals(5, bids.get(0).getQuantity());
+        assertEquals(new BigDecimal("105"), onlineMarket.getCurrentBidPricePerUnit("Nintendo").get());
+        assertEquals(new BigDecimal("109.99"), onlineMarket.getCurrentOfferPricePerUnit("Nintendo").get());
+    }
+
+    @Test
+    public void bidPartlyFillsLastOffer() {
+        LOG.debug("In bidPartlyFillsLastOffer()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Rob", 2, new BigDecimal("250.0")));
+        onlineMarket.addOffer(new Offer("Xbox", "James", 5, new BigDecimal("300.0")));
+
+        onlineMarket.addBid(new Bid("Xbox", "Mary", 4, new BigDecimal("300.0")));
+
+        assertEquals(2, orders.size());
+        assertEquals(new BigDecimal("250.0"), orders.get(0).getPricePerUnit());
+        assertEquals(2, orders.get(1).getQuantity());
+        assertEquals(1, offers.size());
+        assertEquals(3, offers.get(0).getQuantity());
+        assertEquals(0, bids.size());
+    }
+
+    @Test
+    public void offerFillsThousandsOfBidsInOnePass() {
+        LOG.debug("In offerFillsThousandsOfBidsInOnePass()");
+
+        int numberOfBids = 5000;
+        for (int i = 0; i < numberOfBids; i++) {
+            bids.add(new Bid("Xbox", "Buyer" + i, 1, new BigDecimal(300 - i % 50)));
+        }
+
+        Offer offer = new Offer("Xbox", "James", numberOfBids + 5, new BigDecimal("200.0"));
+        onlineMarket.addOffer(offer);
+
+        assertEquals(numberOfBids, orders.size());
+        assertEquals("Buyer0", orders.get(0).getBuyerId());
+        assertEquals("Buyer50", orders.get(1).getBuyerId());
+        assertEquals(offer.getPricePerUnit(), orders.get(numberOfBids - 1).getPricePerUnit());
+        assertEquals(0, bids.size());
+        assertEquals(1, offers.size());
+        assertEquals(5, offer.getQuantity());
+    }
+
+    @Test
+    public void offerLeavesEqualRestingBid() {
+        LOG.debug("In offerLeavesEqualRestingBid()");
+
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+
+        onlineMarket.addOffer(new Offer("Xbox", "James", 3, new BigDecimal("300.0")));
+
+        assertEquals(2, orders.size());
+        assertEquals(1, bids.size());
+        assertEquals(1, bids.get(0).getQuantity());
+        assertEquals(0, offers.size());
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.process.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.when;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that the current bid and offer prices of
+ * {@code OnlineMarket} follow the books as entries are added, filled and
+ * removed.
+ *
+ * @author Naren Chivukula
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TopOfBookTest extends OnlineMarketBaseTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopOfBookTest.class);
+
+    @Mock
+    private MarketPlaceStore marketStore;
+
+    @InjectMocks
+    private final OnlineMarket onlineMarket = new OnlineMarket();
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        when(marketStore.bids()).thenReturn(getEmptyBids());
+        when(marketStore.offers()).thenReturn(getEmptyOffers());
+        when(marketStore.orders()).thenReturn(getEmptyOrders());
+    }
+
+    @Test
+    public void bestBidFollowsAddedBids() {
+        LOG.debug("In bestBidFollowsAddedBids()");
+
+        onlineMarket.addBid(new Bid("Xbox", "James", 2, new BigDecimal("250.0")));
+        assertEquals(new BigDecimal("250.0"), onlineMarket.getCurrentBidPricePerUnit("Xbox").get());
+
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+        assertEquals(new BigDecimal("300.0"), onlineMarket.getCurrentBidPricePerUnit("Xbox").get());
+
+        onlineMarket.addBid(new Bid("Xbox", "Mary", 2, new BigDecimal("200.0")));
+        assertEquals(new BigDecimal("300.0"), onlineMarket.getCurrentBidPricePerUnit("Xbox").get());
+    }
+
+    @Test
+    public void bestOfferMovesWhenFilled() {
+        LOG.debug("In bestOfferMovesWhenFilled()");
+
+        onlineMarket.addOffer(new Offer("Nintendo", "Rob", 20, new BigDecimal("99.99")));
+        onlineMarket.addOffer(new Offer("Nintendo", "James", 10, new BigDecimal("109.99")));
+
+        onlineMarket.addBid(new Bid("Nintendo", "Mary", 5, new BigDecimal("100")));
+        assertEquals(new BigDecimal("99.99"), onlineMarket.getCurrentOfferPricePerUnit("Nintendo").get());
+
+        onlineMarket.addBid(new Bid("Nintendo", "Mary", 15, new BigDecimal("100")));
+        assertEquals(new BigDecimal("109.99"), onlineMarket.getCurrentOfferPricePerUnit("Nintendo").get());
+        assertFalse(onlineMarket.getCurrentBidPricePerUnit("Nintendo").isPresent());
+    }
+
+    @Test
+    public void bestBidClearsWhenLastBidFilled() {
+        LOG.debug("In bestBidClearsWhenLastBidFilled()");
+
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+        onlineMarket.addOffer(new Offer("Xbox", "James", 2, new BigDecimal("300.0")));
+
+        assertFalse(onlineMarket.getCurrentBidPricePerUnit("Xbox").isPresent());
+        assertFalse(onlineMarket.getCurrentOfferPricePerUnit("Xbox").isPresent());
+    }
+
+    @Test
+    public void pricesAreReadableFromOtherThreads() throws Exception {
+        LOG.debug("In pricesAreReadableFromOtherThreads()");
+
+        onlineMarket.addBid(new Bid("Xbox", "Rob", 2, new BigDecimal("300.0")));
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Optional<BigDecimal> currentBid = reader.submit(() -> onlineMarket.getCurrentBidPricePerUnit("Xbox")).get();
+            assertEquals(new BigDecimal("300.0"), currentBid.get());
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016, 2017, Ingenious Systems Limited. All rights reserved.
+ * Use is subject to license terms. A copy of lincense can be obtained from 
+ * the company. 
+ */
+package com.naren.solutions.marketplace.stats.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.naren.solutions.marketplace.cache.MarketPlaceStore;
+import com.naren.solutions.marketplace.cache.MarketPlaceStoreCache;
+import com.naren.solutions.marketplace.dom.Bid;
+import com.naren.solutions.marketplace.dom.Offer;
+import com.naren.solutions.marketplace.dom.Order;
+import com.naren.solutions.marketplace.process.OnlineMarket;
+import com.naren.solutions.marketplace.stats.Candle;
+import com.naren.solutions.marketplace.stats.TradeStatistics;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class tests that {@code TradeStatistics} set on an
+ * {@code OnlineMarket} keep the last price, volume and candles of each item
+ * as the orders are created.
+ *
+ * @author Naren Chivukula
+ */
+public class TradeStatisticsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TradeStatisticsTest.class);
+
+    private static final long SECOND = 1000L;
+
+    private static final long MINUTE = 60_000L;
+
+    private final MarketPlaceStore marketStore = MarketPlaceStoreCache.createInstance();
+
+    private final AtomicLong now = new AtomicLong(10 * MINUTE);
+
+    private final TradeStatistics statistics = new TradeStatistics(now::get, 3, SECOND, MINUTE);
+
+    private OnlineMarket onlineMarket;
+
+    @Before
+    public void setup() {
+        LOG.debug("In setup()...");
+        onlineMarket = new OnlineMarket(marketStore);
+        onlineMarket.setTradeStatistics(statistics);
+    }
+
+    @Test
+    public void candleAggregatesTheOrdersOfItsBucket() {
+        LOG.debug("In candleAggregatesTheOrdersOfItsBucket()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal("300")));
+        onlineMarket.addOffer(new Offer("Xbox", "Claire", 1, new BigDecimal("320")));
+        onlineMarket.addOffer(new Offer("Xbox", "Stuart", 2, new BigDecimal("310")));
+        onlineMarket.addBid(new Bid("Xbox", "James", 4, new BigDecimal("320")));
+
+        Candle candle = statistics.getCandle("Xbox", SECOND).get();
+        assertEquals(0, new BigDecimal("300").compareTo(candle.getOpen()));
+        assertEquals(0, new BigDecimal("320").compareTo(candle.getHigh()));
+        assertEquals(0, new BigDecimal("300").compareTo(candle.getLow()));
+        assertEquals(0, new BigDecimal("320").compareTo(candle.getClose()));
+        assertEquals(0, new BigDecimal("310").compareTo(candle.getVwap()));
+        assertEquals(4, candle.getVolume());
+        assertEquals(3, candle.getTradeCount());
+        assertEquals(0, new BigDecimal("320").compareTo(statistics.getLastPrice("Xbox").get()));
+        assertFalse(statistics.getLastPrice("Playstation").isPresent());
+    }
+
+    @Test
+    public void ringsKeepOnlyTheRecentBuckets() {
+        LOG.debug("In ringsKeepOnlyTheRecentBuckets()");
+
+        for (int i = 0; i < 5; i++) {
+            onlineMarket.addOffer(new Offer("Xbox", "Mark", 1, new BigDecimal(100 + i)));
+            onlineMarket.addBid(new Bid("Xbox", "James", 1, new BigDecimal(100 + i)));
+            now.addAndGet(SECOND);
+        }
+        now.addAndGet(-SECOND);
+
+        List<Candle> seconds = statistics.getCandles("Xbox", SECOND);
+        assertEquals(3, seconds.size());
+        assertEquals(0, new BigDecimal("102").compareTo(seconds.get(0).getOpen()));
+        assertEquals(0, new BigDecimal("104").compareTo(seconds.get(2).getClose()));
+        Candle minute = statistics.getCandle("Xbox", MINUTE).get();
+        assertEquals(5, minute.getVolume());
+        assertEquals(0, new BigDecimal("102").compareTo(minute.getVwap()));
+        assertEquals(5, statistics.getVolume("Xbox"));
+
+        now.addAndGet(MINUTE);
+        assertFalse(statistics.getCandle("Xbox", MINUTE).isPresent());
+        assertEquals(1, statistics.getCandles("Xbox", MINUTE).size());
+    }
+
+    @Test
+    public void vwapIsNotRoundedToAWholeTick() {
+        LOG.debug("In vwapIsNotRoundedToAWholeTick()");
+
+        onlineMarket.addOffer(new Offer("Xbox", "Mark", 2, new BigDecimal("1.0000")));
+        onlineMarket.addOffer(new Offer("Xbox", "Claire", 1, new BigDecimal("1.0001")));
+        onlineMarket.addBid(new Bid("Xbox", "James", 3, new BigDecimal("1.0001")));
+
+        assertEquals(new BigDecimal("1.00003333"), statistics.getCandle("Xbox", SECOND).get().getVwap());
+    }
+
+    @Test
+    public void vwapOfAHugeNotionalDoesNotOverflow() {
+        LOG.debug("In vwapOfAHugeNotionalDoesNotOverflow()");
+
+        BigDecimal price = new BigDecimal("100000000000000");
+        for (int i = 0; i < 3; i++) {
+            statistics.record(new Order("James", "Mark", "Xbox", Integer.MAX_VALUE, price));
+        }
+        statistics.record(new Order("James", "Mark", "Xbox", 1, BigDecimal.ONE));
+
+        Candle candle = statistics.getCandle("Xbox", SECOND).get();
+        BigDecimal notional = price.multiply(BigDecimal.valueOf(3L * Integer.MAX_VALUE)).add(BigDecimal.ONE);
+        assertEquals(notional.divide(BigDecimal.valueOf(candle.getVolume()), TradeStatistics.VWAP_SCALE,
+                RoundingMode.HALF_EVEN), candle.getVwap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownBucketLengthIsRejected() {
+        LOG.debug("In unknownBucketLengthIsRejected()");
+
+        statistics.getCandle("Xbox", 5 * SECOND);
+    }
+
+    @After
+    public void teardown() {
+        LOG.debug("In teardown()...");
+        marketStore.bids().clear();
+        marketStore.offers().clear();
+        marketStore.orders().clear();
+        LOG.debug("-----------------------------------");
+    }
+
+}